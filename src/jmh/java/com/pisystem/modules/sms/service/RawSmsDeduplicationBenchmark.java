@@ -0,0 +1,137 @@
+package com.pisystem.modules.sms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pisystem.modules.sms.data.RawDedupRequest;
+import com.pisystem.modules.sms.data.RawDedupRequest.RawSmsMessage;
+import com.pisystem.modules.sms.data.RawSmsDuplicateResult;
+import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+
+/**
+ * Cost of raw-SMS deduplication: the normalized Levenshtein
+ * {@link RawSmsDeduplicationServiceImpl#similarity} on its own, and a whole
+ * {@code checkBatch} over a device-sized inbox dump.
+ *
+ * <p>Near pairs differ only in their reference number (the typical re-sent
+ * SMS); far pairs are unrelated corpus messages. {@code checkBatch} runs
+ * without a user id, so it measures the in-batch comparisons only.</p>
+ *
+ * <pre>
+ *   ./gradlew jmh -PjmhIncludes=RawSmsDeduplicationBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RawSmsDeduplicationBenchmark {
+
+    @Param({ "500", "2000" })
+    public int batchSize;
+
+    private RawSmsDeduplicationServiceImpl service;
+    private RawDedupRequest request;
+
+    private String[] bodies;
+    private String[] nearBodies;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        service = new RawSmsDeduplicationServiceImpl(SmsCorpus.emptyRepository(SMSTransactionRepository.class));
+
+        List<SmsCorpus.Sms> corpus = SmsCorpus.load();
+        bodies = new String[corpus.size()];
+        nearBodies = new String[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            bodies[i] = normalize(corpus.get(i).body());
+            nearBodies[i] = normalize(retransmitted(corpus.get(i).body(), i));
+        }
+
+        // Inbox dump: corpus repeated with fresh reference numbers, one SMS every 20 s,
+        // with every tenth message re-delivered 5 s later.
+        long timestamp = 1_767_225_600_000L;
+        List<RawSmsMessage> messages = new ArrayList<>(batchSize);
+        for (int i = 0; messages.size() < batchSize; i++) {
+            SmsCorpus.Sms sms = corpus.get(i % corpus.size());
+            String body = retransmitted(sms.body(), i);
+            timestamp += 20_000L;
+            messages.add(new RawSmsMessage("m" + messages.size(), sms.sender(), body, timestamp));
+            if (i % 10 == 0 && messages.size() < batchSize) {
+                messages.add(new RawSmsMessage("m" + messages.size(), sms.sender(), body, timestamp + 5_000L));
+            }
+        }
+        request = new RawDedupRequest(null, messages);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == bodies.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public double similarityNear() {
+        int i = next();
+        return RawSmsDeduplicationServiceImpl.similarity(bodies[i], nearBodies[i]);
+    }
+
+    @Benchmark
+    public double similarityFar() {
+        int i = next();
+        return RawSmsDeduplicationServiceImpl.similarity(bodies[i], bodies[(i + 7) % bodies.length]);
+    }
+
+    /** In-batch rules only ({@code userId == null} skips the database checks). */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<RawSmsDuplicateResult> checkBatchInMemory() {
+        return service.checkBatch(request);
+    }
+
+    /** Rewrite the longest digit run (the reference number) as a re-sent SMS would carry it. */
+    private static String retransmitted(String body, int seed) {
+        int bestStart = -1;
+        int bestLength = 0;
+        for (int i = 0; i < body.length(); ) {
+            int start = i;
+            while (i < body.length() && Character.isDigit(body.charAt(i))) {
+                i++;
+            }
+            if (i - start > bestLength) {
+                bestStart = start;
+                bestLength = i - start;
+            }
+            i = Math.max(i, start + 1);
+        }
+        if (bestStart < 0) {
+            return body + " " + seed;
+        }
+        StringBuilder sb = new StringBuilder(body);
+        for (int i = bestStart; i < bestStart + bestLength; i++) {
+            sb.setCharAt(i, (char) ('0' + (body.charAt(i) - '0' + seed + i) % 10));
+        }
+        return sb.toString();
+    }
+
+    /** Same normalization {@code RawSmsDeduplicationServiceImpl} applies before comparing. */
+    private static String normalize(String s) {
+        return s.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+}
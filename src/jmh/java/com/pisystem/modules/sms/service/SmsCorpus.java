@@ -0,0 +1,94 @@
+package com.pisystem.modules.sms.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.pisystem.modules.sms.repo.SmsRegexPatternRepository;
+
+/**
+ * Anonymized Indian bank SMS corpus shared by the SMS benchmarks, plus the
+ * wiring needed to build the SMS services without a Spring context.
+ */
+final class SmsCorpus {
+
+    static final String RESOURCE = "/sms/indian-bank-sms-corpus.tsv";
+
+    /** One corpus line: sender short code and message body. */
+    record Sms(String sender, String body) {
+    }
+
+    private SmsCorpus() {
+    }
+
+    static List<Sms> load() {
+        List<Sms> corpus = new ArrayList<>();
+        try (InputStream in = SmsCorpus.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Benchmark corpus not found on classpath: " + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                corpus.add(new Sms(line.substring(0, tab), line.substring(tab + 1)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return corpus;
+    }
+
+    /** Registry with no DB overrides, i.e. exactly the code defaults. */
+    static SmsPatternRegistry defaultPatternRegistry() {
+        SmsPatternRegistry registry = new SmsPatternRegistry(emptyRepository(SmsRegexPatternRepository.class));
+        registry.load();
+        return registry;
+    }
+
+    /**
+     * Repository stand-in whose queries all return empty results, so benchmarks
+     * measure the in-memory work rather than a database.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T emptyRepository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> type.getSimpleName() + "(empty)";
+                        };
+                    }
+                    if (List.class.isAssignableFrom(returnType) || Collection.class == returnType) {
+                        return List.of();
+                    }
+                    if (returnType == Optional.class) {
+                        return Optional.empty();
+                    }
+                    if (returnType == boolean.class) {
+                        return false;
+                    }
+                    if (returnType == long.class) {
+                        return 0L;
+                    }
+                    if (returnType == int.class) {
+                        return 0;
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,134 @@
+package com.pisystem.modules.sms.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pisystem.modules.sms.data.NormalizedTransaction;
+import com.pisystem.modules.sms.data.ParsedSMSData;
+import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.data.SmsClassificationResult;
+
+/**
+ * Per-message cost of the SMS import hot path: keyword scan, parse, classify
+ * and normalize, over the anonymized corpus in {@code sms/indian-bank-sms-corpus.tsv}.
+ *
+ * <p>Each invocation processes the next corpus message, so scores are messages
+ * per millisecond averaged over the realistic mix of transaction, OTP,
+ * promotional and service SMS. Run with the GC profiler (configured in
+ * {@code build.gradle}) to see {@code gc.alloc.rate.norm} — bytes allocated per
+ * message — which is what regex-layer regressions usually move first:</p>
+ *
+ * <pre>
+ *   ./gradlew jmh -PjmhIncludes=SmsParsingBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SmsParsingBenchmark {
+
+    private SMSParserService parser;
+    private SmsClassifierServiceImpl classifier;
+    private TransactionNormalizationServiceImpl normalizer;
+    private SmsKeywordMatcher keywordMatcher;
+
+    private String[] messages;
+    private SMSTransaction[] parsedTransactions;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SmsPatternRegistry registry = SmsCorpus.defaultPatternRegistry();
+        parser = new SMSParserService(registry);
+        classifier = new SmsClassifierServiceImpl(registry);
+        normalizer = new TransactionNormalizationServiceImpl();
+        keywordMatcher = registry.keywordMatcher();
+
+        List<SmsCorpus.Sms> corpus = SmsCorpus.load();
+        messages = new String[corpus.size()];
+        parsedTransactions = new SMSTransaction[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            SmsCorpus.Sms sms = corpus.get(i);
+            messages[i] = sms.body();
+            parsedTransactions[i] = toTransaction(sms, parser.parseSMS(sms.body()));
+        }
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == messages.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public SmsKeywordHits scanKeywords() {
+        return keywordMatcher.scan(messages[next()]);
+    }
+
+    @Benchmark
+    public ParsedSMSData parseSMS() {
+        return parser.parseSMS(messages[next()]);
+    }
+
+    @Benchmark
+    public SmsClassificationResult classify() {
+        return classifier.classify(messages[next()]);
+    }
+
+    /** Parse and classify sharing one keyword scan, as the import pipeline can. */
+    @Benchmark
+    public SmsClassificationResult parseAndClassifySharedScan() {
+        String message = messages[next()];
+        SmsKeywordHits hits = parser.scanKeywords(message);
+        parser.parseSMS(message, null, hits);
+        return classifier.classify(message, hits);
+    }
+
+    @Benchmark
+    public NormalizedTransaction normalize() {
+        int i = next();
+        return normalizer.normalize(parsedTransactions[i], messages[i]);
+    }
+
+    /** Same mapping as {@code SmsServiceImpl.parseSingleMessage}, minus the user context. */
+    private static SMSTransaction toTransaction(SmsCorpus.Sms sms, ParsedSMSData parsed) {
+        return SMSTransaction.builder()
+                .userId(1L)
+                .originalMessage(sms.body())
+                .sender(sms.sender())
+                .amount(parsed.getAmount())
+                .transactionDate(parsed.getTransactionDate())
+                .transactionTime(parsed.getTransactionTime())
+                .transactionType(parsed.getTransactionType())
+                .merchant(parsed.getMerchant())
+                .accountNumber(parsed.getAccountNumber())
+                .cardNumber(parsed.getCardNumber())
+                .balance(parsed.getBalance())
+                .referenceNumber(parsed.getReferenceNumber())
+                .upiId(parsed.getUpiId())
+                .parseStatus(parsed.getParseStatus())
+                .parseConfidence(parsed.getConfidence())
+                .category(parsed.getCategory())
+                .isRecurring(Boolean.TRUE.equals(parsed.getIsRecurring()))
+                .fromAccount(parsed.getFromAccount())
+                .toAccount(parsed.getToAccount())
+                .isProcessed(false)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
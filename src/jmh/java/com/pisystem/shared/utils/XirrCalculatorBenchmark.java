@@ -0,0 +1,120 @@
+package com.pisystem.shared.utils;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pisystem.shared.utils.XirrCalculator.CashFlow;
+
+/**
+ * Cost of an XIRR valuation over a long-lived portfolio: the per-iteration
+ * {@code DAYS.between}/{@code pow} Newton loop the calculator used to run, a
+ * one-shot {@link XirrCalculator#calculate}, and a prepared {@link XirrCalculator.Series}
+ * solved cold and warm-started from the previous valuation's rate, which is how
+ * the portfolio state revalues after a price tick.
+ *
+ * <p>The portfolio buys every trading day for about eight years with periodic
+ * sales and dividends; its current value is the terminal flow.</p>
+ *
+ * <pre>
+ *   ./gradlew jmh -PjmhIncludes=XirrCalculatorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class XirrCalculatorBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int transactions;
+
+    private List<CashFlow> cashFlows;
+    private XirrCalculator.Series series;
+    private LocalDate today;
+    private double currentValue;
+    private double lastRate;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2018, 1, 1);
+        cashFlows = new ArrayList<>(transactions + 1);
+        series = new XirrCalculator.Series(transactions);
+        double invested = 0;
+        for (int i = 0; i < transactions; i++) {
+            LocalDate date = start.plusDays(i * 3000L / transactions);
+            double amount = i % 7 == 6
+                    ? 200 + random.nextInt(2000)     // sale or dividend
+                    : -(1000 + random.nextInt(9000)); // buy
+            invested -= Math.min(amount, 0);
+            cashFlows.add(new CashFlow(date, amount));
+            series.add(date, amount);
+        }
+        today = start.plusDays(3000);
+        currentValue = invested * 1.4;
+        lastRate = series.solveWithTerminal(today, currentValue, XirrCalculator.DEFAULT_GUESS);
+        cashFlows.add(new CashFlow(today, currentValue));
+    }
+
+    /** The previous implementation, kept here as the baseline. */
+    @Benchmark
+    public double legacyNewton() {
+        return legacyCalculate(cashFlows);
+    }
+
+    /** Year fractions prepared on every call. */
+    @Benchmark
+    public double oneShot() {
+        return XirrCalculator.calculate(cashFlows);
+    }
+
+    @Benchmark
+    public double preparedCold() {
+        return series.solveWithTerminal(today, currentValue, XirrCalculator.DEFAULT_GUESS);
+    }
+
+    /** A price tick moved the value by 0.5%; start from the last rate. */
+    @Benchmark
+    public double preparedWarm() {
+        return series.solveWithTerminal(today, currentValue * 1.005, lastRate);
+    }
+
+    private static double legacyCalculate(List<CashFlow> cashFlows) {
+        double x0 = 0.1;
+        double x1;
+        for (int i = 0; i < 100; i++) {
+            double f = 0;
+            double df = 0;
+            for (CashFlow cf : cashFlows) {
+                double days = ChronoUnit.DAYS.between(cashFlows.get(0).date, cf.date);
+                double t = days / 365.0;
+                f += cf.amount / Math.pow(1 + x0, t);
+                df -= t * cf.amount / Math.pow(1 + x0, t + 1);
+            }
+            x1 = x0 - f / df;
+            if (Math.abs(x1 - x0) < 0.0001) {
+                return x1 * 100;
+            }
+            x0 = x1;
+        }
+        return x0 * 100;
+    }
+}
@@ -5,7 +5,7 @@ import com.pisystem.core.admin.repo.ScheduledJobRepository;
 import com.pisystem.infrastructure.alerts.service.AlertProcessorService;
 import com.pisystem.modules.budget.SubscriptionReminderScheduler;
 import com.pisystem.modules.budget.service.BudgetRecurringTransactionService;
-import com.pisystem.modules.budget.scheduler.AlertScheduler;
+import com.pisystem.modules.budget.scheduler.BudgetRollupRebuildScheduler;
 import com.pisystem.modules.stocks.scheduler.RecurringTransactionScheduler;
 import com.pisystem.modules.lending.scheduler.LendingDueDateScheduler;
 import lombok.RequiredArgsConstructor;
@@ -25,7 +25,7 @@ public class JobManagementService {
     private final AlertProcessorService alertProcessorService;
     private final SubscriptionReminderScheduler subscriptionReminderScheduler;
     private final BudgetRecurringTransactionService budgetRecurringTransactionService;
-    private final AlertScheduler budgetAlertScheduler;
+    private final BudgetRollupRebuildScheduler budgetRollupRebuildScheduler;
     private final RecurringTransactionScheduler stockRecurringTransactionScheduler;
     private final LendingDueDateScheduler lendingDueDateScheduler;
     private final ScheduledJobRepository jobRepository;
@@ -100,9 +100,8 @@ public class JobManagementService {
                 case "BUDGET_RECURRING_TRANSACTIONS":
                     budgetRecurringTransactionService.generateRecurringTransactions();
                     break;
-                case "BUDGET_OVERSPENDING_ALERTS":
-                case "BUDGET_ALERTS":
-                    budgetAlertScheduler.checkBudgetsAndGenerateAlerts();
+                case "BUDGET_ROLLUP_REBUILD":
+                    budgetRollupRebuildScheduler.rebuildRollups();
                     break;
                 case "STOCK_RECURRING_TRANSACTIONS":
                 case "INVESTMENT_RECURRING_TRANSACTIONS":
@@ -4,6 +4,7 @@ import com.pisystem.infrastructure.alerts.entity.AlertRule;
 import com.pisystem.infrastructure.alerts.entity.AlertType;
 import com.pisystem.infrastructure.alerts.entity.NotificationType;
 import com.pisystem.infrastructure.alerts.repository.AlertRuleRepository;
+import com.pisystem.modules.stocks.data.QuotePriority;
 import com.pisystem.modules.stocks.dto.StockPriceUpdate;
 import com.pisystem.modules.stocks.service.StockPriceWebSocketService;
 import com.pisystem.modules.loans.data.Loan;
@@ -68,7 +69,7 @@ public class AlertProcessorService {
     private void processStockPriceAlert(AlertRule rule) {
         try {
             // Get current price from stock service
-            StockPriceUpdate stockPrice = stockPriceService.fetchSingleStockPrice(rule.getSymbol());
+            StockPriceUpdate stockPrice = stockPriceService.fetchSingleStockPrice(rule.getSymbol(), QuotePriority.HELD);
             if (stockPrice == null || stockPrice.getCurrentPrice() == null) {
                 return;
             }
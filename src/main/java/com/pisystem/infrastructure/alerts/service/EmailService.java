@@ -1,10 +1,13 @@
 package com.pisystem.infrastructure.alerts.service;
 
+import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 /**
@@ -47,6 +50,33 @@ public class EmailService {
         }
     }
 
+    /**
+     * Send a plain text email with one attachment
+     */
+    public void sendEmailWithAttachment(String to, String subject, String body, String fileName,
+            byte[] attachment, String contentType) {
+        if (!emailEnabled || mailSender == null) {
+            log.warn("Email service is disabled or not configured. Skipping email to: {}", to);
+            return;
+        }
+
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            helper.setFrom(fromEmail);
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(body);
+            helper.addAttachment(fileName, new ByteArrayResource(attachment), contentType);
+
+            mailSender.send(message);
+            log.info("Email with attachment {} sent successfully to: {}", fileName, to);
+        } catch (Exception e) {
+            log.error("Failed to send email to: {}. Error: {}", to, e.getMessage());
+            // Don't throw exception - just log it
+        }
+    }
+
     /**
      * Send email with HTML content (future enhancement)
      */
@@ -0,0 +1,19 @@
+package com.pisystem.integrations.externalservices.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a property of the external service {@code serviceName} was
+ * created or changed, so holders of cached credentials can drop them.
+ */
+@Getter
+@ToString
+public class ExternalServicePropertiesChangedEvent {
+
+    private final String serviceName;
+
+    public ExternalServicePropertiesChangedEvent(String serviceName) {
+        this.serviceName = serviceName;
+    }
+}
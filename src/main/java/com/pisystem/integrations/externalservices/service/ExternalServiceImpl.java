@@ -2,10 +2,12 @@ package com.pisystem.integrations.externalservices.service;
 
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.pisystem.integrations.externalservices.data.ExternalServiceEntity;
 import com.pisystem.integrations.externalservices.data.ExternalServicePropertiesEntity;
+import com.pisystem.integrations.externalservices.event.ExternalServicePropertiesChangedEvent;
 import com.pisystem.integrations.externalservices.repo.ExternalServicePropertiesRepository;
 import com.pisystem.integrations.externalservices.repo.ExternalServiceRepository;
 
@@ -14,11 +16,14 @@ public class ExternalServiceImpl implements ExternalService {
 
     private final ExternalServiceRepository externalServiceRepository;
     private final ExternalServicePropertiesRepository externalServicePropertiesRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ExternalServiceImpl(ExternalServiceRepository externalServiceRepository,
-            ExternalServicePropertiesRepository externalServicePropertiesRepository) {
+            ExternalServicePropertiesRepository externalServicePropertiesRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.externalServiceRepository = externalServiceRepository;
         this.externalServicePropertiesRepository = externalServicePropertiesRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -56,7 +61,9 @@ public class ExternalServiceImpl implements ExternalService {
                 .externalService(service)
                 .build();
         
-        return externalServicePropertiesRepository.save(property);
+        ExternalServicePropertiesEntity saved = externalServicePropertiesRepository.save(property);
+        eventPublisher.publishEvent(new ExternalServicePropertiesChangedEvent(service.getServiceName()));
+        return saved;
     }
 
     @Override
@@ -65,7 +72,12 @@ public class ExternalServiceImpl implements ExternalService {
                 .orElseThrow(() -> new RuntimeException("Property not found with id: " + propertyId));
         
         property.setValue(newValue);
-        return externalServicePropertiesRepository.save(property);
+        ExternalServicePropertiesEntity saved = externalServicePropertiesRepository.save(property);
+        if (property.getExternalService() != null) {
+            eventPublisher.publishEvent(
+                    new ExternalServicePropertiesChangedEvent(property.getExternalService().getServiceName()));
+        }
+        return saved;
     }
 
 }
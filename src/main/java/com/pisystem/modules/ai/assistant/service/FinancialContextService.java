@@ -1,7 +1,7 @@
 package com.pisystem.modules.ai.assistant.service;
 
 import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
-import com.pisystem.modules.stocks.networth.service.NetWorthReadService;
+import com.pisystem.modules.stocks.networth.service.NetWorthSnapshotService;
 import com.pisystem.modules.budget.data.BudgetReportDTO;
 import com.pisystem.modules.budget.service.BudgetService;
 import com.pisystem.modules.loans.data.Loan;
@@ -23,7 +23,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class FinancialContextService {
 
-    private final NetWorthReadService netWorthService;
+    private final NetWorthSnapshotService netWorthService;
     private final BudgetService budgetService;
     private final LoanService loanService;
     private final InsuranceService insuranceService;
@@ -71,6 +71,8 @@ public class FinancialContextService {
                 nwMap.put("outstandingTax", netWorth.getOutstandingTaxLiability());
             if (netWorth.getOutstandingLendings() != null)
                 nwMap.put("outstandingLendings", netWorth.getOutstandingLendings());
+            if (netWorth.getComputedAt() != null)
+                nwMap.put("asOf", netWorth.getComputedAt());
             if (netWorth.getAssetBreakdown() != null)
                 nwMap.put("assetBreakdown", netWorth.getAssetBreakdown());
             if (netWorth.getLiabilityBreakdown() != null)
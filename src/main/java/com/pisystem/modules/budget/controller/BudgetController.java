@@ -2,6 +2,8 @@ package com.pisystem.modules.budget.controller;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -23,20 +25,24 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.pisystem.infrastructure.alerts.service.EmailService;
 import com.pisystem.modules.budget.data.Budget;
 import com.pisystem.modules.budget.data.BudgetReportDTO;
+import com.pisystem.modules.budget.data.BudgetReportJob;
 import com.pisystem.modules.budget.data.BudgetVsActualReport;
 import com.pisystem.modules.budget.data.CashFlowDTO;
 import com.pisystem.modules.budget.data.CustomCategory;
 import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.ExpenseCategory;
 import com.pisystem.modules.budget.data.Income;
+import com.pisystem.modules.budget.dto.CursorPage;
 import com.pisystem.modules.budget.dto.EmailReportRequest;
+import com.pisystem.modules.budget.repo.IncomeRepository;
+import com.pisystem.modules.budget.service.BudgetReportJobService;
 import com.pisystem.modules.budget.service.BudgetService;
 import com.pisystem.modules.budget.service.ExportService;
-import com.pisystem.modules.budget.service.ReportGenerationService;
 import com.pisystem.shared.features.FeatureFlag;
 import com.pisystem.shared.features.RequiresFeature;
 import com.pisystem.core.users.data.Users;
@@ -56,7 +62,7 @@ public class BudgetController {
 
     private final BudgetService budgetService;
     private final ExportService exportService;
-    private final ReportGenerationService reportGenerationService;
+    private final BudgetReportJobService reportJobService;
     private final EmailService emailService;
     private final UsersRepository usersRepository;
 
@@ -86,6 +92,23 @@ public class BudgetController {
         return budgetService.getExpensesFiltered(userId, category, startDate, endDate, search, pageable);
     }
 
+    @GetMapping("/expense/{userId}/scroll")
+    @Operation(summary = "Scroll expenses", description = "Keyset-paginated expenses, newest first. Pass nextCursor back as cursor for the next page; tags are included only when includeTags=true")
+    public CursorPage<?> scrollExpenses(
+            @PathVariable("userId") Long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "category", required = false) String category,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "search", required = false) String search,
+            @RequestParam(name = "includeTags", defaultValue = "false") boolean includeTags) {
+
+        return includeTags
+                ? budgetService.getExpensePageWithTags(userId, cursor, size, category, startDate, endDate, search)
+                : budgetService.getExpensePage(userId, cursor, size, category, startDate, endDate, search);
+    }
+
     @GetMapping("/expense/detail/{id}")
     @Operation(summary = "Get expense by ID", description = "Retrieve a single expense by ID")
     public Expense getExpenseById(@PathVariable("id") Long id) {
@@ -129,6 +152,19 @@ public class BudgetController {
         return budgetService.getIncomesFiltered(userId, source, startDate, endDate, pageable);
     }
 
+    @GetMapping("/income/{userId}/scroll")
+    @Operation(summary = "Scroll incomes", description = "Keyset-paginated incomes, newest first. Pass nextCursor back as cursor for the next page")
+    public CursorPage<IncomeRepository.IncomeRow> scrollIncomes(
+            @PathVariable("userId") Long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "source", required = false) String source,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return budgetService.getIncomePage(userId, cursor, size, source, startDate, endDate);
+    }
+
     @GetMapping("/income/detail/{id}")
     @Operation(summary = "Get income by ID", description = "Retrieve a single income by ID")
     public Income getIncomeById(@PathVariable("id") Long id) {
@@ -242,83 +278,120 @@ public class BudgetController {
     // Export endpoints
     @GetMapping("/expense/{userId}/export/csv")
     @Operation(summary = "Export expenses to CSV", description = "Download expenses as CSV file with optional filters")
-    public ResponseEntity<byte[]> exportExpensesCSV(
+    public ResponseEntity<StreamingResponseBody> exportExpensesCSV(
             @PathVariable("userId") Long userId,
             @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(name = "category", required = false) String category) {
         
-        byte[] csvData = exportService.exportExpensesToCSV(userId, startDate, endDate, category);
+        ExpenseCategory expenseCategory = exportService.parseCategory(category);
+        StreamingResponseBody body = out -> exportService.exportExpensesToCSV(userId, startDate, endDate,
+                expenseCategory, out);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.setContentDispositionFormData("attachment", "expenses_" + LocalDate.now() + ".csv");
         
-        return new ResponseEntity<>(csvData, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/expense/{userId}/export/excel")
     @Operation(summary = "Export expenses to Excel", description = "Download expenses as Excel file with optional filters")
-    public ResponseEntity<byte[]> exportExpensesExcel(
+    public ResponseEntity<StreamingResponseBody> exportExpensesExcel(
             @PathVariable("userId") Long userId,
             @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(name = "category", required = false) String category) {
         
-        byte[] excelData = exportService.exportExpensesToExcel(userId, startDate, endDate, category);
+        ExpenseCategory expenseCategory = exportService.parseCategory(category);
+        StreamingResponseBody body = out -> exportService.exportExpensesToExcel(userId, startDate, endDate,
+                expenseCategory, out);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "expenses_" + LocalDate.now() + ".xlsx");
         
-        return new ResponseEntity<>(excelData, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/income/{userId}/export/csv")
     @Operation(summary = "Export incomes to CSV", description = "Download incomes as CSV file with optional date filters")
-    public ResponseEntity<byte[]> exportIncomesCSV(
+    public ResponseEntity<StreamingResponseBody> exportIncomesCSV(
             @PathVariable("userId") Long userId,
             @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
-        byte[] csvData = exportService.exportIncomesToCSV(userId, startDate, endDate);
+        StreamingResponseBody body = out -> exportService.exportIncomesToCSV(userId, startDate, endDate, out);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.setContentDispositionFormData("attachment", "incomes_" + LocalDate.now() + ".csv");
         
-        return new ResponseEntity<>(csvData, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/income/{userId}/export/excel")
     @Operation(summary = "Export incomes to Excel", description = "Download incomes as Excel file with optional date filters")
-    public ResponseEntity<byte[]> exportIncomesExcel(
+    public ResponseEntity<StreamingResponseBody> exportIncomesExcel(
             @PathVariable("userId") Long userId,
             @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
-        byte[] excelData = exportService.exportIncomesToExcel(userId, startDate, endDate);
+        StreamingResponseBody body = out -> exportService.exportIncomesToExcel(userId, startDate, endDate, out);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "incomes_" + LocalDate.now() + ".xlsx");
         
-        return new ResponseEntity<>(excelData, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/report/{userId}/pdf")
-    @Operation(summary = "Generate monthly PDF report", description = "Download monthly budget report as PDF")
-    public ResponseEntity<byte[]> generatePDFReport(
+    @Operation(summary = "Generate monthly PDF report", description = "Download monthly budget report as PDF. "
+            + "Served from cache while the month's data is unchanged; if rendering takes too long the pending "
+            + "report job is returned with 202 instead")
+    public ResponseEntity<?> generatePDFReport(
             @PathVariable("userId") Long userId,
             @RequestParam(name = "monthYear", required = false) String monthYear) {
-        
-        byte[] pdfData = reportGenerationService.generateMonthlyReport(userId, monthYear);
-        
+        return reportResponse(reportJobService.awaitMonthlyReport(userId, monthYear));
+    }
+
+    @PostMapping("/report/{userId}/pdf/jobs")
+    @Operation(summary = "Queue monthly PDF report", description = "Queue rendering of the monthly PDF report, "
+            + "or return the cached or pending job for the month's current data")
+    public ResponseEntity<BudgetReportJob> requestPDFReport(
+            @PathVariable("userId") Long userId,
+            @RequestParam(name = "monthYear", required = false) String monthYear) {
+        BudgetReportJob job = reportJobService.requestMonthlyReport(userId, monthYear);
+        return ResponseEntity.status(job.isPending() ? HttpStatus.ACCEPTED : HttpStatus.OK).body(job);
+    }
+
+    @GetMapping("/report/jobs/{jobId}")
+    @Operation(summary = "Get report job", description = "Status of a monthly PDF report job")
+    public BudgetReportJob getReportJob(@PathVariable("jobId") Long jobId) {
+        return reportJobService.getJob(jobId);
+    }
+
+    @GetMapping("/report/jobs/{jobId}/pdf")
+    @Operation(summary = "Download report job PDF", description = "PDF of a finished report job; "
+            + "202 with the job while it is still pending")
+    public ResponseEntity<?> downloadReportJob(@PathVariable("jobId") Long jobId) {
+        return reportResponse(reportJobService.getJob(jobId));
+    }
+
+    private ResponseEntity<?> reportResponse(BudgetReportJob job) {
+        if (job.isPending()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+        if (!job.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(job);
+        }
+
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "budget_report_" + monthYear + ".pdf");
-        
-        return new ResponseEntity<>(pdfData, headers, HttpStatus.OK);
+        headers.setContentDispositionFormData("attachment", BudgetReportJobService.fileName(job));
+
+        return new ResponseEntity<>(reportJobService.getArtifact(job), headers, HttpStatus.OK);
     }
 
     @PostMapping("/report/{userId}/email")
@@ -335,9 +408,24 @@ public class BudgetController {
             String reportContent;
             String subject;
             
-            // Construct monthYear string in format "MONTH_YEAR" (e.g., "FEBRUARY_2026")
-            String monthYear = request.getMonth() + "_" + request.getYear();
-            
+            // Reports are keyed by "yyyy-MM"; prefer monthYear, else build it from month name and year
+            String monthYear = request.getMonthYear() != null && request.getMonthYear().matches("\\d{4}-\\d{2}")
+                    ? request.getMonthYear()
+                    : YearMonth.of(request.getYear(), Month.valueOf(request.getMonth().toUpperCase())).toString();
+
+            if ("MONTHLY".equals(request.getReportType()) && "PDF".equalsIgnoreCase(request.getFormat())) {
+                // Mailed by the report workers once the (possibly cached) PDF is ready
+                BudgetReportJob job = reportJobService.emailMonthlyReport(userId, monthYear, user.getEmail(),
+                        String.format("Monthly Budget Report - %s %d", request.getMonth(), request.getYear()),
+                        "Your monthly budget report is attached.");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "status", job.isReady() || job.isPending() ? "queued" : "error",
+                    "message", job.isReady() || job.isPending()
+                            ? "Report will be sent to " + user.getEmail()
+                            : "Failed to send email: " + job.getErrorMessage()
+                ));
+            }
+
             if ("MONTHLY".equals(request.getReportType())) {
                 BudgetReportDTO report = budgetService.getMonthlyReport(userId, monthYear);
                 subject = String.format("Monthly Budget Report - %s %d", 
@@ -0,0 +1,90 @@
+package com.pisystem.modules.budget.data;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One rendering of a user's monthly PDF report at a given version of the month's
+ * data. A READY job's PDF is stored on disk under its content hash and is served
+ * again for as long as the month's data version does not change.
+ */
+@Entity
+@Table(name = "budget_report_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Monthly PDF report generation job")
+public class BudgetReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @Schema(description = "User the report belongs to", example = "1")
+    private Long userId;
+
+    @Column(name = "month_year", nullable = false, length = 7)
+    @Schema(description = "Reported month", example = "2026-02")
+    private String monthYear; // Format: YYYY-MM
+
+    @Column(name = "data_version", nullable = false)
+    @Schema(description = "Version of the month's data the report was requested at", example = "12")
+    private Long dataVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Schema(description = "Job status", example = "READY")
+    private Status status;
+
+    @Column(name = "content_hash", length = 64)
+    @Schema(description = "SHA-256 of the rendered PDF", accessMode = Schema.AccessMode.READ_ONLY)
+    private String contentHash;
+
+    @Column(name = "size_bytes")
+    @Schema(description = "Size of the rendered PDF", example = "18432")
+    private Long sizeBytes;
+
+    @Column(name = "error_message", length = 500)
+    @Schema(description = "Why the job failed")
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Schema(description = "When the report was requested", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    @Schema(description = "When the job last changed status", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    @Schema(description = "When rendering finished or failed")
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        READY,
+        FAILED
+    }
+
+    public boolean isReady() {
+        return status == Status.READY;
+    }
+
+    public boolean isPending() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+}
@@ -0,0 +1,101 @@
+package com.pisystem.modules.budget.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of {@code user_month_category_rollup}: the expenses (per system and
+ * custom category) or incomes (per source) of a user in a month, pre-summed.
+ *
+ * <p>Also used as the delta applied when an expense or income is added (+1 entry),
+ * removed ({@link #negate()}) or changed (old negated plus new).</p>
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthCategoryRollup {
+
+    public enum EntryType {
+        EXPENSE, INCOME
+    }
+
+    private Long userId;
+    private LocalDate monthStart;
+    private EntryType entryType;
+
+    // Dimensions; empty rather than null so they can be part of the primary key
+    @Builder.Default
+    private String category = "";
+    @Builder.Default
+    private String customCategory = "";
+    @Builder.Default
+    private String source = "";
+
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+    private int entryCount;
+    @Builder.Default
+    private BigDecimal recurringAmount = BigDecimal.ZERO;
+    private int recurringCount;
+    @Builder.Default
+    private BigDecimal stableAmount = BigDecimal.ZERO;
+
+    public static MonthCategoryRollup of(Expense expense) {
+        return MonthCategoryRollup.builder()
+                .userId(expense.getUserId())
+                .monthStart(expense.getExpenseDate().withDayOfMonth(1))
+                .entryType(EntryType.EXPENSE)
+                .category(expense.getCategory() != null ? expense.getCategory().name() : "")
+                .customCategory(expense.isCustomCategory() ? expense.getCustomCategoryName() : "")
+                .amount(expense.getAmount())
+                .entryCount(1)
+                .build();
+    }
+
+    public static MonthCategoryRollup of(Income income) {
+        boolean recurring = Boolean.TRUE.equals(income.getIsRecurring());
+        return MonthCategoryRollup.builder()
+                .userId(income.getUserId())
+                .monthStart(income.getDate().withDayOfMonth(1))
+                .entryType(EntryType.INCOME)
+                .source(income.getSource() != null ? income.getSource() : "")
+                .amount(income.getAmount())
+                .entryCount(1)
+                .recurringAmount(recurring ? income.getAmount() : BigDecimal.ZERO)
+                .recurringCount(recurring ? 1 : 0)
+                .stableAmount(Boolean.TRUE.equals(income.getIsStable()) ? income.getAmount() : BigDecimal.ZERO)
+                .build();
+    }
+
+    /** The same contribution taken away. */
+    public MonthCategoryRollup negate() {
+        return MonthCategoryRollup.builder()
+                .userId(userId)
+                .monthStart(monthStart)
+                .entryType(entryType)
+                .category(category)
+                .customCategory(customCategory)
+                .source(source)
+                .amount(amount.negate())
+                .entryCount(-entryCount)
+                .recurringAmount(recurringAmount.negate())
+                .recurringCount(-recurringCount)
+                .stableAmount(stableAmount.negate())
+                .build();
+    }
+
+    public boolean isCustomCategory() {
+        return !customCategory.isEmpty();
+    }
+
+    /** Category an expense budget or alert refers to: the custom name if set, else the system category. */
+    public String getEffectiveCategoryName() {
+        return isCustomCategory() ? customCategory : category;
+    }
+}
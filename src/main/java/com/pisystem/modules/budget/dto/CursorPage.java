@@ -0,0 +1,56 @@
+package com.pisystem.modules.budget.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated listing, newest first. Pass {@code nextCursor}
+ * back as {@code cursor} to get the following page; the cursor encodes the
+ * (date, id) of the last item, so each page costs the same however deep it is.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Keyset-paginated page of items")
+public class CursorPage<T> {
+
+    @Schema(description = "Items of this page, newest first")
+    private List<T> items;
+
+    @Schema(description = "Cursor for the next page; null on the last page", example = "MjAyNi0wMi0xNHw0MjE")
+    private String nextCursor;
+
+    @Schema(description = "Whether more items follow", example = "true")
+    private boolean hasMore;
+
+    /** Opaque cursor for the item at ({@code date}, {@code id}). */
+    public static String encodeCursor(LocalDate date, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decoded cursor position. */
+    public record Position(LocalDate date, Long id) {
+    }
+
+    public static Position decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new Position(LocalDate.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
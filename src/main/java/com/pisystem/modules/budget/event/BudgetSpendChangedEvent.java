@@ -0,0 +1,27 @@
+package com.pisystem.modules.budget.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a user's spending or budget limits of a month change, naming
+ * the categories affected (effective names: the custom category if set, else
+ * the system category; {@code TOTAL} for the overall budget).
+ */
+@Getter
+@ToString
+public class BudgetSpendChangedEvent {
+
+    private final Long userId;
+    private final LocalDate monthStart;
+    private final Set<String> categories;
+
+    public BudgetSpendChangedEvent(Long userId, LocalDate monthStart, Set<String> categories) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+        this.categories = Set.copyOf(categories);
+    }
+}
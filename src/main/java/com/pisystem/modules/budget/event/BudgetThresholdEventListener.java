@@ -0,0 +1,34 @@
+package com.pisystem.modules.budget.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pisystem.modules.budget.service.AlertService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-evaluates the budget thresholds of the categories a spend change touched,
+ * once the originating transaction has committed, so alerts never fire for
+ * rolled-back expenses.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetThresholdEventListener {
+
+    private final AlertService alertService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpendChanged(BudgetSpendChangedEvent event) {
+        for (String category : event.getCategories()) {
+            try {
+                alertService.evaluateBudgetThreshold(event.getUserId(), event.getMonthStart(), category);
+            } catch (Exception e) {
+                log.error("Error evaluating {} budget of user {} for {}: {}", category, event.getUserId(),
+                        event.getMonthStart(), e.getMessage(), e);
+            }
+        }
+    }
+}
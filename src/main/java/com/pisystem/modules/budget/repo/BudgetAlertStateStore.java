@@ -0,0 +1,47 @@
+package com.pisystem.modules.budget.repo;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to {@code budget_alert_state}: the highest budget threshold (in
+ * percent, 0 if none) a user's category has crossed in a month. An alert fires
+ * only when the level rises, so each crossing alerts once; when spending falls
+ * back below a threshold the level drops and a later crossing alerts again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BudgetAlertStateStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The current level, with the row locked until the caller's transaction ends so
+     * concurrent evaluations of the same category take turns.
+     */
+    public int lockLevel(Long userId, LocalDate monthStart, String category) {
+        jdbcTemplate.update("INSERT IGNORE INTO budget_alert_state (user_id, month_start, category, alert_level) "
+                + "VALUES (?, ?, ?, 0)", userId, Date.valueOf(monthStart), category);
+        Integer level = jdbcTemplate.queryForObject("SELECT alert_level FROM budget_alert_state "
+                + "WHERE user_id = ? AND month_start = ? AND category = ? FOR UPDATE",
+                Integer.class, userId, Date.valueOf(monthStart), category);
+        return level != null ? level : 0;
+    }
+
+    public void setLevel(Long userId, LocalDate monthStart, String category, int level) {
+        jdbcTemplate.update("UPDATE budget_alert_state SET alert_level = ? "
+                + "WHERE user_id = ? AND month_start = ? AND category = ?",
+                level, userId, Date.valueOf(monthStart), category);
+    }
+
+    /** Forgets the category's level, e.g. once its budget is removed. */
+    public void clear(Long userId, LocalDate monthStart, String category) {
+        jdbcTemplate.update("DELETE FROM budget_alert_state WHERE user_id = ? AND month_start = ? AND category = ?",
+                userId, Date.valueOf(monthStart), category);
+    }
+}
@@ -0,0 +1,23 @@
+package com.pisystem.modules.budget.repo;
+
+import com.pisystem.modules.budget.data.BudgetReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BudgetReportJobRepository extends JpaRepository<BudgetReportJob, Long> {
+
+    // Latest job for a user's month at a data version
+    Optional<BudgetReportJob> findFirstByUserIdAndMonthYearAndDataVersionOrderByIdDesc(
+            Long userId, String monthYear, Long dataVersion);
+
+    // Jobs rendered from older data of a user's month
+    List<BudgetReportJob> findByUserIdAndMonthYearAndDataVersionLessThan(
+            Long userId, String monthYear, Long dataVersion);
+
+    // Whether any job still refers to an artifact
+    boolean existsByContentHash(String contentHash);
+}
@@ -13,4 +13,7 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findByUserIdAndMonthYear(Long userId, String monthYear);
 
     Optional<Budget> findByUserIdAndCategoryAndMonthYear(Long userId, ExpenseCategory category, String monthYear);
+
+    Optional<Budget> findByUserIdAndMonthYearAndCustomCategoryName(Long userId, String monthYear,
+            String customCategoryName);
 }
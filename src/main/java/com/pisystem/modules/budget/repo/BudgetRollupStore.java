@@ -0,0 +1,255 @@
+package com.pisystem.modules.budget.repo;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pisystem.modules.budget.data.ExpenseCategory;
+import com.pisystem.modules.budget.data.MonthCategoryRollup;
+import com.pisystem.modules.budget.data.MonthCategoryRollup.EntryType;
+import com.pisystem.modules.budget.event.BudgetSpendChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC access to {@code user_month_category_rollup}, the per user, month and
+ * category (or income source) totals budget reports and alerts read instead of
+ * loading every expense and income.
+ *
+ * <p>Writers apply deltas in the same transaction as the expense/income change;
+ * each delta is a MySQL upsert adding to the row's totals. Deltas are merged per
+ * row and applied in primary key order so concurrent writers for a user lock
+ * rows in the same order. {@link #rebuildUser} recomputes a user's rows from the
+ * source tables for backfill and repair.</p>
+ *
+ * <p>Every write also bumps the month's row in {@code user_month_data_version},
+ * even when the deltas cancel out (a description edit still changes what the
+ * report lists), so cached monthly reports can tell they are out of date.</p>
+ *
+ * <p>Expense deltas that move a category's total publish a
+ * {@link BudgetSpendChangedEvent} per user and month, which budget threshold
+ * alerts are evaluated from. Every expense writer goes through here, SMS imports
+ * and recurring transactions included.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRollupStore {
+
+    private static final String UPSERT = "INSERT INTO user_month_category_rollup "
+            + "(user_id, month_start, entry_type, category, custom_category, source, amount, entry_count, "
+            + "recurring_amount, recurring_count, stable_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), "
+            + "entry_count = entry_count + VALUES(entry_count), "
+            + "recurring_amount = recurring_amount + VALUES(recurring_amount), "
+            + "recurring_count = recurring_count + VALUES(recurring_count), "
+            + "stable_amount = stable_amount + VALUES(stable_amount)";
+
+    private static final String BUMP_VERSION = "INSERT INTO user_month_data_version (user_id, month_start, version) "
+            + "VALUES (?, ?, 1) ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private static final String COLUMNS = "user_id, month_start, entry_type, category, custom_category, source, "
+            + "amount, entry_count, recurring_amount, recurring_count, stable_amount";
+
+    // Kept in step with V77__Create_User_Month_Category_Rollup.sql, which runs the same backfill for all users
+    private static final String REBUILD_EXPENSES = "INSERT INTO user_month_category_rollup (" + COLUMNS + ") "
+            + "SELECT user_id, DATE_SUB(expense_date, INTERVAL DAYOFMONTH(expense_date) - 1 DAY), 'EXPENSE', "
+            + "COALESCE(category, ''), COALESCE(custom_category_name, ''), '', SUM(amount), COUNT(*), 0, 0, 0 "
+            + "FROM expenses WHERE user_id = ? "
+            + "GROUP BY user_id, DATE_SUB(expense_date, INTERVAL DAYOFMONTH(expense_date) - 1 DAY), "
+            + "COALESCE(category, ''), COALESCE(custom_category_name, '')";
+
+    private static final String REBUILD_INCOMES = "INSERT INTO user_month_category_rollup (" + COLUMNS + ") "
+            + "SELECT user_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), 'INCOME', '', '', source, "
+            + "SUM(amount), COUNT(*), "
+            + "SUM(CASE WHEN is_recurring THEN amount ELSE 0 END), SUM(CASE WHEN is_recurring THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN is_stable THEN amount ELSE 0 END) "
+            + "FROM incomes WHERE user_id = ? "
+            + "GROUP BY user_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), source";
+
+    private static final Comparator<MonthCategoryRollup> KEY_ORDER = Comparator
+            .comparing(MonthCategoryRollup::getUserId)
+            .thenComparing(MonthCategoryRollup::getMonthStart)
+            .thenComparing(MonthCategoryRollup::getEntryType)
+            .thenComparing(MonthCategoryRollup::getCategory)
+            .thenComparing(MonthCategoryRollup::getCustomCategory)
+            .thenComparing(MonthCategoryRollup::getSource);
+
+    private static final Comparator<Map.Entry<Long, LocalDate>> MONTH_ORDER = Map.Entry
+            .<Long, LocalDate>comparingByKey()
+            .thenComparing(Map.Entry.comparingByValue());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Adds the deltas to their rows, creating rows as needed. Runs in the caller's transaction. */
+    public void apply(Collection<MonthCategoryRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, MonthCategoryRollup> merged = new LinkedHashMap<>();
+        TreeSet<Map.Entry<Long, LocalDate>> months = new TreeSet<>(MONTH_ORDER);
+        for (MonthCategoryRollup delta : deltas) {
+            merged.merge(key(delta), copy(delta), BudgetRollupStore::add);
+            months.add(Map.entry(delta.getUserId(), delta.getMonthStart()));
+        }
+        List<Object[]> rows = new ArrayList<>(merged.size());
+        Map<Map.Entry<Long, LocalDate>, Set<String>> spentCategories = new TreeMap<>(MONTH_ORDER);
+        for (MonthCategoryRollup delta : merged.values().stream().filter(d -> !isNoop(d)).sorted(KEY_ORDER).toList()) {
+            rows.add(new Object[] {
+                    delta.getUserId(), Date.valueOf(delta.getMonthStart()), delta.getEntryType().name(),
+                    delta.getCategory(), delta.getCustomCategory(), delta.getSource(), delta.getAmount(),
+                    delta.getEntryCount(), delta.getRecurringAmount(), delta.getRecurringCount(),
+                    delta.getStableAmount() });
+            if (delta.getEntryType() == EntryType.EXPENSE) {
+                spentCategories.computeIfAbsent(Map.entry(delta.getUserId(), delta.getMonthStart()),
+                        month -> new TreeSet<>()).add(delta.getEffectiveCategoryName());
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+        jdbcTemplate.batchUpdate(BUMP_VERSION, months.stream()
+                .map(month -> new Object[] { month.getKey(), Date.valueOf(month.getValue()) })
+                .toList());
+
+        spentCategories.forEach((month, categories) -> {
+            // The overall budget moves with every category
+            categories.add(ExpenseCategory.TOTAL.name());
+            eventPublisher.publishEvent(new BudgetSpendChangedEvent(month.getKey(), month.getValue(), categories));
+        });
+    }
+
+    public void apply(MonthCategoryRollup delta) {
+        apply(List.of(delta));
+    }
+
+    /** Replaces {@code before} with {@code after}, e.g. when an expense is edited. */
+    public void replace(MonthCategoryRollup before, MonthCategoryRollup after) {
+        apply(List.of(before.negate(), after));
+    }
+
+    /** Marks a user's month as changed without touching its totals, e.g. when a budget limit changes. */
+    public void touchMonth(Long userId, LocalDate monthStart) {
+        jdbcTemplate.update(BUMP_VERSION, userId, Date.valueOf(monthStart));
+    }
+
+    /** How often the user's month has changed; 0 if it never has. */
+    public long findVersion(Long userId, LocalDate monthStart) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM user_month_data_version WHERE user_id = ? AND month_start = ?",
+                Long.class, userId, Date.valueOf(monthStart));
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    /** Rows of a user's month that still have entries. */
+    public List<MonthCategoryRollup> findMonth(Long userId, LocalDate monthStart) {
+        return findMonths(userId, monthStart, monthStart);
+    }
+
+    /** Rows of the user's months {@code [fromMonth, toMonth]} that still have entries. */
+    public List<MonthCategoryRollup> findMonths(Long userId, LocalDate fromMonth, LocalDate toMonth) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM user_month_category_rollup "
+                + "WHERE user_id = ? AND month_start BETWEEN ? AND ? AND entry_count > 0",
+                (rs, i) -> map(rs), userId, Date.valueOf(fromMonth), Date.valueOf(toMonth));
+    }
+
+    /**
+     * A user's expenses of a month in one category (effective name, as in
+     * {@link MonthCategoryRollup#getEffectiveCategoryName()}), or in all
+     * categories when {@code category} is null.
+     */
+    public BigDecimal findExpenseTotal(Long userId, LocalDate monthStart, String category) {
+        String sql = "SELECT COALESCE(SUM(amount), 0) FROM user_month_category_rollup "
+                + "WHERE user_id = ? AND month_start = ? AND entry_type = 'EXPENSE'";
+        if (category == null) {
+            return jdbcTemplate.queryForObject(sql, BigDecimal.class, userId, Date.valueOf(monthStart));
+        }
+        return jdbcTemplate.queryForObject(
+                sql + " AND (custom_category = ? OR (custom_category = '' AND category = ?))",
+                BigDecimal.class, userId, Date.valueOf(monthStart), category, category);
+    }
+
+    /** Users with expenses, incomes or rollup rows. */
+    public List<Long> findUserIds() {
+        return jdbcTemplate.queryForList("SELECT user_id FROM expenses UNION SELECT user_id FROM incomes "
+                + "UNION SELECT user_id FROM user_month_category_rollup", Long.class);
+    }
+
+    /**
+     * Recomputes all of a user's rows from {@code expenses} and {@code incomes}, in
+     * its own transaction so a rebuild over many users commits user by user.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void rebuildUser(Long userId) {
+        jdbcTemplate.update("DELETE FROM user_month_category_rollup WHERE user_id = ?", userId);
+        int expenseRows = jdbcTemplate.update(REBUILD_EXPENSES, userId);
+        int incomeRows = jdbcTemplate.update(REBUILD_INCOMES, userId);
+        // The repair may have changed any month, so cached reports of all of them go stale
+        jdbcTemplate.update("UPDATE user_month_data_version SET version = version + 1 WHERE user_id = ?", userId);
+        jdbcTemplate.update("INSERT IGNORE INTO user_month_data_version (user_id, month_start, version) "
+                + "SELECT DISTINCT user_id, month_start, 1 FROM user_month_category_rollup WHERE user_id = ?",
+                userId);
+        log.debug("Rebuilt budget rollup for user {}: {} expense and {} income rows", userId, expenseRows,
+                incomeRows);
+    }
+
+    private static MonthCategoryRollup map(ResultSet rs) throws SQLException {
+        return MonthCategoryRollup.builder()
+                .userId(rs.getLong("user_id"))
+                .monthStart(rs.getDate("month_start").toLocalDate())
+                .entryType(EntryType.valueOf(rs.getString("entry_type")))
+                .category(rs.getString("category"))
+                .customCategory(rs.getString("custom_category"))
+                .source(rs.getString("source"))
+                .amount(rs.getBigDecimal("amount"))
+                .entryCount(rs.getInt("entry_count"))
+                .recurringAmount(rs.getBigDecimal("recurring_amount"))
+                .recurringCount(rs.getInt("recurring_count"))
+                .stableAmount(rs.getBigDecimal("stable_amount"))
+                .build();
+    }
+
+    private static List<Object> key(MonthCategoryRollup delta) {
+        return List.of(delta.getUserId(), delta.getMonthStart(), delta.getEntryType(), delta.getCategory(),
+                delta.getCustomCategory(), delta.getSource());
+    }
+
+    private static MonthCategoryRollup copy(MonthCategoryRollup delta) {
+        return delta.toBuilder().build();
+    }
+
+    private static MonthCategoryRollup add(MonthCategoryRollup a, MonthCategoryRollup b) {
+        a.setAmount(a.getAmount().add(b.getAmount()));
+        a.setEntryCount(a.getEntryCount() + b.getEntryCount());
+        a.setRecurringAmount(a.getRecurringAmount().add(b.getRecurringAmount()));
+        a.setRecurringCount(a.getRecurringCount() + b.getRecurringCount());
+        a.setStableAmount(a.getStableAmount().add(b.getStableAmount()));
+        return a;
+    }
+
+    // An edit that did not touch the amount or dimensions cancels out
+    private static boolean isNoop(MonthCategoryRollup delta) {
+        return delta.getEntryCount() == 0 && delta.getRecurringCount() == 0
+                && delta.getAmount().signum() == 0 && delta.getRecurringAmount().signum() == 0
+                && delta.getStableAmount().signum() == 0;
+    }
+}
@@ -8,15 +8,40 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
 
+    /**
+     * An expense as listed, without tags
+     */
+    interface ExpenseRow {
+        Long getId();
+
+        BigDecimal getAmount();
+
+        ExpenseCategory getCategory();
+
+        String getCustomCategoryName();
+
+        LocalDate getExpenseDate();
+
+        String getDescription();
+
+        String getNotes();
+
+        Long getSmsTransactionId();
+    }
+
     // Eagerly load tags in every paginated query — prevents LazyInitializationException
     // when Jackson serializes Expense.tags after the transaction closes
     @EntityGraph(attributePaths = {"tags"})
@@ -36,4 +61,30 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
 
     @EntityGraph(attributePaths = {"tags"})
     List<Expense> findByUserIdAndCategory(Long userId, ExpenseCategory category);
+
+    // Ids first: paging a fetch join on tags would make Hibernate page in memory
+    @Query("SELECT e.id FROM Expense e WHERE e.userId = :userId AND e.expenseDate BETWEEN :start AND :end "
+            + "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<Long> findRecentIds(@Param("userId") Long userId, @Param("start") LocalDate start,
+            @Param("end") LocalDate end, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tags"})
+    List<Expense> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Page of a user's expenses dated {@code from} to {@code to}, in (expense date, id)
+     * descending order; on {@code to} itself only ids below {@code beforeId}. Served by
+     * idx_expenses_user_date / idx_expenses_user_category_date.
+     */
+    @Query("SELECT e.id AS id, e.amount AS amount, e.category AS category, " +
+           "e.customCategoryName AS customCategoryName, e.expenseDate AS expenseDate, " +
+           "e.description AS description, e.notes AS notes, e.smsTransactionId AS smsTransactionId " +
+           "FROM Expense e WHERE e.userId = :userId AND e.expenseDate BETWEEN :from AND :to " +
+           "AND (e.expenseDate < :to OR e.id < :beforeId) " +
+           "AND (:category IS NULL OR e.category = :category) " +
+           "AND (:search IS NULL OR LOWER(e.description) LIKE :search) " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseRow> findPageBefore(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("beforeId") Long beforeId,
+            @Param("category") ExpenseCategory category, @Param("search") String search, Pageable pageable);
 }
@@ -1,16 +1,61 @@
 package com.pisystem.modules.budget.repo;
 
 import com.pisystem.modules.budget.data.Income;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface IncomeRepository extends JpaRepository<Income, Long>, JpaSpecificationExecutor<Income> {
+
+    /**
+     * An income as listed
+     */
+    interface IncomeRow {
+        Long getId();
+
+        String getSource();
+
+        BigDecimal getAmount();
+
+        LocalDate getDate();
+
+        Boolean getIsRecurring();
+
+        Boolean getIsStable();
+
+        String getDescription();
+
+        Long getSmsTransactionId();
+    }
+
     List<Income> findByUserId(Long userId);
 
     List<Income> findByUserIdAndDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
+
+    List<Income> findTop20ByUserIdAndDateBetweenOrderByDateDescIdDesc(Long userId, LocalDate startDate,
+            LocalDate endDate);
+
+    /**
+     * Page of a user's incomes dated {@code from} to {@code to}, in (date, id)
+     * descending order; on {@code to} itself only ids below {@code beforeId}.
+     * Served by idx_incomes_user_date.
+     */
+    @Query("SELECT i.id AS id, i.source AS source, i.amount AS amount, i.date AS date, " +
+           "i.isRecurring AS isRecurring, i.isStable AS isStable, i.description AS description, " +
+           "i.smsTransactionId AS smsTransactionId " +
+           "FROM Income i WHERE i.userId = :userId AND i.date BETWEEN :from AND :to " +
+           "AND (i.date < :to OR i.id < :beforeId) " +
+           "AND (:source IS NULL OR i.source = :source) " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeRow> findPageBefore(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("beforeId") Long beforeId, @Param("source") String source,
+            Pageable pageable);
 }
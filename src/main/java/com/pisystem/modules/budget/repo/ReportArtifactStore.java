@@ -0,0 +1,78 @@
+package com.pisystem.modules.budget.repo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rendered report files on local disk, addressed by the SHA-256 of their content:
+ * {@code <dir>/<first two hex digits>/<hash>.pdf}. Files are written to a temporary
+ * name and moved into place, so a reader never sees a partly written artifact.
+ * Reports carry their generation date in the footer, so the hash mainly names the
+ * file; two jobs share one only when rendered from the same data on the same day.
+ */
+@Repository
+@Slf4j
+public class ReportArtifactStore {
+
+    private final Path directory;
+
+    public ReportArtifactStore(@Value("${budget.reports.dir:./data/budget-reports}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    /** Stores the content if not already present and returns its hash. */
+    public String put(byte[] content) throws IOException {
+        String hash = hash(content);
+        Path target = path(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return hash;
+    }
+
+    public boolean exists(String hash) {
+        return Files.exists(path(hash));
+    }
+
+    public byte[] read(String hash) throws IOException {
+        return Files.readAllBytes(path(hash));
+    }
+
+    public void delete(String hash) {
+        try {
+            Files.deleteIfExists(path(hash));
+        } catch (IOException e) {
+            log.warn("Could not delete report artifact {}: {}", hash, e.getMessage());
+        }
+    }
+
+    Path path(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
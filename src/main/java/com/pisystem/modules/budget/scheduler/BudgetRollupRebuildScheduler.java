@@ -0,0 +1,48 @@
+package com.pisystem.modules.budget.scheduler;
+
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
+import com.pisystem.core.admin.service.JobStatusService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRollupRebuildScheduler {
+
+    private final BudgetRollupStore rollupStore;
+    private final JobStatusService jobStatusService;
+
+    /**
+     * Recompute the monthly budget rollup from expenses and incomes every Sunday at 3:00 AM.
+     * The rollup is kept current on every write; this repairs drift from rows changed
+     * outside the application and backfills users after a restore.
+     */
+    @Scheduled(cron = "0 0 3 * * SUN")
+    public void rebuildRollups() {
+        if (!jobStatusService.isJobEnabled("BUDGET_ROLLUP_REBUILD")) {
+            log.info("Skipping BUDGET_ROLLUP_REBUILD job as it is currently DISABLED.");
+            return;
+        }
+
+        log.info("Starting budget rollup rebuild...");
+        jobStatusService.updateLastRun("BUDGET_ROLLUP_REBUILD");
+
+        List<Long> userIds = rollupStore.findUserIds();
+        int failed = 0;
+        for (Long userId : userIds) {
+            try {
+                rollupStore.rebuildUser(userId);
+            } catch (Exception e) {
+                failed++;
+                log.error("Error rebuilding budget rollup for user {}: {}", userId, e.getMessage(), e);
+            }
+        }
+        log.info("Budget rollup rebuild completed: {} users, {} failed", userIds.size(), failed);
+    }
+}
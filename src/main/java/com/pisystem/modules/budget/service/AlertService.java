@@ -4,7 +4,9 @@ import com.pisystem.modules.budget.data.Alert;
 import com.pisystem.modules.budget.dto.AlertResponse;
 import com.pisystem.modules.budget.dto.AlertSummary;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface AlertService {
 
@@ -16,6 +18,16 @@ public interface AlertService {
      */
     List<Alert> checkBudgetsAndGenerateAlerts(Long userId, String monthYear);
 
+    /**
+     * Re-evaluate one category's budget after its spending changed, alerting once
+     * per threshold crossing (80% and 100%)
+     * @param userId User ID
+     * @param monthStart First day of the month
+     * @param category Effective category name (custom category, system category or TOTAL)
+     * @return The alert raised, if a threshold was crossed
+     */
+    Optional<Alert> evaluateBudgetThreshold(Long userId, LocalDate monthStart, String category);
+
     /**
      * Get all alerts for a user
      * @param userId User ID
@@ -4,17 +4,19 @@ import com.pisystem.modules.budget.data.Alert;
 import com.pisystem.modules.budget.data.Alert.AlertSeverity;
 import com.pisystem.modules.budget.data.Alert.AlertType;
 import com.pisystem.modules.budget.data.Budget;
-import com.pisystem.modules.budget.data.BudgetVarianceAnalysis;
-import com.pisystem.modules.budget.data.Expense;
+import com.pisystem.modules.budget.data.ExpenseCategory;
 import com.pisystem.modules.budget.dto.AlertResponse;
 import com.pisystem.modules.budget.dto.AlertSummary;
 import com.pisystem.modules.budget.exception.ResourceNotFoundException;
 import com.pisystem.modules.budget.repo.AlertRepository;
+import com.pisystem.modules.budget.repo.BudgetAlertStateStore;
 import com.pisystem.modules.budget.repo.BudgetRepository;
-import com.pisystem.modules.budget.repo.ExpenseRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -22,7 +24,9 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,15 +36,15 @@ public class AlertServiceImpl implements AlertService {
 
     private final AlertRepository alertRepository;
     private final BudgetRepository budgetRepository;
-    private final ExpenseRepository expenseRepository;
+    private final BudgetRollupStore rollupStore;
+    private final BudgetAlertStateStore alertStateStore;
 
-    // Alert thresholds
-    private static final BigDecimal WARNING_THRESHOLD = BigDecimal.valueOf(75); // 75%
-    private static final BigDecimal CRITICAL_THRESHOLD = BigDecimal.valueOf(90); // 90%
-    private static final BigDecimal DANGER_THRESHOLD = BigDecimal.valueOf(100); // 100%
+    // Alert thresholds, in percent of the budget
+    private static final int APPROACHING_THRESHOLD = 80;
+    private static final int EXCEEDED_THRESHOLD = 100;
 
     @Override
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public List<Alert> checkBudgetsAndGenerateAlerts(Long userId, String monthYear) {
         log.info("Checking budgets for user {} in month {}", userId, monthYear);
         
@@ -54,17 +58,11 @@ public class AlertServiceImpl implements AlertService {
             return generatedAlerts;
         }
         
-        // Parse month year for date filtering
-        YearMonth yearMonth = YearMonth.parse(monthYear);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
+        LocalDate monthStart = YearMonth.parse(monthYear).atDay(1);
         
         for (Budget budget : budgets) {
             try {
-                Alert alert = checkBudgetAndCreateAlert(budget, startDate, endDate);
-                if (alert != null) {
-                    generatedAlerts.add(alert);
-                }
+                evaluateBudget(budget, monthStart).ifPresent(generatedAlerts::add);
             } catch (Exception e) {
                 log.error("Error checking budget {} for user {}: {}", 
                          budget.getId(), userId, e.getMessage(), e);
@@ -77,15 +75,47 @@ public class AlertServiceImpl implements AlertService {
         return generatedAlerts;
     }
 
-    private Alert checkBudgetAndCreateAlert(Budget budget, LocalDate startDate, LocalDate endDate) {
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public Optional<Alert> evaluateBudgetThreshold(Long userId, LocalDate monthStart, String category) {
+        String monthYear = YearMonth.from(monthStart).toString();
+        Optional<Budget> budget = findBudget(userId, monthYear, category);
+        if (budget.isEmpty()) {
+            alertStateStore.clear(userId, monthStart, category);
+            return Optional.empty();
+        }
+        return evaluateBudget(budget.get(), monthStart);
+    }
+
+    private Optional<Budget> findBudget(Long userId, String monthYear, String category) {
+        boolean systemCategory = Arrays.stream(ExpenseCategory.values())
+            .anyMatch(value -> value.name().equals(category));
+        if (systemCategory) {
+            return budgetRepository.findByUserIdAndCategoryAndMonthYear(
+                    userId, ExpenseCategory.valueOf(category), monthYear)
+                .filter(budget -> !budget.isCustomCategory());
+        }
+        return budgetRepository.findByUserIdAndMonthYearAndCustomCategoryName(userId, monthYear, category);
+    }
+
+    /**
+     * Compares the category's month total with its budget and raises an alert if
+     * spending crossed a threshold since the last evaluation.
+     *
+     * <p>The category's state row is locked before the total is read, and callers
+     * run at READ COMMITTED, so the total is never older than the one behind the
+     * stored level: concurrent evaluations take turns and the later one cannot
+     * lower a level set from newer spending.</p>
+     */
+    private Optional<Alert> evaluateBudget(Budget budget, LocalDate monthStart) {
         String categoryName = budget.getEffectiveCategoryName();
+        int previousLevel = alertStateStore.lockLevel(budget.getUserId(), monthStart, categoryName);
         
-        // Calculate total spent for this category
-        BigDecimal totalSpent = calculateCategorySpending(
-            budget.getUserId(), 
-            categoryName, 
-            startDate, 
-            endDate
+        // Running month total of the category, or of all categories for the overall budget
+        BigDecimal totalSpent = rollupStore.findExpenseTotal(
+            budget.getUserId(),
+            monthStart,
+            budget.getCategory() == ExpenseCategory.TOTAL ? null : categoryName
         );
         
         // Calculate percentage used
@@ -99,29 +129,17 @@ public class AlertServiceImpl implements AlertService {
         log.debug("Budget check - Category: {}, Limit: {}, Spent: {}, Percentage: {}%",
                  categoryName, budget.getMonthlyLimit(), totalSpent, percentageUsed);
         
-        // Determine if we need to create an alert
-        AlertSeverity severity = determineSeverity(percentageUsed);
-        
-        // Only create alerts for WARNING and above
-        if (severity == AlertSeverity.INFO) {
-            return null;
+        int level = thresholdLevel(percentageUsed);
+        if (level != previousLevel) {
+            alertStateStore.setLevel(budget.getUserId(), monthStart, categoryName, level);
         }
         
-        // Check if alert already exists for this category and threshold
-        boolean alertExists = alertRepository.existsByUserIdAndCategoryAndMonthYearAndAlertType(
-            budget.getUserId(),
-            categoryName,
-            budget.getMonthYear(),
-            determineAlertType(percentageUsed)
-        );
-        
-        if (alertExists) {
-            log.debug("Alert already exists for category {} in month {}", 
-                     categoryName, budget.getMonthYear());
-            return null;
+        // Only a rise past a threshold alerts; staying above it or falling back does not
+        if (level <= previousLevel) {
+            return Optional.empty();
         }
         
-        // Create and save new alert
+        boolean exceeded = level >= EXCEEDED_THRESHOLD;
         Alert alert = buildAlert(
             budget.getUserId(),
             categoryName,
@@ -129,59 +147,30 @@ public class AlertServiceImpl implements AlertService {
             totalSpent,
             percentageUsed,
             budget.getMonthYear(),
-            severity
+            exceeded ? AlertType.BUDGET_EXCEEDED : AlertType.APPROACHING_LIMIT,
+            exceeded ? AlertSeverity.DANGER : AlertSeverity.WARNING
         );
         
         Alert savedAlert = alertRepository.save(alert);
         log.info("Created {} alert for user {} - Category: {}, {}% used",
-                severity, budget.getUserId(), categoryName, percentageUsed);
-        
-        return savedAlert;
-    }
-
-    private BigDecimal calculateCategorySpending(Long userId, String categoryName, 
-                                                  LocalDate startDate, LocalDate endDate) {
-        List<Expense> expenses = expenseRepository
-            .findByUserIdAndExpenseDateBetween(userId, startDate, endDate);
+                savedAlert.getSeverity(), budget.getUserId(), categoryName, percentageUsed);
         
-        return expenses.stream()
-            .filter(expense -> {
-                String expenseCategory = expense.isCustomCategory() 
-                    ? expense.getCustomCategoryName() 
-                    : (expense.getCategory() != null ? expense.getCategory().name() : null);
-                return categoryName.equals(expenseCategory);
-            })
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private AlertSeverity determineSeverity(BigDecimal percentageUsed) {
-        if (percentageUsed.compareTo(DANGER_THRESHOLD) >= 0) {
-            return AlertSeverity.DANGER;
-        } else if (percentageUsed.compareTo(CRITICAL_THRESHOLD) >= 0) {
-            return AlertSeverity.CRITICAL;
-        } else if (percentageUsed.compareTo(WARNING_THRESHOLD) >= 0) {
-            return AlertSeverity.WARNING;
-        } else {
-            return AlertSeverity.INFO;
-        }
+        return Optional.of(savedAlert);
     }
 
-    private AlertType determineAlertType(BigDecimal percentageUsed) {
-        if (percentageUsed.compareTo(DANGER_THRESHOLD) >= 0) {
-            return AlertType.BUDGET_EXCEEDED;
-        } else if (percentageUsed.compareTo(CRITICAL_THRESHOLD) >= 0) {
-            return AlertType.APPROACHING_LIMIT;
-        } else {
-            return AlertType.OVERSPENDING;
+    private int thresholdLevel(BigDecimal percentageUsed) {
+        if (percentageUsed.compareTo(BigDecimal.valueOf(EXCEEDED_THRESHOLD)) >= 0) {
+            return EXCEEDED_THRESHOLD;
+        } else if (percentageUsed.compareTo(BigDecimal.valueOf(APPROACHING_THRESHOLD)) >= 0) {
+            return APPROACHING_THRESHOLD;
         }
+        return 0;
     }
 
     private Alert buildAlert(Long userId, String category, BigDecimal budgetLimit,
                             BigDecimal amountSpent, BigDecimal percentageUsed,
-                            String monthYear, AlertSeverity severity) {
+                            String monthYear, AlertType alertType, AlertSeverity severity) {
         String message = generateAlertMessage(category, percentageUsed, severity, monthYear);
-        AlertType alertType = determineAlertType(percentageUsed);
         
         return Alert.builder()
             .userId(userId)
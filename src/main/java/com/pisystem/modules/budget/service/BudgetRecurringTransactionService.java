@@ -11,9 +11,11 @@ import org.springframework.transaction.annotation.Transactional;
 import com.pisystem.core.admin.service.JobStatusService;
 import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.Income;
+import com.pisystem.modules.budget.data.MonthCategoryRollup;
 import com.pisystem.modules.budget.data.RecurrencePattern;
 import com.pisystem.modules.budget.data.RecurringTemplate;
 import com.pisystem.modules.budget.data.TransactionType;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
 import com.pisystem.modules.budget.repo.ExpenseRepository;
 import com.pisystem.modules.budget.repo.IncomeRepository;
 import com.pisystem.modules.budget.repo.RecurringTemplateRepository;
@@ -33,6 +35,7 @@ public class BudgetRecurringTransactionService {
     private final ExpenseRepository expenseRepository;
     private final IncomeRepository incomeRepository;
     private final JobStatusService jobStatusService;
+    private final BudgetRollupStore rollupStore;
 
     /**
      * Get all recurring templates for a user
@@ -266,6 +269,7 @@ public class BudgetRecurringTransactionService {
                     .notes("Generated from recurring template: " + template.getName())
                     .build();
             expenseRepository.save(expense);
+            rollupStore.apply(MonthCategoryRollup.of(expense));
             log.info("Generated recurring expense: {} for user {} on {}",
                     template.getName(), template.getUserId(), date);
 
@@ -280,6 +284,7 @@ public class BudgetRecurringTransactionService {
                     .description("Generated from recurring template: " + template.getName())
                     .build();
             incomeRepository.save(income);
+            rollupStore.apply(MonthCategoryRollup.of(income));
             log.info("Generated recurring income: {} for user {} on {}",
                     template.getName(), template.getUserId(), date);
         }
@@ -0,0 +1,352 @@
+package com.pisystem.modules.budget.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import com.pisystem.infrastructure.alerts.service.EmailService;
+import com.pisystem.modules.budget.data.BudgetReportJob;
+import com.pisystem.modules.budget.data.BudgetReportJob.Status;
+import com.pisystem.modules.budget.exception.ResourceNotFoundException;
+import com.pisystem.modules.budget.repo.BudgetReportJobRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
+import com.pisystem.modules.budget.repo.ReportArtifactStore;
+import com.pisystem.shared.security.AuthenticationHelper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue for monthly PDF reports.
+ *
+ * <p>A request is keyed by (user, month, data version of the month), with one job
+ * row per key. If the job for that key is READY its cached PDF is served; if it is
+ * queued or running the caller gets that job; otherwise it is (re)queued and
+ * rendered on a bounded worker pool. Concurrent requests for the same user and
+ * month on this node take turns finding or queuing the job; a duplicate insert
+ * from another node is caught and the job already stored for the key is returned.
+ * A queued or running job this node does not own is taken to be another node's
+ * until it has gone {@code budget.reports.stale-after-ms} without a status change;
+ * after that it is failed and rendered again. When the pool's queue is full
+ * the job fails right away instead of piling up. Any expense, income or budget
+ * change of the month bumps its data version, so the next request renders
+ * afresh; artifacts of older versions are deleted once a newer one is ready.</p>
+ *
+ * <p>Workers run with the requester's security context, since rendering goes
+ * through the same access-checked report service as the synchronous endpoints.</p>
+ */
+@Service
+@Slf4j
+public class BudgetReportJobService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final BudgetReportJobRepository jobRepository;
+    private final ReportArtifactStore artifactStore;
+    private final BudgetRollupStore rollupStore;
+    private final ReportGenerationService reportGenerationService;
+    private final EmailService emailService;
+    private final AuthenticationHelper authenticationHelper;
+    private final long waitTimeoutMs;
+    private final long staleAfterMs;
+
+    private final ThreadPoolExecutor workers;
+
+    // Completion of the jobs queued or running on this node, by job id
+    private final Map<Long, CompletableFuture<BudgetReportJob>> inFlight = new ConcurrentHashMap<>();
+
+    // Held while finding or queuing a job, so concurrent requests for a user's month share
+    // one job; by "user:month", dropped once no request holds or waits for it
+    private final Map<String, RequestLock> requestLocks = new ConcurrentHashMap<>();
+
+    public BudgetReportJobService(BudgetReportJobRepository jobRepository,
+                                  ReportArtifactStore artifactStore,
+                                  BudgetRollupStore rollupStore,
+                                  ReportGenerationService reportGenerationService,
+                                  EmailService emailService,
+                                  AuthenticationHelper authenticationHelper,
+                                  @Value("${budget.reports.workers:2}") int workerCount,
+                                  @Value("${budget.reports.queue-capacity:50}") int queueCapacity,
+                                  @Value("${budget.reports.wait-timeout-ms:30000}") long waitTimeoutMs,
+                                  @Value("${budget.reports.stale-after-ms:600000}") long staleAfterMs) {
+        this.jobRepository = jobRepository;
+        this.artifactStore = artifactStore;
+        this.rollupStore = rollupStore;
+        this.reportGenerationService = reportGenerationService;
+        this.emailService = emailService;
+        this.authenticationHelper = authenticationHelper;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.staleAfterMs = staleAfterMs;
+        int threads = Math.max(1, workerCount);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("budget-report-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Returns the job for the month's current data: the cached READY one, the one
+     * already queued or running, or a newly queued one.
+     */
+    public BudgetReportJob requestMonthlyReport(Long userId, String monthYear) {
+        authenticationHelper.validateUserAccess(userId);
+        String month = normalizeMonth(monthYear);
+        long version = rollupStore.findVersion(userId, YearMonth.parse(month).atDay(1));
+
+        String key = userId + ":" + month;
+        RequestLock lock = requestLocks.compute(key, (k, held) -> (held != null ? held : new RequestLock()).join());
+        try {
+            synchronized (lock) {
+                return findOrQueue(userId, month, version);
+            }
+        } finally {
+            requestLocks.computeIfPresent(key, (k, held) -> held.leave() ? null : held);
+        }
+    }
+
+    /**
+     * Like {@link #requestMonthlyReport}, but waits up to
+     * {@code budget.reports.wait-timeout-ms} for the job to finish. The returned
+     * job may still be pending if rendering takes longer.
+     */
+    public BudgetReportJob awaitMonthlyReport(Long userId, String monthYear) {
+        BudgetReportJob job = requestMonthlyReport(userId, monthYear);
+        if (!job.isPending()) {
+            return job;
+        }
+        CompletableFuture<BudgetReportJob> completion = inFlight.get(job.getId());
+        if (completion != null) {
+            try {
+                return completion.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // Still pending or failed; the stored job says which
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return jobRepository.findById(job.getId()).orElse(job);
+    }
+
+    /**
+     * Queues the month's report if needed and mails it as an attachment once it is
+     * ready. Returns the job the mail waits for.
+     */
+    public BudgetReportJob emailMonthlyReport(Long userId, String monthYear, String to, String subject,
+            String body) {
+        BudgetReportJob job = requestMonthlyReport(userId, monthYear);
+        CompletableFuture<BudgetReportJob> ready = inFlight.get(job.getId());
+        if (ready == null) {
+            // Finished already, possibly between the lookup and now
+            BudgetReportJob current = job.isPending() ? jobRepository.findById(job.getId()).orElse(job) : job;
+            ready = current.isReady()
+                    ? CompletableFuture.completedFuture(current)
+                    : CompletableFuture.failedFuture(new IllegalStateException(
+                            "Report job " + current.getId() + " is " + current.getStatus()));
+        }
+        ready.thenAcceptAsync(readyJob -> emailService.sendEmailWithAttachment(to, subject, body,
+                fileName(readyJob), readArtifact(readyJob), "application/pdf"), workers)
+                .exceptionally(e -> {
+                    log.error("Monthly report {} was not mailed to {}: {}", job.getId(), to, e.getMessage());
+                    return null;
+                });
+        return job;
+    }
+
+    public BudgetReportJob getJob(Long jobId) {
+        BudgetReportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Report job", "id", jobId));
+        authenticationHelper.validateUserAccess(job.getUserId());
+        return job;
+    }
+
+    /** The PDF of a READY job. */
+    public byte[] getArtifact(BudgetReportJob job) {
+        authenticationHelper.validateUserAccess(job.getUserId());
+        if (!job.isReady()) {
+            throw new IllegalStateException("Report job " + job.getId() + " is " + job.getStatus());
+        }
+        return readArtifact(job);
+    }
+
+    public static String fileName(BudgetReportJob job) {
+        return "budget_report_" + job.getMonthYear() + ".pdf";
+    }
+
+    private BudgetReportJob findOrQueue(Long userId, String month, long version) {
+        Optional<BudgetReportJob> existing = jobRepository
+                .findFirstByUserIdAndMonthYearAndDataVersionOrderByIdDesc(userId, month, version);
+        if (existing.isPresent() && isUsable(existing.get())) {
+            return existing.get();
+        }
+
+        BudgetReportJob job;
+        try {
+            job = jobRepository.save(existing.map(BudgetReportJobService::requeue)
+                    .orElseGet(() -> BudgetReportJob.builder()
+                            .userId(userId)
+                            .monthYear(month)
+                            .dataVersion(version)
+                            .status(Status.QUEUED)
+                            .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node queued the same report first
+            log.debug("Monthly report for user {} ({}, version {}) was queued concurrently", userId, month,
+                    version);
+            return jobRepository.findFirstByUserIdAndMonthYearAndDataVersionOrderByIdDesc(userId, month, version)
+                    .orElseThrow(() -> e);
+        }
+        return submit(job);
+    }
+
+    private BudgetReportJob submit(BudgetReportJob job) {
+        CompletableFuture<BudgetReportJob> completion = new CompletableFuture<>();
+        inFlight.put(job.getId(), completion);
+        try {
+            workers.execute(DelegatingSecurityContextRunnable.create(() -> render(job.getId(), completion), null));
+            return job;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(job.getId());
+            log.warn("Report queue full; rejected monthly report for user {} ({})", job.getUserId(),
+                    job.getMonthYear());
+            return fail(job, "Report queue is full, please try again later");
+        }
+    }
+
+    private void render(Long jobId, CompletableFuture<BudgetReportJob> completion) {
+        BudgetReportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            inFlight.remove(jobId);
+            completion.completeExceptionally(new ResourceNotFoundException("Report job", "id", jobId));
+            return;
+        }
+        try {
+            job.setStatus(Status.RUNNING);
+            job = jobRepository.save(job);
+
+            byte[] pdf = reportGenerationService.generateMonthlyReport(job.getUserId(), job.getMonthYear());
+            job.setContentHash(artifactStore.put(pdf));
+            job.setSizeBytes((long) pdf.length);
+            job.setStatus(Status.READY);
+            job.setCompletedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            log.debug("Rendered monthly report {} for user {} ({}, version {})", job.getId(), job.getUserId(),
+                    job.getMonthYear(), job.getDataVersion());
+
+            evictStale(job);
+            completion.complete(job);
+        } catch (Exception e) {
+            log.error("Monthly report {} failed: {}", jobId, e.getMessage(), e);
+            try {
+                fail(job, e.getMessage());
+            } finally {
+                completion.completeExceptionally(e);
+            }
+        } finally {
+            inFlight.remove(jobId);
+        }
+    }
+
+    // Jobs of older versions of the month are never served again
+    private void evictStale(BudgetReportJob ready) {
+        for (BudgetReportJob stale : jobRepository.findByUserIdAndMonthYearAndDataVersionLessThan(
+                ready.getUserId(), ready.getMonthYear(), ready.getDataVersion())) {
+            if (stale.isPending() && inFlight.containsKey(stale.getId())) {
+                continue;
+            }
+            jobRepository.delete(stale);
+            if (stale.getContentHash() != null && !jobRepository.existsByContentHash(stale.getContentHash())) {
+                artifactStore.delete(stale.getContentHash());
+            }
+        }
+    }
+
+    // A pending job of another node is left to it; one nobody touched for stale-after-ms
+    // was left QUEUED or RUNNING by a node that stopped, and will never finish
+    private boolean isUsable(BudgetReportJob job) {
+        switch (job.getStatus()) {
+            case READY:
+                return artifactStore.exists(job.getContentHash());
+            case QUEUED:
+            case RUNNING:
+                if (inFlight.containsKey(job.getId()) || !isOrphaned(job)) {
+                    return true;
+                }
+                fail(job, "Interrupted before completion");
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isOrphaned(BudgetReportJob job) {
+        return job.getUpdatedAt() == null
+                || job.getUpdatedAt().isBefore(LocalDateTime.now().minus(staleAfterMs, ChronoUnit.MILLIS));
+    }
+
+    // A failed job, or a READY one whose artifact is gone, is rendered again in place
+    private static BudgetReportJob requeue(BudgetReportJob job) {
+        job.setStatus(Status.QUEUED);
+        job.setContentHash(null);
+        job.setSizeBytes(null);
+        job.setErrorMessage(null);
+        job.setCompletedAt(null);
+        return job;
+    }
+
+    private BudgetReportJob fail(BudgetReportJob job, String message) {
+        job.setStatus(Status.FAILED);
+        job.setErrorMessage(message != null && message.length() > MAX_ERROR_LENGTH
+                ? message.substring(0, MAX_ERROR_LENGTH)
+                : message);
+        job.setCompletedAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    private byte[] readArtifact(BudgetReportJob job) {
+        try {
+            return artifactStore.read(job.getContentHash());
+        } catch (IOException e) {
+            throw new IllegalStateException("Report artifact of job " + job.getId() + " is not readable", e);
+        }
+    }
+
+    private static String normalizeMonth(String monthYear) {
+        return monthYear == null ? YearMonth.now().toString() : YearMonth.parse(monthYear).toString();
+    }
+
+    // Lock of one user's month; users is only changed inside requestLocks.compute
+    private static final class RequestLock {
+
+        private int users;
+
+        RequestLock join() {
+            users++;
+            return this;
+        }
+
+        boolean leave() {
+            return --users == 0;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.pisystem.modules.budget.service;
 
 import com.pisystem.modules.budget.data.*;
+import com.pisystem.modules.budget.data.MonthCategoryRollup.EntryType;
+import com.pisystem.modules.budget.dto.CursorPage;
+import com.pisystem.modules.budget.event.BudgetSpendChangedEvent;
 import com.pisystem.modules.budget.exception.*;
 import com.pisystem.modules.budget.repo.BudgetRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
 import com.pisystem.modules.budget.repo.CustomCategoryRepository;
 import com.pisystem.modules.budget.repo.ExpenseRepository;
+import com.pisystem.modules.budget.repo.ExpenseRepository.ExpenseRow;
 import com.pisystem.modules.budget.repo.IncomeRepository;
+import com.pisystem.modules.budget.repo.IncomeRepository.IncomeRow;
 import com.pisystem.shared.security.AuthenticationHelper;
 import com.pisystem.shared.subscription.SubscriptionTierService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -21,18 +29,31 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BudgetService {
 
+    // Entries listed on the monthly report; totals come from the rollup
+    private static final int RECENT_ENTRIES = 20;
+
+    // Keyset listings
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
     private final ExpenseRepository expenseRepository;
     private final BudgetRepository budgetRepository;
     private final IncomeRepository incomeRepository;
     private final CustomCategoryRepository customCategoryRepository;
     private final AuthenticationHelper authenticationHelper;
+    private final BudgetRollupStore rollupStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private SubscriptionTierService subscriptionTierService;
@@ -43,7 +64,9 @@ public class BudgetService {
         if (expense.getExpenseDate() == null) {
             expense.setExpenseDate(LocalDate.now());
         }
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        rollupStore.apply(MonthCategoryRollup.of(saved));
+        return saved;
     }
 
     @Transactional
@@ -101,6 +124,8 @@ public class BudgetService {
                     .orElseGet(() -> budgetRepository.save(budget));
         }
 
+        touchBudgetMonth(savedBudget.getUserId(), savedBudget.getMonthYear(),
+                Collections.singleton(savedBudget.getEffectiveCategoryName()));
         return savedBudget;
     }
 
@@ -186,6 +211,10 @@ public class BudgetService {
             savedBudgets.add(savedBudget);
         }
 
+        touchBudgetMonth(userId, monthYear, savedBudgets.stream()
+                .map(Budget::getEffectiveCategoryName)
+                .toList());
+
         // Include any TOTAL (overall) budget in response if present
         budgetRepository.findByUserIdAndCategoryAndMonthYear(userId, ExpenseCategory.TOTAL, monthYear)
                 .ifPresent(savedBudgets::add);
@@ -220,6 +249,23 @@ public class BudgetService {
                     .build();
             budgetRepository.save(total);
         }
+        touchBudgetMonth(userId, monthYear, Set.of(ExpenseCategory.TOTAL.name()));
+    }
+
+    // Budget limits appear on the monthly report, so a change invalidates its cached
+    // PDF, and may move the categories across an alert threshold
+    private void touchBudgetMonth(Long userId, String monthYear, Collection<String> categories) {
+        LocalDate monthStart;
+        try {
+            monthStart = YearMonth.parse(monthYear).atDay(1);
+        } catch (DateTimeParseException e) {
+            // Reports and alerts only cover yyyy-MM months, so nothing can refer to it
+            return;
+        }
+        rollupStore.touchMonth(userId, monthStart);
+        eventPublisher.publishEvent(new BudgetSpendChangedEvent(userId, monthStart, categories.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())));
     }
 
     @Transactional(readOnly = true)
@@ -232,15 +278,14 @@ public class BudgetService {
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndExpenseDateBetween(userId, start, end);
+        List<MonthCategoryRollup> rollup = rollupStore.findMonth(userId, start);
         List<Budget> budgets = budgetRepository.findByUserIdAndMonthYear(userId, monthYear);
-        List<Income> incomes = incomeRepository.findByUserIdAndDateBetween(userId, start, end);
 
-        Map<ExpenseCategory, BigDecimal> spentPerCategory = expenses.stream()
-                .filter(e -> e.getCategory() != null)
+        Map<ExpenseCategory, BigDecimal> spentPerCategory = rollup.stream()
+                .filter(r -> r.getEntryType() == EntryType.EXPENSE && !r.getCategory().isEmpty())
                 .collect(Collectors.groupingBy(
-                        Expense::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO, Expense::getAmount, BigDecimal::add)));
+                        r -> ExpenseCategory.valueOf(r.getCategory()),
+                        Collectors.reducing(BigDecimal.ZERO, MonthCategoryRollup::getAmount, BigDecimal::add)));
 
         Map<ExpenseCategory, BudgetReportDTO.CategorySummary> breakdown = new HashMap<>();
 
@@ -270,9 +315,7 @@ public class BudgetService {
             }
         });
 
-        BigDecimal totalSpent = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalSpent = total(rollup, EntryType.EXPENSE);
 
         // totalBudget = the overall/monthly budget the user explicitly set (TOTAL
         // category).
@@ -284,9 +327,7 @@ public class BudgetService {
                 .findFirst()
                 .orElse(BigDecimal.ZERO);
 
-        BigDecimal totalIncome = incomes.stream()
-                .map(Income::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalIncome = total(rollup, EntryType.INCOME);
 
         BigDecimal balance = totalIncome.subtract(totalSpent);
         BigDecimal remainingBudget = totalBudget.subtract(totalSpent);
@@ -306,11 +347,37 @@ public class BudgetService {
                 .savings(savings)
                 .budgetUsagePercentage(budgetUsagePercentage)
                 .categoryBreakdown(breakdown)
-                .recentExpenses(expenses)
-                .recentIncomes(incomes)
+                .recentExpenses(findRecentExpenses(userId, start, end))
+                .recentIncomes(incomeRepository.findTop20ByUserIdAndDateBetweenOrderByDateDescIdDesc(userId, start,
+                        end))
                 .build();
     }
 
+    /** Latest {@link #RECENT_ENTRIES} expenses of the period, newest first, with tags loaded. */
+    private List<Expense> findRecentExpenses(Long userId, LocalDate start, LocalDate end) {
+        return findWithTags(expenseRepository.findRecentIds(userId, start, end, PageRequest.of(0, RECENT_ENTRIES)));
+    }
+
+    /** Expenses with the given ids, in the given order, with tags loaded. */
+    private List<Expense> findWithTags(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Expense> byId = expenseRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Expense::getId, e -> e));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static BigDecimal total(List<MonthCategoryRollup> rows, EntryType type) {
+        return rows.stream()
+                .filter(r -> r.getEntryType() == type)
+                .map(MonthCategoryRollup::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     private double calculatePercentage(BigDecimal spent, BigDecimal limit) {
         if (limit.compareTo(BigDecimal.ZERO) == 0)
             return 0.0;
@@ -319,9 +386,10 @@ public class BudgetService {
                 .doubleValue();
     }
 
-    public List<Expense> getRecentExpenses(Long userId) {
-        authenticationHelper.validateUserAccess(userId);
-        return expenseRepository.findByUserId(userId);
+    /** The user's latest expenses, without tags; older ones via {@link #getExpensePage}. */
+    @Transactional(readOnly = true)
+    public List<ExpenseRow> getRecentExpenses(Long userId) {
+        return getExpensePage(userId, null, DEFAULT_PAGE_SIZE, null, null, null, null).getItems();
     }
 
     @Transactional(readOnly = true)
@@ -337,6 +405,7 @@ public class BudgetService {
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new ExpenseNotFoundException(id));
         authenticationHelper.validateUserAccess(expense.getUserId());
+        MonthCategoryRollup before = MonthCategoryRollup.of(expense);
         if (expenseDetails != null) {
             if (expenseDetails.getAmount() != null) {
                 expense.setAmount(expenseDetails.getAmount());
@@ -351,7 +420,9 @@ public class BudgetService {
                 expense.setDescription(expenseDetails.getDescription());
             }
         }
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        rollupStore.replace(before, MonthCategoryRollup.of(saved));
+        return saved;
     }
 
     @Transactional
@@ -360,8 +431,10 @@ public class BudgetService {
                 .orElseThrow(() -> new ExpenseNotFoundException(id));
         authenticationHelper.validateUserAccess(expense.getUserId());
         expenseRepository.delete(expense);
+        rollupStore.apply(MonthCategoryRollup.of(expense).negate());
     }
 
+    @Transactional
     public Income addIncome(Income income) {
         authenticationHelper.validateUserAccess(income.getUserId());
         if (income.getDate() == null) {
@@ -373,12 +446,15 @@ public class BudgetService {
         if (income.getIsStable() == null) {
             income.setIsStable(false);
         }
-        return incomeRepository.save(income);
+        Income saved = incomeRepository.save(income);
+        rollupStore.apply(MonthCategoryRollup.of(saved));
+        return saved;
     }
 
-    public List<Income> getIncomes(Long userId) {
-        authenticationHelper.validateUserAccess(userId);
-        return incomeRepository.findByUserId(userId);
+    /** The user's latest incomes; older ones via {@link #getIncomePage}. */
+    @Transactional(readOnly = true)
+    public List<IncomeRow> getIncomes(Long userId) {
+        return getIncomePage(userId, null, DEFAULT_PAGE_SIZE, null, null, null).getItems();
     }
 
     @Transactional(readOnly = true)
@@ -394,6 +470,7 @@ public class BudgetService {
         Income income = incomeRepository.findById(id)
                 .orElseThrow(() -> new IncomeNotFoundException(id));
         authenticationHelper.validateUserAccess(income.getUserId());
+        MonthCategoryRollup before = MonthCategoryRollup.of(income);
 
         income.setSource(incomeDetails.getSource());
         income.setAmount(incomeDetails.getAmount());
@@ -401,7 +478,9 @@ public class BudgetService {
         income.setIsRecurring(incomeDetails.getIsRecurring());
         income.setIsStable(incomeDetails.getIsStable());
 
-        return incomeRepository.save(income);
+        Income saved = incomeRepository.save(income);
+        rollupStore.replace(before, MonthCategoryRollup.of(saved));
+        return saved;
     }
 
     @Transactional
@@ -410,6 +489,7 @@ public class BudgetService {
                 .orElseThrow(() -> new IncomeNotFoundException(id));
         authenticationHelper.validateUserAccess(income.getUserId());
         incomeRepository.delete(income);
+        rollupStore.apply(MonthCategoryRollup.of(income).negate());
     }
 
     public List<Budget> getAllBudgets(Long userId, String monthYear) {
@@ -426,6 +506,8 @@ public class BudgetService {
                 .orElseThrow(() -> new BudgetNotFoundException(id));
         authenticationHelper.validateUserAccess(budget.getUserId());
         budgetRepository.delete(budget);
+        touchBudgetMonth(budget.getUserId(), budget.getMonthYear(),
+                Collections.singleton(budget.getEffectiveCategoryName()));
     }
 
     @Transactional(readOnly = true)
@@ -436,40 +518,38 @@ public class BudgetService {
         }
         YearMonth ym = YearMonth.parse(monthYear);
         LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
 
-        // Fetch data for current month
-        List<Income> incomes = incomeRepository.findByUserIdAndDateBetween(userId, start, end);
-        List<Expense> expenses = expenseRepository.findByUserIdAndExpenseDateBetween(userId, start, end);
+        // Current month plus the five before it for the trend, in one read
+        List<MonthCategoryRollup> rollup = rollupStore.findMonths(userId, ym.minusMonths(5).atDay(1), start);
+        List<MonthCategoryRollup> current = rollup.stream()
+                .filter(r -> r.getMonthStart().equals(start))
+                .collect(Collectors.toList());
+        List<MonthCategoryRollup> incomes = current.stream()
+                .filter(r -> r.getEntryType() == EntryType.INCOME)
+                .collect(Collectors.toList());
 
         // Calculate total income
-        BigDecimal totalIncome = incomes.stream()
-                .map(Income::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalIncome = total(incomes, EntryType.INCOME);
 
         // Calculate income breakdowns
         BigDecimal stableIncome = incomes.stream()
-                .filter(income -> Boolean.TRUE.equals(income.getIsStable()))
-                .map(Income::getAmount)
+                .map(MonthCategoryRollup::getStableAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal variableIncome = totalIncome.subtract(stableIncome);
 
         BigDecimal recurringIncome = incomes.stream()
-                .filter(income -> Boolean.TRUE.equals(income.getIsRecurring()))
-                .map(Income::getAmount)
+                .map(MonthCategoryRollup::getRecurringAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Income by source
         Map<String, BigDecimal> incomeBySource = incomes.stream()
                 .collect(Collectors.groupingBy(
-                        Income::getSource,
-                        Collectors.reducing(BigDecimal.ZERO, Income::getAmount, BigDecimal::add)));
+                        MonthCategoryRollup::getSource,
+                        Collectors.reducing(BigDecimal.ZERO, MonthCategoryRollup::getAmount, BigDecimal::add)));
 
         // Calculate total expenses
-        BigDecimal totalExpenses = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalExpenses = total(current, EntryType.EXPENSE);
 
         // Expenses by category
         // Map<ExpenseCategory, BigDecimal> expenseByCategory = expenses.stream()
@@ -496,32 +576,22 @@ public class BudgetService {
         }
 
         // Count income types
-        int recurringCount = (int) incomes.stream()
-                .filter(income -> Boolean.TRUE.equals(income.getIsRecurring()))
-                .count();
-        int oneTimeCount = incomes.size() - recurringCount;
+        int recurringCount = incomes.stream().mapToInt(MonthCategoryRollup::getRecurringCount).sum();
+        int oneTimeCount = incomes.stream().mapToInt(MonthCategoryRollup::getEntryCount).sum() - recurringCount;
 
         // Calculate burn rate (monthly expense rate)
         Double burnRate = totalExpenses.doubleValue();
 
         // Calculate historical trends (last 6 months)
+        Map<LocalDate, List<MonthCategoryRollup>> rollupByMonth = rollup.stream()
+                .collect(Collectors.groupingBy(MonthCategoryRollup::getMonthStart));
         List<CashFlowDTO.MonthlyTrend> trends = new ArrayList<>();
         for (int i = 0; i < 6; i++) {
             YearMonth pastMonth = ym.minusMonths(i);
-            LocalDate pastStart = pastMonth.atDay(1);
-            LocalDate pastEnd = pastMonth.atEndOfMonth();
+            List<MonthCategoryRollup> pastRows = rollupByMonth.getOrDefault(pastMonth.atDay(1), List.of());
 
-            List<Income> pastIncomes = incomeRepository.findByUserIdAndDateBetween(userId, pastStart, pastEnd);
-            List<Expense> pastExpenses = expenseRepository.findByUserIdAndExpenseDateBetween(userId, pastStart,
-                    pastEnd);
-
-            BigDecimal pastIncome = pastIncomes.stream()
-                    .map(Income::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal pastExpense = pastExpenses.stream()
-                    .map(Expense::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal pastIncome = total(pastRows, EntryType.INCOME);
+            BigDecimal pastExpense = total(pastRows, EntryType.EXPENSE);
 
             BigDecimal pastSavings = pastIncome.subtract(pastExpense);
 
@@ -671,6 +741,96 @@ public class BudgetService {
         return incomeRepository.findAll(spec, pageable);
     }
 
+    // ==================== Keyset Listings ====================
+
+    /**
+     * Page of a user's expenses, newest first, after {@code cursor} (null for the
+     * first page). Rows are projections without tags; see
+     * {@link #getExpensePageWithTags}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseRow> getExpensePage(Long userId, String cursor, int size, String category,
+            LocalDate startDate, LocalDate endDate, String search) {
+        authenticationHelper.validateUserAccess(userId);
+        int limit = pageSize(size);
+        LocalDate from = startDate != null ? startDate : EARLIEST_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_DATE;
+        long beforeId = Long.MAX_VALUE;
+
+        // The cursor becomes the top of the date range so the index scan starts there
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorPage.Position position = CursorPage.decodeCursor(cursor);
+            if (!position.date().isAfter(to)) {
+                to = position.date();
+                beforeId = position.id();
+            }
+        }
+
+        ExpenseCategory categoryFilter = category != null && !category.isEmpty()
+                ? ExpenseCategory.valueOf(category)
+                : null;
+        String searchPattern = search != null && !search.isEmpty()
+                ? "%" + search.toLowerCase() + "%"
+                : null;
+
+        List<ExpenseRow> rows = expenseRepository.findPageBefore(userId, from, to, beforeId, categoryFilter,
+                searchPattern, PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, row -> CursorPage.encodeCursor(row.getExpenseDate(), row.getId()));
+    }
+
+    /** {@link #getExpensePage} with full expenses including tags, for clients that show them. */
+    @Transactional(readOnly = true)
+    public CursorPage<Expense> getExpensePageWithTags(Long userId, String cursor, int size, String category,
+            LocalDate startDate, LocalDate endDate, String search) {
+        CursorPage<ExpenseRow> page = getExpensePage(userId, cursor, size, category, startDate, endDate, search);
+        List<Long> ids = page.getItems().stream()
+                .map(ExpenseRow::getId)
+                .collect(Collectors.toList());
+        return CursorPage.<Expense>builder()
+                .items(findWithTags(ids))
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.isHasMore())
+                .build();
+    }
+
+    /** Page of a user's incomes, newest first, after {@code cursor} (null for the first page). */
+    @Transactional(readOnly = true)
+    public CursorPage<IncomeRow> getIncomePage(Long userId, String cursor, int size, String source,
+            LocalDate startDate, LocalDate endDate) {
+        authenticationHelper.validateUserAccess(userId);
+        int limit = pageSize(size);
+        LocalDate from = startDate != null ? startDate : EARLIEST_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_DATE;
+        long beforeId = Long.MAX_VALUE;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorPage.Position position = CursorPage.decodeCursor(cursor);
+            if (!position.date().isAfter(to)) {
+                to = position.date();
+                beforeId = position.id();
+            }
+        }
+
+        List<IncomeRow> rows = incomeRepository.findPageBefore(userId, from, to, beforeId,
+                source != null && !source.isEmpty() ? source : null, PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, row -> CursorPage.encodeCursor(row.getDate(), row.getId()));
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Queries fetch one row past the page to tell whether another page follows
+    private static <T> CursorPage<T> toCursorPage(List<T> rows, int limit, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
     // ==================== Custom Category Management ====================
 
     @Transactional
@@ -821,6 +981,7 @@ public class BudgetService {
         authenticationHelper.validateUserAccess(userId);
         int deletedCount = 0;
         List<Long> failedIds = new ArrayList<>();
+        List<MonthCategoryRollup> rollupDeltas = new ArrayList<>();
 
         for (Long expenseId : expenseIds) {
             try {
@@ -834,11 +995,13 @@ public class BudgetService {
                 }
 
                 expenseRepository.delete(expense);
+                rollupDeltas.add(MonthCategoryRollup.of(expense).negate());
                 deletedCount++;
             } catch (Exception e) {
                 failedIds.add(expenseId);
             }
         }
+        rollupStore.apply(rollupDeltas);
 
         return Map.of(
                 "deleted", deletedCount,
@@ -855,6 +1018,7 @@ public class BudgetService {
         authenticationHelper.validateUserAccess(userId);
         int updatedCount = 0;
         List<Long> failedIds = new ArrayList<>();
+        List<MonthCategoryRollup> rollupDeltas = new ArrayList<>();
 
         for (Long expenseId : expenseIds) {
             try {
@@ -867,14 +1031,18 @@ public class BudgetService {
                     continue;
                 }
 
+                MonthCategoryRollup before = MonthCategoryRollup.of(expense);
                 expense.setCategory(newCategory);
                 expense.setCustomCategoryName(customCategoryName);
                 expenseRepository.save(expense);
+                rollupDeltas.add(before.negate());
+                rollupDeltas.add(MonthCategoryRollup.of(expense));
                 updatedCount++;
             } catch (Exception e) {
                 failedIds.add(expenseId);
             }
         }
+        rollupStore.apply(rollupDeltas);
 
         return Map.of(
                 "updated", updatedCount,
@@ -901,20 +1069,24 @@ public class BudgetService {
         // Get all budgets for the month
         List<Budget> budgets = budgetRepository.findByUserIdAndMonthYear(userId, monthYear);
 
-        // Get all expenses for the month
+        // Month's expense totals and transaction counts by category
         YearMonth ym = YearMonth.parse(monthYear);
-        LocalDate startDate = ym.atDay(1);
-        LocalDate endDate = ym.atEndOfMonth();
-        List<Expense> expenses = expenseRepository.findByUserIdAndExpenseDateBetween(userId, startDate, endDate);
-
-        // Group expenses by category and count transactions
         Map<String, BigDecimal> expensesByCategory = new HashMap<>();
         Map<String, Integer> transactionsByCategory = new HashMap<>();
-        for (Expense expense : expenses) {
-            String key = expense.isCustomCategory() ? "CUSTOM:" + expense.getCustomCategoryName()
-                    : "SYSTEM:" + expense.getCategory().name();
-            expensesByCategory.merge(key, expense.getAmount(), BigDecimal::add);
-            transactionsByCategory.merge(key, 1, Integer::sum);
+        for (MonthCategoryRollup row : rollupStore.findMonth(userId, ym.atDay(1))) {
+            if (row.getEntryType() != EntryType.EXPENSE) {
+                continue;
+            }
+            String key;
+            if (row.isCustomCategory()) {
+                key = "CUSTOM:" + row.getCustomCategory();
+            } else if (!row.getCategory().isEmpty()) {
+                key = "SYSTEM:" + row.getCategory();
+            } else {
+                continue; // Uncategorized, no budget can match
+            }
+            expensesByCategory.merge(key, row.getAmount(), BigDecimal::add);
+            transactionsByCategory.merge(key, row.getEntryCount(), Integer::sum);
         }
 
         // Build variance analysis for each category
@@ -1,25 +1,37 @@
 package com.pisystem.modules.budget.service;
 
-import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.ExpenseCategory;
-import com.pisystem.modules.budget.data.Income;
 import com.pisystem.modules.budget.repo.ExpenseRepository;
+import com.pisystem.modules.budget.repo.ExpenseRepository.ExpenseRow;
 import com.pisystem.modules.budget.repo.IncomeRepository;
+import com.pisystem.modules.budget.repo.IncomeRepository.IncomeRow;
 import com.opencsv.CSVWriter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service for exporting budget data to various formats (CSV, Excel)
+ *
+ * Exports are written straight to the response stream. Rows are read in keyset
+ * chunks of {@link #CHUNK_SIZE} (newest first, as projections without tags) and
+ * Excel sheets keep only a window of {@link #EXCEL_ROW_WINDOW} rows in memory, so
+ * memory use does not grow with the number of rows exported. Filters are parsed
+ * with {@link #parseCategory} before the response starts, since errors raised
+ * while streaming can no longer change its status.
  */
 @Service
 public class ExportService {
@@ -32,224 +44,225 @@ public class ExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    static final int CHUNK_SIZE = 1000;
+    static final int EXCEL_ROW_WINDOW = 100;
+
+    // Date bounds when the export has no date filter
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String[] EXPENSE_HEADERS = { "Date", "Description", "Category", "Amount", "Notes" };
+    private static final String[] INCOME_HEADERS = { "Date", "Source", "Amount", "Notes" };
+
+    // Column widths in characters; auto-sizing would need every row in memory
+    private static final int[] EXPENSE_COLUMN_WIDTHS = { 12, 40, 20, 14, 40 };
+    private static final int[] INCOME_COLUMN_WIDTHS = { 12, 30, 14, 40 };
+
     /**
-     * Export expenses to CSV format
+     * The expense category filter of an export, or null for all categories.
+     *
+     * @throws IllegalArgumentException if {@code category} is not an {@link ExpenseCategory}
      */
-    public byte[] exportExpensesToCSV(Long userId, LocalDate startDate, LocalDate endDate, String category) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                OutputStreamWriter writer = new OutputStreamWriter(outputStream);
-                CSVWriter csvWriter = new CSVWriter(writer)) {
-
-            // Write header
-            String[] header = { "Date", "Description", "Category", "Amount", "Notes" };
-            csvWriter.writeNext(header);
-
-            // Get filtered expenses
-            List<Expense> expenses = getFilteredExpenses(userId, startDate, endDate, category);
-
-            // Write data rows
-            for (Expense expense : expenses) {
-                String[] row = {
-                        expense.getExpenseDate().format(DATE_FORMATTER),
-                        expense.getDescription() != null ? expense.getDescription() : "",
-                        expense.getEffectiveCategoryName(),
-                        expense.getAmount().toString(),
-                        expense.getNotes() != null ? expense.getNotes() : ""
-                };
-                csvWriter.writeNext(row);
-            }
-
-            csvWriter.flush();
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export expenses to CSV", e);
+    public ExpenseCategory parseCategory(String category) {
+        if (category == null || category.isEmpty()) {
+            return null;
+        }
+        try {
+            return ExpenseCategory.valueOf(category);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid expense category: " + category);
         }
     }
 
     /**
-     * Export incomes to CSV format
+     * Export expenses to CSV format
      */
-    public byte[] exportIncomesToCSV(Long userId, LocalDate startDate, LocalDate endDate) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                OutputStreamWriter writer = new OutputStreamWriter(outputStream);
-                CSVWriter csvWriter = new CSVWriter(writer)) {
-
-            // Write header
-            String[] header = { "Date", "Source", "Amount", "Notes" };
-            csvWriter.writeNext(header);
-
-            // Get filtered incomes
-            List<Income> incomes = getFilteredIncomes(userId, startDate, endDate);
-
-            // Write data rows
-            for (Income income : incomes) {
-                String[] row = {
-                        income.getDate().format(DATE_FORMATTER),
-                        income.getSource() != null ? income.getSource() : "",
-                        income.getAmount().toString(),
-                        income.getDescription() != null ? income.getDescription() : ""
-                };
-                csvWriter.writeNext(row);
-            }
+    public void exportExpensesToCSV(Long userId, LocalDate startDate, LocalDate endDate, ExpenseCategory category,
+            OutputStream out) throws IOException {
+        CSVWriter csvWriter = csvWriter(out);
+        csvWriter.writeNext(EXPENSE_HEADERS);
+
+        forEachExpense(userId, startDate, endDate, category, expense -> csvWriter.writeNext(new String[] {
+                expense.getExpenseDate().format(DATE_FORMATTER),
+                expense.getDescription() != null ? expense.getDescription() : "",
+                effectiveCategoryName(expense),
+                expense.getAmount().toString(),
+                expense.getNotes() != null ? expense.getNotes() : ""
+        }));
+
+        csvWriter.flush();
+    }
 
-            csvWriter.flush();
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export incomes to CSV", e);
-        }
+    /**
+     * Export incomes to CSV format
+     */
+    public void exportIncomesToCSV(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        CSVWriter csvWriter = csvWriter(out);
+        csvWriter.writeNext(INCOME_HEADERS);
+
+        forEachIncome(userId, startDate, endDate, income -> csvWriter.writeNext(new String[] {
+                income.getDate().format(DATE_FORMATTER),
+                income.getSource() != null ? income.getSource() : "",
+                income.getAmount().toString(),
+                income.getDescription() != null ? income.getDescription() : ""
+        }));
+
+        csvWriter.flush();
     }
 
     /**
      * Export expenses to Excel format
      */
-    public byte[] exportExpensesToExcel(Long userId, LocalDate startDate, LocalDate endDate, String category) {
-        try (Workbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
+    public void exportExpensesToExcel(Long userId, LocalDate startDate, LocalDate endDate, ExpenseCategory category,
+            OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = streamingWorkbook();
+        try {
             Sheet sheet = workbook.createSheet("Expenses");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = { "Date", "Description", "Category", "Amount", "Notes" };
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Get filtered expenses
-            List<Expense> expenses = getFilteredExpenses(userId, startDate, endDate, category);
+            CellStyle headerStyle = headerStyle(workbook);
+            writeHeader(sheet, EXPENSE_HEADERS, EXPENSE_COLUMN_WIDTHS, headerStyle);
 
             // Create data rows
-            int rowNum = 1;
-            BigDecimal total = BigDecimal.ZERO;
-            for (Expense expense : expenses) {
-                Row row = sheet.createRow(rowNum++);
+            int[] rowNum = { 1 };
+            BigDecimal[] total = { BigDecimal.ZERO };
+            forEachExpense(userId, startDate, endDate, category, expense -> {
+                Row row = sheet.createRow(rowNum[0]++);
                 row.createCell(0).setCellValue(expense.getExpenseDate().format(DATE_FORMATTER));
                 row.createCell(1).setCellValue(expense.getDescription() != null ? expense.getDescription() : "");
-                row.createCell(2).setCellValue(expense.getEffectiveCategoryName());
+                row.createCell(2).setCellValue(effectiveCategoryName(expense));
                 row.createCell(3).setCellValue(expense.getAmount().doubleValue());
                 row.createCell(4).setCellValue(expense.getNotes() != null ? expense.getNotes() : "");
-                total = total.add(expense.getAmount());
-            }
-
-            // Add total row
-            Row totalRow = sheet.createRow(rowNum);
-            Cell totalLabelCell = totalRow.createCell(2);
-            totalLabelCell.setCellValue("TOTAL:");
-            totalLabelCell.setCellStyle(headerStyle);
-            Cell totalAmountCell = totalRow.createCell(3);
-            totalAmountCell.setCellValue(total.doubleValue());
-            totalAmountCell.setCellStyle(headerStyle);
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export expenses to Excel", e);
+                total[0] = total[0].add(expense.getAmount());
+            });
+
+            writeTotal(sheet, rowNum[0], 2, total[0], headerStyle);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
     /**
      * Export incomes to Excel format
      */
-    public byte[] exportIncomesToExcel(Long userId, LocalDate startDate, LocalDate endDate) {
-        try (Workbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
+    public void exportIncomesToExcel(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        SXSSFWorkbook workbook = streamingWorkbook();
+        try {
             Sheet sheet = workbook.createSheet("Incomes");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = { "Date", "Source", "Amount", "Notes" };
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Get filtered incomes
-            List<Income> incomes = getFilteredIncomes(userId, startDate, endDate);
+            CellStyle headerStyle = headerStyle(workbook);
+            writeHeader(sheet, INCOME_HEADERS, INCOME_COLUMN_WIDTHS, headerStyle);
 
             // Create data rows
-            int rowNum = 1;
-            BigDecimal total = BigDecimal.ZERO;
-            for (Income income : incomes) {
-                Row row = sheet.createRow(rowNum++);
+            int[] rowNum = { 1 };
+            BigDecimal[] total = { BigDecimal.ZERO };
+            forEachIncome(userId, startDate, endDate, income -> {
+                Row row = sheet.createRow(rowNum[0]++);
                 row.createCell(0).setCellValue(income.getDate().format(DATE_FORMATTER));
                 row.createCell(1).setCellValue(income.getSource() != null ? income.getSource() : "");
                 row.createCell(2).setCellValue(income.getAmount().doubleValue());
                 row.createCell(3).setCellValue(income.getDescription() != null ? income.getDescription() : "");
-                total = total.add(income.getAmount());
-            }
-
-            // Add total row
-            Row totalRow = sheet.createRow(rowNum);
-            Cell totalLabelCell = totalRow.createCell(1);
-            totalLabelCell.setCellValue("TOTAL:");
-            totalLabelCell.setCellStyle(headerStyle);
-            Cell totalAmountCell = totalRow.createCell(2);
-            totalAmountCell.setCellValue(total.doubleValue());
-            totalAmountCell.setCellStyle(headerStyle);
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export incomes to Excel", e);
+                total[0] = total[0].add(income.getAmount());
+            });
+
+            writeTotal(sheet, rowNum[0], 1, total[0], headerStyle);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
     /**
-     * Helper method to get filtered expenses
+     * Feeds the user's matching expenses to {@code action}, one keyset chunk at a time
      */
-    private List<Expense> getFilteredExpenses(Long userId, LocalDate startDate, LocalDate endDate, String category) {
-        if (startDate != null && endDate != null && category != null && !category.isEmpty()) {
-            ExpenseCategory expenseCategory = ExpenseCategory.valueOf(category);
-            return expenseRepository.findByUserIdAndCategoryAndExpenseDateBetween(
-                    userId, expenseCategory, startDate, endDate);
-        } else if (startDate != null && endDate != null) {
-            return expenseRepository.findByUserIdAndExpenseDateBetween(userId, startDate, endDate);
-        } else if (category != null && !category.isEmpty()) {
-            ExpenseCategory expenseCategory = ExpenseCategory.valueOf(category);
-            return expenseRepository.findByUserIdAndCategory(userId, expenseCategory);
-        } else {
-            return expenseRepository.findByUserId(userId);
+    void forEachExpense(Long userId, LocalDate startDate, LocalDate endDate, ExpenseCategory category,
+            Consumer<ExpenseRow> action) {
+        LocalDate from = startDate != null ? startDate : EARLIEST_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_DATE;
+        long beforeId = Long.MAX_VALUE;
+
+        while (true) {
+            List<ExpenseRow> chunk = expenseRepository.findPageBefore(userId, from, to, beforeId,
+                    category, null, PageRequest.of(0, CHUNK_SIZE));
+            chunk.forEach(action);
+            if (chunk.size() < CHUNK_SIZE) {
+                return;
+            }
+            ExpenseRow last = chunk.get(chunk.size() - 1);
+            to = last.getExpenseDate();
+            beforeId = last.getId();
         }
     }
 
     /**
-     * Helper method to get filtered incomes
+     * Feeds the user's matching incomes to {@code action}, one keyset chunk at a time
      */
-    private List<Income> getFilteredIncomes(Long userId, LocalDate startDate, LocalDate endDate) {
-        if (startDate != null && endDate != null) {
-            return incomeRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
-        } else {
-            return incomeRepository.findByUserId(userId);
+    void forEachIncome(Long userId, LocalDate startDate, LocalDate endDate, Consumer<IncomeRow> action) {
+        LocalDate from = startDate != null ? startDate : EARLIEST_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_DATE;
+        long beforeId = Long.MAX_VALUE;
+
+        while (true) {
+            List<IncomeRow> chunk = incomeRepository.findPageBefore(userId, from, to, beforeId, null,
+                    PageRequest.of(0, CHUNK_SIZE));
+            chunk.forEach(action);
+            if (chunk.size() < CHUNK_SIZE) {
+                return;
+            }
+            IncomeRow last = chunk.get(chunk.size() - 1);
+            to = last.getDate();
+            beforeId = last.getId();
+        }
+    }
+
+    private static String effectiveCategoryName(ExpenseRow expense) {
+        if (expense.getCustomCategoryName() != null && !expense.getCustomCategoryName().isEmpty()) {
+            return expense.getCustomCategoryName();
+        }
+        return expense.getCategory() != null ? expense.getCategory().name() : "";
+    }
+
+    // Not closed here: closing would close the response stream the caller owns
+    private static CSVWriter csvWriter(OutputStream out) {
+        return new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    private static SXSSFWorkbook streamingWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    private static CellStyle headerStyle(Workbook workbook) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return headerStyle;
+    }
+
+    private static void writeHeader(Sheet sheet, String[] headers, int[] widths, CellStyle headerStyle) {
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, widths[i] * 256);
         }
     }
+
+    private static void writeTotal(Sheet sheet, int rowNum, int labelColumn, BigDecimal total,
+            CellStyle headerStyle) {
+        Row totalRow = sheet.createRow(rowNum);
+        Cell totalLabelCell = totalRow.createCell(labelColumn);
+        totalLabelCell.setCellValue("TOTAL:");
+        totalLabelCell.setCellStyle(headerStyle);
+        Cell totalAmountCell = totalRow.createCell(labelColumn + 1);
+        totalAmountCell.setCellValue(total.doubleValue());
+        totalAmountCell.setCellStyle(headerStyle);
+    }
 }
@@ -15,6 +15,7 @@ import com.pisystem.shared.data.TypedEntity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -26,8 +27,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "lending_records")
 @Data
 @Builder
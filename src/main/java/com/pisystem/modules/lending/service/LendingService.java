@@ -10,6 +10,9 @@ public interface LendingService {
 
     List<LendingDTO> getUserLendings(Long userId);
 
+    /** Same as {@link #getUserLendings} without the access check, for background jobs that have no request user. */
+    List<LendingDTO> getUserLendingsInternal(Long userId);
+
     LendingDTO getLendingById(Long id);
 
     LendingDTO addRepayment(Long lendingId, RepaymentDTO repaymentDTO);
@@ -54,6 +54,12 @@ public class LendingServiceImpl implements LendingService {
     @Transactional(readOnly = true)
     public List<LendingDTO> getUserLendings(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getUserLendingsInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LendingDTO> getUserLendingsInternal(Long userId) {
         return lendingRepository.findByUserIdWithRepayments(userId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -14,8 +14,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 import com.pisystem.shared.data.EntityType;
 import com.pisystem.shared.data.TypedEntity;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "loans")
 @Data
 @NoArgsConstructor
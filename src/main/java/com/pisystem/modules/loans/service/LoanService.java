@@ -16,6 +16,9 @@ public interface LoanService {
 
     List<Loan> getLoansByUserId(Long userId);
 
+    /** Same as {@link #getLoansByUserId} without the access check, for background jobs that have no request user. */
+    List<Loan> getLoansByUserIdInternal(Long userId);
+
     Loan getLoanById(Long id);
 
     void deleteLoan(Long id);
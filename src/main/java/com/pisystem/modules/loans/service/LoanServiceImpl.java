@@ -68,6 +68,12 @@ public class LoanServiceImpl implements LoanService {
     @Transactional(readOnly = true)
     public List<Loan> getLoansByUserId(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getLoansByUserIdInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Loan> getLoansByUserIdInternal(Long userId) {
         return loanRepository.findByUserId(userId);
     }
 
@@ -5,6 +5,7 @@ import java.time.LocalDate;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -16,8 +17,10 @@ import lombok.NoArgsConstructor;
 
 import com.pisystem.shared.data.EntityType;
 import com.pisystem.shared.data.TypedEntity;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "fixed_deposits")
 @Data
 @Builder
@@ -5,6 +5,7 @@ import java.time.LocalDate;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -18,8 +19,10 @@ import com.pisystem.shared.data.EntityType;
 import com.pisystem.shared.data.TypedEntity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "recurring_deposits")
 @Data
 @Builder
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -17,8 +18,10 @@ import com.pisystem.shared.data.EntityType;
 import com.pisystem.shared.data.TypedEntity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "savings_account_details")
 @Data
 @Builder
@@ -13,6 +13,9 @@ public interface FixedDepositService {
 
     List<FixedDepositDTO> getAllFixedDeposits(Long userId);
 
+    /** Same as {@link #getAllFixedDeposits} without the access check, for background jobs that have no request user. */
+    List<FixedDepositDTO> getAllFixedDepositsInternal(Long userId);
+
     FixedDepositDTO updateFixedDeposit(Long id, Long userId, FixedDeposit fixedDeposit);
 
     void deleteFixedDeposit(Long id, Long userId);
@@ -95,6 +95,12 @@ public class FixedDepositServiceImpl implements FixedDepositService {
     @Transactional(readOnly = true)
     public List<FixedDepositDTO> getAllFixedDeposits(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getAllFixedDepositsInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FixedDepositDTO> getAllFixedDepositsInternal(Long userId) {
         return repository.findAllByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -13,6 +13,9 @@ public interface RecurringDepositService {
 
     List<RecurringDepositDTO> getAllRecurringDeposits(Long userId);
 
+    /** Same as {@link #getAllRecurringDeposits} without the access check, for background jobs that have no request user. */
+    List<RecurringDepositDTO> getAllRecurringDepositsInternal(Long userId);
+
     RecurringDepositDTO updateRecurringDeposit(Long id, Long userId, RecurringDeposit recurringDeposit);
 
     void deleteRecurringDeposit(Long id, Long userId);
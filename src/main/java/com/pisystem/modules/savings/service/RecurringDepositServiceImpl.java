@@ -77,6 +77,12 @@ public class RecurringDepositServiceImpl implements RecurringDepositService {
     @Transactional(readOnly = true)
     public List<RecurringDepositDTO> getAllRecurringDeposits(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getAllRecurringDepositsInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RecurringDepositDTO> getAllRecurringDepositsInternal(Long userId) {
         return repository.findAllByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
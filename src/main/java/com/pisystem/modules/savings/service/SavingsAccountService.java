@@ -13,6 +13,9 @@ public interface SavingsAccountService {
 
     List<SavingsAccountDTO> getAllSavingsAccounts(Long userId);
 
+    /** Same as {@link #getAllSavingsAccounts} without the access check, for background jobs that have no request user. */
+    List<SavingsAccountDTO> getAllSavingsAccountsInternal(Long userId);
+
     SavingsAccountDTO getSavingsAccountById(Long id, Long userId);
 
     SavingsAccountDTO updateSavingsAccount(Long id, Long userId, SavingsAccount savingsAccount);
@@ -56,6 +56,12 @@ public class SavingsAccountServiceImpl implements SavingsAccountService {
     @Transactional(readOnly = true)
     public List<SavingsAccountDTO> getAllSavingsAccounts(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getAllSavingsAccountsInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SavingsAccountDTO> getAllSavingsAccountsInternal(Long userId) {
         return repository.findAllByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -24,6 +24,7 @@ import com.pisystem.modules.sms.data.SMSImportRequest;
 import com.pisystem.modules.sms.data.SMSImportResponse;
 import com.pisystem.modules.sms.data.SMSTransaction;
 import com.pisystem.modules.sms.data.SmsClassificationResult;
+import com.pisystem.modules.sms.data.SmsImportJob;
 import com.pisystem.modules.sms.data.TransactionValidationResult;
 import com.pisystem.modules.sms.data.TransferDetectionResult;
 import com.pisystem.modules.sms.service.DuplicateDetectionService;
@@ -33,6 +34,7 @@ import com.pisystem.modules.sms.service.SmsService;
 import com.pisystem.modules.sms.service.TransactionNormalizationService;
 import com.pisystem.modules.sms.service.TransactionValidatorService;
 import com.pisystem.modules.sms.service.SmsPatternRegistry;
+import com.pisystem.modules.sms.service.SmsPatternSnapshot;
 import com.pisystem.modules.sms.service.TransactionFlowClassifierService;
 import com.pisystem.modules.sms.service.TransferDetectionService;
 
@@ -88,6 +90,41 @@ public class SmsController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Queue a large SMS import (e.g. a full phone backup) to run in the background
+     */
+    @Operation(summary = "Import SMS Messages in Background", description = "Queue a bulk SMS import and return a job ID immediately. Messages are parsed on a worker pool and committed in chunks; poll the job endpoint for progress and the final result.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import job accepted", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SmsImportJob.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request - userId or messages missing"),
+            @ApiResponse(responseCode = "503", description = "Import queue is full, retry later")
+    })
+    @PostMapping("/import/async")
+    public ResponseEntity<SmsImportJob> startImport(
+            @Valid @RequestBody @Parameter(description = "SMS import request with user ID and list of messages", required = true) SMSImportRequest request) {
+        log.info("Received async SMS import request for user {} with {} messages",
+                request.getUserId(), request.getMessages().size());
+        this.authHelper.validateUserAccess(request.getUserId());
+        SmsImportJob job = smsService.startImport(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Poll the progress of a background SMS import
+     */
+    @Operation(summary = "Get SMS Import Job Status", description = "Return the progress of a background SMS import: processed messages, committed transactions and chunks, and the full import result once the job has completed. Job status is retained for one hour.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job status returned", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SmsImportJob.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found or expired")
+    })
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<SmsImportJob> getImportJob(
+            @Parameter(description = "Import job ID", required = true) @PathVariable("jobId") String jobId) {
+        SmsImportJob job = smsService.getImportJob(jobId);
+        this.authHelper.validateUserAccess(job.getUserId());
+        return ResponseEntity.ok(job);
+    }
+
     /**
      * Get all SMS transactions for a user
      */
@@ -321,9 +358,11 @@ public class SmsController {
     })
     @PostMapping("/patterns/refresh")
     public ResponseEntity<String> refreshPatterns() {
-        patternRegistry.refresh();
-        log.info("SMS regex patterns refreshed via API. Loaded: {} patterns", patternRegistry.size());
-        return ResponseEntity.ok("Patterns refreshed. Loaded: " + patternRegistry.size());
+        SmsPatternSnapshot patterns = patternRegistry.refresh();
+        log.info("SMS regex patterns refreshed via API. Loaded: {} patterns (version {})",
+                patterns.size(), patterns.getVersion());
+        return ResponseEntity.ok("Patterns refreshed. Loaded: " + patterns.size()
+                + " (version " + patterns.getVersion() + ")");
     }
 
     /**
@@ -22,6 +22,9 @@ public class SMSImportResponse {
     @Schema(description = "Total number of SMS messages in the import request", example = "10")
     private int totalMessages;
     
+    @Schema(description = "Version of the SMS pattern set the messages were parsed with", example = "3")
+    private Long patternVersion;
+    
     @Builder.Default
     @Schema(description = "List of parsed transaction summaries")
     private List<TransactionSummary> transactions = new ArrayList<>();
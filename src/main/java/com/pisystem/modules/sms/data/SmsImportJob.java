@@ -0,0 +1,70 @@
+package com.pisystem.modules.sms.data;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress handle for a background SMS import.
+ *
+ * <p>Created by {@code SmsService.startImport} and updated by the import worker
+ * as chunks are parsed and committed. Progress counters are written by a single
+ * worker thread and read by status polls, hence {@code volatile}.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Status of a background SMS import job")
+public class SmsImportJob {
+
+    @Schema(description = "Job identifier used to poll progress", example = "4f1c2a9e-7b3d-4c55-9a0e-0d2b6c1e8f10")
+    private String jobId;
+
+    @Schema(description = "User ID who owns the imported messages", example = "123")
+    private Long userId;
+
+    @Schema(description = "Current job state", example = "RUNNING")
+    private volatile Status status;
+
+    @Schema(description = "Number of messages submitted with the job", example = "20000")
+    private int totalMessages;
+
+    @Schema(description = "Number of messages that have passed every pipeline stage", example = "8500")
+    private volatile int processedMessages;
+
+    @Schema(description = "Number of SMS transactions committed so far", example = "3120")
+    private volatile int persistedTransactions;
+
+    @Schema(description = "Number of chunks committed so far", example = "17")
+    private volatile int committedChunks;
+
+    @Schema(description = "Version of the SMS pattern set the job parses with", example = "3")
+    private volatile Long patternVersion;
+
+    @Schema(description = "When the job was accepted")
+    private LocalDateTime submittedAt;
+
+    @Schema(description = "When a worker picked the job up")
+    private volatile LocalDateTime startedAt;
+
+    @Schema(description = "When the job finished (successfully or not)")
+    private volatile LocalDateTime completedAt;
+
+    @Schema(description = "Failure reason when status is FAILED")
+    private volatile String errorMessage;
+
+    @Schema(description = "Full import result, available once status is COMPLETED")
+    private volatile SMSImportResponse result;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
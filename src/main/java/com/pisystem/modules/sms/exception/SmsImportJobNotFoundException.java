@@ -0,0 +1,15 @@
+package com.pisystem.modules.sms.exception;
+
+import org.springframework.http.HttpStatus;
+
+import com.pisystem.shared.exception.BusinessException;
+
+/**
+ * Thrown when an SMS import job id is unknown or its status has already expired.
+ */
+public class SmsImportJobNotFoundException extends BusinessException {
+
+    public SmsImportJobNotFoundException(String jobId) {
+        super(HttpStatus.NOT_FOUND, "SMS import job not found: " + jobId, "SMS_IMPORT_JOB_NOT_FOUND");
+    }
+}
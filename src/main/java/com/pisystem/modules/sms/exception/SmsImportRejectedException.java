@@ -0,0 +1,16 @@
+package com.pisystem.modules.sms.exception;
+
+import org.springframework.http.HttpStatus;
+
+import com.pisystem.shared.exception.BusinessException;
+
+/**
+ * Thrown when the background import queue is full and a new job cannot be accepted.
+ * Clients should retry later.
+ */
+public class SmsImportRejectedException extends BusinessException {
+
+    public SmsImportRejectedException(String message, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message, "SMS_IMPORT_QUEUE_FULL", cause);
+    }
+}
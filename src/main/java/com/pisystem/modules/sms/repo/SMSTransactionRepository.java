@@ -2,6 +2,7 @@ package com.pisystem.modules.sms.repo;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -81,30 +82,43 @@ public interface SMSTransactionRepository extends JpaRepository<SMSTransaction,
     // ── Raw-text deduplication queries ────────────────────────────────────────
 
     /**
-     * Exact-body lookup restricted to a specific sender.
-     * Used by {@code RawSmsDeduplicationServiceImpl} Rule 1 (exact match).
+     * Exact-body lookup for a whole dedup batch, ordered by id.
+     * Used by {@code RawSmsDeduplicationServiceImpl} Rule 1 (exact match);
+     * callers chunk {@code bodies} to keep the IN list bounded.
+     *
+     * @param userId  the message owner
+     * @param senders SMS sender IDs in the batch (as stored)
+     * @param bodies  message bodies in the batch
      */
-    List<SMSTransaction> findByUserIdAndSenderAndOriginalMessage(
-            Long userId, String sender, String originalMessage);
+    @Query("SELECT s FROM SMSTransaction s " +
+           "WHERE s.userId = :userId " +
+           "  AND s.sender IN :senders " +
+           "  AND s.originalMessage IN :bodies " +
+           "ORDER BY s.id ASC")
+    List<SMSTransaction> findByUserIdAndSendersAndOriginalMessages(
+            @Param("userId") Long userId,
+            @Param("senders") Collection<String> senders,
+            @Param("bodies") Collection<String> bodies);
 
     /**
-     * Fetches all messages from a given sender whose {@code createdAt} falls
-     * within [{@code from}, {@code to}].
-     * Used by {@code RawSmsDeduplicationServiceImpl} Rule 2 (near match).
+     * Fetches all messages from the given senders whose {@code createdAt} falls
+     * within [{@code from}, {@code to}], oldest first.
+     * Used by {@code RawSmsDeduplicationServiceImpl} Rule 2 (near match) to
+     * prefetch the candidates for a whole batch in one query.
      *
      * @param userId  the message owner
-     * @param sender  SMS sender ID (case-sensitive, as stored)
+     * @param senders SMS sender IDs (case-sensitive, as stored)
      * @param from    window start (inclusive)
      * @param to      window end (inclusive)
      */
     @Query("SELECT s FROM SMSTransaction s " +
            "WHERE s.userId = :userId " +
-           "  AND s.sender = :sender " +
+           "  AND s.sender IN :senders " +
            "  AND s.createdAt BETWEEN :from AND :to " +
            "ORDER BY s.createdAt ASC")
-    List<SMSTransaction> findBySenderInTimeWindow(
+    List<SMSTransaction> findBySendersInTimeWindow(
             @Param("userId") Long userId,
-            @Param("sender") String sender,
+            @Param("senders") Collection<String> senders,
             @Param("from") LocalDateTime from,
             @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,229 @@
+package com.pisystem.modules.sms.repo;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.pisystem.modules.budget.data.Expense;
+import com.pisystem.modules.budget.data.Income;
+import com.pisystem.modules.budget.data.MonthCategoryRollup;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
+import com.pisystem.modules.sms.data.SMSTransaction;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC batch persistence for SMS imports.
+ *
+ * <p>{@link SMSTransaction}, {@link Income} and {@link Expense} use
+ * {@code GenerationType.IDENTITY}, which disables Hibernate insert batching — every
+ * {@code save} is its own round trip. This writer issues multi-row {@code INSERT}s
+ * instead and reads the generated ids back from the same statement, then links the
+ * SMS rows to their income/expense with one {@code UPDATE ... CASE} per slice.
+ * The budget month rollup is updated for the inserted incomes and expenses.</p>
+ *
+ * <p>Must run inside the caller's transaction; generated ids are written back onto
+ * the passed entities.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class SmsImportBatchWriter {
+
+    /** Rows per multi-row statement; keeps each packet well under MySQL's max_allowed_packet. */
+    static final int ROWS_PER_STATEMENT = 250;
+
+    private static final String[] SMS_COLUMNS = {
+            "user_id", "original_message", "sender", "amount", "transaction_date", "transaction_time",
+            "transaction_type", "merchant", "account_number", "card_number", "balance",
+            "reference_number", "upi_id", "parse_status", "parse_confidence", "error_message",
+            "is_processed", "created_at", "message_type", "category", "tags", "is_recurring",
+            "date_from_message", "from_account", "to_account"
+    };
+
+    private static final String[] INCOME_COLUMNS = {
+            "user_id", "source", "amount", "date", "is_recurring", "is_stable", "description",
+            "sms_transaction_id"
+    };
+
+    private static final String[] EXPENSE_COLUMNS = {
+            "user_id", "amount", "category", "custom_category_name", "expense_date", "description",
+            "notes", "sms_transaction_id"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BudgetRollupStore rollupStore;
+
+    /**
+     * Insert SMS transactions together with the incomes/expenses derived from them.
+     *
+     * @param transactions     SMS transactions to insert
+     * @param incomes          incomes to insert
+     * @param incomeTxIndices  {@code incomes[j]} was derived from {@code transactions[incomeTxIndices[j]]}
+     * @param expenses         expenses to insert
+     * @param expenseTxIndices {@code expenses[j]} was derived from {@code transactions[expenseTxIndices[j]]}
+     */
+    public void write(List<SMSTransaction> transactions,
+                      List<Income> incomes, List<Integer> incomeTxIndices,
+                      List<Expense> expenses, List<Integer> expenseTxIndices) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        insertRows("sms_transactions", SMS_COLUMNS, transactions, this::smsValues, SMSTransaction::setId);
+
+        for (int j = 0; j < incomes.size(); j++) {
+            incomes.get(j).setSmsTransactionId(transactions.get(incomeTxIndices.get(j)).getId());
+        }
+        insertRows("incomes", INCOME_COLUMNS, incomes, this::incomeValues, Income::setId);
+
+        for (int j = 0; j < expenses.size(); j++) {
+            expenses.get(j).setSmsTransactionId(transactions.get(expenseTxIndices.get(j)).getId());
+        }
+        insertRows("expenses", EXPENSE_COLUMNS, expenses, this::expenseValues, Expense::setId);
+
+        List<SMSTransaction> linked = new ArrayList<>(incomes.size() + expenses.size());
+        for (int j = 0; j < incomes.size(); j++) {
+            SMSTransaction tx = transactions.get(incomeTxIndices.get(j));
+            tx.setLinkedIncomeId(incomes.get(j).getId());
+            linked.add(tx);
+        }
+        for (int j = 0; j < expenses.size(); j++) {
+            SMSTransaction tx = transactions.get(expenseTxIndices.get(j));
+            tx.setLinkedExpenseId(expenses.get(j).getId());
+            linked.add(tx);
+        }
+        linkTransactions(linked);
+
+        rollupStore.apply(Stream.concat(
+                incomes.stream().map(MonthCategoryRollup::of),
+                expenses.stream().map(MonthCategoryRollup::of)).toList());
+
+        log.debug("Batch wrote {} SMS transactions, {} incomes, {} expenses",
+                transactions.size(), incomes.size(), expenses.size());
+    }
+
+    private <T> void insertRows(String table, String[] columns, List<T> rows,
+                                Function<T, Object[]> values, BiConsumer<T, Long> idSetter) {
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<T> slice = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            String sql = multiRowInsert(table, columns, slice.size());
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                int index = 1;
+                for (T row : slice) {
+                    for (Object value : values.apply(row)) {
+                        ps.setObject(index++, value);
+                    }
+                }
+                return ps;
+            }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != slice.size()) {
+                throw new IllegalStateException("Expected " + slice.size() + " generated keys for "
+                        + table + " but got " + keys.size());
+            }
+            for (int i = 0; i < slice.size(); i++) {
+                Number id = (Number) keys.get(i).values().iterator().next();
+                idSetter.accept(slice.get(i), id.longValue());
+            }
+        }
+    }
+
+    /** Writes linked_income_id / linked_expense_id for every linked row in one statement per slice. */
+    private void linkTransactions(List<SMSTransaction> linked) {
+        for (int from = 0; from < linked.size(); from += ROWS_PER_STATEMENT) {
+            List<SMSTransaction> slice = linked.subList(from, Math.min(from + ROWS_PER_STATEMENT, linked.size()));
+            String whenClauses = String.join(" ", Collections.nCopies(slice.size(), "WHEN ? THEN ?"));
+            String inClause = String.join(", ", Collections.nCopies(slice.size(), "?"));
+            String sql = "UPDATE sms_transactions SET "
+                    + "linked_income_id = CASE id " + whenClauses + " ELSE linked_income_id END, "
+                    + "linked_expense_id = CASE id " + whenClauses + " ELSE linked_expense_id END "
+                    + "WHERE id IN (" + inClause + ")";
+
+            List<Object> args = new ArrayList<>(slice.size() * 5);
+            for (SMSTransaction tx : slice) {
+                args.add(tx.getId());
+                args.add(tx.getLinkedIncomeId());
+            }
+            for (SMSTransaction tx : slice) {
+                args.add(tx.getId());
+                args.add(tx.getLinkedExpenseId());
+            }
+            for (SMSTransaction tx : slice) {
+                args.add(tx.getId());
+            }
+            jdbcTemplate.update(sql, args.toArray());
+        }
+    }
+
+    private static String multiRowInsert(String table, String[] columns, int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+                + String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    private Object[] smsValues(SMSTransaction tx) {
+        return new Object[] {
+                tx.getUserId(), tx.getOriginalMessage(), tx.getSender(), tx.getAmount(),
+                tx.getTransactionDate(), tx.getTransactionTime(),
+                tx.getTransactionType() != null ? tx.getTransactionType().name() : null,
+                tx.getMerchant(), tx.getAccountNumber(), tx.getCardNumber(), tx.getBalance(),
+                tx.getReferenceNumber(), tx.getUpiId(),
+                tx.getParseStatus() != null ? tx.getParseStatus().name() : null,
+                tx.getParseConfidence(), tx.getErrorMessage(),
+                tx.getIsProcessed() != null ? tx.getIsProcessed() : Boolean.FALSE,
+                tx.getCreatedAt() != null ? tx.getCreatedAt() : LocalDateTime.now(),
+                tx.getMessageType(), tx.getCategory(), tx.getTags(),
+                tx.getIsRecurring() != null ? tx.getIsRecurring() : Boolean.FALSE,
+                tx.getDateFromMessage(), tx.getFromAccount(), tx.getToAccount()
+        };
+    }
+
+    // Defaults mirror BudgetService.addIncome / addExpense
+    private Object[] incomeValues(Income income) {
+        if (income.getDate() == null) {
+            income.setDate(LocalDate.now());
+        }
+        if (income.getIsRecurring() == null) {
+            income.setIsRecurring(false);
+        }
+        if (income.getIsStable() == null) {
+            income.setIsStable(false);
+        }
+        return new Object[] {
+                income.getUserId(), income.getSource(), income.getAmount(), income.getDate(),
+                income.getIsRecurring(), income.getIsStable(), income.getDescription(),
+                income.getSmsTransactionId()
+        };
+    }
+
+    private Object[] expenseValues(Expense expense) {
+        if (expense.getExpenseDate() == null) {
+            expense.setExpenseDate(LocalDate.now());
+        }
+        return new Object[] {
+                expense.getUserId(), expense.getAmount(),
+                expense.getCategory() != null ? expense.getCategory().name() : null,
+                expense.getCustomCategoryName(), expense.getExpenseDate(), expense.getDescription(),
+                expense.getNotes(), expense.getSmsTransactionId()
+        };
+    }
+}
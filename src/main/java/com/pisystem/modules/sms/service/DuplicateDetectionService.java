@@ -31,6 +31,18 @@ public interface DuplicateDetectionService {
      */
     DuplicateDetectionResult detect(SMSTransaction candidate, List<SMSTransaction> existingTransactions);
 
+    /**
+     * Same rules as {@link #detect(SMSTransaction, List)}, but only the rows the
+     * index files under the candidate's amount, type, reference number and
+     * neighbouring days are compared. Used by the SMS import, which keeps one
+     * index per batch.
+     *
+     * @param candidate the newly-parsed transaction (not yet persisted)
+     * @param index     stored and already-accepted transactions for the same user
+     * @return a {@link DuplicateDetectionResult} — never {@code null}
+     */
+    DuplicateDetectionResult detect(SMSTransaction candidate, DuplicateIndex index);
+
     /**
      * Convenience method: loads the relevant window of existing transactions from
      * the database and delegates to {@link #detect(SMSTransaction, List)}.
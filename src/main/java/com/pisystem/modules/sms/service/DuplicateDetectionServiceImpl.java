@@ -34,6 +34,10 @@ import lombok.extern.slf4j.Slf4j;
  *
  * <p>FAILED and PENDING transactions in the existing list are skipped.
  * When the candidate itself has no amount, detection returns NONE immediately.
+ *
+ * <p>Imports call {@link #detect(SMSTransaction, DuplicateIndex)}, which applies
+ * the same rules to the few rows a {@link DuplicateIndex} files under the
+ * candidate's amount and type, instead of scanning the whole window.
  */
 @Service
 @RequiredArgsConstructor
@@ -86,26 +90,29 @@ public class DuplicateDetectionServiceImpl implements DuplicateDetectionService
             if (refResult.isDuplicate()) return refResult;
         }
 
-        // ── Full scan of existing SUCCESS transactions ─────────────────────────
-        DuplicateDetectionResult best = noMatch("No matching transaction found");
-
-        for (SMSTransaction existing : existingTransactions) {
-            // Rule: skip FAILED and PENDING rows unconditionally
-            if (shouldSkip(existing)) continue;
+        return bestMatch(candidate, existingTransactions);
+    }
 
-            DuplicateDetectionResult result = evaluatePair(candidate, existing);
-            if (result.isDuplicate() && result.getConfidenceScore() > best.getConfidenceScore()) {
-                best = result;
-                // Short-circuit on perfect STRONG match (nothing can beat 100)
-                if (best.getConfidenceScore() >= 100) break;
-            }
+    @Override
+    public DuplicateDetectionResult detect(SMSTransaction candidate, DuplicateIndex index) {
+        if (candidate == null) {
+            return noMatch("Candidate transaction is null");
+        }
+        if (candidate.getAmount() == null) {
+            return noMatch("Candidate has no amount — cannot check for duplicate");
         }
 
-        log.debug("Duplicate check: amount={} type={} → isDuplicate={} tier={} confidence={}",
-                candidate.getAmount(), candidate.getTransactionType(),
-                best.isDuplicate(), best.getMatchTier(), best.getConfidenceScore());
+        // ── Reference-ID fast path: one bucket keyed by amount + type + ref ────
+        if (hasRef(candidate)) {
+            DuplicateDetectionResult refResult = checkReferenceMatch(candidate, index.findByReference(candidate));
+            if (refResult.isDuplicate()) return refResult;
+        }
 
-        return best;
+        // Every remaining tier needs equal amount + type and at most
+        // MEDIUM_MATCH_MINUTES between timestamps, so the neighbouring day
+        // buckets hold every row that can still match
+        return bestMatch(candidate, index.findNear(
+                candidate.getAmount(), candidate.getTransactionType(), candidate.getTransactionDate()));
     }
 
     @Override
@@ -140,6 +147,29 @@ public class DuplicateDetectionServiceImpl implements DuplicateDetectionService
     // Core pair evaluation
     // =========================================================================
 
+    /** Highest-confidence match among {@code existingTransactions}; first wins on ties. */
+    private DuplicateDetectionResult bestMatch(SMSTransaction candidate, List<SMSTransaction> existingTransactions) {
+        DuplicateDetectionResult best = noMatch("No matching transaction found");
+
+        for (SMSTransaction existing : existingTransactions) {
+            // Rule: skip FAILED and PENDING rows unconditionally
+            if (shouldSkip(existing)) continue;
+
+            DuplicateDetectionResult result = evaluatePair(candidate, existing);
+            if (result.isDuplicate() && result.getConfidenceScore() > best.getConfidenceScore()) {
+                best = result;
+                // Short-circuit on perfect STRONG match (nothing can beat 100)
+                if (best.getConfidenceScore() >= 100) break;
+            }
+        }
+
+        log.debug("Duplicate check: amount={} type={} → isDuplicate={} tier={} confidence={}",
+                candidate.getAmount(), candidate.getTransactionType(),
+                best.isDuplicate(), best.getMatchTier(), best.getConfidenceScore());
+
+        return best;
+    }
+
     /**
      * Evaluate a single (candidate, existing) pair and return the best-matching
      * result tier. Returns {@code noMatch} if neither STRONG / MEDIUM / WEAK
@@ -0,0 +1,175 @@
+package com.pisystem.modules.sms.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.data.SMSTransaction.TransactionType;
+
+/**
+ * Per-import lookup structure over the transactions an SMS import must be
+ * deduplicated against.
+ *
+ * <p>Rows are bucketed by (amount, type, transaction date) and, when they carry
+ * one, by (amount, type, reference number). Every duplicate tier requires the
+ * amount and type to agree, and the time-based tiers only look a few minutes
+ * either side of the candidate, so a lookup touches at most three day buckets
+ * instead of the whole window.</p>
+ *
+ * <p>The index grows in two ways during an import:</p>
+ * <ul>
+ *   <li>{@link #cover} loads stored rows for any part of a date range not yet
+ *       covered, so a backfill of old messages is checked against the rows that
+ *       actually exist for those dates.</li>
+ *   <li>{@link #add} registers a transaction accepted earlier in the same
+ *       import, so later messages in the batch are checked against it.</li>
+ * </ul>
+ *
+ * <p>Lookups return the raw bucket contents; the tier rules (status filters,
+ * time gaps, account and merchant checks) stay in
+ * {@link DuplicateDetectionServiceImpl}. Not thread-safe: an import uses one
+ * index from its ordered stage only.</p>
+ */
+public final class DuplicateIndex {
+
+    private final Map<DayKey, List<SMSTransaction>> byDay = new HashMap<>();
+    private final Map<ReferenceKey, List<SMSTransaction>> byReference = new HashMap<>();
+    private final List<SMSTransaction> rows = new ArrayList<>();
+
+    private LocalDate coveredFrom;
+    private LocalDate coveredTo;
+
+    /**
+     * Ensures stored rows dated within {@code [from, to]} are indexed, loading
+     * only the parts of the range outside the current coverage. Coverage stays
+     * one contiguous range, so a gap between two loaded spans is filled as well.
+     *
+     * @param loader loads stored rows for an inclusive date range
+     * @return number of rows loaded
+     */
+    public int cover(LocalDate from, LocalDate to,
+            BiFunction<LocalDate, LocalDate, List<SMSTransaction>> loader) {
+        if (from == null || to == null || from.isAfter(to)) {
+            return 0;
+        }
+        List<SMSTransaction> loaded = new ArrayList<>();
+        if (coveredFrom == null) {
+            loaded.addAll(loader.apply(from, to));
+            coveredFrom = from;
+            coveredTo = to;
+        } else {
+            if (from.isBefore(coveredFrom)) {
+                loaded.addAll(loader.apply(from, coveredFrom.minusDays(1)));
+                coveredFrom = from;
+            }
+            if (to.isAfter(coveredTo)) {
+                loaded.addAll(loader.apply(coveredTo.plusDays(1), to));
+                coveredTo = to;
+            }
+        }
+        if (loaded.isEmpty()) {
+            return 0;
+        }
+
+        // Rows accepted earlier in this import may have been committed since, and
+        // come back from the database under the id they were saved with
+        Set<Long> known = new HashSet<>();
+        for (SMSTransaction row : rows) {
+            if (row.getId() != null) {
+                known.add(row.getId());
+            }
+        }
+        int added = 0;
+        for (SMSTransaction row : loaded) {
+            if (row.getId() == null || !known.contains(row.getId())) {
+                add(row);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /** Registers a transaction so later lookups in this import see it. */
+    public void add(SMSTransaction tx) {
+        if (tx == null || tx.getAmount() == null || tx.getTransactionType() == null) {
+            return;
+        }
+        rows.add(tx);
+        BigDecimal amount = amountKey(tx.getAmount());
+        if (tx.getTransactionDate() != null) {
+            byDay.computeIfAbsent(new DayKey(amount, tx.getTransactionType(), tx.getTransactionDate()),
+                    k -> new ArrayList<>(2)).add(tx);
+        }
+        String reference = referenceKey(tx.getReferenceNumber());
+        if (reference != null) {
+            byReference.computeIfAbsent(new ReferenceKey(amount, tx.getTransactionType(), reference),
+                    k -> new ArrayList<>(1)).add(tx);
+        }
+    }
+
+    /**
+     * Rows with the same amount and type dated the day before, on, or after
+     * {@code date}, in that order. Empty when any argument is {@code null}.
+     */
+    public List<SMSTransaction> findNear(BigDecimal amount, TransactionType type, LocalDate date) {
+        if (amount == null || type == null || date == null) {
+            return List.of();
+        }
+        BigDecimal key = amountKey(amount);
+        List<SMSTransaction> before = byDay.get(new DayKey(key, type, date.minusDays(1)));
+        List<SMSTransaction> same = byDay.get(new DayKey(key, type, date));
+        List<SMSTransaction> after = byDay.get(new DayKey(key, type, date.plusDays(1)));
+        if (before == null && after == null) {
+            return same != null ? same : List.of();
+        }
+        List<SMSTransaction> near = new ArrayList<>();
+        if (before != null) near.addAll(before);
+        if (same != null) near.addAll(same);
+        if (after != null) near.addAll(after);
+        return near;
+    }
+
+    /**
+     * Rows with the same amount, type and (case-insensitive) reference number as
+     * {@code candidate}, regardless of date.
+     */
+    public List<SMSTransaction> findByReference(SMSTransaction candidate) {
+        String reference = referenceKey(candidate.getReferenceNumber());
+        if (candidate.getAmount() == null || candidate.getTransactionType() == null || reference == null) {
+            return List.of();
+        }
+        List<SMSTransaction> matches = byReference.get(
+                new ReferenceKey(amountKey(candidate.getAmount()), candidate.getTransactionType(), reference));
+        return matches != null ? matches : List.of();
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    // BigDecimal.equals is scale-sensitive; duplicate rules compare with compareTo
+    private static BigDecimal amountKey(BigDecimal amount) {
+        return amount.stripTrailingZeros();
+    }
+
+    private static String referenceKey(String reference) {
+        if (reference == null || reference.isBlank()) {
+            return null;
+        }
+        return reference.toLowerCase(Locale.ROOT);
+    }
+
+    private record DayKey(BigDecimal amount, TransactionType type, LocalDate date) {
+    }
+
+    private record ReferenceKey(BigDecimal amount, TransactionType type, String reference) {
+    }
+}
@@ -4,7 +4,14 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Service;
 
@@ -28,6 +35,19 @@ import lombok.extern.slf4j.Slf4j;
  *   <li>DB near match          → 90 %  (same sender, similar body, Δt &lt; 30 s)</li>
  *   <li>No match               → not duplicate</li>
  * </ol>
+ *
+ * <h3>Cost model</h3>
+ * <ul>
+ *   <li>Exact matches are hash lookups on (sender, trimmed body).</li>
+ *   <li>Near-match candidates are blocked by (sender, amount token, body length
+ *       bucket): a near duplicate carries the same amount, and a 90 % similarity
+ *       bounds the length difference to 10 %, so only a few blocks are probed.</li>
+ *   <li>Similarity is a banded Levenshtein bounded by the edit budget the 90 %
+ *       threshold allows; it stops as soon as the budget is exceeded.</li>
+ *   <li>The database is read once per batch (exact bodies in chunks, plus one
+ *       time-window query per cluster of nearby timestamps) instead of twice
+ *       per message.</li>
+ * </ul>
  */
 @Service
 @RequiredArgsConstructor
@@ -42,6 +62,18 @@ public class RawSmsDeduplicationServiceImpl implements RawSmsDeduplicationServic
     /** Maximum timestamp gap in milliseconds for Rule 2 (near match). */
     private static final long NEAR_MATCH_WINDOW_MS = 30_000L;
 
+    // ── Blocking / prefetch ───────────────────────────────────────────────────
+
+    /** Width, in normalized characters, of a body-length block. */
+    private static final int LENGTH_BUCKET_WIDTH = 16;
+
+    /** Bodies per exact-match prefetch query. */
+    private static final int EXACT_PREFETCH_CHUNK = 500;
+
+    /** First currency amount in a normalized body, e.g. {@code rs.1,250.00} → {@code 1250.00}. */
+    private static final Pattern AMOUNT_TOKEN_PATTERN = Pattern.compile(
+            "(?:rs\\.?|inr|₹)\\s*([0-9][0-9,]*(?:\\.[0-9]+)?)");
+
     private final SMSTransactionRepository repository;
 
     // =========================================================================
@@ -53,11 +85,21 @@ public class RawSmsDeduplicationServiceImpl implements RawSmsDeduplicationServic
         List<RawSmsMessage> messages = request.getMessages();
         List<RawSmsDuplicateResult> results = new ArrayList<>(messages.size());
 
+        List<Entry> entries = new ArrayList<>(messages.size());
         for (int i = 0; i < messages.size(); i++) {
-            RawSmsMessage current = messages.get(i);
-            // Predecessors = messages already evaluated in this batch (indices 0..i-1)
-            List<RawSmsMessage> predecessors = messages.subList(0, i);
-            results.add(evaluate(current, predecessors, request.getUserId()));
+            entries.add(Entry.of(messages.get(i), i));
+        }
+
+        DbCandidates db = request.getUserId() != null
+                ? prefetch(request.getUserId(), entries)
+                : DbCandidates.EMPTY;
+        BatchIndex predecessors = new BatchIndex();
+        EditDistance editDistance = new EditDistance();
+
+        for (Entry current : entries) {
+            results.add(evaluate(current, predecessors, db, editDistance));
+            // Every evaluated message becomes a predecessor, duplicates included
+            predecessors.add(current);
         }
 
         return results;
@@ -67,109 +109,172 @@ public class RawSmsDeduplicationServiceImpl implements RawSmsDeduplicationServic
     // Core evaluation logic
     // =========================================================================
 
-    private RawSmsDuplicateResult evaluate(RawSmsMessage current,
-                                           List<RawSmsMessage> predecessors,
-                                           Long userId) {
+    private RawSmsDuplicateResult evaluate(Entry current, BatchIndex predecessors,
+                                           DbCandidates db, EditDistance editDistance) {
+        String messageId = current.message.getMessageId();
 
         // ── Step 1: in-batch checks (no DB I/O) ───────────────────────────────
-        for (RawSmsMessage prev : predecessors) {
-            if (!sameSender(current.getSender(), prev.getSender())) {
-                continue;
-            }
-
-            if (isExactBody(current.getBody(), prev.getBody())) {
-                return match(current.getMessageId(), prev.getMessageId(), 100,
-                        "Exact duplicate in batch (same sender and body)");
-            }
-
-            if (isNearBody(current.getBody(), prev.getBody())
-                    && withinWindow(current.getTimestamp(), prev.getTimestamp())) {
-                return match(current.getMessageId(), prev.getMessageId(), 90,
-                        "Near-duplicate in batch (same sender, body similarity ≥ 90 %, within 30 s)");
-            }
+        // The earliest predecessor matching either rule wins; exact beats near on the same one.
+        Entry exact = predecessors.firstExact(current);
+        Entry near = predecessors.firstNear(current, exact != null ? exact.index : Integer.MAX_VALUE,
+                editDistance);
+        if (near != null) {
+            return match(messageId, near.message.getMessageId(), 90,
+                    "Near-duplicate in batch (same sender, body similarity ≥ 90 %, within 30 s)");
+        }
+        if (exact != null) {
+            return match(messageId, exact.message.getMessageId(), 100,
+                    "Exact duplicate in batch (same sender and body)");
         }
 
         // ── Step 2: DB checks ─────────────────────────────────────────────────
-        if (userId != null && current.getSender() != null) {
-            RawSmsDuplicateResult dbResult = checkDb(current, userId);
+        if (current.message.getSender() != null) {
+            RawSmsDuplicateResult dbResult = checkDb(current, db, editDistance);
             if (dbResult != null) {
                 return dbResult;
             }
         }
 
         // ── Step 3: not a duplicate ───────────────────────────────────────────
-        log.debug("raw-dedup: messageId={} → not duplicate", current.getMessageId());
-        return noMatch(current.getMessageId());
+        log.debug("raw-dedup: messageId={} → not duplicate", messageId);
+        return noMatch(messageId);
     }
 
     /**
-     * Database deduplication for a single message.
+     * Database deduplication for a single message against the prefetched rows.
      *
      * <p>Two checks are performed in order:
      * <ol>
-     *   <li>Exact body + sender lookup (O(1) index query).</li>
-     *   <li>Time-window lookup restricted to the same sender, followed by an
-     *       in-memory similarity comparison of all candidates.</li>
+     *   <li>Exact body + sender (lowest id wins).</li>
+     *   <li>Same sender within ±30 s of the message timestamp and a similar
+     *       body (oldest {@code createdAt} wins).</li>
      * </ol>
      *
      * @return a matching result, or {@code null} when no DB duplicate is found
      */
-    private RawSmsDuplicateResult checkDb(RawSmsMessage msg, Long userId) {
-        String body   = msg.getBody();
-        String sender = msg.getSender();
+    private RawSmsDuplicateResult checkDb(Entry msg, DbCandidates db, EditDistance editDistance) {
+        String messageId = msg.message.getMessageId();
 
         // Rule 1 – DB exact match (same sender + same body)
-        List<SMSTransaction> exactMatches =
-                repository.findByUserIdAndSenderAndOriginalMessage(userId, sender, body);
-        if (!exactMatches.isEmpty()) {
-            long dbId = exactMatches.get(0).getId();
-            log.debug("raw-dedup: messageId={} → exact DB match id={}", msg.getMessageId(), dbId);
-            return match(msg.getMessageId(), String.valueOf(dbId), 100,
+        SMSTransaction exact = db.firstExact(msg);
+        if (exact != null) {
+            long dbId = exact.getId();
+            log.debug("raw-dedup: messageId={} → exact DB match id={}", messageId, dbId);
+            return match(messageId, String.valueOf(dbId), 100,
                     "Exact duplicate in database (same sender and body, db id=" + dbId + ")");
         }
 
         // Rule 2 – DB near match (same sender + similar body + within 30 s)
-        if (msg.getTimestamp() != null) {
-            LocalDateTime windowStart = toLocalDateTime(msg.getTimestamp() - NEAR_MATCH_WINDOW_MS);
-            LocalDateTime windowEnd   = toLocalDateTime(msg.getTimestamp() + NEAR_MATCH_WINDOW_MS);
-
-            List<SMSTransaction> nearby =
-                    repository.findBySenderInTimeWindow(userId, sender, windowStart, windowEnd);
-
-            for (SMSTransaction candidate : nearby) {
-                if (isNearBody(body, candidate.getOriginalMessage())) {
-                    long dbId = candidate.getId();
-                    log.debug("raw-dedup: messageId={} → near DB match id={}", msg.getMessageId(), dbId);
-                    return match(msg.getMessageId(), String.valueOf(dbId), 90,
-                            "Near-duplicate in database (same sender, body similarity ≥ 90 %, within 30 s, db id=" + dbId + ")");
-                }
+        if (msg.timestamp != null) {
+            SMSTransaction near = db.firstNear(msg, editDistance);
+            if (near != null) {
+                long dbId = near.getId();
+                log.debug("raw-dedup: messageId={} → near DB match id={}", messageId, dbId);
+                return match(messageId, String.valueOf(dbId), 90,
+                        "Near-duplicate in database (same sender, body similarity ≥ 90 %, within 30 s, db id=" + dbId + ")");
             }
         }
 
         return null;
     }
 
-    // =========================================================================
-    // Matching predicates
-    // =========================================================================
+    /**
+     * Load every DB row any message of the batch could match: exact bodies in
+     * {@link #EXACT_PREFETCH_CHUNK}-sized IN queries, and one time-window query
+     * per cluster of message timestamps ±30 s (see {@link #timeClusters}).
+     */
+    private DbCandidates prefetch(Long userId, List<Entry> entries) {
+        Set<String> senders = new LinkedHashSet<>();
+        Set<String> bodies = new LinkedHashSet<>();
+        List<Entry> timed = new ArrayList<>();
+        for (Entry entry : entries) {
+            String sender = entry.message.getSender();
+            if (sender == null) {
+                continue;
+            }
+            senders.add(sender);
+            if (entry.message.getBody() != null) {
+                bodies.add(entry.message.getBody());
+            }
+            if (entry.timestamp != null) {
+                timed.add(entry);
+            }
+        }
+        if (senders.isEmpty()) {
+            return DbCandidates.EMPTY;
+        }
+
+        DbCandidates db = new DbCandidates();
+        List<String> bodyList = new ArrayList<>(bodies);
+        for (int from = 0; from < bodyList.size(); from += EXACT_PREFETCH_CHUNK) {
+            List<String> chunk = bodyList.subList(from, Math.min(from + EXACT_PREFETCH_CHUNK, bodyList.size()));
+            for (SMSTransaction row : repository.findByUserIdAndSendersAndOriginalMessages(userId, senders, chunk)) {
+                db.addExact(row);
+            }
+        }
 
-    /** True when both senders are equal (case-insensitive, trimmed). */
-    private static boolean sameSender(String a, String b) {
-        if (a == null && b == null) return true;
-        if (a == null || b == null) return false;
-        return a.trim().equalsIgnoreCase(b.trim());
+        // Clusters come in time order and their windows do not overlap, so rows
+        // are still added in createdAt order and never twice
+        int windows = 0;
+        for (TimeCluster cluster : timeClusters(timed)) {
+            List<SMSTransaction> nearby = repository.findBySendersInTimeWindow(userId, cluster.senders(),
+                    toLocalDateTime(cluster.minTs() - NEAR_MATCH_WINDOW_MS),
+                    toLocalDateTime(cluster.maxTs() + NEAR_MATCH_WINDOW_MS));
+            for (SMSTransaction row : nearby) {
+                db.addNear(row);
+            }
+            windows++;
+        }
+
+        log.debug("raw-dedup: prefetched {} exact and {} near DB candidate(s) in {} window(s) for {} message(s)",
+                db.exactCount, db.nearCount, windows, entries.size());
+        return db;
     }
 
-    /** True when both bodies are identical after trimming. */
-    private static boolean isExactBody(String a, String b) {
-        if (a == null || b == null) return false;
-        return a.trim().equals(b.trim());
+    /**
+     * Groups timestamped entries into runs whose ±30 s windows overlap, i.e.
+     * consecutive timestamps at most twice the tolerance apart. A backfill that
+     * spans months but arrives in bursts then reads only the rows around each
+     * burst instead of everything between the first and last message.
+     */
+    private static List<TimeCluster> timeClusters(List<Entry> timed) {
+        List<Entry> sorted = new ArrayList<>(timed);
+        sorted.sort(Comparator.comparingLong(entry -> entry.timestamp));
+
+        List<TimeCluster> clusters = new ArrayList<>();
+        Set<String> senders = null;
+        long minTs = 0;
+        long maxTs = 0;
+        for (Entry entry : sorted) {
+            long ts = entry.timestamp;
+            if (senders != null && ts - maxTs > 2 * NEAR_MATCH_WINDOW_MS) {
+                clusters.add(new TimeCluster(senders, minTs, maxTs));
+                senders = null;
+            }
+            if (senders == null) {
+                senders = new LinkedHashSet<>();
+                minTs = ts;
+            }
+            senders.add(entry.message.getSender());
+            maxTs = ts;
+        }
+        if (senders != null) {
+            clusters.add(new TimeCluster(senders, minTs, maxTs));
+        }
+        return clusters;
+    }
+
+    /** Senders and timestamp range of one run of nearby messages. */
+    private record TimeCluster(Set<String> senders, long minTs, long maxTs) {
     }
 
-    /** True when normalized body similarity is at or above {@link #SIMILARITY_THRESHOLD}. */
-    private static boolean isNearBody(String a, String b) {
-        if (a == null || b == null) return false;
-        return similarity(normalize(a), normalize(b)) >= SIMILARITY_THRESHOLD;
+    // =========================================================================
+    // Matching predicates
+    // =========================================================================
+
+    /** Sender key for case-insensitive, trimmed comparison; {@code null} senders share one key. */
+    private static String senderKey(String sender) {
+        return sender == null ? "\u0000" : sender.trim().toLowerCase();
     }
 
     /** True when both timestamps are non-null and differ by less than 30 seconds. */
@@ -178,13 +283,59 @@ public class RawSmsDeduplicationServiceImpl implements RawSmsDeduplicationServic
         return Math.abs(ts1 - ts2) < NEAR_MATCH_WINDOW_MS;
     }
 
+    /** First currency amount in a normalized body without grouping commas, or {@code ""}. */
+    private static String amountToken(String normalizedBody) {
+        Matcher matcher = AMOUNT_TOKEN_PATTERN.matcher(normalizedBody);
+        return matcher.find() ? matcher.group(1).replace(",", "") : "";
+    }
+
+    private static int lengthBucket(int length) {
+        return length / LENGTH_BUCKET_WIDTH;
+    }
+
+    /** Smallest length bucket that can hold a body at least 90 % similar to one of {@code length}. */
+    private static int minPartnerBucket(int length) {
+        return lengthBucket((int) Math.floor(length * SIMILARITY_THRESHOLD));
+    }
+
+    /** Largest length bucket that can hold a body at least 90 % similar to one of {@code length}. */
+    private static int maxPartnerBucket(int length) {
+        return lengthBucket((int) Math.ceil(length / SIMILARITY_THRESHOLD));
+    }
+
     // =========================================================================
-    // Text similarity — normalized Levenshtein, O(n) space DP
+    // Text similarity — normalized Levenshtein
     // =========================================================================
 
     /** Lowercase, trim, collapse all whitespace runs to a single space. */
-    private static String normalize(String s) {
-        return s.trim().toLowerCase().replaceAll("\\s+", " ");
+    static String normalize(String s) {
+        String lower = s.trim().toLowerCase();
+        StringBuilder sb = null;
+        int n = lower.length();
+        for (int i = 0; i < n; i++) {
+            char ch = lower.charAt(i);
+            if (isRegexSpace(ch)) {
+                int end = i + 1;
+                while (end < n && isRegexSpace(lower.charAt(end))) end++;
+                if (ch != ' ' || end > i + 1) {
+                    // Not already a single space: rewrite from here on
+                    if (sb == null) {
+                        sb = new StringBuilder(n);
+                        sb.append(lower, 0, i);
+                    }
+                }
+                if (sb != null) sb.append(' ');
+                i = end - 1;
+            } else if (sb != null) {
+                sb.append(ch);
+            }
+        }
+        return sb != null ? sb.toString() : lower;
+    }
+
+    /** {@code \s} in {@code java.util.regex}: [ \t\n\x0B\f\r]. */
+    private static boolean isRegexSpace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == 0x0B || ch == '\f' || ch == '\r';
     }
 
     /**
@@ -198,32 +349,258 @@ public class RawSmsDeduplicationServiceImpl implements RawSmsDeduplicationServic
         if (a.equals(b)) return 1.0;
         int maxLen = Math.max(a.length(), b.length());
         if (maxLen == 0) return 1.0;
-        return 1.0 - (double) levenshtein(a, b) / maxLen;
+        return 1.0 - (double) new EditDistance().bounded(a, b, maxLen) / maxLen;
     }
 
     /**
-     * Classic Levenshtein edit distance using a single rolling row of DP state.
-     * Time O(m·n), space O(n) — safe for typical SMS lengths (≤ 160 chars).
+     * Largest edit distance {@code d} for which {@code 1 - d / maxLen} still
+     * reaches {@link #SIMILARITY_THRESHOLD}, computed with the same double
+     * arithmetic as {@link #similarity}.
      */
-    private static int levenshtein(String a, String b) {
-        int m = a.length();
-        int n = b.length();
-        int[] dp = new int[n + 1];
-
-        for (int j = 0; j <= n; j++) dp[j] = j;
-
-        for (int i = 1; i <= m; i++) {
-            int prev = dp[0];
-            dp[0] = i;
-            for (int j = 1; j <= n; j++) {
-                int temp = dp[j];
-                dp[j] = (a.charAt(i - 1) == b.charAt(j - 1))
-                        ? prev
-                        : 1 + Math.min(prev, Math.min(dp[j], dp[j - 1]));
-                prev = temp;
+    static int maxEdits(int maxLen) {
+        int edits = (int) Math.floor((1.0 - SIMILARITY_THRESHOLD) * maxLen) + 1;
+        while (edits > 0 && 1.0 - (double) edits / maxLen < SIMILARITY_THRESHOLD) {
+            edits--;
+        }
+        return edits;
+    }
+
+    /**
+     * Levenshtein distance restricted to a diagonal band, with reusable rows.
+     * One instance per {@code checkBatch} call; not thread-safe.
+     */
+    static final class EditDistance {
+
+        private int[] prev = new int[0];
+        private int[] curr = new int[0];
+
+        /** True when two normalized bodies are at least 90 % similar. */
+        boolean isNear(String a, String b) {
+            if (a.equals(b)) return true;
+            int maxLen = Math.max(a.length(), b.length());
+            if (maxLen == 0) return true;
+            int budget = maxEdits(maxLen);
+            return bounded(a, b, budget) <= budget;
+        }
+
+        /**
+         * Edit distance between {@code a} and {@code b} if it is at most
+         * {@code budget}, otherwise {@code budget + 1}.
+         *
+         * <p>Only cells within {@code budget} of the diagonal can stay within
+         * budget, so each row costs O(budget), and the scan stops as soon as a
+         * whole row exceeds it.</p>
+         */
+        int bounded(String a, String b, int budget) {
+            int m = a.length();
+            int n = b.length();
+            int over = budget + 1;
+            if (Math.abs(m - n) > budget) return over;
+            if (m == 0 || n == 0) return Math.max(m, n);
+
+            if (prev.length < n + 1) {
+                prev = new int[n + 1];
+                curr = new int[n + 1];
+            }
+            int[] p = prev;
+            int[] c = curr;
+            for (int j = 0; j <= n; j++) p[j] = j <= budget ? j : over;
+
+            for (int i = 1; i <= m; i++) {
+                int from = Math.max(1, i - budget);
+                int to = Math.min(n, i + budget);
+                c[from - 1] = from == 1 ? (i <= budget ? i : over) : over;
+                int rowMin = c[from - 1];
+                char ai = a.charAt(i - 1);
+                for (int j = from; j <= to; j++) {
+                    int best = p[j - 1] + (ai == b.charAt(j - 1) ? 0 : 1);
+                    int del = p[j] + 1;
+                    if (del < best) best = del;
+                    int ins = c[j - 1] + 1;
+                    if (ins < best) best = ins;
+                    if (best > over) best = over;
+                    c[j] = best;
+                    if (best < rowMin) rowMin = best;
+                }
+                if (to < n) c[to + 1] = over;
+                if (rowMin > budget) return over;
+                int[] t = p;
+                p = c;
+                c = t;
+            }
+            return Math.min(p[n], over);
+        }
+    }
+
+    // =========================================================================
+    // Indexes
+    // =========================================================================
+
+    /** A batch message with everything the rules need precomputed once. */
+    private static final class Entry {
+        final RawSmsMessage message;
+        final int index;
+        final String senderKey;
+        final String trimmedBody;
+        final String normalizedBody;
+        final String amountToken;
+        final Long timestamp;
+
+        private Entry(RawSmsMessage message, int index) {
+            this.message = message;
+            this.index = index;
+            this.senderKey = senderKey(message.getSender());
+            String body = message.getBody();
+            this.trimmedBody = body != null ? body.trim() : null;
+            this.normalizedBody = body != null ? normalize(body) : null;
+            this.amountToken = normalizedBody != null ? amountToken(normalizedBody) : null;
+            this.timestamp = message.getTimestamp();
+        }
+
+        static Entry of(RawSmsMessage message, int index) {
+            return new Entry(message, index);
+        }
+    }
+
+    private record BlockKey(String senderKey, String amountToken, int lengthBucket) {
+    }
+
+    /** Predecessors of the message being evaluated, indexed for both rules. */
+    private static final class BatchIndex {
+
+        private final Map<String, Entry> firstBySenderAndBody = new HashMap<>();
+        /** Block → entries in batch order. */
+        private final Map<BlockKey, List<Entry>> blocks = new HashMap<>();
+
+        void add(Entry entry) {
+            if (entry.trimmedBody == null) {
+                return;
+            }
+            firstBySenderAndBody.putIfAbsent(entry.senderKey + '\u0000' + entry.trimmedBody, entry);
+            if (entry.timestamp != null) {
+                blocks.computeIfAbsent(
+                        new BlockKey(entry.senderKey, entry.amountToken, lengthBucket(entry.normalizedBody.length())),
+                        k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        Entry firstExact(Entry current) {
+            if (current.trimmedBody == null) {
+                return null;
+            }
+            return firstBySenderAndBody.get(current.senderKey + '\u0000' + current.trimmedBody);
+        }
+
+        /** Earliest near-duplicate predecessor with index below {@code before}, or {@code null}. */
+        Entry firstNear(Entry current, int before, EditDistance editDistance) {
+            if (current.normalizedBody == null || current.timestamp == null) {
+                return null;
+            }
+            int length = current.normalizedBody.length();
+            Entry best = null;
+            for (int bucket = minPartnerBucket(length); bucket <= maxPartnerBucket(length); bucket++) {
+                List<Entry> block = blocks.get(new BlockKey(current.senderKey, current.amountToken, bucket));
+                if (block == null) {
+                    continue;
+                }
+                int limit = best != null ? best.index : before;
+                for (Entry prev : block) {
+                    if (prev.index >= limit) {
+                        break;
+                    }
+                    if (withinWindow(current.timestamp, prev.timestamp)
+                            && editDistance.isNear(current.normalizedBody, prev.normalizedBody)) {
+                        best = prev;
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    /** DB rows prefetched for one batch. */
+    private static final class DbCandidates {
+
+        static final DbCandidates EMPTY = new DbCandidates();
+
+        /** (sender as stored, lowercased body) → rows in id order. */
+        private final Map<String, List<SMSTransaction>> exact = new HashMap<>();
+        /** Block → rows in createdAt order, with precomputed normalized body and epoch millis. */
+        private final Map<BlockKey, List<DbRow>> near = new HashMap<>();
+        private int exactCount;
+        private int nearCount;
+
+        private record DbRow(SMSTransaction row, String normalizedBody, long createdAtMs, int order) {
+        }
+
+        void addExact(SMSTransaction row) {
+            if (row.getOriginalMessage() == null) {
+                return;
+            }
+            exact.computeIfAbsent(row.getSender() + '\u0000' + row.getOriginalMessage().toLowerCase(),
+                    k -> new ArrayList<>()).add(row);
+            exactCount++;
+        }
+
+        void addNear(SMSTransaction row) {
+            if (row.getOriginalMessage() == null || row.getCreatedAt() == null) {
+                return;
+            }
+            String normalizedBody = normalize(row.getOriginalMessage());
+            long createdAtMs = row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // Keyed by the sender exactly as stored, like the original per-sender query
+            near.computeIfAbsent(
+                    new BlockKey(row.getSender(), amountToken(normalizedBody), lengthBucket(normalizedBody.length())),
+                    k -> new ArrayList<>()).add(new DbRow(row, normalizedBody, createdAtMs, nearCount));
+            nearCount++;
+        }
+
+        /** Lowest-id row with the same sender and body (the DB compares bodies case-insensitively). */
+        SMSTransaction firstExact(Entry msg) {
+            if (exact.isEmpty() || msg.message.getBody() == null) {
+                return null;
+            }
+            String body = msg.message.getBody();
+            List<SMSTransaction> rows = exact.get(msg.message.getSender() + '\u0000' + body.toLowerCase());
+            if (rows == null) {
+                return null;
+            }
+            for (SMSTransaction row : rows) {
+                if (row.getOriginalMessage().equalsIgnoreCase(body)) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        /** Oldest row from the same sender within ±30 s (inclusive) with a similar body. */
+        SMSTransaction firstNear(Entry msg, EditDistance editDistance) {
+            if (near.isEmpty() || msg.normalizedBody == null) {
+                return null;
+            }
+            long from = msg.timestamp - NEAR_MATCH_WINDOW_MS;
+            long to = msg.timestamp + NEAR_MATCH_WINDOW_MS;
+            int length = msg.normalizedBody.length();
+            DbRow best = null;
+            for (int bucket = minPartnerBucket(length); bucket <= maxPartnerBucket(length); bucket++) {
+                List<DbRow> block = near.get(new BlockKey(msg.message.getSender(), msg.amountToken, bucket));
+                if (block == null) {
+                    continue;
+                }
+                for (DbRow candidate : block) {
+                    if (best != null && candidate.order >= best.order) {
+                        break;
+                    }
+                    if (candidate.createdAtMs >= from && candidate.createdAtMs <= to
+                            && editDistance.isNear(msg.normalizedBody, candidate.normalizedBody)) {
+                        best = candidate;
+                        break;
+                    }
+                }
             }
+            return best != null ? best.row : null;
         }
-        return dp[n];
     }
 
     // =========================================================================
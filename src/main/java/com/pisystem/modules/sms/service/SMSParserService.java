@@ -28,8 +28,10 @@ import lombok.extern.slf4j.Slf4j;
  * date extraction, recurring payment detection, and confidence scoring.
  * 
  * Performance Optimizations:
- * - Compiled regex patterns for keywords (30-40% faster)
- * - Cached lowercase messages (10-15% faster)
+ * - Keyword alternations matched in one pass by {@link SmsKeywordMatcher}
+ *   (shared with the classifier; DB overrides compiled in by {@link SmsPatternRegistry})
+ * - Overridable regexes read by slot from one immutable {@link SmsPatternSnapshot}
+ *   per parse, instead of a string-keyed map lookup per pattern
  * - HashSet lookups for categories (20-30% faster)
  * - Optimized date parsing with length-based formatters (15-20% faster)
  */
@@ -40,48 +42,14 @@ public class SMSParserService {
 
     private final SmsPatternRegistry patternRegistry;
 
-    /**
-     * Resolve a compiled pattern: returns the DB override if one exists for
-     * {@code key}, otherwise returns the static {@code fallback}.
-     */
-    private Pattern p(String key, Pattern fallback) {
-        return patternRegistry.get(key, fallback);
-    }
-
     // ==================== PATTERNS ====================
     
-    // Amount patterns for Indian currency
-    private static final Pattern AMOUNT_PATTERN = Pattern.compile(
-        "(?:Rs\\.?|INR|₹)\\s*([0-9,]+\\.?[0-9]*)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Pattern AMOUNT_PATTERN_2 = Pattern.compile(
-        "([0-9,]+\\.?[0-9]*)\\s*(?:Rs\\.?|INR|₹)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    // OPTIMIZATION: Compiled patterns for faster matching (replaces List<String> iterations)
-    private static final Pattern FUTURE_INTENT_PATTERN = Pattern.compile(
-        "\\b(will be debited|will be credited|scheduled|due on|due date|to be debited|to be credited|payment due|reminder)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Pattern DEBIT_PATTERN = Pattern.compile(
-        "\\b(debited|withdrawn|paid|spent|deducted|purchase|debit|charged)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Pattern CREDIT_PATTERN = Pattern.compile(
-        "\\b(credited|deposited|received|refund|cashback|credit)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Pattern RECURRING_PATTERN = Pattern.compile(
-        "\\b(policy|premium|subscription|emi|auto debit|autopay|standing instruction|si debit|recurring|monthly)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
+    // Patterns that sms_regex_patterns can override (amount, date, account, UPI,
+    // reference, balance, merchant) live in SmsPatternSlot and are read from the
+    // SmsPatternSnapshot a parse runs against.
     
+    // Keyword alternations (future intent, debit/credit, recurring, category hints)
+    // live in SmsKeyword and are matched in a single pass by SmsKeywordMatcher.
     
     // OPTIMIZATION: HashSets for O(1) category lookups (replaces multiple contains() calls)
     private static final Set<String> FOOD_MERCHANTS = Set.of(
@@ -123,37 +91,12 @@ public class SMSParserService {
         DateTimeFormatter.ofPattern("ddMMMyy")
     );
     
-    // Enhanced date extraction pattern with "on" keyword
-    private static final Pattern DATE_WITH_ON_PATTERN = Pattern.compile(
-        "(?:on|date:?)\\s+([0-3]?[0-9][-/\\s][A-Za-z0-9]{2,4}[-/\\s][0-9]{2,4})",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    // Generic date pattern
-    private static final Pattern DATE_PATTERN = Pattern.compile(
-        "\\b([0-3]?[0-9][-/][0-1]?[0-9][-/][0-9]{2,4}|[0-3]?[0-9][-\\s][A-Za-z]{3}[-\\s,]*[0-9]{2,4}|[A-Za-z]{3}\\s+[0-3]?[0-9],?\\s+[0-9]{4})\\b"
-    );
-    
     // Time pattern
     private static final Pattern TIME_PATTERN = Pattern.compile(
         "([0-2]?[0-9]):([0-5][0-9])(?::([0-5][0-9]))?\\s*(AM|PM)?",
         Pattern.CASE_INSENSITIVE
     );
     
-    private static final Pattern ACCOUNT_PATTERN = Pattern.compile(
-        "(?:A/c|Account|a/c|acc)\\s*(?:no\\.?)?\\s*(?:ending\\s*)?(?:[X*]+)?([0-9]{4,12})",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    private static final Pattern FROM_ACCOUNT_PATTERN = Pattern.compile(
-            "Your\\s+(?:a/c|account|acc)\\s*(?:no\\.?|number)?\\s*(?:XX+|X+)?([0-9]{4,10})",
-            Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern TO_ACCOUNT_PATTERN = Pattern.compile(
-        "to\\s+credit\\s+(?:a/c|account|acc)\\s*(?:no\\.?)?\\s*(?:ending\\s*)?(?:XX+|X+)?([0-9]{4,10})",
-        Pattern.CASE_INSENSITIVE
-    );
-    
     private static final Pattern CARD_PATTERN = Pattern.compile(
         "(?:Card|card)\\s*(?:no\\.?)?\\s*(?:ending\\s*)?(?:XX+)?([0-9]{4})",
         Pattern.CASE_INSENSITIVE
@@ -165,30 +108,6 @@ public class SMSParserService {
         Pattern.CASE_INSENSITIVE
     );
     
-    // Balance pattern
-    private static final Pattern BALANCE_PATTERN = Pattern.compile(
-        "(?:avl\\s*bal|available\\s*balance|balance|avl\\.\\s*bal|bal)\\s*(?:is)?\\s*(?:Rs\\.?|INR|₹)?\\s*([0-9,]+\\.?[0-9]*)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    // UPI reference pattern — matches: UPI Ref, UPI RRN, UPI ID, UPI no, plain UPI + digits
-    private static final Pattern UPI_PATTERN = Pattern.compile(
-        "(?:UPI|upi)\\s*(?:Ref|ref|RRN|rrn|ID|id)?\\s*(?::|no\\.?)?\\s*([0-9]+)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    // Reference number pattern
-    private static final Pattern REF_PATTERN = Pattern.compile(
-        "(?:Ref\\s*no|Reference\\s*no|Txn\\s*ID|Transaction\\s*ID|UTR)\\s*(?::|\\.)\\s*([A-Z0-9]+)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
-    // Merchant extraction pattern - improved
-    private static final Pattern MERCHANT_PATTERN = Pattern.compile(
-        "(?:at|to|from)\\s+([A-Z][A-Za-z0-9\\s&.-]{2,30})(?:\\s+on|\\.|,|\\s+A/c|\\s+using|\\s+via)",
-        Pattern.CASE_INSENSITIVE
-    );
-    
     // ==================== MAIN PARSING METHOD ====================
     
     /**
@@ -204,20 +123,53 @@ public class SMSParserService {
      * RULE 8: Enhanced confidence scoring
      */
     public ParsedSMSData parseSMS(String message) {
-        return parseSMS(message, null);
+        return parseSMS(message, patternRegistry.snapshot());
+    }
+    
+    /**
+     * Parse SMS against a pinned pattern snapshot, so every message of an import
+     * sees the same patterns even if the registry is refreshed meanwhile
+     */
+    public ParsedSMSData parseSMS(String message, SmsPatternSnapshot patterns) {
+        return parseSMS(message, null, patterns.keywordMatcher().scan(message), patterns);
     }
     
     /**
      * Parse SMS with optional SMS timestamp fallback
-     * 
-     * OPTIMIZATION: Cache lowercase message to avoid multiple toLowerCase() calls
      */
     public ParsedSMSData parseSMS(String message, LocalDate smsTimestamp) {
-        // OPTIMIZATION: Cache lowercase version to reuse throughout parsing (saves 10-15%)
-        final String lowerMessage = message.toLowerCase();
-        
+        SmsPatternSnapshot patterns = patternRegistry.snapshot();
+        return parseSMS(message, smsTimestamp, patterns.keywordMatcher().scan(message), patterns);
+    }
+    
+    /** Patterns currently in effect; pin the result to parse a batch consistently. */
+    public SmsPatternSnapshot patternSnapshot() {
+        return patternRegistry.snapshot();
+    }
+    
+    /**
+     * Scan {@code message} for every keyword group in one pass. The result can be
+     * passed to {@link #parseSMS(String, LocalDate, SmsKeywordHits)} and to
+     * {@link SmsClassifierService#classify(String, SmsKeywordHits)}.
+     */
+    public SmsKeywordHits scanKeywords(String message) {
+        return patternRegistry.keywordMatcher().scan(message);
+    }
+    
+    /**
+     * Parse SMS using keyword hits from an earlier {@link #scanKeywords(String)} of the same message
+     */
+    public ParsedSMSData parseSMS(String message, LocalDate smsTimestamp, SmsKeywordHits keywords) {
+        return parseSMS(message, smsTimestamp, keywords, patternRegistry.snapshot());
+    }
+    
+    /**
+     * Parse SMS using keyword hits scanned with {@code patterns}' keyword matcher
+     */
+    public ParsedSMSData parseSMS(String message, LocalDate smsTimestamp, SmsKeywordHits keywords,
+            SmsPatternSnapshot patterns) {
         // RULE 1: FUTURE INTENT DETECTION - Reject messages about future transactions
-        if (hasFutureIntent(lowerMessage)) {
+        if (keywords.has(SmsKeyword.PARSER_FUTURE_INTENT)) {
             if (log.isDebugEnabled()) {
                 log.debug("Message contains future intent - ignoring");
             }
@@ -236,7 +188,7 @@ public class SMSParserService {
             // ========== CRITICAL FIELDS (MANDATORY) ==========
             
             // Extract amount (MANDATORY)
-            BigDecimal amount = extractAmount(message);
+            BigDecimal amount = extractAmount(message, patterns);
             if (amount == null) {
                 if (log.isDebugEnabled()) {
                     log.debug("No amount found - not a transaction");
@@ -250,8 +202,8 @@ public class SMSParserService {
             builder.amount(amount);
             confidence += 0.35; // Amount is critical
             
-            // Extract transaction type (MANDATORY) - use cached lowercase
-            TransactionType type = extractTransactionType(lowerMessage);
+            // Extract transaction type (MANDATORY)
+            TransactionType type = extractTransactionType(keywords);
             builder.transactionType(type);
             if (type == TransactionType.UNKNOWN) {
                 if (log.isDebugEnabled()) {
@@ -273,7 +225,7 @@ public class SMSParserService {
             
             // ========== DATE EXTRACTION (RULE 2: PRIORITIZE MESSAGE DATE) ==========
             
-            DateExtractionResult dateResult = extractDateWithPriority(message, smsTimestamp);
+            DateExtractionResult dateResult = extractDateWithPriority(message, smsTimestamp, patterns);
             builder.transactionDate(dateResult.date);
             builder.dateFromMessage(dateResult.fromMessage);
             
@@ -293,7 +245,7 @@ public class SMSParserService {
             }
             
             // Extract merchant/description
-            String merchant = extractMerchant(message);
+            String merchant = extractMerchant(message, patterns);
             if (merchant != null && !merchant.isEmpty()) {
                 builder.merchant(merchant);
                 confidence += 0.08;
@@ -301,14 +253,14 @@ public class SMSParserService {
             
             // ========== TAGS & METADATA ==========
             
-            // UPI detection - use cached lowercase
-            if (lowerMessage.contains("upi") || lowerMessage.contains("vpa")) {
+            // UPI detection
+            if (keywords.has(SmsKeyword.PARSER_UPI_OR_VPA)) {
                 tags.add("UPI");
                 confidence += 0.04;
             }
             
             // UPI reference
-            String upiId = extractUpiId(message);
+            String upiId = extractUpiId(message, patterns);
             if (upiId != null) {
                 builder.upiId(upiId);
                 if (!tags.contains("UPI")) {
@@ -332,15 +284,15 @@ public class SMSParserService {
             }
             
             // Extract account number (general)
-            String account = extractAccount(message);
+            String account = extractAccount(message, patterns);
             if (account != null) {
                 builder.accountNumber(account);
                 confidence += 0.03;
             }
             
             // Extract from and to accounts for self-transfer detection
-            String fromAccount = extractFromAccount(message);
-            String toAccount = extractToAccount(message);
+            String fromAccount = extractFromAccount(message, patterns);
+            String toAccount = extractToAccount(message, patterns);
             
             // TEMPORARY ERROR LOG FOR DEBUGGING (will always show)
             log.error("[DEBUG] Account extraction - FROM: '{}', TO: '{}'", fromAccount, toAccount);
@@ -362,14 +314,14 @@ public class SMSParserService {
             }
             
             // Balance
-            BigDecimal balance = extractBalance(message);
+            BigDecimal balance = extractBalance(message, patterns);
             if (balance != null) {
                 builder.balance(balance);
                 confidence += 0.05;
             }
             
             // Reference number (adds credibility)
-            String refNumber = extractReferenceNumber(message);
+            String refNumber = extractReferenceNumber(message, patterns);
             if (refNumber != null) {
                 builder.referenceNumber(refNumber);
                 confidence += 0.04;
@@ -377,7 +329,7 @@ public class SMSParserService {
             
             // ========== RECURRING PAYMENT DETECTION ==========
             
-            boolean isRecurring = detectRecurring(lowerMessage); // Use cached lowercase
+            boolean isRecurring = detectRecurring(keywords);
             builder.isRecurring(isRecurring);
             if (isRecurring) {
                 tags.add("RECURRING");
@@ -386,7 +338,7 @@ public class SMSParserService {
             
             // ========== DYNAMIC CATEGORY INFERENCE ==========
             
-            String category = inferCategory(lowerMessage, merchant, isRecurring); // Use cached lowercase
+            String category = inferCategory(keywords, merchant, isRecurring);
             builder.category(category);
             
             // ========== FINALIZE ==========
@@ -427,26 +379,17 @@ public class SMSParserService {
     
     // ==================== HELPER METHODS ====================
     
-    /**
-     * Check if message contains future intent keywords
-     * OPTIMIZATION: Use compiled pattern instead of List iteration
-     */
-    private boolean hasFutureIntent(String lowerMessage) {
-        return p("PARSER_FUTURE_INTENT", FUTURE_INTENT_PATTERN).matcher(lowerMessage).find();
-    }
-    
-    
     /**
      * Extract amount from SMS
      */
-    private BigDecimal extractAmount(String message) {
-        Matcher matcher = p("PARSER_AMOUNT_1", AMOUNT_PATTERN).matcher(message);
+    private BigDecimal extractAmount(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_AMOUNT_1).matcher(message);
         if (matcher.find()) {
             return parseAmount(matcher.group(1));
         }
 
         // Try alternative pattern
-        matcher = p("PARSER_AMOUNT_2", AMOUNT_PATTERN_2).matcher(message);
+        matcher = patterns.pattern(SmsPatternSlot.PARSER_AMOUNT_2).matcher(message);
         if (matcher.find()) {
             return parseAmount(matcher.group(1));
         }
@@ -468,13 +411,12 @@ public class SMSParserService {
     
     /**
      * Extract transaction type with support for COMPLEX_TRANSACTION
-     * OPTIMIZATION: Use compiled patterns instead of List iteration (30-40% faster)
      * 
      * RULE: If both debit and credit keywords present -> COMPLEX_TRANSACTION
      */
-    private TransactionType extractTransactionType(String lowerMessage) {
-        boolean hasDebit  = p("PARSER_DEBIT",  DEBIT_PATTERN).matcher(lowerMessage).find();
-        boolean hasCredit = p("PARSER_CREDIT", CREDIT_PATTERN).matcher(lowerMessage).find();
+    private TransactionType extractTransactionType(SmsKeywordHits keywords) {
+        boolean hasDebit  = keywords.has(SmsKeyword.PARSER_DEBIT);
+        boolean hasCredit = keywords.has(SmsKeyword.PARSER_CREDIT);
         if (hasDebit && hasCredit)  return TransactionType.COMPLEX_TRANSACTION;
         if (hasDebit)               return TransactionType.DEBIT;
         if (hasCredit)              return TransactionType.CREDIT;
@@ -486,9 +428,10 @@ public class SMSParserService {
      * 
      * RULE: Always prioritize date from message content over SMS timestamp
      */
-    private DateExtractionResult extractDateWithPriority(String message, LocalDate smsTimestamp) {
+    private DateExtractionResult extractDateWithPriority(String message, LocalDate smsTimestamp,
+            SmsPatternSnapshot patterns) {
         // Try to extract date with "on" keyword first (highest priority)
-        Matcher onMatcher = p("PARSER_DATE_WITH_ON", DATE_WITH_ON_PATTERN).matcher(message);
+        Matcher onMatcher = patterns.pattern(SmsPatternSlot.PARSER_DATE_WITH_ON).matcher(message);
         if (onMatcher.find()) {
             String dateStr = onMatcher.group(1).trim();
             LocalDate date = tryParseDate(dateStr);
@@ -499,7 +442,7 @@ public class SMSParserService {
         }
 
         // Try generic date pattern
-        Matcher dateMatcher = p("PARSER_DATE", DATE_PATTERN).matcher(message);
+        Matcher dateMatcher = patterns.pattern(SmsPatternSlot.PARSER_DATE).matcher(message);
         while (dateMatcher.find()) {
             String dateStr = dateMatcher.group(1).trim();
             LocalDate date = tryParseDate(dateStr);
@@ -588,8 +531,8 @@ public class SMSParserService {
      * named merchant can be extracted, so the field is never empty for UPI
      * transactions like "to credit a/c XXXX (UPI RRN 284982567069)".
      */
-    private String extractMerchant(String message) {
-        Matcher matcher = p("PARSER_MERCHANT", MERCHANT_PATTERN).matcher(message);
+    private String extractMerchant(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_MERCHANT).matcher(message);
         if (matcher.find()) {
             String merchant = matcher.group(1).trim();
             merchant = merchant.replaceAll("(?i)\\s+(using|via|with)$", "");
@@ -598,7 +541,7 @@ public class SMSParserService {
             }
         }
         // Fallback: use UPI reference / RRN as a pseudo-merchant identifier
-        Matcher upiMatcher = p("PARSER_UPI", UPI_PATTERN).matcher(message);
+        Matcher upiMatcher = patterns.pattern(SmsPatternSlot.PARSER_UPI).matcher(message);
         if (upiMatcher.find()) {
             return "UPI Ref " + upiMatcher.group(1);
         }
@@ -614,17 +557,17 @@ public class SMSParserService {
         return "XXXX" + digits.substring(digits.length() - 4);
     }
 
-    private String extractAccount(String message) {
-        Matcher matcher = p("PARSER_ACCOUNT", ACCOUNT_PATTERN).matcher(message);
+    private String extractAccount(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_ACCOUNT).matcher(message);
         if (matcher.find()) {
             return maskAccount(matcher.group(1));
         }
         return null;
     }
     
-    private String extractFromAccount(String message) {
+    private String extractFromAccount(String message, SmsPatternSnapshot patterns) {
         log.error("[DEBUG] extractFromAccount called with message: {}", message.substring(0, Math.min(100, message.length())));
-        Matcher matcher = p("PARSER_FROM_ACCOUNT", FROM_ACCOUNT_PATTERN).matcher(message);
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_FROM_ACCOUNT).matcher(message);
         if (matcher.find()) {
             String result = maskAccount(matcher.group(1));
             log.error("[DEBUG] FROM account MATCHED - result='{}'", result);
@@ -640,9 +583,9 @@ public class SMSParserService {
     /**
      * Extract TO account (destination account for transfers)
      */
-    private String extractToAccount(String message) {
+    private String extractToAccount(String message, SmsPatternSnapshot patterns) {
         log.error("[DEBUG] extractToAccount called with message: {}", message.substring(0, Math.min(100, message.length())));
-        Matcher matcher = p("PARSER_TO_ACCOUNT", TO_ACCOUNT_PATTERN).matcher(message);
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_TO_ACCOUNT).matcher(message);
         if (matcher.find()) {
             String result = maskAccount(matcher.group(1));
             log.error("[DEBUG] TO account MATCHED - result='{}'", result);
@@ -672,8 +615,8 @@ public class SMSParserService {
     /**
      * Extract balance
      */
-    private BigDecimal extractBalance(String message) {
-        Matcher matcher = p("PARSER_BALANCE", BALANCE_PATTERN).matcher(message);
+    private BigDecimal extractBalance(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_BALANCE).matcher(message);
         if (matcher.find()) {
             String balanceStr = matcher.group(1).replace(",", "");
             try {
@@ -688,8 +631,8 @@ public class SMSParserService {
     /**
      * Extract UPI ID
      */
-    private String extractUpiId(String message) {
-        Matcher matcher = p("PARSER_UPI", UPI_PATTERN).matcher(message);
+    private String extractUpiId(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_UPI).matcher(message);
         if (matcher.find()) {
             return matcher.group(1);
         }
@@ -699,8 +642,8 @@ public class SMSParserService {
     /**
      * Extract reference number
      */
-    private String extractReferenceNumber(String message) {
-        Matcher matcher = p("PARSER_REFERENCE", REF_PATTERN).matcher(message);
+    private String extractReferenceNumber(String message, SmsPatternSnapshot patterns) {
+        Matcher matcher = patterns.pattern(SmsPatternSlot.PARSER_REFERENCE).matcher(message);
         if (matcher.find()) {
             return matcher.group(1);
         }
@@ -712,10 +655,9 @@ public class SMSParserService {
      */
     /**
      * Detect if transaction is recurring (policy, premium, subscription, EMI, auto debit)
-     * OPTIMIZATION: Use compiled pattern instead of List iteration
      */
-    private boolean detectRecurring(String lowerMessage) {
-        boolean isRecurring = p("PARSER_RECURRING", RECURRING_PATTERN).matcher(lowerMessage).find();
+    private boolean detectRecurring(SmsKeywordHits keywords) {
+        boolean isRecurring = keywords.has(SmsKeyword.PARSER_RECURRING);
         if (isRecurring && log.isDebugEnabled()) {
             log.debug("Recurring payment detected");
         }
@@ -730,42 +672,41 @@ public class SMSParserService {
      * 
      * Categories: food, rent, insurance, transfer, salary, recharge, etc.
      */
-    private String inferCategory(String lowerMessage, String merchant, boolean isRecurring) {
+    private String inferCategory(SmsKeywordHits keywords, String merchant, boolean isRecurring) {
         String lowerMerchant = (merchant != null) ? merchant.toLowerCase() : "";
         
         // Insurance
-        if (isRecurring && (lowerMessage.contains("policy") || lowerMessage.contains("premium") || 
-            lowerMessage.contains("insurance"))) {
+        if (isRecurring && keywords.has(SmsKeyword.CATEGORY_INSURANCE)) {
             return "insurance";
         }
         
         // EMI / Loan
-        if (lowerMessage.contains("emi") || lowerMessage.contains("loan")) {
+        if (keywords.has(SmsKeyword.CATEGORY_LOAN)) {
             return "emi";
         }
         
         // Subscription - OPTIMIZED with HashSet
-        if (lowerMessage.contains("subscription") || 
+        if (keywords.has(SmsKeyword.CATEGORY_SUBSCRIPTION) || 
             SUBSCRIPTION_MERCHANTS.stream().anyMatch(lowerMerchant::contains)) {
             return "subscription";
         }
         
         // Rent
-        if (lowerMessage.contains("rent") || lowerMerchant.contains("rent")) {
+        if (keywords.has(SmsKeyword.CATEGORY_RENT) || lowerMerchant.contains("rent")) {
             return "rent";
         }
         
         // Salary
-        if (lowerMessage.contains("salary") || (lowerMessage.contains("credited") && lowerMessage.contains("salary"))) {
+        if (keywords.has(SmsKeyword.CATEGORY_SALARY)) {
             return "salary";
         }
         
         // Recharge / Bills
-        if (lowerMessage.contains("recharge") || lowerMessage.contains("prepaid") || lowerMessage.contains("postpaid")) {
+        if (keywords.has(SmsKeyword.CATEGORY_RECHARGE)) {
             return "recharge";
         }
         
-        if (lowerMessage.contains("electricity") || lowerMessage.contains("water") || lowerMessage.contains("gas")) {
+        if (keywords.has(SmsKeyword.CATEGORY_UTILITY)) {
             return "utility";
         }
         
@@ -775,7 +716,7 @@ public class SMSParserService {
         }
         
         // Fuel - OPTIMIZED with HashSet
-        if (lowerMessage.contains("petrol") || lowerMessage.contains("fuel") || 
+        if (keywords.has(SmsKeyword.CATEGORY_FUEL) || 
             FUEL_MERCHANTS.stream().anyMatch(lowerMerchant::contains)) {
             return "fuel";
         }
@@ -786,23 +727,23 @@ public class SMSParserService {
         }
         
         // ATM Withdrawal
-        if (lowerMessage.contains("atm")) {
+        if (keywords.has(SmsKeyword.CATEGORY_ATM)) {
             return "atm_withdrawal";
         }
         
         // Transfer
-        if (lowerMessage.contains("transfer") || lowerMessage.contains("sent to") || 
-            (lowerMessage.contains("upi") && lowerMessage.contains("to"))) {
+        if (keywords.has(SmsKeyword.CATEGORY_TRANSFER) || 
+            (keywords.has(SmsKeyword.PARSER_UPI) && keywords.has(SmsKeyword.PARSER_TO))) {
             return "transfer";
         }
         
         // Refund
-        if (lowerMessage.contains("refund") || lowerMessage.contains("cashback")) {
+        if (keywords.has(SmsKeyword.CATEGORY_REFUND)) {
             return "refund";
         }
         
         // Medical
-        if (lowerMessage.contains("pharma") || lowerMessage.contains("medical") || lowerMessage.contains("hospital")) {
+        if (keywords.has(SmsKeyword.CATEGORY_MEDICAL)) {
             return "medical";
         }
         
@@ -16,4 +16,14 @@ public interface SmsClassifierService {
      * @return classification result with type, confidence, and reason
      */
     SmsClassificationResult classify(String rawSms);
+
+    /**
+     * Classify a raw SMS that has already been scanned for keywords, e.g. by
+     * {@link SMSParserService#scanKeywords(String)}, so it is not scanned again.
+     *
+     * @param rawSms   the original SMS body text
+     * @param keywords scan result for {@code rawSms}; scanned here when {@code null}
+     * @return classification result with type, confidence, and reason
+     */
+    SmsClassificationResult classify(String rawSms, SmsKeywordHits keywords);
 }
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import com.pisystem.modules.sms.data.SmsClassificationResult;
 import com.pisystem.modules.sms.data.SmsClassificationResult.MessageType;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -36,81 +37,25 @@ import lombok.extern.slf4j.Slf4j;
  * </table>
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SmsClassifierServiceImpl implements SmsClassifierService {
 
     // =========================================================================
-    // Rule 1 — OTP signals (checked first — OTPs are never financial)
+    // Keyword signals (OTP, promotional, service, action verbs, payment rail,
+    // balance update, future intent) are SmsKeyword groups, matched in one
+    // pass by SmsKeywordMatcher. Only the structural patterns remain here.
     // =========================================================================
 
-    private static final Pattern OTP_PATTERN = Pattern.compile(
-            "\\b(otp|one.?time.?password|verification.?code|is your (otp|code|pin)|do not share|" +
-            "enter.*\\b\\d{4,8}\\b.*to (verify|login|authenticate))\\b",
-            Pattern.CASE_INSENSITIVE);
-
     /** A standalone 4-8 digit block that is the dominant content signals OTP. */
     private static final Pattern OTP_CODE_PATTERN = Pattern.compile(
             "(?:^|\\s)(\\d{4,8})(?:\\s|$)");
 
-    // =========================================================================
-    // Rule 2 — Promotional signals
-    // =========================================================================
-
-    private static final Pattern PROMO_PATTERN = Pattern.compile(
-            "\\b(offer|discount|cashback offer|win|congratulations|you have won|" +
-            "click here|apply now|limited time|exclusive deal|coupon|promo|" +
-            "buy now|shop now|get \\d+%|flat \\d+% off|upto \\d+% off|" +
-            "unsubscribe|opt.?out|reply stop|advertisement|advert|ad:|" +
-            "upgrade now|free trial|no cost emi|no-cost emi)\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    // =========================================================================
-    // Rule 3 — Service / informational signals (no amount involved)
-    // =========================================================================
-
-    private static final Pattern SERVICE_PATTERN = Pattern.compile(
-            "\\b(your (account|profile|password|login|kyc|mobile number|email) (has been|is|was) " +
-            "(updated|changed|verified|registered|activated|linked|blocked|unblocked)|" +
-            "kyc (completed|pending|required|verified)|" +
-            "feedback|rate us|how was your experience|survey|" +
-            "scheduled maintenance|service (downtime|unavailable)|" +
-            "congratulations.*account.*opened|welcome to|" +
-            "your (request|complaint|ticket|issue) (number|id|has been))\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    // =========================================================================
-    // Rule 4 — Transaction signals
-    // =========================================================================
-
     /** Indian currency amount — presence is a strong TRANSACTION signal. */
     private static final Pattern CURRENCY_PATTERN = Pattern.compile(
             "(?:Rs\\.?|INR|₹)\\s*[0-9,]+\\.?[0-9]*|[0-9,]+\\.?[0-9]*\\s*(?:Rs\\.?|INR|₹)",
             Pattern.CASE_INSENSITIVE);
 
-    /** Debit / spend action words. */
-    private static final Pattern DEBIT_ACTION_PATTERN = Pattern.compile(
-            "\\b(debited|deducted|withdrawn|paid|spent|charged|purchase|" +
-            "payment (of|for)|amount (of|deducted)|debit)\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    /** Credit / receive action words. */
-    private static final Pattern CREDIT_ACTION_PATTERN = Pattern.compile(
-            "\\b(credited|deposited|received|refunded|cashback|" +
-            "amount credited|credit)\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    /** Payment channel / rail keywords. */
-    private static final Pattern PAYMENT_RAIL_PATTERN = Pattern.compile(
-            "\\b(upi|atm|neft|imps|rtgs|pos|card|netbanking|net banking|" +
-            "nach|ecs|cheque|dd|demand draft|wallet|gpay|phonepe|paytm)\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    /** Balance update — strong confirmation of a completed transaction. */
-    private static final Pattern BALANCE_UPDATE_PATTERN = Pattern.compile(
-            "\\b(avl\\.?\\s*bal|available balance|a/c bal|balance is|" +
-            "bal\\.?\\s*(?:rs|inr|₹)|closing balance|ac bal)\\b",
-            Pattern.CASE_INSENSITIVE);
-
     /** Masked account or card number. */
     private static final Pattern ACCOUNT_PATTERN = Pattern.compile(
             "\\b(?:a/c|account|acc|card)\\s*(?:no\\.?\\s*)?(?:xx+|\\*+)?[0-9]{4}\\b",
@@ -121,15 +66,7 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
             "\\b(?:upi\\s*(?:rrn|ref|id)|ref\\s*no|txn\\s*id|transaction\\s*id|utr|rrn)\\s*[:\\-]?\\s*[a-z0-9]+\\b",
             Pattern.CASE_INSENSITIVE);
 
-    /**
-     * Future-intent phrases — these look financial but are NOT completed transactions.
-     * They DISQUALIFY a message from being TRANSACTION even if it has an amount.
-     */
-    private static final Pattern FUTURE_INTENT_PATTERN = Pattern.compile(
-            "\\b(will be debited|will be credited|scheduled|due on|due date|" +
-            "to be debited|to be credited|payment due|reminder|" +
-            "auto.?debit.*on|emi.*due|emi.*on)\\b",
-            Pattern.CASE_INSENSITIVE);
+    private final SmsPatternRegistry patternRegistry;
 
     // =========================================================================
     // Confidence weights
@@ -148,6 +85,11 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
 
     @Override
     public SmsClassificationResult classify(String rawSms) {
+        return classify(rawSms, null);
+    }
+
+    @Override
+    public SmsClassificationResult classify(String rawSms, SmsKeywordHits keywords) {
         if (rawSms == null || rawSms.isBlank()) {
             return SmsClassificationResult.builder()
                     .isFinancial(false)
@@ -156,11 +98,12 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
                     .reason("Empty or null SMS")
                     .build();
         }
-
-        final String lower = rawSms.toLowerCase();
+        if (keywords == null) {
+            keywords = patternRegistry.keywordMatcher().scan(rawSms);
+        }
 
         // ── Stage 1: OTP ──────────────────────────────────────────────────────
-        if (isOtp(rawSms, lower)) {
+        if (isOtp(rawSms, keywords)) {
             return SmsClassificationResult.builder()
                     .isFinancial(false)
                     .messageType(MessageType.OTP)
@@ -170,7 +113,7 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
         }
 
         // ── Stage 2: Promotional ──────────────────────────────────────────────
-        if (isPromotional(lower)) {
+        if (keywords.has(SmsKeyword.CLASSIFIER_PROMO)) {
             return SmsClassificationResult.builder()
                     .isFinancial(false)
                     .messageType(MessageType.PROMOTIONAL)
@@ -181,7 +124,7 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
 
         // ── Stage 3: Future intent — scheduled / reminder messages ────────────
         // Check before scoring: they may have amounts but are not real transactions.
-        if (FUTURE_INTENT_PATTERN.matcher(lower).find()) {
+        if (keywords.has(SmsKeyword.CLASSIFIER_FUTURE_INTENT)) {
             return SmsClassificationResult.builder()
                     .isFinancial(false)
                     .messageType(MessageType.SERVICE)
@@ -195,11 +138,12 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
         int score = 0;
 
         boolean hasCurrency = CURRENCY_PATTERN.matcher(rawSms).find();
-        boolean hasDebit    = DEBIT_ACTION_PATTERN.matcher(lower).find();
-        boolean hasCredit   = CREDIT_ACTION_PATTERN.matcher(lower).find();
+        boolean hasDebit    = keywords.has(SmsKeyword.CLASSIFIER_DEBIT_ACTION);
+        boolean hasCredit   = keywords.has(SmsKeyword.CLASSIFIER_CREDIT_ACTION);
         boolean hasAction   = hasDebit || hasCredit;
-        boolean hasRail     = PAYMENT_RAIL_PATTERN.matcher(lower).find();
-        boolean hasBalance  = BALANCE_UPDATE_PATTERN.matcher(lower).find();
+        boolean hasRail     = keywords.has(SmsKeyword.CLASSIFIER_PAYMENT_RAIL);
+        boolean hasBalance  = keywords.has(SmsKeyword.CLASSIFIER_BALANCE_UPDATE);
+        final String lower  = rawSms.toLowerCase();
         boolean hasAccount  = ACCOUNT_PATTERN.matcher(lower).find();
         boolean hasRef      = REFERENCE_PATTERN.matcher(lower).find();
 
@@ -225,7 +169,7 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
         }
 
         // ── Stage 5: Service / informational ─────────────────────────────────
-        if (isService(lower)) {
+        if (keywords.has(SmsKeyword.CLASSIFIER_SERVICE)) {
             return SmsClassificationResult.builder()
                     .isFinancial(false)
                     .messageType(MessageType.SERVICE)
@@ -252,24 +196,16 @@ public class SmsClassifierServiceImpl implements SmsClassifierService {
     // Private helpers
     // =========================================================================
 
-    private boolean isOtp(String rawSms, String lower) {
-        if (OTP_PATTERN.matcher(lower).find()) return true;
+    private boolean isOtp(String rawSms, SmsKeywordHits keywords) {
+        if (keywords.has(SmsKeyword.CLASSIFIER_OTP)) return true;
         // Standalone digit-only code that dominates a short message (< 120 chars)
         if (rawSms.length() < 120 && OTP_CODE_PATTERN.matcher(rawSms).find()) {
             // Must NOT have currency + action to avoid mis-classifying "Rs 500 debited. OTP..."
             boolean hasCurrency = CURRENCY_PATTERN.matcher(rawSms).find();
-            boolean hasAction   = DEBIT_ACTION_PATTERN.matcher(lower).find()
-                               || CREDIT_ACTION_PATTERN.matcher(lower).find();
+            boolean hasAction   = keywords.hasAny(SmsKeyword.CLASSIFIER_DEBIT_ACTION,
+                                                  SmsKeyword.CLASSIFIER_CREDIT_ACTION);
             return !(hasCurrency && hasAction);
         }
         return false;
     }
-
-    private boolean isPromotional(String lower) {
-        return PROMO_PATTERN.matcher(lower).find();
-    }
-
-    private boolean isService(String lower) {
-        return SERVICE_PATTERN.matcher(lower).find();
-    }
 }
@@ -0,0 +1,137 @@
+package com.pisystem.modules.sms.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Keyword groups recognised in a single pass by {@link SmsKeywordMatcher}.
+ *
+ * <p>Each group is an alternation of literal phrases (with optional
+ * {@code (a|b)} sub-groups, expanded at compile time). Word-boundary groups
+ * mirror the {@code \b(...)\b} regexes they replace; the others mirror plain
+ * {@code String.contains} checks. Alternatives that need real regex features
+ * ({@code .?}, {@code \d+}, {@code .*}) stay in a small residual pattern that
+ * is only evaluated when no literal of the group has matched.</p>
+ *
+ * <p>Groups with a {@link #getRegistryKey() registry key} can be overridden
+ * through {@code sms_regex_patterns}; see {@link SmsKeywordMatcher#compile}.</p>
+ */
+public enum SmsKeyword {
+
+    // =========================================================================
+    // SMSParserService
+    // =========================================================================
+
+    PARSER_FUTURE_INTENT("PARSER_FUTURE_INTENT", true,
+            "will be debited|will be credited|scheduled|due on|due date|to be debited|to be credited|"
+                    + "payment due|reminder"),
+    PARSER_DEBIT("PARSER_DEBIT", true,
+            "debited|withdrawn|paid|spent|deducted|purchase|debit|charged"),
+    PARSER_CREDIT("PARSER_CREDIT", true,
+            "credited|deposited|received|refund|cashback|credit"),
+    PARSER_RECURRING("PARSER_RECURRING", true,
+            "policy|premium|subscription|emi|auto debit|autopay|standing instruction|si debit|recurring|monthly"),
+
+    PARSER_UPI_OR_VPA("upi|vpa"),
+    PARSER_UPI("upi"),
+    PARSER_TO("to"),
+    CATEGORY_INSURANCE("policy|premium|insurance"),
+    CATEGORY_LOAN("emi|loan"),
+    CATEGORY_SUBSCRIPTION("subscription"),
+    CATEGORY_RENT("rent"),
+    CATEGORY_SALARY("salary"),
+    CATEGORY_RECHARGE("recharge|prepaid|postpaid"),
+    CATEGORY_UTILITY("electricity|water|gas"),
+    CATEGORY_FUEL("petrol|fuel"),
+    CATEGORY_ATM("atm"),
+    CATEGORY_TRANSFER("transfer|sent to"),
+    CATEGORY_REFUND("refund|cashback"),
+    CATEGORY_MEDICAL("pharma|medical|hospital"),
+
+    // =========================================================================
+    // SmsClassifierServiceImpl
+    // =========================================================================
+
+    CLASSIFIER_OTP("CLASSIFIER_OTP", true,
+            "otp|is your (otp|code|pin)|do not share",
+            "\\b(one.?time.?password|verification.?code|enter.*\\b\\d{4,8}\\b.*to (verify|login|authenticate))\\b"),
+    CLASSIFIER_PROMO("CLASSIFIER_PROMO", true,
+            "offer|discount|cashback offer|win|congratulations|you have won|click here|apply now|limited time|"
+                    + "exclusive deal|coupon|promo|buy now|shop now|unsubscribe|reply stop|advertisement|advert|"
+                    + "ad:|upgrade now|free trial|no cost emi|no-cost emi",
+            "\\b(get \\d+%|flat \\d+% off|upto \\d+% off|opt.?out)\\b"),
+    CLASSIFIER_SERVICE("CLASSIFIER_SERVICE", true,
+            "your (account|profile|password|login|kyc|mobile number|email) (has been|is|was) "
+                    + "(updated|changed|verified|registered|activated|linked|blocked|unblocked)|"
+                    + "kyc (completed|pending|required|verified)|"
+                    + "feedback|rate us|how was your experience|survey|"
+                    + "scheduled maintenance|service (downtime|unavailable)|welcome to|"
+                    + "your (request|complaint|ticket|issue) (number|id|has been)",
+            "\\b(congratulations.*account.*opened)\\b"),
+    CLASSIFIER_DEBIT_ACTION("CLASSIFIER_DEBIT_ACTION", true,
+            "debited|deducted|withdrawn|paid|spent|charged|purchase|payment (of|for)|amount (of|deducted)|debit"),
+    CLASSIFIER_CREDIT_ACTION("CLASSIFIER_CREDIT_ACTION", true,
+            "credited|deposited|received|refunded|cashback|amount credited|credit"),
+    CLASSIFIER_PAYMENT_RAIL("CLASSIFIER_PAYMENT_RAIL", true,
+            "upi|atm|neft|imps|rtgs|pos|card|netbanking|net banking|nach|ecs|cheque|dd|demand draft|wallet|"
+                    + "gpay|phonepe|paytm"),
+    CLASSIFIER_BALANCE_UPDATE("CLASSIFIER_BALANCE_UPDATE", true,
+            "available balance|a/c bal|balance is|closing balance|ac bal",
+            "\\b(avl\\.?\\s*bal|bal\\.?\\s*(?:rs|inr|₹))\\b"),
+    CLASSIFIER_FUTURE_INTENT("CLASSIFIER_FUTURE_INTENT", true,
+            "will be debited|will be credited|scheduled|due on|due date|to be debited|to be credited|"
+                    + "payment due|reminder",
+            "\\b(auto.?debit.*on|emi.*due|emi.*on)\\b"),
+
+    // =========================================================================
+    // SmsServiceImpl.detectTransactionPatterns
+    // =========================================================================
+
+    IMPORT_NEGATIVE("will be|scheduled|due|failed|could not be processed|declined|not processed|upcoming|"
+            + "statement|limit|disabled|enabled|registration|mandate|auto debit|autopay"),
+    IMPORT_DEBIT(null, true, "debited|spent|withdrawn|paid|charged|purchase"),
+    IMPORT_CREDIT(null, true, "credited|received|refund|cashback|deposited"),
+    IMPORT_REFERENCE("upi|rrn|ref"),
+    IMPORT_ACCOUNT("a/c|account|card"),
+    IMPORT_MANDATE("will be debited|will be credited|scheduled for|auto-debit|autopay|next debit|payment due"),
+    IMPORT_BALANCE("available balance|avl bal|current balance|balance is");
+
+    private final String registryKey;
+    private final boolean wordBoundary;
+    private final String phrases;
+    private final Pattern residual;
+
+    SmsKeyword(String phrases) {
+        this(null, false, phrases, null);
+    }
+
+    SmsKeyword(String registryKey, boolean wordBoundary, String phrases) {
+        this(registryKey, wordBoundary, phrases, null);
+    }
+
+    SmsKeyword(String registryKey, boolean wordBoundary, String phrases, String residual) {
+        this.registryKey = registryKey;
+        this.wordBoundary = wordBoundary;
+        this.phrases = phrases;
+        this.residual = residual != null ? Pattern.compile(residual, Pattern.CASE_INSENSITIVE) : null;
+    }
+
+    /** {@code sms_regex_patterns.pattern_key} that may override this group, or {@code null}. */
+    public String getRegistryKey() {
+        return registryKey;
+    }
+
+    /** Whether every phrase must sit between regex word boundaries ({@code \b}). */
+    boolean isWordBoundary() {
+        return wordBoundary;
+    }
+
+    /** Literal alternation compiled into the automaton. */
+    String getPhrases() {
+        return phrases;
+    }
+
+    /** Regex-only alternatives, evaluated against the lowercased message; may be {@code null}. */
+    Pattern getResidual() {
+        return residual;
+    }
+}
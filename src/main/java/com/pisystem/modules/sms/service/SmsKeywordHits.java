@@ -0,0 +1,65 @@
+package com.pisystem.modules.sms.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Result of one {@link SmsKeywordMatcher#scan} over a message.
+ *
+ * <p>Literal hits are fixed at scan time. Groups that also carry a residual
+ * regex are resolved on first {@link #has} and memoised, so a residual is run
+ * at most once per message and only when no literal of its group matched.
+ * Scan results can be handed from the parser to the classifier so the
+ * message is not scanned twice.</p>
+ *
+ * <p>Not thread-safe: a result belongs to the thread handling the message.</p>
+ */
+public final class SmsKeywordHits {
+
+    private final String message;
+    private final Pattern[] residuals;
+    private long hits;
+    private long resolved;
+    private String lowerMessage;
+
+    SmsKeywordHits(String message, long literalHits, Pattern[] residuals) {
+        this.message = message;
+        this.hits = literalHits;
+        this.resolved = literalHits;
+        this.residuals = residuals;
+    }
+
+    /** Whether the message contains any phrase of {@code keyword}. */
+    public boolean has(SmsKeyword keyword) {
+        long bit = 1L << keyword.ordinal();
+        if ((resolved & bit) == 0) {
+            resolved |= bit;
+            Pattern residual = residuals[keyword.ordinal()];
+            if (residual != null && residual.matcher(lowerMessage()).find()) {
+                hits |= bit;
+            }
+        }
+        return (hits & bit) != 0;
+    }
+
+    /** Whether the message contains a phrase of any of {@code keywords}. */
+    public boolean hasAny(SmsKeyword... keywords) {
+        for (SmsKeyword keyword : keywords) {
+            if (has(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The scanned message. */
+    public String getMessage() {
+        return message;
+    }
+
+    private String lowerMessage() {
+        if (lowerMessage == null) {
+            lowerMessage = message.toLowerCase();
+        }
+        return lowerMessage;
+    }
+}
@@ -0,0 +1,406 @@
+package com.pisystem.modules.sms.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-pass multi-keyword matcher for SMS text (Aho–Corasick).
+ *
+ * <p>Every {@link SmsKeyword} group is compiled into one automaton, so a
+ * message is scanned once — regardless of how many keyword alternations the
+ * parser, classifier and import pipeline ask about — instead of once per
+ * {@code \b(a|b|c)\b} regex or {@code contains} call. ASCII letters are folded
+ * to lowercase on the fly, so callers do not need a lowercased copy.</p>
+ *
+ * <p>The automaton is a dense DFA over a compacted alphabet (only characters
+ * that occur in some keyword get their own column), with the output of each
+ * state already merged along its suffix links. Word-boundary groups are checked
+ * with the same rule as {@code java.util.regex}'s {@code \b}.</p>
+ *
+ * <p>Instances are immutable and thread-safe. {@link SmsPatternRegistry}
+ * compiles one per pattern load, applying database overrides.</p>
+ */
+@Slf4j
+public final class SmsKeywordMatcher {
+
+    private static final SmsKeyword[] GROUPS = SmsKeyword.values();
+
+    /** Upper bound on literals produced by expanding one alternation. */
+    private static final int MAX_EXPANSION = 4096;
+
+    private static final SmsKeywordMatcher DEFAULTS = compile(Map.of());
+
+    /** ASCII char → alphabet column; 0 is "any character that appears in no keyword". */
+    private final int[] charClass;
+    private final int alphabetSize;
+    /** {@code transitions[state * alphabetSize + column]} → next state. */
+    private final int[] transitions;
+    /** Keyword ids recognised when entering a state, or {@code null}. */
+    private final int[][] outputs;
+
+    private final int[] keywordLength;
+    private final int[] keywordGroup;
+    private final boolean[] keywordBoundary;
+
+    /** Per group ordinal: regex evaluated when no literal of the group matched. */
+    private final Pattern[] residuals;
+    /** Bit set of groups that have at least one literal in the automaton. */
+    private final long literalGroups;
+
+    private SmsKeywordMatcher(int[] charClass, int alphabetSize, int[] transitions, int[][] outputs,
+                              int[] keywordLength, int[] keywordGroup, boolean[] keywordBoundary,
+                              Pattern[] residuals, long literalGroups) {
+        this.charClass = charClass;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.keywordLength = keywordLength;
+        this.keywordGroup = keywordGroup;
+        this.keywordBoundary = keywordBoundary;
+        this.residuals = residuals;
+        this.literalGroups = literalGroups;
+    }
+
+    /** Matcher built from the code defaults only. */
+    public static SmsKeywordMatcher defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Compile the automaton.
+     *
+     * <p>An override whose regex is a plain alternation of literals —
+     * {@code \b(a|b c|d (e|f))\b} or {@code a|b} — is compiled into the
+     * automaton in place of the code defaults. Anything else (quantifiers,
+     * character classes, partial {@code \b}) cannot be expressed as literals, so
+     * the whole group is answered by the override regex instead.</p>
+     *
+     * @param overrides database patterns keyed by group; groups without an entry use the defaults
+     */
+    public static SmsKeywordMatcher compile(Map<SmsKeyword, Pattern> overrides) {
+        List<String> texts = new ArrayList<>();
+        List<Integer> groups = new ArrayList<>();
+        List<Boolean> boundaries = new ArrayList<>();
+        Pattern[] residuals = new Pattern[GROUPS.length];
+        long literalGroups = 0L;
+
+        for (SmsKeyword group : GROUPS) {
+            List<String> literals;
+            boolean boundary;
+            Pattern override = overrides.get(group);
+            if (override == null) {
+                literals = expand(group.getPhrases());
+                if (literals == null) {
+                    throw new IllegalStateException("Keyword group " + group + " is not a literal alternation");
+                }
+                boundary = group.isWordBoundary();
+                residuals[group.ordinal()] = group.getResidual();
+            } else {
+                boundary = override.pattern().startsWith("\\b");
+                literals = overrideLiterals(override);
+                if (literals == null) {
+                    log.info("SMS keyword group {} uses a non-literal override; matching it by regex", group);
+                    residuals[group.ordinal()] = override;
+                    continue;
+                }
+            }
+            for (String literal : literals) {
+                texts.add(literal);
+                groups.add(group.ordinal());
+                boundaries.add(boundary);
+            }
+            literalGroups |= 1L << group.ordinal();
+        }
+        return build(texts, groups, boundaries, residuals, literalGroups);
+    }
+
+    /**
+     * Scan {@code message} once and return which groups it contains.
+     * Residual regexes are evaluated lazily by {@link SmsKeywordHits#has}.
+     */
+    public SmsKeywordHits scan(String message) {
+        long hits = 0L;
+        int state = 0;
+        for (int i = 0, n = message.length(); i < n; i++) {
+            char ch = message.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch += 'a' - 'A';
+            }
+            state = transitions[state * alphabetSize + (ch < 128 ? charClass[ch] : 0)];
+            int[] out = outputs[state];
+            if (out == null) {
+                continue;
+            }
+            for (int id : out) {
+                long bit = 1L << keywordGroup[id];
+                if ((hits & bit) != 0) {
+                    continue;
+                }
+                if (!keywordBoundary[id]
+                        || (isBoundary(message, i + 1 - keywordLength[id]) && isBoundary(message, i + 1))) {
+                    hits |= bit;
+                }
+            }
+            if (hits == literalGroups) {
+                break;
+            }
+        }
+        return new SmsKeywordHits(message, hits, residuals);
+    }
+
+    // =========================================================================
+    // Construction
+    // =========================================================================
+
+    private static SmsKeywordMatcher build(List<String> texts, List<Integer> groups, List<Boolean> boundaries,
+                                           Pattern[] residuals, long literalGroups) {
+        int[] charClass = new int[128];
+        int alphabetSize = 1;
+        for (String text : texts) {
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                if (charClass[ch] == 0) {
+                    charClass[ch] = alphabetSize++;
+                }
+            }
+        }
+
+        // Trie
+        List<int[]> next = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        next.add(newRow(alphabetSize));
+        out.add(new ArrayList<>());
+        for (int id = 0; id < texts.size(); id++) {
+            String text = texts.get(id);
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int column = charClass[text.charAt(i)];
+                if (next.get(state)[column] < 0) {
+                    next.get(state)[column] = next.size();
+                    next.add(newRow(alphabetSize));
+                    out.add(new ArrayList<>());
+                }
+                state = next.get(state)[column];
+            }
+            out.get(state).add(id);
+        }
+
+        // Suffix links, breadth first; missing edges become DFA transitions
+        int stateCount = next.size();
+        int[] fail = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] root = next.get(0);
+        for (int column = 0; column < alphabetSize; column++) {
+            if (root[column] < 0) {
+                root[column] = 0;
+            } else {
+                queue.add(root[column]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = next.get(state);
+            for (int column = 0; column < alphabetSize; column++) {
+                int child = row[column];
+                if (child < 0) {
+                    row[column] = next.get(fail[state])[column];
+                } else {
+                    fail[child] = state == 0 ? 0 : next.get(fail[state])[column];
+                    out.get(child).addAll(out.get(fail[child]));
+                    queue.add(child);
+                }
+            }
+        }
+
+        int[] transitions = new int[stateCount * alphabetSize];
+        int[][] outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            System.arraycopy(next.get(state), 0, transitions, state * alphabetSize, alphabetSize);
+            List<Integer> ids = out.get(state);
+            if (!ids.isEmpty()) {
+                outputs[state] = ids.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        int[] keywordLength = new int[texts.size()];
+        int[] keywordGroup = new int[texts.size()];
+        boolean[] keywordBoundary = new boolean[texts.size()];
+        for (int id = 0; id < texts.size(); id++) {
+            keywordLength[id] = texts.get(id).length();
+            keywordGroup[id] = groups.get(id);
+            keywordBoundary[id] = boundaries.get(id);
+        }
+
+        log.debug("Compiled SMS keyword automaton: {} keywords, {} states, alphabet {}",
+                texts.size(), stateCount, alphabetSize);
+        return new SmsKeywordMatcher(charClass, alphabetSize, transitions, outputs,
+                keywordLength, keywordGroup, keywordBoundary, residuals, literalGroups);
+    }
+
+    private static int[] newRow(int alphabetSize) {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /** Same rule as {@code \b}: exactly one side of {@code index} is a word character. */
+    private static boolean isBoundary(String message, int index) {
+        boolean before = index > 0 && isWordChar(message.charAt(index - 1));
+        boolean after = index < message.length() && isWordChar(message.charAt(index));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_';
+    }
+
+    // =========================================================================
+    // Literal alternation parsing
+    // =========================================================================
+
+    /**
+     * Literals of a database override, lowercased, or {@code null} when the
+     * regex is not a pure alternation of ASCII literals.
+     */
+    static List<String> overrideLiterals(Pattern override) {
+        String source = override.pattern();
+        if (source.startsWith("\\b")) {
+            // \b must wrap the whole alternation: \b(a|b)\b, not \ba|b\b
+            if (source.length() < 6 || !source.endsWith(")\\b") || source.charAt(2) != '('
+                    || !isSingleGroup(source, 2, source.length() - 2)) {
+                return null;
+            }
+            source = source.substring(2, source.length() - 2);
+        }
+        List<String> literals = expand(source);
+        if (literals == null) {
+            return null;
+        }
+        boolean caseInsensitive = (override.flags() & Pattern.CASE_INSENSITIVE) != 0;
+        List<String> lowered = new ArrayList<>(literals.size());
+        for (String literal : literals) {
+            String lower = literal.toLowerCase(Locale.ROOT);
+            // Matching runs on lowercased text, so a case-sensitive uppercase literal can never match
+            if (literal.isEmpty() || (!caseInsensitive && !lower.equals(literal))) {
+                return null;
+            }
+            lowered.add(lower);
+        }
+        return lowered;
+    }
+
+    /** Whether {@code source[from, to)} is exactly one parenthesised group. */
+    private static boolean isSingleGroup(String source, int from, int to) {
+        int depth = 0;
+        for (int i = from; i < to; i++) {
+            char ch = source.charAt(i);
+            if (ch == '\\') {
+                i++;
+            } else if (ch == '(') {
+                depth++;
+            } else if (ch == ')' && --depth == 0 && i != to - 1) {
+                return false;
+            }
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Expand an alternation such as {@code payment (of|for)|debit} into its
+     * literals, or return {@code null} if it uses any other regex construct.
+     */
+    static List<String> expand(String alternation) {
+        AlternationParser parser = new AlternationParser(alternation);
+        List<String> result = parser.alternation();
+        return result != null && parser.atEnd() ? result : null;
+    }
+
+    private static final class AlternationParser {
+
+        private static final String META = ".*+?[]{}^$";
+
+        private final String source;
+        private int pos;
+
+        AlternationParser(String source) {
+            this.source = source;
+        }
+
+        boolean atEnd() {
+            return pos == source.length();
+        }
+
+        List<String> alternation() {
+            List<String> result = sequence();
+            while (result != null && pos < source.length() && source.charAt(pos) == '|') {
+                pos++;
+                List<String> more = sequence();
+                if (more == null || result.size() + more.size() > MAX_EXPANSION) {
+                    return null;
+                }
+                result.addAll(more);
+            }
+            return result;
+        }
+
+        private List<String> sequence() {
+            List<StringBuilder> prefixes = new ArrayList<>();
+            prefixes.add(new StringBuilder());
+            while (pos < source.length()) {
+                char ch = source.charAt(pos);
+                if (ch == '|' || ch == ')') {
+                    break;
+                }
+                if (ch == '(') {
+                    pos++;
+                    if (source.startsWith("?:", pos)) {
+                        pos += 2;
+                    }
+                    List<String> inner = alternation();
+                    if (inner == null || pos >= source.length() || source.charAt(pos) != ')'
+                            || (long) prefixes.size() * inner.size() > MAX_EXPANSION) {
+                        return null;
+                    }
+                    pos++;
+                    List<StringBuilder> product = new ArrayList<>(prefixes.size() * inner.size());
+                    for (StringBuilder prefix : prefixes) {
+                        for (String suffix : inner) {
+                            product.add(new StringBuilder(prefix).append(suffix));
+                        }
+                    }
+                    prefixes = product;
+                    continue;
+                }
+                if (ch == '\\') {
+                    // Only escaped punctuation is a literal; \b, \d, \s ... are not
+                    if (pos + 1 >= source.length() || Character.isLetterOrDigit(source.charAt(pos + 1))) {
+                        return null;
+                    }
+                    ch = source.charAt(++pos);
+                } else if (META.indexOf(ch) >= 0) {
+                    return null;
+                }
+                if (ch >= 128) {
+                    return null;
+                }
+                for (StringBuilder prefix : prefixes) {
+                    prefix.append(ch);
+                }
+                pos++;
+            }
+            List<String> result = new ArrayList<>(prefixes.size());
+            for (StringBuilder prefix : prefixes) {
+                result.add(prefix.toString());
+            }
+            return result;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.pisystem.modules.sms.service;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import com.pisystem.modules.sms.repo.SmsRegexPatternRepository;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,17 +25,32 @@ import lombok.extern.slf4j.Slf4j;
  * Central registry for SMS regex patterns.
  *
  * <p>Patterns are loaded from the {@code sms_regex_patterns} database table
- * at application startup. If no DB entry exists for a given key the caller
- * supplies a static fallback, so the parser always has sensible defaults.
+ * at application startup. If no DB entry exists for a given key the code
+ * default of the {@link SmsPatternSlot} (or {@link SmsKeyword} group) is used,
+ * so the parser always has sensible defaults.
+ *
+ * <h3>Snapshots</h3>
+ * Every load produces an immutable, versioned {@link SmsPatternSnapshot} that is
+ * published with a single volatile write. Readers never see a half-loaded set:
+ * a parse that started on one snapshot finishes on it, and an import pins one
+ * snapshot for all of its messages.
  *
  * <h3>Usage in parsers</h3>
  * <pre>
- *   patternRegistry.get("PARSER_AMOUNT_1", AMOUNT_PATTERN).matcher(message)
+ *   SmsPatternSnapshot patterns = patternRegistry.snapshot();
+ *   patterns.pattern(SmsPatternSlot.PARSER_AMOUNT_1).matcher(message)
  * </pre>
  *
+ * <h3>Keyword groups</h3>
+ * Keyword alternations ({@link SmsKeyword}) are not matched one regex at a
+ * time: every load compiles them, together with any DB overrides, into one
+ * {@link SmsKeywordMatcher} carried by the snapshot.
+ *
  * <h3>Refreshing without restart</h3>
  * Call {@link #refresh()} from the admin endpoint
  * {@code POST /api/v1/sms/patterns/refresh} after updating a row in the DB.
+ * The new snapshot is built on a dedicated loader thread, so concurrent
+ * refreshes are serialized and versions are published in order.
  */
 @Service
 @RequiredArgsConstructor
@@ -36,50 +59,63 @@ public class SmsPatternRegistry {
 
     private final SmsRegexPatternRepository repository;
 
-    /** Thread-safe cache: patternKey → compiled Pattern. */
-    private final Map<String, Pattern> cache = new ConcurrentHashMap<>();
+    /** Patterns in effect; replaced wholesale, never mutated. */
+    private volatile SmsPatternSnapshot snapshot = SmsPatternSnapshot.defaults();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final ExecutorService loader = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new CustomizableThreadFactory("sms-patterns-"));
 
     // =========================================================================
     // Lifecycle
     // =========================================================================
 
+    /** Builds and publishes a snapshot on the calling thread (startup path). */
     @PostConstruct
     public void load() {
-        int loaded = 0;
-        for (var entity : repository.findByIsActiveTrue()) {
-            try {
-                int flags = entity.isCaseInsensitive() ? Pattern.CASE_INSENSITIVE : 0;
-                cache.put(entity.getPatternKey(), Pattern.compile(entity.getPatternValue(), flags));
-                loaded++;
-            } catch (PatternSyntaxException e) {
-                // Bad regex in DB — log and skip so the parser falls back to static default
-                log.error("Invalid regex for pattern key '{}' — skipping. Error: {}",
-                        entity.getPatternKey(), e.getMessage());
-            }
-        }
-        log.info("SmsPatternRegistry: loaded {} pattern(s) from database", loaded);
+        publish(buildSnapshot());
     }
 
     /**
      * Reload all patterns from DB without restarting the application.
-     * Thread-safe: clears then repopulates the cache atomically per key.
+     * Parsers keep using the current snapshot until the new one is complete.
+     *
+     * @return the snapshot now in effect
      */
-    public void refresh() {
-        cache.clear();
-        load();
-        log.info("SmsPatternRegistry: patterns refreshed");
+    public SmsPatternSnapshot refresh() {
+        SmsPatternSnapshot refreshed = refreshAsync().join();
+        log.info("SmsPatternRegistry: patterns refreshed (version {})", refreshed.getVersion());
+        return refreshed;
+    }
+
+    /** Builds the next snapshot on the loader thread and publishes it when complete. */
+    public CompletableFuture<SmsPatternSnapshot> refreshAsync() {
+        return CompletableFuture.supplyAsync(() -> publish(buildSnapshot()), loader);
+    }
+
+    @PreDestroy
+    void shutdownLoader() {
+        loader.shutdownNow();
     }
 
     // =========================================================================
     // Public API
     // =========================================================================
 
+    /** Patterns in effect right now. Hold on to the result for a consistent view. */
+    public SmsPatternSnapshot snapshot() {
+        return snapshot;
+    }
+
     /**
      * Return the DB-overridden pattern for {@code key}, or {@code fallback}
      * if no active DB entry exists for that key.
      */
     public Pattern get(String key, Pattern fallback) {
-        Pattern p = cache.get(key);
+        Pattern p = snapshot.override(key);
         return p != null ? p : fallback;
     }
 
@@ -88,11 +124,53 @@ public class SmsPatternRegistry {
      * no active DB entry exists.
      */
     public Pattern get(String key) {
-        return cache.get(key);
+        return snapshot.override(key);
+    }
+
+    /**
+     * Keyword automaton compiled from the {@link SmsKeyword} defaults and the
+     * DB overrides of the current snapshot.
+     */
+    public SmsKeywordMatcher keywordMatcher() {
+        return snapshot.keywordMatcher();
     }
 
-    /** Number of patterns currently loaded in the cache. */
+    /** Number of patterns loaded from the DB in the current snapshot. */
     public int size() {
-        return cache.size();
+        return snapshot.size();
+    }
+
+    /** Version of the current snapshot; {@code 0} until the first load completes. */
+    public long version() {
+        return snapshot.getVersion();
+    }
+
+    // =========================================================================
+    // Snapshot building
+    // =========================================================================
+
+    private SmsPatternSnapshot buildSnapshot() {
+        Map<String, Pattern> compiled = new HashMap<>();
+        for (var entity : repository.findByIsActiveTrue()) {
+            try {
+                int flags = entity.isCaseInsensitive() ? Pattern.CASE_INSENSITIVE : 0;
+                compiled.put(entity.getPatternKey(), Pattern.compile(entity.getPatternValue(), flags));
+            } catch (PatternSyntaxException e) {
+                // Bad regex in DB — log and skip so the parser falls back to static default
+                log.error("Invalid regex for pattern key '{}' — skipping. Error: {}",
+                        entity.getPatternKey(), e.getMessage());
+            }
+        }
+        return SmsPatternSnapshot.build(versions.incrementAndGet(), compiled);
+    }
+
+    // Loads may finish out of order (startup vs loader thread); never go back a version
+    private synchronized SmsPatternSnapshot publish(SmsPatternSnapshot next) {
+        if (next.getVersion() > snapshot.getVersion()) {
+            snapshot = next;
+            log.info("SmsPatternRegistry: loaded {} pattern(s) from database (version {})",
+                    next.size(), next.getVersion());
+        }
+        return snapshot;
     }
 }
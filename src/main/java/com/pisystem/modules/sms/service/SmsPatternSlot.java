@@ -0,0 +1,74 @@
+package com.pisystem.modules.sms.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Extraction regexes that can be overridden through {@code sms_regex_patterns},
+ * each with the code default it falls back to.
+ *
+ * <p>The constant name is the registry key. An {@link SmsPatternSnapshot}
+ * resolves every slot once when it is built, so parsers read a pattern by
+ * ordinal instead of looking it up by string key per message.</p>
+ */
+public enum SmsPatternSlot {
+
+    // Amount patterns for Indian currency
+    PARSER_AMOUNT_1(
+            "(?:Rs\\.?|INR|₹)\\s*([0-9,]+\\.?[0-9]*)",
+            Pattern.CASE_INSENSITIVE),
+    PARSER_AMOUNT_2(
+            "([0-9,]+\\.?[0-9]*)\\s*(?:Rs\\.?|INR|₹)",
+            Pattern.CASE_INSENSITIVE),
+
+    // Enhanced date extraction pattern with "on" keyword
+    PARSER_DATE_WITH_ON(
+            "(?:on|date:?)\\s+([0-3]?[0-9][-/\\s][A-Za-z0-9]{2,4}[-/\\s][0-9]{2,4})",
+            Pattern.CASE_INSENSITIVE),
+    // Generic date pattern
+    PARSER_DATE(
+            "\\b([0-3]?[0-9][-/][0-1]?[0-9][-/][0-9]{2,4}|[0-3]?[0-9][-\\s][A-Za-z]{3}[-\\s,]*[0-9]{2,4}|[A-Za-z]{3}\\s+[0-3]?[0-9],?\\s+[0-9]{4})\\b",
+            0),
+
+    PARSER_ACCOUNT(
+            "(?:A/c|Account|a/c|acc)\\s*(?:no\\.?)?\\s*(?:ending\\s*)?(?:[X*]+)?([0-9]{4,12})",
+            Pattern.CASE_INSENSITIVE),
+    PARSER_FROM_ACCOUNT(
+            "Your\\s+(?:a/c|account|acc)\\s*(?:no\\.?|number)?\\s*(?:XX+|X+)?([0-9]{4,10})",
+            Pattern.CASE_INSENSITIVE),
+    PARSER_TO_ACCOUNT(
+            "to\\s+credit\\s+(?:a/c|account|acc)\\s*(?:no\\.?)?\\s*(?:ending\\s*)?(?:XX+|X+)?([0-9]{4,10})",
+            Pattern.CASE_INSENSITIVE),
+
+    PARSER_BALANCE(
+            "(?:avl\\s*bal|available\\s*balance|balance|avl\\.\\s*bal|bal)\\s*(?:is)?\\s*(?:Rs\\.?|INR|₹)?\\s*([0-9,]+\\.?[0-9]*)",
+            Pattern.CASE_INSENSITIVE),
+
+    // UPI reference pattern — matches: UPI Ref, UPI RRN, UPI ID, UPI no, plain UPI + digits
+    PARSER_UPI(
+            "(?:UPI|upi)\\s*(?:Ref|ref|RRN|rrn|ID|id)?\\s*(?::|no\\.?)?\\s*([0-9]+)",
+            Pattern.CASE_INSENSITIVE),
+    PARSER_REFERENCE(
+            "(?:Ref\\s*no|Reference\\s*no|Txn\\s*ID|Transaction\\s*ID|UTR)\\s*(?::|\\.)\\s*([A-Z0-9]+)",
+            Pattern.CASE_INSENSITIVE),
+
+    // Merchant extraction pattern - improved
+    PARSER_MERCHANT(
+            "(?:at|to|from)\\s+([A-Z][A-Za-z0-9\\s&.-]{2,30})(?:\\s+on|\\.|,|\\s+A/c|\\s+using|\\s+via)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Pattern defaultPattern;
+
+    SmsPatternSlot(String regex, int flags) {
+        this.defaultPattern = Pattern.compile(regex, flags);
+    }
+
+    /** Key of the {@code sms_regex_patterns} row that overrides this slot. */
+    public String getRegistryKey() {
+        return name();
+    }
+
+    /** Pattern used when no active DB override exists. */
+    public Pattern getDefaultPattern() {
+        return defaultPattern;
+    }
+}
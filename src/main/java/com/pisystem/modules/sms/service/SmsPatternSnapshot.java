@@ -0,0 +1,93 @@
+package com.pisystem.modules.sms.service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, versioned set of SMS patterns as loaded from {@code sms_regex_patterns}.
+ *
+ * <p>{@link SmsPatternRegistry} builds a complete snapshot before publishing it,
+ * so a reader holding one sees either all of a reload or none of it. An import
+ * takes one snapshot up front and parses every message with it, and records
+ * {@link #getVersion()} so its results can be traced to the patterns that
+ * produced them.</p>
+ */
+public final class SmsPatternSnapshot {
+
+    private static final SmsPatternSnapshot DEFAULTS =
+            new SmsPatternSnapshot(0L, Instant.EPOCH, Map.of(), SmsKeywordMatcher.defaults());
+
+    private final long version;
+    private final Instant loadedAt;
+    private final Map<String, Pattern> overrides;
+    private final Pattern[] slots;
+    private final SmsKeywordMatcher keywordMatcher;
+
+    private SmsPatternSnapshot(long version, Instant loadedAt, Map<String, Pattern> overrides,
+            SmsKeywordMatcher keywordMatcher) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.overrides = overrides;
+        this.keywordMatcher = keywordMatcher;
+
+        SmsPatternSlot[] values = SmsPatternSlot.values();
+        this.slots = new Pattern[values.length];
+        for (SmsPatternSlot slot : values) {
+            Pattern override = overrides.get(slot.getRegistryKey());
+            slots[slot.ordinal()] = override != null ? override : slot.getDefaultPattern();
+        }
+    }
+
+    /** Code defaults only; version {@code 0}, in effect until the first load completes. */
+    public static SmsPatternSnapshot defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Builds a snapshot from compiled DB overrides, compiling the keyword
+     * automaton for any {@link SmsKeyword} groups they override.
+     */
+    static SmsPatternSnapshot build(long version, Map<String, Pattern> overrides) {
+        Map<SmsKeyword, Pattern> keywordOverrides = new EnumMap<>(SmsKeyword.class);
+        for (SmsKeyword keyword : SmsKeyword.values()) {
+            Pattern override = keyword.getRegistryKey() != null ? overrides.get(keyword.getRegistryKey()) : null;
+            if (override != null) {
+                keywordOverrides.put(keyword, override);
+            }
+        }
+        SmsKeywordMatcher matcher = keywordOverrides.isEmpty()
+                ? SmsKeywordMatcher.defaults()
+                : SmsKeywordMatcher.compile(keywordOverrides);
+        return new SmsPatternSnapshot(version, Instant.now(), Map.copyOf(overrides), matcher);
+    }
+
+    /** Pattern for {@code slot}: the DB override if one was loaded, else the code default. */
+    public Pattern pattern(SmsPatternSlot slot) {
+        return slots[slot.ordinal()];
+    }
+
+    /** DB override for {@code key}, or {@code null} if none is active. */
+    public Pattern override(String key) {
+        return overrides.get(key);
+    }
+
+    public SmsKeywordMatcher keywordMatcher() {
+        return keywordMatcher;
+    }
+
+    /** Monotonic within one application run; {@code 0} means code defaults. */
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /** Number of DB overrides in this snapshot. */
+    public int size() {
+        return overrides.size();
+    }
+}
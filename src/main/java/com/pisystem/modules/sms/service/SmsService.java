@@ -7,6 +7,7 @@ import java.util.Set;
 import com.pisystem.modules.sms.data.SMSImportRequest;
 import com.pisystem.modules.sms.data.SMSImportResponse;
 import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.data.SmsImportJob;
 
 public interface SmsService {
 
@@ -16,6 +17,21 @@ public interface SmsService {
      * @return Import response with results
      */
     SMSImportResponse importMessages(SMSImportRequest request);
+
+    /**
+     * Queue an import to run in the background and return immediately.
+     * Poll {@link #getImportJob(String)} with the returned job id for progress.
+     * @param request SMS import request containing messages
+     * @return Newly queued job
+     */
+    SmsImportJob startImport(SMSImportRequest request);
+
+    /**
+     * Look up a background import started with {@link #startImport(SMSImportRequest)}
+     * @param jobId Job ID
+     * @return Current job status, including the import result once completed
+     */
+    SmsImportJob getImportJob(String jobId);
     
     /**
      * Parse and save a single SMS message
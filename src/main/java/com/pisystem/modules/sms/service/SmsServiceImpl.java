@@ -4,18 +4,28 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.ExpenseCategory;
 import com.pisystem.modules.budget.data.Income;
-import com.pisystem.modules.budget.service.BudgetService;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pisystem.modules.sms.data.DuplicateDetectionResult;
@@ -27,12 +37,18 @@ import com.pisystem.modules.sms.data.SMSImportRequest;
 import com.pisystem.modules.sms.data.SMSImportResponse;
 import com.pisystem.modules.sms.data.SMSTransaction;
 import com.pisystem.modules.sms.data.SMSTransaction.ParseStatus;
+import com.pisystem.modules.sms.data.SMSTransaction.TransactionType;
+import com.pisystem.modules.sms.data.SmsImportJob;
 import com.pisystem.modules.sms.data.TransactionValidationResult;
 import com.pisystem.modules.sms.data.TransferDetectionResult;
+import com.pisystem.modules.sms.exception.SmsImportJobNotFoundException;
+import com.pisystem.modules.sms.exception.SmsImportRejectedException;
 import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+import com.pisystem.modules.sms.repo.SmsImportBatchWriter;
 import com.pisystem.modules.upi.repository.BankAccountRepository;
 import com.pisystem.modules.upi.service.BankAccountService;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -43,7 +59,7 @@ public class SmsServiceImpl implements SmsService {
 
     private final SMSParserService parserService;
     private final SMSTransactionRepository repository;
-    private final BudgetService budgetService;
+    private final SmsImportBatchWriter batchWriter;
     private final BankAccountService bankAccountService;
     private final BankAccountRepository bankAccountRepository;
     private final TransactionNormalizationService normalizationService;
@@ -51,230 +67,466 @@ public class SmsServiceImpl implements SmsService {
     private final TransactionValidatorService validatorService;
     private final TransactionFlowClassifierService flowClassifierService;
     private final TransferDetectionService transferDetectionService;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Messages parsed ahead and rows committed per transaction during an import. */
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int PARSE_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_CONCURRENT_IMPORT_JOBS = 2;
+    private static final int IMPORT_JOB_QUEUE_CAPACITY = 16;
+
+    /** Currency amount followed by a space, as required by {@link #detectTransactionPatterns}. */
+    private static final Pattern IMPORT_AMOUNT_PATTERN = Pattern.compile(
+        "(rs\\.?|inr|sgd)\\s?[\\d,]+(\\.\\d+)? ", Pattern.CASE_INSENSITIVE);
 
     private final Cache<Long, Set<String>> userBankAccountsCache = Caffeine.newBuilder()
         .expireAfterWrite(10, TimeUnit.MINUTES)
         .maximumSize(1000)
         .build();
 
+    private final Cache<String, SmsImportJob> importJobs = Caffeine.newBuilder()
+        .expireAfterWrite(1, TimeUnit.HOURS)
+        .maximumSize(1000)
+        .build();
+
+    /**
+     * Shared, bounded pool for the CPU-bound parse/classify stage. Each import keeps at most
+     * two chunks in flight; when the queue is full the importing thread parses the message
+     * itself, which throttles producers instead of growing the queue.
+     */
+    private final ExecutorService parseExecutor = new ThreadPoolExecutor(
+        PARSE_WORKERS, PARSE_WORKERS, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(2 * IMPORT_CHUNK_SIZE),
+        new CustomizableThreadFactory("sms-parse-"),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /** Runs background imports off the HTTP thread; rejects new jobs once the queue is full. */
+    private final ExecutorService importJobExecutor = new ThreadPoolExecutor(
+        MAX_CONCURRENT_IMPORT_JOBS, MAX_CONCURRENT_IMPORT_JOBS, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(IMPORT_JOB_QUEUE_CAPACITY),
+        new CustomizableThreadFactory("sms-import-"),
+        new ThreadPoolExecutor.AbortPolicy());
+
     @Override
-    @Transactional
     public SMSImportResponse importMessages(SMSImportRequest request) {
-        SMSImportResponse.SMSImportResponseBuilder responseBuilder = SMSImportResponse.builder();
+        return runImport(request, null);
+    }
+
+    @Override
+    public SmsImportJob startImport(SMSImportRequest request) {
+        SmsImportJob job = SmsImportJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .userId(request.getUserId())
+                .status(SmsImportJob.Status.QUEUED)
+                .totalMessages(request.getMessages().size())
+                .submittedAt(LocalDateTime.now())
+                .build();
+        importJobs.put(job.getJobId(), job);
+
+        try {
+            // Carry the caller's security context onto the worker thread
+            importJobExecutor.execute(new DelegatingSecurityContextRunnable(() -> runImportJob(request, job)));
+        } catch (RejectedExecutionException e) {
+            importJobs.invalidate(job.getJobId());
+            throw new SmsImportRejectedException("Too many SMS imports in progress, please retry shortly", e);
+        }
+
+        log.info("Queued SMS import job {} for user {} with {} messages",
+                job.getJobId(), request.getUserId(), job.getTotalMessages());
+        return job;
+    }
+
+    @Override
+    public SmsImportJob getImportJob(String jobId) {
+        SmsImportJob job = importJobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new SmsImportJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    void shutdownImportExecutors() {
+        importJobExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    private void runImportJob(SMSImportRequest request, SmsImportJob job) {
+        job.setStartedAt(LocalDateTime.now());
+        job.setStatus(SmsImportJob.Status.RUNNING);
+        try {
+            job.setResult(runImport(request, job));
+            job.setStatus(SmsImportJob.Status.COMPLETED);
+            log.info("SMS import job {} completed: {} messages, {} transactions persisted",
+                    job.getJobId(), job.getProcessedMessages(), job.getPersistedTransactions());
+        } catch (Exception e) {
+            log.error("SMS import job {} failed after {} messages", job.getJobId(), job.getProcessedMessages(), e);
+            job.setErrorMessage(e.getMessage());
+            job.setStatus(SmsImportJob.Status.FAILED);
+        } finally {
+            job.setCompletedAt(LocalDateTime.now());
+            // Re-put so the result stays pollable for the full retention window
+            importJobs.put(job.getJobId(), job);
+        }
+    }
+
+    /**
+     * Staged import pipeline.
+     *
+     * <ol>
+     *   <li><b>Parse/classify</b> – parsing, pattern detection, normalization and flow
+     *       classification are pure CPU work and run on {@link #parseExecutor}, one chunk
+     *       ahead of the ordered stages.</li>
+     *   <li><b>Dedup/validate</b> – runs in message order on the calling thread because
+     *       it depends on what earlier messages decided.</li>
+     *   <li><b>Persist</b> – every {@link #IMPORT_CHUNK_SIZE} messages are committed in their
+     *       own short transaction, so no connection is held for the whole import.</li>
+     * </ol>
+     *
+     * @param job progress handle to update, or {@code null} for synchronous imports
+     */
+    private SMSImportResponse runImport(SMSImportRequest request, SmsImportJob job) {
+        List<SMSImportRequest.SMSMessage> messages = request.getMessages();
         List<SMSImportResponse.TransactionSummary> summaries = new ArrayList<>();
         List<SMSImportResponse.ErrorDetail> errors = new ArrayList<>();
-        int totalMessages = request.getMessages().size();
 
-        List<String> messageContents = request.getMessages().stream()
+        List<String> messageContents = messages.stream()
             .map(SMSImportRequest.SMSMessage::getContent)
             .collect(Collectors.toList());
-        
+
         Set<String> existingMessages = new HashSet<>(
             repository.findExistingMessages(request.getUserId(), messageContents)
         );
-        
+
         Set<String> userBankAccounts = getUserBankAccounts(request.getUserId());
 
-        // ── Pre-load duplicate-detection window (covers today ± 1 day) ──────────
-        // Re-using one batch load for all messages is far cheaper than one DB hit
-        // per transaction.
-        LocalDate anchor = LocalDate.now();
-        List<SMSTransaction> dupWindow = repository.findSuccessTransactionsInWindow(
-                request.getUserId(),
-                anchor.minusDays(1),
-                anchor.plusDays(1));
-        
-        List<SMSTransaction> transactionsToSave = new ArrayList<>();
-        List<Income> incomesToSave = new ArrayList<>();
-        List<Expense> expensesToSave = new ArrayList<>();
-        // Parallel index lists: each entry maps income/expense[j] → transactionsToSave[idx]
-        List<Integer> incomeTxIndices = new ArrayList<>();
-        List<Integer> expenseTxIndices = new ArrayList<>();
-
-        for (SMSImportRequest.SMSMessage smsMessage : request.getMessages()) {
-            try {
-                if (existingMessages.contains(smsMessage.getContent())) {
-                    continue;
-                }
+        // Every message of this import is parsed with the same pattern set, even if
+        // the registry is refreshed while it runs
+        SmsPatternSnapshot patterns = parserService.patternSnapshot();
+        if (job != null) {
+            job.setPatternVersion(patterns.getVersion());
+        }
 
-                SMSTransaction transaction = parseSingleMessage(request.getUserId(),
-                        smsMessage.getContent(), smsMessage.getSender());
-
-                // ── Duplicate detection ────────────────────────────────────────
-                if ("TRANSACTION".equals(detectTransactionPatterns(transaction))
-                        && transaction.getAmount() != null) {
-                    DuplicateDetectionResult dupResult =
-                            duplicateDetectionService.detect(transaction, dupWindow);
-                    if (dupResult.isDuplicate()) {
-                        log.info("Skipping duplicate transaction for user {}: {} [confidence={}, reason={}]",
-                                request.getUserId(), smsMessage.getContent(),
-                                dupResult.getConfidenceScore(), dupResult.getReason());
-                        summaries.add(SMSImportResponse.TransactionSummary.builder()
-                                .message(truncateMessage(smsMessage.getContent(), 50))
-                                .status(transaction.getParseStatus())
-                                .confidence(transaction.getParseConfidence())
-                                .messageType("DUPLICATE")
-                                .addedToBudget(false)
-                                .build());
-                        continue;
-                    }
+        // Stored rows are loaded per chunk for the dates the chunk's messages carry,
+        // and accepted transactions are added as they go, so later messages are
+        // checked against earlier ones in the same import.
+        DuplicateIndex dupIndex = new DuplicateIndex();
+
+        int processed = 0;
+        List<CompletableFuture<ParsedMessage>> parsed =
+                submitParseChunk(request.getUserId(), messages, 0, existingMessages, userBankAccounts, patterns);
+        for (int from = 0; from < messages.size(); from += IMPORT_CHUNK_SIZE) {
+            // Keep the workers busy on the next chunk while this one is deduplicated and committed
+            List<CompletableFuture<ParsedMessage>> next = submitParseChunk(request.getUserId(), messages,
+                    from + IMPORT_CHUNK_SIZE, existingMessages, userBankAccounts, patterns);
+
+            List<ParsedMessage> chunkMessages = parsed.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            coverDuplicateWindow(request.getUserId(), chunkMessages, dupIndex);
+
+            ImportChunk chunk = new ImportChunk();
+            for (ParsedMessage parsedMessage : chunkMessages) {
+                acceptMessage(request.getUserId(), parsedMessage, dupIndex, userBankAccounts,
+                        chunk, summaries, errors);
+                processed++;
+                if (job != null) {
+                    job.setProcessedMessages(processed);
                 }
+            }
 
-                String messageType = detectTransactionPatterns(transaction);
-
-                // ── Transfer detection (replaces manual isSelfTransferCached check) ─────
-                if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null) {
-                    TransferDetectionResult transferResult = transferDetectionService.detect(
-                            transaction, userBankAccounts, Set.of(), dupWindow);
-                    if (transferResult.isTransfer()) {
-                        messageType = "SELF_TRANSFER";
-                        transaction.setCategory("self_transfer");
-                        log.debug("Transfer detected for user {}: confidence={}, reason={}",
-                                request.getUserId(), transferResult.getConfidenceScore(),
-                                transferResult.getReason());
-                    }
-                }
+            int persisted = persistChunk(request.getUserId(), chunk);
+            if (job != null) {
+                job.setPersistedTransactions(job.getPersistedTransactions() + persisted);
+                job.setCommittedChunks(job.getCommittedChunks() + 1);
+            }
+            parsed = next;
+        }
 
-                transaction.setMessageType(messageType);
-
-                boolean addedToBudget = false;
-
-                if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null
-                        && ParseStatus.SUCCESS == transaction.getParseStatus()) {
-
-                    // ── Validation gate ────────────────────────────────────────
-                    TransactionValidationResult validation = validatorService.validate(transaction);
-                    if (!validation.isValidTransaction()) {
-                        log.info("Transaction rejected by validator for user {}: {}",
-                                request.getUserId(), validation.getReason());
-                        summaries.add(SMSImportResponse.TransactionSummary.builder()
-                                .message(truncateMessage(smsMessage.getContent(), 50))
-                                .status(transaction.getParseStatus())
-                                .confidence(transaction.getParseConfidence())
-                                .messageType("INVALID")
-                                .addedToBudget(false)
-                                .build());
-                        continue;
-                    }
-
-                    transactionsToSave.add(transaction);
-
-                    // ── Normalize the parsed transaction ──────────────────────────
-                    NormalizedTransaction normalized = normalizationService.normalize(
-                            transaction, smsMessage.getContent());
-
-                    // ── Flow classification (final authoritative decision) ─────────
-                    FlowClassificationResult flow =
-                            flowClassifierService.classify(normalized, userBankAccounts);
-
-                    if (flow.getFlowType() == FlowType.INCOME) {
-                        String description = normalized.getNormalizedMerchant() != null
-                                && !"UNKNOWN".equals(normalized.getNormalizedMerchant())
-                                        ? normalized.getNormalizedMerchant()
-                                        : (transaction.getMerchant() != null ? transaction.getMerchant()
-                                                : "SMS Transaction");
-                        Income income = Income.builder()
-                                .userId(transaction.getUserId())
-                                .amount(transaction.getAmount())
-                                .date(transaction.getTransactionDate())
-                                .source("SMS_PARSED")
-                                .description(description)
-                                .build();
-                        incomesToSave.add(income);
-                        incomeTxIndices.add(transactionsToSave.size() - 1);
-                        addedToBudget = true;
-                    } else if (flow.getFlowType() == FlowType.EXPENSE) {
-                        String description = normalized.getNormalizedMerchant() != null
-                                && !"UNKNOWN".equals(normalized.getNormalizedMerchant())
-                                        ? normalized.getNormalizedMerchant()
-                                        : (transaction.getMerchant() != null ? transaction.getMerchant()
-                                                : "SMS Transaction");
-                        String normalizedCategory = normalized.getCategory();
-                        Expense expense = Expense.builder()
-                                .userId(transaction.getUserId())
-                                .amount(transaction.getAmount())
-                                .expenseDate(transaction.getTransactionDate())
-                                .description(description)
-                                .notes("SMS Parsed [mode:" + normalized.getMode() + "] - Ref: "
-                                        + (normalized.getReferenceId() != null ? normalized.getReferenceId()
-                                                : "N/A"))
-                                .category(detectCategories(normalizedCategory))
-                                .customCategoryName(normalizedCategory)
-                                .build();
-                        expensesToSave.add(expense);
-                        expenseTxIndices.add(transactionsToSave.size() - 1);
-                        addedToBudget = true;
-                    }
-
-                    if (transaction.getAccountNumber() != null) {
-                        this.bankAccountService.addOrUpdateBankAccount(transaction.getUserId(),
-                                transaction.getAccountNumber());
-                    }
-                }
+        return SMSImportResponse.builder()
+                .totalMessages(messages.size())
+                .patternVersion(patterns.getVersion())
+                .transactions(summaries)
+                .errors(errors)
+                .build();
+    }
 
-                summaries.add(SMSImportResponse.TransactionSummary.builder()
-                        .transactionId(null)
-                        .message(truncateMessage(smsMessage.getContent(), 50))
-                        .status(transaction.getParseStatus())
-                        .confidence(transaction.getParseConfidence())
-                        .messageType(messageType)
-                        .addedToBudget(addedToBudget)
-                        .build());
-
-            } catch (Exception e) {
-                errors.add(SMSImportResponse.ErrorDetail.builder()
-                        .message(truncateMessage(smsMessage.getContent(), 50))
-                        .error(e.getMessage())
-                        .build());
+    /**
+     * Stage 1: submits parse/classify work for {@code messages[from, from + IMPORT_CHUNK_SIZE)}.
+     * Messages already stored for the user short-circuit without touching the pool.
+     */
+    private List<CompletableFuture<ParsedMessage>> submitParseChunk(Long userId,
+            List<SMSImportRequest.SMSMessage> messages, int from,
+            Set<String> existingMessages, Set<String> userBankAccounts, SmsPatternSnapshot patterns) {
+        int to = Math.min(from + IMPORT_CHUNK_SIZE, messages.size());
+        List<CompletableFuture<ParsedMessage>> futures = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            SMSImportRequest.SMSMessage smsMessage = messages.get(i);
+            if (existingMessages.contains(smsMessage.getContent())) {
+                futures.add(CompletableFuture.completedFuture(ParsedMessage.alreadyImported(smsMessage)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> parseAndClassify(userId, smsMessage, userBankAccounts, patterns), parseExecutor));
             }
         }
-        
-        if (!transactionsToSave.isEmpty()) {
-            List<SMSTransaction> savedTransactions = repository.saveAll(transactionsToSave);
+        return futures;
+    }
 
-            for (int i = 0; i < Math.min(savedTransactions.size(), summaries.size()); i++) {
-                summaries.get(i).setTransactionId(savedTransactions.get(i).getId());
+    private ParsedMessage parseAndClassify(Long userId, SMSImportRequest.SMSMessage smsMessage,
+            Set<String> userBankAccounts, SmsPatternSnapshot patterns) {
+        try {
+            SMSTransaction transaction = toSmsTransaction(userId, smsMessage.getContent(), smsMessage.getSender(),
+                    parserService.parseSMS(smsMessage.getContent(), patterns));
+            String messageType = detectTransactionPatterns(transaction);
+
+            // Normalization and flow classification are only consumed for successful
+            // transactions, so skip them for everything else
+            NormalizedTransaction normalized = null;
+            FlowClassificationResult flow = null;
+            if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null
+                    && ParseStatus.SUCCESS == transaction.getParseStatus()) {
+                normalized = normalizationService.normalize(transaction, smsMessage.getContent());
+                flow = flowClassifierService.classify(normalized, userBankAccounts);
             }
+            return new ParsedMessage(smsMessage, transaction, messageType, normalized, flow, null);
+        } catch (Exception e) {
+            return new ParsedMessage(smsMessage, null, null, null, null, e);
+        }
+    }
+
+    /**
+     * Extends {@code dupIndex} to the dates of this chunk's transactions, one day
+     * either side, so backfilled messages are compared with the rows stored for
+     * their own dates rather than today's.
+     */
+    private void coverDuplicateWindow(Long userId, List<ParsedMessage> chunkMessages, DuplicateIndex dupIndex) {
+        LocalDate from = null;
+        LocalDate to = null;
+        for (ParsedMessage parsed : chunkMessages) {
+            SMSTransaction transaction = parsed.transaction();
+            if (transaction == null || transaction.getTransactionDate() == null) {
+                continue;
+            }
+            LocalDate date = transaction.getTransactionDate();
+            if (from == null || date.isBefore(from)) from = date;
+            if (to == null || date.isAfter(to)) to = date;
+        }
+        if (from == null) {
+            return;
+        }
+        int loaded = dupIndex.cover(from.minusDays(1), to.plusDays(1),
+                (start, end) -> repository.findSuccessTransactionsInWindow(userId, start, end));
+        if (loaded > 0) {
+            log.debug("Duplicate index for user {} extended to {}..{} (+{} rows, {} total)",
+                    userId, from.minusDays(1), to.plusDays(1), loaded, dupIndex.size());
+        }
+    }
 
-            log.info("Batch saved {} SMS transactions for user {}", savedTransactions.size(), request.getUserId());
+    /**
+     * Stage 2: ordered duplicate, transfer and validation checks. Accepted transactions
+     * (and the income/expense they produce) are queued on {@code chunk} for persistence.
+     */
+    private void acceptMessage(Long userId, ParsedMessage parsed, DuplicateIndex dupIndex,
+            Set<String> userBankAccounts, ImportChunk chunk,
+            List<SMSImportResponse.TransactionSummary> summaries,
+            List<SMSImportResponse.ErrorDetail> errors) {
+        SMSImportRequest.SMSMessage smsMessage = parsed.message();
+        if (parsed.alreadyImported()) {
+            return;
+        }
+        if (parsed.error() != null) {
+            errors.add(SMSImportResponse.ErrorDetail.builder()
+                    .message(truncateMessage(smsMessage.getContent(), 50))
+                    .error(parsed.error().getMessage())
+                    .build());
+            return;
+        }
 
-            // ── Save income entries with SMS transaction back-link ─────────────────
-            if (!incomesToSave.isEmpty()) {
-                for (int j = 0; j < incomesToSave.size(); j++) {
-                    Income income = incomesToSave.get(j);
-                    SMSTransaction savedTx = savedTransactions.get(incomeTxIndices.get(j));
-                    income.setSmsTransactionId(savedTx.getId());
-                    Income savedIncome = budgetService.addIncome(income);
-                    savedTx.setLinkedIncomeId(savedIncome.getId());
+        try {
+            SMSTransaction transaction = parsed.transaction();
+            String messageType = parsed.messageType();
+
+            // ── Duplicate detection ────────────────────────────────────────
+            if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null) {
+                DuplicateDetectionResult dupResult =
+                        duplicateDetectionService.detect(transaction, dupIndex);
+                if (dupResult.isDuplicate()) {
+                    log.info("Skipping duplicate transaction for user {}: {} [confidence={}, reason={}]",
+                            userId, smsMessage.getContent(),
+                            dupResult.getConfidenceScore(), dupResult.getReason());
+                    summaries.add(SMSImportResponse.TransactionSummary.builder()
+                            .message(truncateMessage(smsMessage.getContent(), 50))
+                            .status(transaction.getParseStatus())
+                            .confidence(transaction.getParseConfidence())
+                            .messageType("DUPLICATE")
+                            .addedToBudget(false)
+                            .build());
+                    return;
                 }
-                log.info("Created {} income entries from SMS", incomesToSave.size());
             }
 
-            // ── Save expense entries with SMS transaction back-link ────────────────
-            if (!expensesToSave.isEmpty()) {
-                for (int j = 0; j < expensesToSave.size(); j++) {
-                    Expense expense = expensesToSave.get(j);
-                    SMSTransaction savedTx = savedTransactions.get(expenseTxIndices.get(j));
-                    expense.setSmsTransactionId(savedTx.getId());
-                    Expense savedExpense = budgetService.addExpense(expense);
-                    savedTx.setLinkedExpenseId(savedExpense.getId());
+            // ── Transfer detection (replaces manual isSelfTransferCached check) ─────
+            if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null) {
+                TransferDetectionResult transferResult = transferDetectionService.detect(
+                        transaction, userBankAccounts, Set.of(),
+                        dupIndex.findNear(transaction.getAmount(), TransactionType.CREDIT,
+                                transaction.getTransactionDate()));
+                if (transferResult.isTransfer()) {
+                    messageType = "SELF_TRANSFER";
+                    transaction.setCategory("self_transfer");
+                    log.debug("Transfer detected for user {}: confidence={}, reason={}",
+                            userId, transferResult.getConfidenceScore(),
+                            transferResult.getReason());
                 }
-                log.info("Created {} expense entries from SMS", expensesToSave.size());
             }
 
-            // ── Persist linkedIncomeId / linkedExpenseId back on SMS transactions ──
-            if (!incomesToSave.isEmpty() || !expensesToSave.isEmpty()) {
-                repository.saveAll(savedTransactions);
+            transaction.setMessageType(messageType);
+
+            boolean addedToBudget = false;
+            SMSImportResponse.TransactionSummary summary = SMSImportResponse.TransactionSummary.builder()
+                    .transactionId(null)
+                    .message(truncateMessage(smsMessage.getContent(), 50))
+                    .status(transaction.getParseStatus())
+                    .confidence(transaction.getParseConfidence())
+                    .messageType(messageType)
+                    .build();
+
+            if ("TRANSACTION".equals(messageType) && transaction.getAmount() != null
+                    && ParseStatus.SUCCESS == transaction.getParseStatus()) {
+
+                // ── Validation gate ────────────────────────────────────────
+                TransactionValidationResult validation = validatorService.validate(transaction);
+                if (!validation.isValidTransaction()) {
+                    log.info("Transaction rejected by validator for user {}: {}",
+                            userId, validation.getReason());
+                    summaries.add(SMSImportResponse.TransactionSummary.builder()
+                            .message(truncateMessage(smsMessage.getContent(), 50))
+                            .status(transaction.getParseStatus())
+                            .confidence(transaction.getParseConfidence())
+                            .messageType("INVALID")
+                            .addedToBudget(false)
+                            .build());
+                    return;
+                }
+
+                chunk.transactions.add(transaction);
+                chunk.transactionSummaries.add(summary);
+                dupIndex.add(transaction);
+
+                NormalizedTransaction normalized = parsed.normalized();
+                FlowClassificationResult flow = parsed.flow();
+
+                if (flow.getFlowType() == FlowType.INCOME) {
+                    String description = normalized.getNormalizedMerchant() != null
+                            && !"UNKNOWN".equals(normalized.getNormalizedMerchant())
+                                    ? normalized.getNormalizedMerchant()
+                                    : (transaction.getMerchant() != null ? transaction.getMerchant()
+                                            : "SMS Transaction");
+                    Income income = Income.builder()
+                            .userId(transaction.getUserId())
+                            .amount(transaction.getAmount())
+                            .date(transaction.getTransactionDate())
+                            .source("SMS_PARSED")
+                            .description(description)
+                            .build();
+                    chunk.incomes.add(income);
+                    chunk.incomeTxIndices.add(chunk.transactions.size() - 1);
+                    addedToBudget = true;
+                } else if (flow.getFlowType() == FlowType.EXPENSE) {
+                    String description = normalized.getNormalizedMerchant() != null
+                            && !"UNKNOWN".equals(normalized.getNormalizedMerchant())
+                                    ? normalized.getNormalizedMerchant()
+                                    : (transaction.getMerchant() != null ? transaction.getMerchant()
+                                            : "SMS Transaction");
+                    String normalizedCategory = normalized.getCategory();
+                    Expense expense = Expense.builder()
+                            .userId(transaction.getUserId())
+                            .amount(transaction.getAmount())
+                            .expenseDate(transaction.getTransactionDate())
+                            .description(description)
+                            .notes("SMS Parsed [mode:" + normalized.getMode() + "] - Ref: "
+                                    + (normalized.getReferenceId() != null ? normalized.getReferenceId()
+                                            : "N/A"))
+                            .category(detectCategories(normalizedCategory))
+                            .customCategoryName(normalizedCategory)
+                            .build();
+                    chunk.expenses.add(expense);
+                    chunk.expenseTxIndices.add(chunk.transactions.size() - 1);
+                    addedToBudget = true;
+                }
+
+                if (transaction.getAccountNumber() != null) {
+                    chunk.accountNumbers.add(transaction.getAccountNumber());
+                }
             }
+
+            summary.setAddedToBudget(addedToBudget);
+            summaries.add(summary);
+
+        } catch (Exception e) {
+            errors.add(SMSImportResponse.ErrorDetail.builder()
+                    .message(truncateMessage(smsMessage.getContent(), 50))
+                    .error(e.getMessage())
+                    .build());
         }
+    }
 
-        return responseBuilder
-                .totalMessages(totalMessages)
-                .transactions(summaries)
-                .errors(errors)
-                .build();
+    /**
+     * Stage 3: commits one chunk in its own transaction.
+     *
+     * @return number of SMS transactions written
+     */
+    private int persistChunk(Long userId, ImportChunk chunk) {
+        if (chunk.transactions.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String accountNumber : chunk.accountNumbers) {
+                this.bankAccountService.addOrUpdateBankAccount(userId, accountNumber);
+            }
+
+            batchWriter.write(chunk.transactions,
+                    chunk.incomes, chunk.incomeTxIndices,
+                    chunk.expenses, chunk.expenseTxIndices);
+
+            for (int i = 0; i < chunk.transactions.size(); i++) {
+                chunk.transactionSummaries.get(i).setTransactionId(chunk.transactions.get(i).getId());
+            }
+
+            log.info("Batch saved {} SMS transactions, {} incomes and {} expenses for user {}",
+                    chunk.transactions.size(), chunk.incomes.size(), chunk.expenses.size(), userId);
+        });
+        return chunk.transactions.size();
+    }
+
+    /** Output of the parse/classify stage for one message. */
+    private record ParsedMessage(SMSImportRequest.SMSMessage message, SMSTransaction transaction,
+            String messageType, NormalizedTransaction normalized, FlowClassificationResult flow,
+            Exception error) {
+
+        static ParsedMessage alreadyImported(SMSImportRequest.SMSMessage message) {
+            return new ParsedMessage(message, null, null, null, null, null);
+        }
+
+        boolean alreadyImported() {
+            return transaction == null && error == null;
+        }
     }
-    
+
+    /** Rows accepted by the ordered stage and waiting to be committed together. */
+    private static final class ImportChunk {
+        private final List<SMSTransaction> transactions = new ArrayList<>();
+        // Parallel to transactions: summary whose transactionId is filled after save
+        private final List<SMSImportResponse.TransactionSummary> transactionSummaries = new ArrayList<>();
+        private final List<Income> incomes = new ArrayList<>();
+        private final List<Expense> expenses = new ArrayList<>();
+        // Each entry maps income/expense[j] → transactions[idx]
+        private final List<Integer> incomeTxIndices = new ArrayList<>();
+        private final List<Integer> expenseTxIndices = new ArrayList<>();
+        private final Set<String> accountNumbers = new LinkedHashSet<>();
+    }
+
     private ExpenseCategory detectCategories(String transactionCategory) {
         return null;
     }
@@ -309,8 +561,10 @@ public class SmsServiceImpl implements SmsService {
     @Override
     @Transactional
     public SMSTransaction parseSingleMessage(Long userId, String message, String sender) {
-        ParsedSMSData parsedData = parserService.parseSMS(message);
+        return toSmsTransaction(userId, message, sender, parserService.parseSMS(message));
+    }
 
+    private SMSTransaction toSmsTransaction(Long userId, String message, String sender, ParsedSMSData parsedData) {
         // Convert tags list to comma-separated string
         String tagsStr = parsedData.getTags() != null && !parsedData.getTags().isEmpty()
                 ? String.join(",", parsedData.getTags())
@@ -380,47 +634,32 @@ public class SmsServiceImpl implements SmsService {
         }
 
         String message = transaction.getOriginalMessage();
-        String messageLower = message.toLowerCase();
+        // IMPORT_* groups have no registry override, so the default automaton is exact
+        SmsKeywordHits keywords = SmsKeywordMatcher.defaults().scan(message);
 
         int score = 0;
 
-        String[] negativeKeywords = {
-                "will be", "scheduled", "due", "failed",
-                "could not be processed", "declined",
-                "not processed", "upcoming", "statement",
-                "limit", "disabled", "enabled", "registration",
-                "mandate", "auto debit", "autopay"
-        };
-
-        if (containsAnyKeyword(messageLower, negativeKeywords)) {
+        if (keywords.has(SmsKeyword.IMPORT_NEGATIVE)) {
             return "NON_TRANSACTION";
         }
 
-        boolean hasAmount = messageLower.matches(".*(rs\\.?|inr|sgd)\\s?[\\d,]+(\\.\\d+)? .*");
+        boolean hasAmount = IMPORT_AMOUNT_PATTERN.matcher(message).find();
         if (hasAmount)
             score += 3;
 
-        String[] debitKeywords = {
-                "debited", "spent", "withdrawn", "paid", "charged", "purchase"
-        };
-
-        String[] creditKeywords = {
-                "credited", "received", "refund", "cashback", "deposited"
-        };
-
-        boolean hasDebit = containsAnyKeywordWithBoundary(messageLower, debitKeywords);
-        boolean hasCredit = containsAnyKeywordWithBoundary(messageLower, creditKeywords);
+        boolean hasDebit = keywords.has(SmsKeyword.IMPORT_DEBIT);
+        boolean hasCredit = keywords.has(SmsKeyword.IMPORT_CREDIT);
 
         if (hasDebit)
             score += 3;
         if (hasCredit)
             score += 3;
 
-        if (messageLower.contains("upi") || messageLower.contains("rrn") || messageLower.contains("ref")) {
+        if (keywords.has(SmsKeyword.IMPORT_REFERENCE)) {
             score += 2;
         }
 
-        if (messageLower.contains("a/c") || messageLower.contains("account") || messageLower.contains("card")) {
+        if (keywords.has(SmsKeyword.IMPORT_ACCOUNT)) {
             score += 1;
         }
 
@@ -431,12 +670,7 @@ public class SmsServiceImpl implements SmsService {
             score += 2;
         }
 
-        String[] mandateKeywords = {
-                "will be debited", "will be credited", "scheduled for",
-                "auto-debit", "autopay", "next debit", "payment due"
-        };
-
-        if (containsAnyKeyword(messageLower, mandateKeywords)) {
+        if (keywords.has(SmsKeyword.IMPORT_MANDATE)) {
             return "MANDATE_ALERT";
         }
 
@@ -452,40 +686,12 @@ public class SmsServiceImpl implements SmsService {
             }
         }
 
-        String[] balanceKeywords = {
-                "available balance", "avl bal", "current balance", "balance is"
-        };
-
-        if (containsAnyKeyword(messageLower, balanceKeywords)) {
+        if (keywords.has(SmsKeyword.IMPORT_BALANCE)) {
             return "BALANCE_INQUIRY";
         }
 
         return "UNKNOWN";
     }
 
-    private boolean containsAnyKeyword(String message, String[] keywords) {
-        for (String keyword : keywords) {
-            if (message.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean containsAnyKeywordWithBoundary(String message, String[] keywords) {
-        for (String keyword : keywords) {
-            if (keyword.split("\\s+").length == 1) {
-                if (message.matches(".*\\b" + keyword + "\\b.*")) {
-                    return true;
-                }
-            } else {
-                if (message.contains(keyword)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
 }
 
@@ -0,0 +1,17 @@
+package com.pisystem.modules.stocks.cache;
+
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A quote as held by {@link QuoteCache}, with the time it was fetched from a provider. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedQuote {
+
+    private ThirdPartyResponse quote;
+    private long fetchedAtMillis;
+}
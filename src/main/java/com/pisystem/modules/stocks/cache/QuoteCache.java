@@ -0,0 +1,326 @@
+package com.pisystem.modules.stocks.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two-tier quote cache: an in-process Caffeine map (L1) in front of Redis (L2).
+ *
+ * <h3>Freshness</h3>
+ * A quote is fresh for {@code stocks.quote.cache.fresh-seconds}. After that it is
+ * still served, flagged stale, until {@code stocks.quote.cache.stale-seconds}, so
+ * the caller can answer at once and refresh in the background. Both tiers expire
+ * entries at the stale limit, counted from when the quote was fetched: a quote
+ * copied from L2 into L1 keeps its original deadline.
+ *
+ * <h3>Coherence</h3>
+ * Every write goes to both tiers and is announced on the Redis channel
+ * {@code stocks.quote.cache.channel}. Other nodes drop their L1 copy and pick the
+ * new quote up from L2 on the next read.
+ *
+ * <h3>Without Redis</h3>
+ * With {@code spring.data.redis.enabled=false} the cache is L1 only and does not
+ * subscribe to the channel, even though Spring Boot still registers its own
+ * Redis templates. When Redis is configured but failing, L2 is skipped for
+ * {@code stocks.quote.cache.l2-retry-seconds} after each error instead of adding
+ * a connection timeout to every read.
+ *
+ * <h3>Metrics</h3>
+ * {@code stocks.quote.cache.requests} tagged {@code tier} (l1, l2) and
+ * {@code result} (hit, stale, miss, error); {@code stocks.quote.cache.load}
+ * tagged {@code tier}: time to fill L1 from L2 and L2 from the providers;
+ * {@code stocks.quote.cache.size} (L1 entries).
+ */
+@Component
+@Slf4j
+public class QuoteCache {
+
+    private static final String KEY_PREFIX = "quote:";
+
+    private final RedisTemplate<String, String> redis;
+    private final ObjectMapper objectMapper;
+    private final long freshMillis;
+    private final Duration staleAfterWrite;
+    private final String channel;
+    private final long l2RetryMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, CachedQuote> l1;
+    private RedisMessageListenerContainer listenerContainer;
+    private volatile long l2SkippedUntil;
+
+    private final Timer l1Load;
+    private final Timer l2Load;
+    private final Counter l1Hits;
+    private final Counter l1StaleHits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2StaleHits;
+    private final Counter l2Misses;
+    private final Counter l2Errors;
+
+    @Autowired
+    public QuoteCache(ObjectProvider<RedisTemplate<String, String>> redisTemplate,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry,
+                      @Value("${stocks.quote.cache.fresh-seconds:300}") long freshSeconds,
+                      @Value("${stocks.quote.cache.stale-seconds:1800}") long staleSeconds,
+                      @Value("${stocks.quote.cache.l1-max-size:10000}") long l1MaxSize,
+                      @Value("${stocks.quote.cache.channel:stocks:quote-cache:invalidate}") String channel,
+                      @Value("${stocks.quote.cache.l2-retry-seconds:30}") long l2RetrySeconds,
+                      @Value("${spring.data.redis.enabled:true}") boolean redisEnabled) {
+        this(redisEnabled ? redisTemplate.getIfAvailable() : null, objectMapper, meterRegistry, freshSeconds, staleSeconds, l1MaxSize,
+                channel, l2RetrySeconds);
+    }
+
+    /** {@code redis} may be null, giving an L1-only cache. */
+    public QuoteCache(RedisTemplate<String, String> redis, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      long freshSeconds, long staleSeconds, long l1MaxSize, String channel, long l2RetrySeconds) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.freshMillis = TimeUnit.SECONDS.toMillis(freshSeconds);
+        this.staleAfterWrite = Duration.ofSeconds(Math.max(freshSeconds, staleSeconds));
+        long staleMillis = staleAfterWrite.toMillis();
+        this.channel = channel;
+        this.l2RetryMillis = TimeUnit.SECONDS.toMillis(l2RetrySeconds);
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(new Expiry<String, CachedQuote>() {
+                    @Override
+                    public long expireAfterCreate(String symbol, CachedQuote entry, long currentTime) {
+                        long ageMillis = System.currentTimeMillis() - entry.getFetchedAtMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, staleMillis - ageMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String symbol, CachedQuote entry, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(symbol, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String symbol, CachedQuote entry, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        Gauge.builder("stocks.quote.cache.size", l1, Cache::estimatedSize)
+                .description("Quotes held in the in-process cache")
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        this.l1Load = Timer.builder("stocks.quote.cache.load")
+                .description("Time to fill a cache tier from the tier below")
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        this.l2Load = Timer.builder("stocks.quote.cache.load")
+                .description("Time to fill a cache tier from the tier below")
+                .tag("tier", "l2")
+                .register(meterRegistry);
+        this.l1Hits = lookups(meterRegistry, "l1", "hit");
+        this.l1StaleHits = lookups(meterRegistry, "l1", "stale");
+        this.l1Misses = lookups(meterRegistry, "l1", "miss");
+        this.l2Hits = lookups(meterRegistry, "l2", "hit");
+        this.l2StaleHits = lookups(meterRegistry, "l2", "stale");
+        this.l2Misses = lookups(meterRegistry, "l2", "miss");
+        this.l2Errors = lookups(meterRegistry, "l2", "error");
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("stocks.quote.cache.requests")
+                .description("Quote cache lookups by tier and outcome")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (redis == null || redis.getConnectionFactory() == null) {
+            log.info("Quote cache running without Redis: in-process tier only");
+            return;
+        }
+        try {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(redis.getConnectionFactory());
+            container.addMessageListener(
+                    (message, pattern) -> onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(channel));
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainer = container;
+        } catch (RuntimeException e) {
+            log.warn("Quote cache could not subscribe to {}; other nodes' updates will only show after expiry: {}",
+                    channel, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (listenerContainer != null) {
+            try {
+                listenerContainer.destroy();
+            } catch (Exception e) {
+                log.debug("Quote cache listener did not stop cleanly: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Looks the symbol up in L1, then L2. Never throws on a Redis failure. */
+    public QuoteLookup get(String symbol) {
+        CachedQuote local = l1.getIfPresent(symbol);
+        if (local != null) {
+            boolean stale = isStale(local);
+            (stale ? l1StaleHits : l1Hits).increment();
+            return QuoteLookup.of(local.getQuote(), stale);
+        }
+        l1Misses.increment();
+
+        CachedQuote shared = readL2(symbol);
+        if (shared == null) {
+            return QuoteLookup.MISS;
+        }
+        l1.put(symbol, shared);
+        return QuoteLookup.of(shared.getQuote(), isStale(shared));
+    }
+
+    /** Stores a freshly fetched quote in both tiers and tells the other nodes. */
+    public void put(String symbol, ThirdPartyResponse quote) {
+        CachedQuote entry = new CachedQuote(quote, System.currentTimeMillis());
+        l1.put(symbol, entry);
+        if (l2Usable()) {
+            try {
+                redis.opsForValue().set(KEY_PREFIX + symbol, objectMapper.writeValueAsString(entry), staleAfterWrite);
+                redis.convertAndSend(channel, nodeId + "|" + symbol);
+            } catch (JsonProcessingException e) {
+                log.warn("Quote for {} could not be serialized for Redis: {}", symbol, e.getMessage());
+            } catch (RuntimeException e) {
+                l2Failed("write", symbol, e);
+            }
+        }
+    }
+
+    /** Drops the symbol from both tiers on every node. */
+    public void invalidate(String symbol) {
+        l1.invalidate(symbol);
+        if (l2Usable()) {
+            try {
+                redis.delete(KEY_PREFIX + symbol);
+                redis.convertAndSend(channel, nodeId + "|" + symbol);
+            } catch (RuntimeException e) {
+                l2Failed("invalidate", symbol, e);
+            }
+        }
+    }
+
+    /** Records how long a provider call took to produce quotes for L2. */
+    public void recordUpstreamLoad(long nanos) {
+        l2Load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void onInvalidation(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.startsWith(nodeId + "|")) {
+            return;
+        }
+        l1.invalidate(payload.substring(separator + 1));
+    }
+
+    private CachedQuote readL2(String symbol) {
+        if (!l2Usable()) {
+            return null;
+        }
+        long started = System.nanoTime();
+        try {
+            String json = redis.opsForValue().get(KEY_PREFIX + symbol);
+            if (json == null) {
+                l2Misses.increment();
+                return null;
+            }
+            CachedQuote entry = objectMapper.readValue(json, CachedQuote.class);
+            (isStale(entry) ? l2StaleHits : l2Hits).increment();
+            return entry;
+        } catch (JsonProcessingException e) {
+            l2Errors.increment();
+            log.warn("Unreadable quote for {} in Redis, ignoring it: {}", symbol, e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            l2Failed("read", symbol, e);
+            return null;
+        } finally {
+            l1Load.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean l2Usable() {
+        return redis != null && System.currentTimeMillis() >= l2SkippedUntil;
+    }
+
+    private void l2Failed(String operation, String symbol, RuntimeException e) {
+        l2Errors.increment();
+        l2SkippedUntil = System.currentTimeMillis() + l2RetryMillis;
+        log.warn("Redis quote cache {} failed for {}; using the in-process tier only for {} ms: {}",
+                operation, symbol, l2RetryMillis, e.getMessage());
+    }
+
+    private boolean isStale(CachedQuote entry) {
+        return System.currentTimeMillis() - entry.getFetchedAtMillis() >= freshMillis;
+    }
+
+    /** Outcome of {@link #get(String)}. */
+    public static final class QuoteLookup {
+
+        static final QuoteLookup MISS = new QuoteLookup(null, false);
+
+        private final ThirdPartyResponse quote;
+        private final boolean stale;
+
+        private QuoteLookup(ThirdPartyResponse quote, boolean stale) {
+            this.quote = quote;
+            this.stale = stale;
+        }
+
+        static QuoteLookup of(ThirdPartyResponse quote, boolean stale) {
+            return quote == null ? MISS : new QuoteLookup(quote, stale);
+        }
+
+        public boolean isHit() {
+            return quote != null;
+        }
+
+        /** Past its fresh period; serve it, but refresh. */
+        public boolean isStale() {
+            return stale;
+        }
+
+        public ThirdPartyResponse getQuote() {
+            return quote;
+        }
+    }
+}
@@ -14,8 +14,9 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 import java.time.Duration;
 
 /**
- * Redis cache configuration for stock prices.
- * Caches stock data for 5 minutes to reduce third-party API calls and respect rate limits.
+ * Redis cache configuration for Spring {@code @Cacheable} caches.
+ * Third-party quotes are not cached here any more; they go through the two-tier
+ * {@link com.pisystem.modules.stocks.cache.QuoteCache}.
  */
 @Configuration
 @EnableCaching
@@ -25,14 +26,9 @@ public class RedisCacheConfig {
      * Configure Redis cache manager with TTL and serialization settings.
      * 
      * Cache Strategy:
-     * - Cache Name: "stockPrices"
      * - TTL: 5 minutes (300 seconds)
-     * - Key Serializer: StringRedisSerializer (for stock symbols like "RELIANCE", "TCS")
-     * - Value Serializer: GenericJackson2JsonRedisSerializer (for ThirdPartyResponse objects)
-     * - Max Size: 10,000 entries (configurable via LRU eviction)
-     * 
-     * This prevents hitting Alpha Vantage rate limits (5 calls/min) while maintaining
-     * reasonably fresh data for portfolio calculations.
+     * - Key Serializer: StringRedisSerializer
+     * - Value Serializer: GenericJackson2JsonRedisSerializer
      */
     @Bean
     public CacheManager stockCacheManager(RedisConnectionFactory connectionFactory) {
@@ -2,16 +2,32 @@ package com.pisystem.modules.stocks.config;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
 import lombok.Data;
 
+/**
+ * Limits for one third-party stock provider; {@code id} is the provider name.
+ * Null or non-positive values fall back to the provider's defaults.
+ */
 @Entity
+@Table(name = "resilience_config")
 @Data
 public class ResilienceConfigEntity {
 
     @Id
     private String id;
+    /** Calls per minute. */
     private int limitForPeriod;
+    /** Seconds a call may wait for a permit. */
     private int timeoutDuration;
     private int maxAttempts;
     private long waitDuration;
+    /** Calls per UTC day; null for the provider default, 0 for no daily quota. */
+    private Integer limitPerDay;
+    /** Percentage of the daily quota a single user may consume. */
+    private Integer userDailySharePercent;
+    /** Consecutive failures that open the provider's circuit. */
+    private Integer failureThreshold;
+    /** Seconds an open circuit stays open before a trial call. */
+    private Integer openDurationSeconds;
 }
@@ -1,19 +1,27 @@
 package com.pisystem.modules.stocks.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import com.pisystem.modules.stocks.service.StockPriceSubscriptionRegistry;
+
+import lombok.RequiredArgsConstructor;
+
 /**
  * WebSocket configuration for real-time stock price updates.
  * Enables bidirectional communication between server and clients.
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StockPriceSubscriptionRegistry subscriptionRegistry;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker to send messages to clients
@@ -24,6 +32,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Refuse subscriptions to unknown symbols before they reach the broker
+        registration.interceptors(subscriptionRegistry);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register the /ws-stock-prices endpoint with SockJS fallback
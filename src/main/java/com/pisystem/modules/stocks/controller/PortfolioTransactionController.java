@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.pisystem.shared.security.AuthenticationHelper;
+import com.pisystem.modules.stocks.data.PortfolioLot;
 import com.pisystem.modules.stocks.data.PortfolioTransaction;
 import com.pisystem.modules.stocks.dto.PortfolioTransactionRequest;
 import com.pisystem.modules.stocks.dto.TransactionStats;
@@ -51,7 +52,7 @@ public class PortfolioTransactionController {
     @PreAuthorize("hasAnyRole('USER_READ_ONLY', 'ADMIN', 'SUPER_ADMIN')")
     @Operation(
         summary = "Record a new transaction",
-        description = "Record a BUY, SELL, DIVIDEND, or other transaction type. SELL transactions automatically calculate realized gains using FIFO method.",
+        description = "Record a BUY, SELL, DIVIDEND, or other transaction type. SELL transactions automatically calculate realized gains against buy lots, using FIFO or average cost (costBasisMethod, defaulting to the configured method).",
         responses = {
             @ApiResponse(responseCode = "201", description = "Transaction recorded successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request data"),
@@ -117,6 +118,28 @@ public class PortfolioTransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/{userId}/symbol/{symbol}/lots")
+    @PreAuthorize("hasAnyRole('USER_READ_ONLY', 'ADMIN', 'SUPER_ADMIN')")
+    @Operation(
+        summary = "Get open lots by symbol",
+        description = "Retrieve the open (tax) lots still held for a stock symbol, oldest first, with their remaining quantity and cost basis",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Open lots retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+        }
+    )
+    public ResponseEntity<List<PortfolioLot>> getOpenLots(
+            @PathVariable Long userId,
+            @PathVariable @Parameter(description = "Stock symbol (e.g., RELIANCE)", example = "RELIANCE") String symbol,
+            @RequestHeader("Authorization") String authToken) {
+        
+        Long authenticatedUserId = authHelper.getCurrentUserId();
+        authHelper.validateUserAccess(authenticatedUserId);
+        
+        log.info("Fetching open lots for user {} and symbol {}", userId, symbol);
+        return ResponseEntity.ok(transactionService.getOpenLots(userId, symbol));
+    }
+
     @GetMapping("/transaction/{id}")
     @PreAuthorize("hasAnyRole('USER_READ_ONLY', 'ADMIN', 'SUPER_ADMIN')")
     @Operation(
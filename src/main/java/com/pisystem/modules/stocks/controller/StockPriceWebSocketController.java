@@ -1,5 +1,6 @@
 package com.pisystem.modules.stocks.controller;
 
+import com.pisystem.modules.stocks.dto.StockPriceDelta;
 import com.pisystem.modules.stocks.dto.StockPriceUpdate;
 import com.pisystem.modules.stocks.service.StockPriceWebSocketService;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +8,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +17,8 @@ import java.util.Map;
 
 /**
  * WebSocket controller for broadcasting real-time stock price updates.
- * Clients can subscribe to /topic/stock-prices to receive live updates.
+ * Clients subscribe to /topic/stock-price/{symbol} for the symbols they show; only
+ * those symbols are refreshed, and changes also go out together on /topic/stock-prices.
  */
 @Controller
 @RequiredArgsConstructor
@@ -25,21 +26,17 @@ import java.util.Map;
 public class StockPriceWebSocketController {
 
     private final StockPriceWebSocketService stockPriceService;
-    private final SimpMessagingTemplate messagingTemplate;
 
     /**
-     * Scheduled task to broadcast stock prices every 30 seconds.
-     * Adjust the rate based on your external API limits and user needs.
+     * Refreshes the symbols clients are subscribed to and broadcasts those that moved.
+     * With no subscribers this makes no provider calls.
      */
-    // @Scheduled(fixedRate = 30000) // Every 30 seconds
+    @Scheduled(fixedDelayString = "${stocks.price-stream.interval-ms:30000}")
     public void broadcastStockPrices() {
         try {
-            List<StockPriceUpdate> updates = stockPriceService.fetchLatestPrices();
-            
-            if (!updates.isEmpty()) {
-                // Broadcast to all subscribers on /topic/stock-prices
-                messagingTemplate.convertAndSend("/topic/stock-prices", updates);
-                log.debug("Broadcasted {} stock price updates", updates.size());
+            List<StockPriceDelta> deltas = stockPriceService.broadcastSubscribedPrices();
+            if (!deltas.isEmpty()) {
+                log.debug("Broadcasted {} stock price updates", deltas.size());
             }
         } catch (Exception e) {
             log.error("Error broadcasting stock prices", e);
@@ -53,9 +50,9 @@ public class StockPriceWebSocketController {
      */
     @MessageMapping("/stock-price/{symbol}")
     @SendTo("/topic/stock-price/{symbol}")
-    public StockPriceUpdate getStockPrice(@org.springframework.messaging.handler.annotation.DestinationVariable String symbol) {
+    public StockPriceDelta getStockPrice(@org.springframework.messaging.handler.annotation.DestinationVariable String symbol) {
         log.debug("Client requested price for symbol: {}", symbol);
-        return stockPriceService.fetchSingleStockPrice(symbol);
+        return stockPriceService.toDelta(stockPriceService.fetchSingleStockPrice(symbol));
     }
 
     /**
@@ -66,13 +63,12 @@ public class StockPriceWebSocketController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> triggerBroadcast() {
         try {
-            List<StockPriceUpdate> updates = stockPriceService.fetchLatestPrices();
-            messagingTemplate.convertAndSend("/topic/stock-prices", updates);
-            
+            List<StockPriceDelta> deltas = stockPriceService.broadcastSubscribedPrices();
+
             return ResponseEntity.ok(Map.of(
                 "status", "success",
                 "message", "Broadcasted price updates",
-                "count", updates.size()
+                "count", deltas.size()
             ));
         } catch (Exception e) {
             log.error("Error in manual broadcast", e);
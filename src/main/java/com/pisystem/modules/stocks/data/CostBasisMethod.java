@@ -0,0 +1,11 @@
+package com.pisystem.modules.stocks.data;
+
+/**
+ * How a SELL's cost basis is taken from the open lots of the symbol.
+ */
+public enum CostBasisMethod {
+    /** Oldest lots first, each at its own cost. */
+    FIFO,
+    /** Average cost of all open lots; lots are still drawn down oldest first for holding periods. */
+    AVERAGE_COST
+}
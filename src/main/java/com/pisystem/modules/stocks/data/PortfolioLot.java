@@ -0,0 +1,62 @@
+package com.pisystem.modules.stocks.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Shares acquired by one BUY (or BONUS) transaction, and how many of them are
+ * still held. SELLs draw lots down through {@link PortfolioLotMatch}es.
+ */
+@Entity
+@Table(name = "portfolio_lots", indexes = {
+    @Index(name = "idx_portfolio_lots_open", columnList = "user_id, symbol, is_open, acquired_date, id")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "symbol", nullable = false, length = 50)
+    private String symbol;
+
+    @Column(name = "buy_transaction_id", nullable = false)
+    private Long buyTransactionId;
+
+    @Column(name = "acquired_date", nullable = false)
+    private LocalDate acquiredDate;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    /** Cost of the whole lot, fees included. */
+    @Column(name = "cost_basis", nullable = false, precision = 19, scale = 4)
+    private BigDecimal costBasis;
+
+    @Column(name = "remaining_quantity", nullable = false)
+    private Integer remainingQuantity;
+
+    /** Cost basis of the shares still held. */
+    @Column(name = "remaining_cost", nullable = false, precision = 19, scale = 4)
+    private BigDecimal remainingCost;
+
+    /**
+     * Whether shares of the lot are still held; generated by the database from
+     * {@code remaining_quantity} so open-lot queries can use the index.
+     */
+    @Column(name = "is_open", insertable = false, updatable = false)
+    private Boolean open;
+}
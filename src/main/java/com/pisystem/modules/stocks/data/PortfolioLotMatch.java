@@ -0,0 +1,58 @@
+package com.pisystem.modules.stocks.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The part of a {@link PortfolioLot} one SELL consumed, with its cost basis and
+ * sale proceeds (fees apportioned), so holding period and gain per lot are a
+ * direct read.
+ */
+@Entity
+@Table(name = "portfolio_lot_matches", indexes = {
+    @Index(name = "idx_portfolio_lot_matches_user_symbol", columnList = "user_id, symbol"),
+    @Index(name = "idx_portfolio_lot_matches_user_sell_date", columnList = "user_id, sell_date")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioLotMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "symbol", nullable = false, length = 50)
+    private String symbol;
+
+    @Column(name = "sell_transaction_id", nullable = false)
+    private Long sellTransactionId;
+
+    @Column(name = "lot_id", nullable = false)
+    private Long lotId;
+
+    @Column(name = "acquired_date", nullable = false)
+    private LocalDate acquiredDate;
+
+    @Column(name = "sell_date", nullable = false)
+    private LocalDate sellDate;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "cost_basis", nullable = false, precision = 19, scale = 4)
+    private BigDecimal costBasis;
+
+    @Column(name = "proceeds", nullable = false, precision = 19, scale = 4)
+    private BigDecimal proceeds;
+}
@@ -10,12 +10,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 /**
  * Entity representing portfolio transactions (Buy, Sell, Dividend, etc.)
  * Tracks all stock trading activity for users
  */
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Table(name = "portfolio_transactions", indexes = {
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_symbol", columnList = "symbol"),
@@ -73,6 +75,11 @@ public class PortfolioTransaction {
     @Schema(description = "Additional notes about the transaction", example = "Bought at support level")
     private String notes;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cost_basis_method", length = 20)
+    @Schema(description = "Cost basis method the realized gain of a SELL was calculated with", example = "FIFO")
+    private CostBasisMethod costBasisMethod;
+
     @Column(name = "realized_gain", precision = 15, scale = 2)
     @Schema(description = "Realized profit/loss for SELL transactions", example = "1500.00", accessMode = Schema.AccessMode.READ_ONLY)
     private BigDecimal realizedGain;
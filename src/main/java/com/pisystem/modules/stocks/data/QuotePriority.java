@@ -0,0 +1,14 @@
+package com.pisystem.modules.stocks.data;
+
+/**
+ * Order in which queued quote requests reach the providers. When provider
+ * tokens are scarce the earlier constants get them first.
+ */
+public enum QuotePriority {
+    /** A user is waiting on the response (symbol lookup). */
+    INTERACTIVE,
+    /** The symbol is held in someone's portfolio; valuations depend on it. */
+    HELD,
+    /** Only watched, or not referenced by any user. */
+    WATCHLIST
+}
@@ -6,6 +6,7 @@ import com.pisystem.shared.data.EntityType;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -18,9 +19,11 @@ import lombok.NoArgsConstructor;
 import com.pisystem.shared.data.TypedEntity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import com.pisystem.modules.stocks.networth.event.NetWorthEntityListener;
 
 @Table(name = "portfolio_holdings")
 @Entity
+@EntityListeners(NetWorthEntityListener.class)
 @Data
 @Builder
 @AllArgsConstructor
@@ -1,8 +1,11 @@
 package com.pisystem.modules.stocks.diversification.portfolio.repo;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
 
@@ -10,4 +13,10 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
 
     List<Portfolio> findByUserId(Long userId);
 
+    @Query("SELECT DISTINCT p.userId FROM Portfolio p WHERE p.stockSymbol IN :symbols")
+    List<Long> findUserIdsHoldingSymbols(@Param("symbols") Collection<String> symbols);
+
+    @Query("SELECT DISTINCT p.stockSymbol FROM Portfolio p")
+    List<String> findHeldSymbols();
+
 }
@@ -91,7 +91,7 @@ public class PortfolioAllocationService {
         return portfolio.getPurchasePrice();
     }
 
-    private String determineSectorName(Stock stock, Portfolio portfolio, 
+    static String determineSectorName(Stock stock, Portfolio portfolio, 
             Map<Long, String> sectorNameMap) {
         if (stock == null || stock.getSectorId() == null) {
             log.warn("Missing sector data for stock: {}", portfolio.getStockSymbol());
@@ -100,7 +100,7 @@ public class PortfolioAllocationService {
         return sectorNameMap.getOrDefault(stock.getSectorId(), UNCLASSIFIED_SECTOR);
     }
 
-    private MarketCapCategory classifyMarketCap(Stock stock, Portfolio portfolio) {
+    static MarketCapCategory classifyMarketCap(Stock stock, Portfolio portfolio) {
         if (stock == null || stock.getMarketCap() == null) {
             log.warn("Missing market cap data for stock: {}", portfolio.getStockSymbol());
             return MarketCapCategory.UNCLASSIFIED;
@@ -116,7 +116,7 @@ public class PortfolioAllocationService {
         }
     }
 
-    private PortfolioAllocationResult buildAllocationResult(BigDecimal totalValue,
+    static PortfolioAllocationResult buildAllocationResult(BigDecimal totalValue,
             Map<String, BigDecimal> sectorValueMap, BigDecimal largeCapValue,
             BigDecimal midCapValue, BigDecimal smallCapValue, BigDecimal unclassifiedValue) {
         
@@ -144,13 +144,13 @@ public class PortfolioAllocationService {
                 .build();
     }
 
-    private BigDecimal calculatePercentage(BigDecimal value, BigDecimal total) {
+    private static BigDecimal calculatePercentage(BigDecimal value, BigDecimal total) {
         return value.divide(total, PERCENTAGE_SCALE + 2, RoundingMode.HALF_UP)
                     .multiply(BigDecimal.valueOf(100))
                     .setScale(PERCENTAGE_SCALE, RoundingMode.HALF_UP);
     }
 
-    private PortfolioAllocationResult createEmptyResult() {
+    private static PortfolioAllocationResult createEmptyResult() {
         return PortfolioAllocationResult.builder()
                 .sectorAllocation(SectorAllocation.builder().sectors(new HashMap<>()).build())
                 .marketCapAllocation(new MarketCapAllocation(
@@ -158,7 +158,7 @@ public class PortfolioAllocationService {
                 .build();
     }
 
-    private enum MarketCapCategory {
+    enum MarketCapCategory {
         LARGE_CAP, MID_CAP, SMALL_CAP, UNCLASSIFIED
     }
 }
@@ -6,16 +6,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
-import com.pisystem.modules.stocks.data.Stock;
 import com.pisystem.modules.stocks.diversification.portfolio.data.DataFreshness;
-import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
 import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioAllocationResult;
 import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioDTOResponse;
 import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioInsightsDTO;
@@ -24,51 +18,35 @@ import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioValua
 import com.pisystem.modules.stocks.diversification.portfolio.data.RiskAnalysisResult;
 import com.pisystem.modules.stocks.diversification.portfolio.data.RiskSummary;
 import com.pisystem.modules.stocks.diversification.portfolio.data.SectorAllocation;
-import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
-import com.pisystem.modules.stocks.diversification.sectors.data.Sector;
-import com.pisystem.modules.stocks.diversification.sectors.repo.SectorRepository;
-import com.pisystem.modules.stocks.repo.StockRepository;
-import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
-import com.pisystem.modules.stocks.data.PortfolioTransaction;
 
+/**
+ * Portfolio summary served from the user's {@link PortfolioStateCache} snapshot:
+ * valuation and allocation come from the incrementally maintained state, so only
+ * the O(holdings) risk, scoring and insight passes run per read.
+ */
 @Service
 public class PortfolioReadServiceImpl implements PortfolioReadService {
 
-        private final PortfolioRepository portfolioRepository;
-        private final StockRepository stockRepository;
-        private final SectorRepository sectorRepository;
-        private final PortfolioTransactionRepository transactionRepository;
+        private final PortfolioStateCache portfolioStateCache;
 
-        private final PortfolioValuationService valuationService;
-        private final PortfolioAllocationService allocationService;
         private final PortfolioRiskEvaluationService riskEvaluationService;
         private final PortfolioScoringService scoringService;
         private final PortfolioInsightService insightService;
 
         public PortfolioReadServiceImpl(
-                        PortfolioRepository portfolioRepository,
-                        StockRepository stockRepository,
-                        SectorRepository sectorRepository,
-                        PortfolioValuationService valuationService,
-                        PortfolioAllocationService allocationService,
+                        PortfolioStateCache portfolioStateCache,
                         PortfolioRiskEvaluationService riskEvaluationService,
                         PortfolioScoringService scoringService,
-                        PortfolioInsightService insightService,
-                        PortfolioTransactionRepository transactionRepository) {
-                this.portfolioRepository = portfolioRepository;
-                this.stockRepository = stockRepository;
-                this.sectorRepository = sectorRepository;
-                this.valuationService = valuationService;
-                this.allocationService = allocationService;
+                        PortfolioInsightService insightService) {
+                this.portfolioStateCache = portfolioStateCache;
                 this.riskEvaluationService = riskEvaluationService;
                 this.scoringService = scoringService;
                 this.insightService = insightService;
-                this.transactionRepository = transactionRepository;
         }
 
         public PortfolioDTOResponse getPortfolioSummary(Long userId) {
-                List<Portfolio> userPortfolios = portfolioRepository.findByUserId(userId);
-                if (userPortfolios.isEmpty()) {
+                PortfolioSnapshot snapshot = portfolioStateCache.snapshot(userId);
+                if (snapshot.isEmpty()) {
                         return PortfolioDTOResponse.builder()
                                         .score(0)
                                         .assessment("No Data")
@@ -91,39 +69,14 @@ public class PortfolioReadServiceImpl implements PortfolioReadService {
                                         .build();
                 }
 
-                // 1. Fetch Stocks and Sectors
-                List<String> stockSymbols = userPortfolios.stream()
-                                .map(Portfolio::getStockSymbol)
-                                .distinct()
-                                .collect(Collectors.toList());
-
-                Map<String, Stock> stockMap = stockRepository.findBySymbolIn(stockSymbols).stream()
-                                .collect(Collectors.toMap(Stock::getSymbol, Function.identity()));
-
-                Set<Long> sectorIds = stockMap.values().stream()
-                                .map(Stock::getSectorId)
-                                .filter(Objects::nonNull)
-                                .collect(Collectors.toSet());
-
-                Map<Long, String> sectorNameMap = sectorRepository.findAllById(sectorIds).stream()
-                                .collect(Collectors.toMap(Sector::getId, Sector::getName));
-
-                // 2. Fetch Transactions for XIRR & Gain Breakdown
-                List<PortfolioTransaction> transactions = transactionRepository
-                                .findByUserIdOrderByTransactionDateDesc(userId);
-
-                // 3. Valuation
-                PortfolioValuationResult valuation = valuationService.calculateValuation(userPortfolios, stockMap,
-                                transactions);
-
-                // 3. Allocation
-                PortfolioAllocationResult allocation = allocationService.calculateAllocation(userPortfolios, stockMap,
-                                sectorNameMap);
+                // 1-3. Valuation & Allocation (maintained by the state; prices are on the holdings)
+                PortfolioValuationResult valuation = snapshot.valuation();
+                PortfolioAllocationResult allocation = snapshot.allocation();
 
                 // 4. Risk Evaluation
                 RiskAnalysisResult riskResult = riskEvaluationService.evaluateRisks(
-                                userPortfolios,
-                                stockMap,
+                                snapshot.holdings(),
+                                Map.of(),
                                 valuation.getCurrentValue(),
                                 allocation.getSectorAllocation().getSectors(),
                                 allocation.getMarketCapAllocation().getSmallCapPercentage());
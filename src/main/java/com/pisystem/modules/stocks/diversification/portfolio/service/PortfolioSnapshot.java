@@ -0,0 +1,19 @@
+package com.pisystem.modules.stocks.diversification.portfolio.service;
+
+import java.util.List;
+
+import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
+import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioAllocationResult;
+import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioValuationResult;
+
+/**
+ * Point-in-time copy of a {@link PortfolioState}. Each holding carries its live
+ * price as {@code currentPrice}.
+ */
+record PortfolioSnapshot(List<Portfolio> holdings, PortfolioValuationResult valuation,
+        PortfolioAllocationResult allocation) {
+
+    boolean isEmpty() {
+        return holdings.isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+package com.pisystem.modules.stocks.diversification.portfolio.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
+import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioAllocationResult;
+import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioValuationResult;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioAllocationService.MarketCapCategory;
+import com.pisystem.shared.utils.XirrCalculator;
+
+/**
+ * One user's holdings with their cost basis, live value per holding, sector and
+ * market cap totals, realized gain and XIRR cash flows.
+ *
+ * <p>Built once from the database by {@link PortfolioStateCache}, then moved by
+ * price ticks and newly recorded transactions. Each update touches only the
+ * affected holdings and totals; a {@link #snapshot} copies the totals and
+ * holdings, so a summary read is O(holdings).</p>
+ *
+ * <p>Updates and snapshots synchronize on the instance.</p>
+ */
+final class PortfolioState {
+
+    /** One {@code portfolio_holdings} row. */
+    private static final class Position {
+        private final String symbol;
+        private final BigDecimal quantity;
+        private final BigDecimal purchasePrice;
+        private final String sector;
+        private final MarketCapCategory category;
+        private BigDecimal price;
+
+        private Position(String symbol, BigDecimal quantity, BigDecimal purchasePrice, BigDecimal price,
+                String sector, MarketCapCategory category) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.purchasePrice = purchasePrice;
+            this.price = price;
+            this.sector = sector;
+            this.category = category;
+        }
+    }
+
+    private final List<Position> positions = new ArrayList<>();
+    private final Map<String, List<Position>> bySymbol = new HashMap<>();
+    private final Map<String, BigDecimal> sectorValues = new HashMap<>();
+    private final Map<MarketCapCategory, BigDecimal> capValues = new EnumMap<>(MarketCapCategory.class);
+    private final long loadedAtMillis;
+
+    private BigDecimal totalInvestment = BigDecimal.ZERO;
+    private BigDecimal currentValue = BigDecimal.ZERO;
+    private BigDecimal realizedGain = BigDecimal.ZERO;
+
+    private final XirrCalculator.Series cashFlows = new XirrCalculator.Series();
+
+    // XIRR of the last snapshot and the inputs it was calculated for; the rate warm-starts the next solve
+    private double xirrRate = XirrCalculator.DEFAULT_GUESS;
+    private BigDecimal xirr;
+    private BigDecimal xirrValue;
+    private LocalDate xirrDate;
+    private int xirrFlowCount = -1;
+
+    PortfolioState(long loadedAtMillis) {
+        this.loadedAtMillis = loadedAtMillis;
+        for (MarketCapCategory category : MarketCapCategory.values()) {
+            capValues.put(category, BigDecimal.ZERO);
+        }
+    }
+
+    long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    synchronized Set<String> symbols() {
+        return Set.copyOf(bySymbol.keySet());
+    }
+
+    synchronized void addHolding(String symbol, int quantity, BigDecimal purchasePrice, BigDecimal price,
+            String sector, MarketCapCategory category) {
+        Position position = new Position(symbol, BigDecimal.valueOf(quantity), purchasePrice, price, sector,
+                category);
+        positions.add(position);
+        bySymbol.computeIfAbsent(symbol, s -> new ArrayList<>()).add(position);
+
+        BigDecimal value = position.quantity.multiply(price);
+        totalInvestment = totalInvestment.add(position.quantity.multiply(purchasePrice));
+        currentValue = currentValue.add(value);
+        sectorValues.merge(sector, value, BigDecimal::add);
+        capValues.merge(category, value, BigDecimal::add);
+    }
+
+    /** Adds the transaction's realized gain and cash flow. */
+    synchronized void applyTransaction(PortfolioTransaction transaction) {
+        realizedGain = realizedGain.add(PortfolioValuationService.realizedGainOf(transaction));
+        XirrCalculator.CashFlow cashFlow = PortfolioValuationService.cashFlowOf(transaction);
+        if (cashFlow != null) {
+            cashFlows.add(cashFlow.date, cashFlow.amount);
+        }
+    }
+
+    /**
+     * Revalues the holdings of the symbol at the new price.
+     *
+     * @return false if the portfolio does not hold the symbol
+     */
+    synchronized boolean applyPrice(String symbol, BigDecimal price) {
+        List<Position> held = bySymbol.get(symbol);
+        if (held == null) {
+            return false;
+        }
+        for (Position position : held) {
+            BigDecimal delta = position.quantity.multiply(price.subtract(position.price));
+            position.price = price;
+            currentValue = currentValue.add(delta);
+            sectorValues.merge(position.sector, delta, BigDecimal::add);
+            capValues.merge(position.category, delta, BigDecimal::add);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the totals and holdings. XIRR is solved only if the value or cash
+     * flows moved since the last copy, starting from the last rate.
+     */
+    synchronized PortfolioSnapshot snapshot() {
+        LocalDate today = LocalDate.now();
+        boolean xirrCurrent = xirrValue != null && xirrValue.compareTo(currentValue) == 0 && today.equals(xirrDate)
+                && xirrFlowCount == cashFlows.size();
+        if (!xirrCurrent) {
+            double rate = PortfolioValuationService.solveXirr(cashFlows, currentValue, xirrRate);
+            if (Double.isFinite(rate)) {
+                xirrRate = rate;
+            }
+            xirr = PortfolioValuationService.xirrPercentage(rate);
+            xirrValue = currentValue;
+            xirrDate = today;
+            xirrFlowCount = cashFlows.size();
+        }
+
+        List<Portfolio> holdings = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            holdings.add(Portfolio.builder()
+                    .stockSymbol(position.symbol)
+                    .quantity(position.quantity.intValue())
+                    .purchasePrice(position.purchasePrice)
+                    .currentPrice(position.price)
+                    .build());
+        }
+        PortfolioAllocationResult allocation = PortfolioAllocationService.buildAllocationResult(currentValue,
+                sectorValues, capValues.get(MarketCapCategory.LARGE_CAP), capValues.get(MarketCapCategory.MID_CAP),
+                capValues.get(MarketCapCategory.SMALL_CAP), capValues.get(MarketCapCategory.UNCLASSIFIED));
+        PortfolioValuationResult valuation = PortfolioValuationService.buildResult(totalInvestment, currentValue,
+                currentValue.subtract(totalInvestment), realizedGain, xirr);
+        return new PortfolioSnapshot(holdings, valuation, allocation);
+    }
+}
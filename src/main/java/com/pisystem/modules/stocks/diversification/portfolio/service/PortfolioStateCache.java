@@ -0,0 +1,239 @@
+package com.pisystem.modules.stocks.diversification.portfolio.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
+import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
+import com.pisystem.modules.stocks.diversification.sectors.data.Sector;
+import com.pisystem.modules.stocks.diversification.sectors.repo.SectorRepository;
+import com.pisystem.modules.stocks.event.PortfolioChangedEvent;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import com.pisystem.modules.stocks.repo.StockRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user {@link PortfolioState}, so a portfolio summary does not reload
+ * holdings, stocks, sectors and the whole transaction history on every read.
+ *
+ * <p>A state is loaded on first read. Price ticks ({@link StockPricesUpdatedEvent}
+ * with closes) revalue the holdings of the symbol in every loaded state; a
+ * transaction recorded through {@code PortfolioTransactionService} is added to its
+ * owner's state. Any other portfolio write ({@link PortfolioChangedEvent} without a
+ * transaction) drops the owner's state, and so does a price event without closes
+ * for the holders of its symbols. States older than
+ * {@code stocks.portfolio.state-max-age-minutes} are rebuilt, which picks up
+ * sector and market cap changes no event reports.</p>
+ *
+ * <p>Loads read the database without holding the cache lock. Updates and the
+ * install of a loaded state take it, and a load that overlapped a price tick or a
+ * write is served but not kept, since it may have read the database before the
+ * change committed.</p>
+ *
+ * <p>Metrics: {@code stocks.portfolio.state.users} (gauge).</p>
+ */
+@Component
+@Slf4j
+public class PortfolioStateCache {
+
+    private final PortfolioRepository portfolioRepository;
+    private final StockRepository stockRepository;
+    private final SectorRepository sectorRepository;
+    private final PortfolioTransactionRepository transactionRepository;
+    private final long maxAgeMillis;
+
+    private final Map<Long, PortfolioState> states = new ConcurrentHashMap<>();
+    // Symbol -> users whose loaded state holds it
+    private final Map<String, Set<Long>> holders = new ConcurrentHashMap<>();
+    // Moves on every tick and invalidation; a load only installs if it did not move meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    public PortfolioStateCache(PortfolioRepository portfolioRepository,
+                               StockRepository stockRepository,
+                               SectorRepository sectorRepository,
+                               PortfolioTransactionRepository transactionRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${stocks.portfolio.state-max-age-minutes:60}") long maxAgeMinutes) {
+        this.portfolioRepository = portfolioRepository;
+        this.stockRepository = stockRepository;
+        this.sectorRepository = sectorRepository;
+        this.transactionRepository = transactionRepository;
+        this.maxAgeMillis = TimeUnit.MINUTES.toMillis(maxAgeMinutes);
+        Gauge.builder("stocks.portfolio.state.users", states, Map::size)
+                .description("Users with portfolio state held in memory")
+                .register(meterRegistry);
+    }
+
+    /** Current holdings and totals of the user's portfolio. */
+    PortfolioSnapshot snapshot(Long userId) {
+        PortfolioState state = states.get(userId);
+        if (state == null || isExpired(state)) {
+            state = load(userId);
+        }
+        return state.snapshot();
+    }
+
+    /** Drops the user's state; the next read reloads it. */
+    public synchronized void invalidate(Long userId) {
+        generation.incrementAndGet();
+        PortfolioState removed = states.remove(userId);
+        if (removed != null) {
+            unindex(userId, removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPortfolioChanged(PortfolioChangedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        PortfolioTransaction recorded = event.getRecorded();
+        if (recorded == null) {
+            invalidate(event.getUserId());
+            return;
+        }
+        generation.incrementAndGet();
+        PortfolioState state = states.get(event.getUserId());
+        if (state != null) {
+            state.applyTransaction(recorded);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockPricesUpdated(StockPricesUpdatedEvent event) {
+        if (event.getCloses().isEmpty()) {
+            // Prices moved but we were not told to what
+            for (String symbol : event.getSymbols()) {
+                Set<Long> users = holders.get(normalize(symbol));
+                if (users != null) {
+                    Set.copyOf(users).forEach(this::invalidate);
+                }
+            }
+            return;
+        }
+        generation.incrementAndGet();
+        event.getCloses().forEach((symbol, close) -> {
+            String key = normalize(symbol);
+            Set<Long> users = holders.get(key);
+            if (close == null || users == null) {
+                return;
+            }
+            for (Long userId : users) {
+                PortfolioState state = states.get(userId);
+                if (state != null) {
+                    state.applyPrice(key, close);
+                }
+            }
+        });
+    }
+
+    /** Frees states that would be rebuilt on their next read anyway. */
+    @Scheduled(fixedDelayString = "${stocks.portfolio.state-sweep-ms:600000}")
+    public synchronized void evictExpired() {
+        states.forEach((userId, state) -> {
+            if (isExpired(state) && states.remove(userId, state)) {
+                unindex(userId, state);
+            }
+        });
+    }
+
+    private PortfolioState load(Long userId) {
+        long loadGeneration = generation.get();
+        PortfolioState state = new PortfolioState(System.currentTimeMillis());
+
+        List<Portfolio> userPortfolios = portfolioRepository.findByUserId(userId);
+        if (!userPortfolios.isEmpty()) {
+            List<String> stockSymbols = userPortfolios.stream()
+                    .map(Portfolio::getStockSymbol)
+                    .distinct()
+                    .collect(Collectors.toList());
+
+            Map<String, Stock> stockMap = stockRepository.findBySymbolIn(stockSymbols).stream()
+                    .collect(Collectors.toMap(Stock::getSymbol, Function.identity()));
+
+            Set<Long> sectorIds = stockMap.values().stream()
+                    .map(Stock::getSectorId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            Map<Long, String> sectorNameMap = sectorRepository.findAllById(sectorIds).stream()
+                    .collect(Collectors.toMap(Sector::getId, Sector::getName));
+
+            for (Portfolio portfolio : userPortfolios) {
+                Stock stock = stockMap.get(portfolio.getStockSymbol().toUpperCase());
+                state.addHolding(normalize(portfolio.getStockSymbol()), portfolio.getQuantity(),
+                        portfolio.getPurchasePrice(), priceOf(stock, portfolio),
+                        PortfolioAllocationService.determineSectorName(stock, portfolio, sectorNameMap),
+                        PortfolioAllocationService.classifyMarketCap(stock, portfolio));
+            }
+
+            for (PortfolioTransaction transaction : transactionRepository
+                    .findByUserIdOrderByTransactionDateDesc(userId)) {
+                state.applyTransaction(transaction);
+            }
+        }
+
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                PortfolioState previous = states.put(userId, state);
+                if (previous != null) {
+                    unindex(userId, previous);
+                }
+                for (String symbol : state.symbols()) {
+                    holders.computeIfAbsent(symbol, s -> ConcurrentHashMap.newKeySet()).add(userId);
+                }
+            } else {
+                log.debug("Portfolio state of user {} changed while loading, serving it uncached", userId);
+            }
+        }
+        return state;
+    }
+
+    private void unindex(Long userId, PortfolioState state) {
+        for (String symbol : state.symbols()) {
+            holders.computeIfPresent(symbol, (s, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    private boolean isExpired(PortfolioState state) {
+        return System.currentTimeMillis() - state.getLoadedAtMillis() > maxAgeMillis;
+    }
+
+    /** Live price, then the holding's stored current price, then its purchase price. */
+    private static BigDecimal priceOf(Stock stock, Portfolio portfolio) {
+        if (stock != null && stock.getPrice() != null) {
+            return BigDecimal.valueOf(stock.getPrice());
+        }
+        if (portfolio.getCurrentPrice() != null) {
+            return portfolio.getCurrentPrice();
+        }
+        return portfolio.getPurchasePrice();
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -13,7 +13,6 @@ import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioValua
 
 import com.pisystem.modules.stocks.data.PortfolioTransaction;
 import com.pisystem.shared.utils.XirrCalculator;
-import java.util.ArrayList;
 
 @Service
 public class PortfolioValuationService {
@@ -45,20 +44,74 @@ public class PortfolioValuationService {
             unrealizedGain = unrealizedGain.add(curVal.subtract(investment));
         }
 
-        // Calculate Realized Gain from transactions
-        BigDecimal realizedGain = transactions.stream()
-                .filter(t -> t.getTransactionType() == PortfolioTransaction.TransactionType.SELL)
-                .map(t -> t.getRealizedGain() != null ? t.getRealizedGain() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Realized gain (sales and dividends) and cash flows for XIRR
+        BigDecimal realizedGain = BigDecimal.ZERO;
+        XirrCalculator.Series cashFlows = new XirrCalculator.Series(transactions.size());
+        for (PortfolioTransaction t : transactions) {
+            realizedGain = realizedGain.add(realizedGainOf(t));
+            XirrCalculator.CashFlow cashFlow = cashFlowOf(t);
+            if (cashFlow != null) {
+                cashFlows.add(cashFlow.date, cashFlow.amount);
+            }
+        }
+
+        double xirrRate = solveXirr(cashFlows, currentValue, XirrCalculator.DEFAULT_GUESS);
+        return buildResult(totalInvestment, currentValue, unrealizedGain, realizedGain, xirrPercentage(xirrRate));
+    }
 
-        // Include Dividends in realized gain? Usually yes.
-        BigDecimal totalDividends = transactions.stream()
-                .filter(t -> t.getTransactionType() == PortfolioTransaction.TransactionType.DIVIDEND)
-                .map(t -> t.getTotalAmount() != null ? t.getTotalAmount() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /** What a transaction adds to realized gain: the gain of a SELL, the amount of a DIVIDEND. */
+    static BigDecimal realizedGainOf(PortfolioTransaction t) {
+        if (t.getTransactionType() == PortfolioTransaction.TransactionType.SELL) {
+            return t.getRealizedGain() != null ? t.getRealizedGain() : BigDecimal.ZERO;
+        }
+        if (t.getTransactionType() == PortfolioTransaction.TransactionType.DIVIDEND) {
+            return t.getTotalAmount() != null ? t.getTotalAmount() : BigDecimal.ZERO;
+        }
+        return BigDecimal.ZERO;
+    }
 
-        realizedGain = realizedGain.add(totalDividends);
+    /**
+     * The transaction as an XIRR cash flow (Buy = negative, Sell/Dividend = positive),
+     * or null if it moves no cash.
+     */
+    static XirrCalculator.CashFlow cashFlowOf(PortfolioTransaction t) {
+        if (t.getTotalAmount() == null) {
+            return null;
+        }
+        double amount = 0.0;
+        if (t.getTransactionType() == PortfolioTransaction.TransactionType.BUY) {
+            amount = -t.getTotalAmount().doubleValue();
+        } else if (t.getTransactionType() == PortfolioTransaction.TransactionType.SELL ||
+                t.getTransactionType() == PortfolioTransaction.TransactionType.DIVIDEND) {
+            amount = t.getTotalAmount().doubleValue();
+        }
+        return amount != 0 ? new XirrCalculator.CashFlow(t.getTransactionDate(), amount) : null;
+    }
 
+    /**
+     * XIRR rate of the transaction cash flows plus the current value as a final
+     * positive cash flow (hypothetical exit today), solved from {@code guess}.
+     *
+     * @return {@code NaN} if there are no transaction flows or no rate solves them
+     */
+    static double solveXirr(XirrCalculator.Series cashFlows, BigDecimal currentValue, double guess) {
+        if (cashFlows.size() == 0) {
+            return Double.NaN;
+        }
+        double exitValue = currentValue.compareTo(BigDecimal.ZERO) > 0 ? currentValue.doubleValue() : 0.0;
+        return cashFlows.solveWithTerminal(java.time.LocalDate.now(), exitValue, guess);
+    }
+
+    /** The rate as a percentage with 2 decimals; 0 if it could not be calculated. */
+    static BigDecimal xirrPercentage(double rate) {
+        if (!Double.isFinite(rate)) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return BigDecimal.valueOf(rate * 100).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static PortfolioValuationResult buildResult(BigDecimal totalInvestment, BigDecimal currentValue,
+            BigDecimal unrealizedGain, BigDecimal realizedGain, BigDecimal xirr) {
         BigDecimal totalProfitLoss = unrealizedGain.add(realizedGain);
         BigDecimal totalProfitLossPercentage = BigDecimal.ZERO;
 
@@ -67,41 +120,6 @@ public class PortfolioValuationService {
                     .multiply(BigDecimal.valueOf(100));
         }
 
-        // Calculate XIRR
-        double xirrValue = 0.0;
-        if (!transactions.isEmpty()) {
-            List<XirrCalculator.CashFlow> cashFlows = new ArrayList<>();
-
-            // 1. All historical transactions (Buy = negative cash flow, Sell/Dividend =
-            // positive)
-            for (PortfolioTransaction t : transactions) {
-                double amount = 0.0;
-                if (t.getTransactionType() == PortfolioTransaction.TransactionType.BUY) {
-                    amount = -t.getTotalAmount().doubleValue();
-                } else if (t.getTransactionType() == PortfolioTransaction.TransactionType.SELL ||
-                        t.getTransactionType() == PortfolioTransaction.TransactionType.DIVIDEND) {
-                    amount = t.getTotalAmount().doubleValue();
-                }
-
-                if (amount != 0) {
-                    cashFlows.add(new XirrCalculator.CashFlow(t.getTransactionDate(), amount));
-                }
-            }
-
-            // 2. Add current value as a final positive cash flow (hypothetical exit today)
-            if (currentValue.compareTo(BigDecimal.ZERO) > 0) {
-                cashFlows.add(new XirrCalculator.CashFlow(java.time.LocalDate.now(), currentValue.doubleValue()));
-            }
-
-            if (cashFlows.size() >= 2) {
-                try {
-                    xirrValue = XirrCalculator.calculate(cashFlows);
-                } catch (Exception e) {
-                    // Fallback to 0 if calculation fails
-                }
-            }
-        }
-
         return PortfolioValuationResult.builder()
                 .totalInvestment(totalInvestment)
                 .currentValue(currentValue)
@@ -109,7 +127,7 @@ public class PortfolioValuationService {
                 .totalProfitLossPercentage(totalProfitLossPercentage)
                 .realizedGain(realizedGain)
                 .unrealizedGain(unrealizedGain)
-                .xirr(BigDecimal.valueOf(xirrValue).setScale(2, RoundingMode.HALF_UP))
+                .xirr(xirr)
                 .build();
     }
 
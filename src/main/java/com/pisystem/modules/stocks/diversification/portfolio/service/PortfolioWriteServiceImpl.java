@@ -3,11 +3,13 @@ package com.pisystem.modules.stocks.diversification.portfolio.service;
 import java.math.BigDecimal;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
 import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
+import com.pisystem.modules.stocks.event.PortfolioChangedEvent;
 import com.pisystem.modules.stocks.exception.SymbolNotFoundException;
 import com.pisystem.modules.stocks.repo.StockRepository;
 import com.pisystem.modules.stocks.service.StockReadService;
@@ -20,15 +22,17 @@ public class PortfolioWriteServiceImpl implements PortfolioWriteService {
     private final PortfolioRepository portfolioRepository;
     // private final StockRepository stockRepository;
     private final StockReadService stockReadService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
     private SubscriptionTierService subscriptionTierService;
 
     public PortfolioWriteServiceImpl(PortfolioRepository portfolioRepository, StockRepository stockRepository,
-            StockReadService stockReadService) {
+            StockReadService stockReadService, ApplicationEventPublisher eventPublisher) {
         this.portfolioRepository = portfolioRepository;
         // this.stockRepository = stockRepository;
         this.stockReadService = stockReadService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -59,7 +63,9 @@ public class PortfolioWriteServiceImpl implements PortfolioWriteService {
                 .currentPrice(portfolio.getCurrentPrice())
                 .profitAndLossPercentage(profitAndLossPercentage)
                 .build();
-        return this.portfolioRepository.save(portfolioBuilder);
+        Portfolio saved = this.portfolioRepository.save(portfolioBuilder);
+        eventPublisher.publishEvent(PortfolioChangedEvent.of(saved.getUserId()));
+        return saved;
     }
 
 }
@@ -1,5 +1,6 @@
 package com.pisystem.modules.stocks.dto;
 
+import com.pisystem.modules.stocks.data.CostBasisMethod;
 import com.pisystem.modules.stocks.data.PortfolioTransaction.TransactionType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
@@ -51,6 +52,9 @@ public class PortfolioTransactionRequest {
     @Schema(description = "Transaction date", example = "2024-01-15")
     private LocalDate transactionDate;
 
+    @Schema(description = "Cost basis method for a SELL; defaults to stocks.portfolio.cost-basis-method", example = "FIFO")
+    private CostBasisMethod costBasisMethod;
+
     @Size(max = 1000, message = "Notes must not exceed 1000 characters")
     @Schema(description = "Additional notes", example = "Bought at support level")
     private String notes;
@@ -0,0 +1,41 @@
+package com.pisystem.modules.stocks.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact WebSocket frame for a price that moved by at least one tick since the
+ * last frame for the symbol. Field names are abbreviated on the wire to keep
+ * frames small: {@code {"s":"TCS","p":3512.4,"c":12.1,"cp":0.35,"t":1767600000000}}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockPriceDelta {
+
+    @JsonProperty("s")
+    private String symbol;
+
+    @JsonProperty("p")
+    private BigDecimal price;
+
+    /** Change against the previous close; absent when there is no previous close. */
+    @JsonProperty("c")
+    private BigDecimal change;
+
+    @JsonProperty("cp")
+    private BigDecimal changePercent;
+
+    /** Epoch milliseconds. */
+    @JsonProperty("t")
+    private long timestamp;
+}
@@ -0,0 +1,32 @@
+package com.pisystem.modules.stocks.event;
+
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a write to a user's holdings or transactions. When the write
+ * only recorded a new transaction, {@code recorded} holds it; otherwise it is null
+ * and state derived from the user's portfolio has to be rebuilt.
+ */
+@Getter
+@ToString
+public class PortfolioChangedEvent {
+
+    private final Long userId;
+    private final PortfolioTransaction recorded;
+
+    private PortfolioChangedEvent(Long userId, PortfolioTransaction recorded) {
+        this.userId = userId;
+        this.recorded = recorded;
+    }
+
+    public static PortfolioChangedEvent recorded(PortfolioTransaction transaction) {
+        return new PortfolioChangedEvent(transaction.getUserId(), transaction);
+    }
+
+    public static PortfolioChangedEvent of(Long userId) {
+        return new PortfolioChangedEvent(userId, null);
+    }
+}
@@ -0,0 +1,35 @@
+package com.pisystem.modules.stocks.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a price refresh stored new prices for {@code symbols}. When the
+ * publisher has them, {@code closes} holds the stored price per symbol for
+ * {@code priceDate}; otherwise it is empty.
+ */
+@Getter
+@ToString
+public class StockPricesUpdatedEvent {
+
+    private final Set<String> symbols;
+    private final LocalDate priceDate;
+    private final Map<String, BigDecimal> closes;
+
+    public StockPricesUpdatedEvent(Set<String> symbols) {
+        this.symbols = Set.copyOf(symbols);
+        this.priceDate = null;
+        this.closes = Map.of();
+    }
+
+    public StockPricesUpdatedEvent(LocalDate priceDate, Map<String, BigDecimal> closes) {
+        this.symbols = Set.copyOf(closes.keySet());
+        this.priceDate = priceDate;
+        this.closes = Map.copyOf(closes);
+    }
+}
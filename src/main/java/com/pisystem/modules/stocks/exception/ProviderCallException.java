@@ -0,0 +1,16 @@
+package com.pisystem.modules.stocks.exception;
+
+/**
+ * A call to a stock data provider failed at the HTTP or payload level
+ * (error status, empty or unreadable body, timeout).
+ */
+public class ProviderCallException extends RuntimeException {
+
+    public ProviderCallException(String message) {
+        super(message);
+    }
+
+    public ProviderCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.pisystem.modules.stocks.exception;
+
+import org.springframework.http.HttpStatus;
+
+import com.pisystem.shared.exception.BusinessException;
+
+public class QuoteUnavailableException extends BusinessException {
+
+    public QuoteUnavailableException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message, "QUOTE_UNAVAILABLE");
+    }
+
+    public QuoteUnavailableException(String message, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message, "QUOTE_UNAVAILABLE", cause);
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.pisystem.modules.stocks.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Daily closes of one symbol: primitive arrays in memory, mirrored to a
+ * memory-mapped file.
+ *
+ * <p>File layout: a 16-byte header (magic, format version, record count) followed
+ * by 16-byte records (epoch day as a long, close as a double) in day order. A
+ * record is written before the count is raised, so a crash mid-append loses at
+ * most that record. The file grows by doubling its capacity.</p>
+ */
+final class MappedPriceSeries implements Closeable {
+
+    static final int MAGIC = 0x50584831; // "PXH1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private long[] epochDays;
+    private double[] closes;
+    private int size;
+    private volatile boolean caughtUp;
+
+    private MappedPriceSeries(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    static MappedPriceSeries open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedPriceSeries series = new MappedPriceSeries(file, channel);
+        try {
+            series.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return series;
+    }
+
+    private void load() throws IOException {
+        long length = channel.size();
+        if (length < HEADER_BYTES) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(COUNT_OFFSET, 0);
+            epochDays = new long[INITIAL_CAPACITY];
+            closes = new double[INITIAL_CAPACITY];
+            return;
+        }
+
+        map((int) ((length - HEADER_BYTES) / RECORD_BYTES));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a price history file: " + file);
+        }
+        long count = buffer.getLong(COUNT_OFFSET);
+        if (count < 0 || count > capacity) {
+            throw new IOException("Corrupt record count " + count + " in " + file);
+        }
+        size = (int) count;
+        int arrayLength = Math.max(INITIAL_CAPACITY, size + size / 2);
+        epochDays = new long[arrayLength];
+        closes = new double[arrayLength];
+        for (int i = 0; i < size; i++) {
+            int offset = offset(i);
+            epochDays[i] = buffer.getLong(offset);
+            closes[i] = buffer.getDouble(offset + 8);
+        }
+    }
+
+    /**
+     * Appends a close. A close for the last stored day replaces it, since the
+     * current day's close keeps moving until the market shuts; a close for an
+     * earlier day is ignored.
+     *
+     * @return false if the close was ignored
+     */
+    synchronized boolean append(long epochDay, double close) throws IOException {
+        if (!isPrice(close)) {
+            return false;
+        }
+        if (size > 0) {
+            long lastDay = epochDays[size - 1];
+            if (epochDay < lastDay) {
+                return false;
+            }
+            if (epochDay == lastDay) {
+                closes[size - 1] = close;
+                buffer.putDouble(offset(size - 1) + 8, close);
+                return true;
+            }
+        }
+        if (size == epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, size * 2);
+            closes = Arrays.copyOf(closes, size * 2);
+        }
+        if (size == capacity) {
+            map(capacity * 2);
+        }
+        int offset = offset(size);
+        buffer.putLong(offset, epochDay);
+        buffer.putDouble(offset + 8, close);
+        epochDays[size] = epochDay;
+        closes[size] = close;
+        size++;
+        buffer.putLong(COUNT_OFFSET, size);
+        return true;
+    }
+
+    /**
+     * Merges closes, in day order, into the series: days it lacks are inserted and
+     * days it has take the given close. The tail from the first given day is
+     * rewritten; the count is lowered before that, so a crash part way leaves a
+     * shorter series, never a mixed one.
+     */
+    synchronized void merge(long[] days, double[] values) throws IOException {
+        if (days.length == 0) {
+            return;
+        }
+        int from = lowerBound(days[0]);
+        long[] mergedDays = new long[size - from + days.length];
+        double[] mergedCloses = new double[mergedDays.length];
+        int i = from;
+        int j = 0;
+        int n = 0;
+        while (i < size || j < days.length) {
+            if (j < days.length && !isPrice(values[j])) {
+                j++;
+            } else if (j == days.length || (i < size && epochDays[i] < days[j])) {
+                mergedDays[n] = epochDays[i];
+                mergedCloses[n++] = closes[i++];
+            } else {
+                if (i < size && epochDays[i] == days[j]) {
+                    i++;
+                }
+                mergedDays[n] = days[j];
+                mergedCloses[n++] = values[j++];
+            }
+        }
+        size = from;
+        buffer.putLong(COUNT_OFFSET, size);
+        for (int k = 0; k < n; k++) {
+            append(mergedDays[k], mergedCloses[k]);
+        }
+    }
+
+    /** Closes from {@code fromEpochDay} to {@code toEpochDay}, both inclusive. */
+    synchronized PriceRange range(long fromEpochDay, long toEpochDay) {
+        int from = lowerBound(fromEpochDay);
+        int to = lowerBound(toEpochDay == Long.MAX_VALUE ? toEpochDay : toEpochDay + 1);
+        return PriceRange.copyOf(epochDays, closes, from, to);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** Last stored day, or null when the series is empty. */
+    synchronized Long lastEpochDay() {
+        return size == 0 ? null : epochDays[size - 1];
+    }
+
+    boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    void markCaughtUp() {
+        caughtUp = true;
+    }
+
+    /** Makes the next use catch up with the database again. */
+    void markStale() {
+        caughtUp = false;
+    }
+
+    synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private static boolean isPrice(double close) {
+        return close > 0 && !Double.isInfinite(close);
+    }
+
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void map(int records) throws IOException {
+        capacity = Math.max(INITIAL_CAPACITY, records);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,214 @@
+package com.pisystem.modules.stocks.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pisystem.modules.stocks.data.StockPrice;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.repo.StockPriceRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Daily close history per symbol for analytics (returns, drawdown, volatility),
+ * held as primitive arrays so a range scan does not load {@code stock_prices}
+ * entities row by row.
+ *
+ * <p>Each symbol lives in its own memory-mapped file under {@code stocks.history.dir}
+ * and survives restarts. A symbol is opened on first use and then caught up from
+ * {@code stock_prices}: its last {@code stocks.history.resync-days} stored days and
+ * any newer ones are re-read and merged in, which fills days a writer stored
+ * without an event. After that it follows {@link StockPricesUpdatedEvent}s,
+ * and every {@code stocks.history.resync-interval-ms} each open symbol catches up
+ * again on its next use. Appends go to the end: a close for the last stored day
+ * replaces it, and an event for an earlier day merges the rows from that day on.</p>
+ */
+@Component
+@Slf4j
+public class PriceHistoryStore {
+
+    // Catch-up for a symbol with no file yet reads all of its rows
+    private static final LocalDate HISTORY_START = LocalDate.of(1900, 1, 1);
+
+    private final StockPriceRepository stockPriceRepository;
+    private final Path directory;
+    private final int resyncDays;
+    private final Map<String, MappedPriceSeries> series = new ConcurrentHashMap<>();
+
+    public PriceHistoryStore(StockPriceRepository stockPriceRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${stocks.history.dir:./data/price-history}") String directory,
+                             @Value("${stocks.history.resync-days:7}") int resyncDays) {
+        this.stockPriceRepository = stockPriceRepository;
+        this.directory = Paths.get(directory);
+        this.resyncDays = Math.max(0, resyncDays);
+        Gauge.builder("stocks.history.series", series, Map::size)
+                .description("Symbols with price history open in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends a daily close for the symbol.
+     *
+     * @return false if the close was for a day before the last stored one, or not a price
+     */
+    public boolean append(String symbol, LocalDate day, double close) {
+        try {
+            return seriesOf(symbol).append(day.toEpochDay(), close);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append price history for " + symbol, e);
+        }
+    }
+
+    /** Closes for the symbol from {@code from} to {@code to}, both inclusive. */
+    public PriceRange range(String symbol, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return PriceRange.empty();
+        }
+        return seriesOf(symbol).range(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /** Rolling statistics of daily log returns for the symbol between the dates. */
+    public RollingStats rollingStats(String symbol, LocalDate from, LocalDate to, int window) {
+        return range(symbol, from, to).rollingStats(window);
+    }
+
+    @EventListener
+    public void onStockPricesUpdated(StockPricesUpdatedEvent event) {
+        if (event.getPriceDate() == null) {
+            return;
+        }
+        event.getCloses().forEach((symbol, close) -> {
+            try {
+                if (!append(symbol, event.getPriceDate(), close.doubleValue())) {
+                    backfill(symbol, event.getPriceDate());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not record price history for {}: {}", symbol, e.getMessage());
+            }
+        });
+    }
+
+    /** Has every open symbol catch up with the database again on its next use. */
+    @Scheduled(fixedDelayString = "${stocks.history.resync-interval-ms:3600000}",
+            initialDelayString = "${stocks.history.resync-interval-ms:3600000}")
+    public void expireCatchUp() {
+        series.values().forEach(MappedPriceSeries::markStale);
+    }
+
+    @PreDestroy
+    public void close() {
+        series.forEach((symbol, history) -> {
+            try {
+                history.close();
+            } catch (IOException e) {
+                log.warn("Could not close price history for {}: {}", symbol, e.getMessage());
+            }
+        });
+        series.clear();
+    }
+
+    private MappedPriceSeries seriesOf(String symbol) {
+        String key = normalize(symbol);
+        MappedPriceSeries history = series.computeIfAbsent(key, this::open);
+        if (!history.isCaughtUp()) {
+            synchronized (history) {
+                if (!history.isCaughtUp()) {
+                    Long lastDay = history.lastEpochDay();
+                    catchUp(key, history, lastDay == null ? HISTORY_START
+                            : LocalDate.ofEpochDay(lastDay).minusDays(resyncDays));
+                }
+            }
+        }
+        return history;
+    }
+
+    private MappedPriceSeries open(String symbol) {
+        try {
+            Files.createDirectories(directory);
+            return MappedPriceSeries.open(directory.resolve(fileName(symbol)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open price history for " + symbol, e);
+        }
+    }
+
+    // A close for a day before the last stored one: merge the rows from that day on
+    private void backfill(String symbol, LocalDate day) {
+        String key = normalize(symbol);
+        MappedPriceSeries history = seriesOf(key);
+        Long lastDay = history.lastEpochDay();
+        if (lastDay != null && day.toEpochDay() < lastDay) {
+            synchronized (history) {
+                catchUp(key, history, day);
+            }
+        }
+    }
+
+    /**
+     * Merges the rows of {@code stock_prices} from {@code from} on into the stored
+     * closes. Retried on next use if the database fails.
+     */
+    private void catchUp(String symbol, MappedPriceSeries history, LocalDate from) {
+        try {
+            List<StockPrice> rows = stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(symbol,
+                    from.minusDays(1));
+            long[] days = new long[rows.size()];
+            double[] closes = new double[rows.size()];
+            int count = 0;
+            for (StockPrice row : rows) {
+                BigDecimal close = row.getClosePrice();
+                if (close != null) {
+                    days[count] = row.getPriceDate().toEpochDay();
+                    closes[count++] = close.doubleValue();
+                }
+            }
+            history.merge(Arrays.copyOf(days, count), Arrays.copyOf(closes, count));
+            history.markCaughtUp();
+            log.debug("Price history for {} caught up with {} rows, {} days stored", symbol, rows.size(),
+                    history.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append price history for " + symbol, e);
+        } catch (RuntimeException e) {
+            log.warn("Could not catch up price history for {} from the database: {}", symbol, e.getMessage());
+        }
+    }
+
+    private static String normalize(String symbol) {
+        String key = symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+        return key;
+    }
+
+    /** File name for the symbol; characters other than letters, digits, '.' and '-' are hex-escaped. */
+    static String fileName(String symbol) {
+        StringBuilder name = new StringBuilder(symbol.length() + 4);
+        for (char c : symbol.toCharArray()) {
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-') {
+                name.append(c);
+            } else {
+                name.append('_').append(String.format("%04X", (int) c));
+            }
+        }
+        return name.append(".pxh").toString();
+    }
+}
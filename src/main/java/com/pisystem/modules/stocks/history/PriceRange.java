@@ -0,0 +1,133 @@
+package com.pisystem.modules.stocks.history;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily closes of one symbol over a date range, oldest first, as primitive arrays.
+ * A copy: later appends to the store do not change it.
+ */
+public final class PriceRange {
+
+    private static final PriceRange EMPTY = new PriceRange(new long[0], new double[0]);
+
+    private final long[] epochDays;
+    private final double[] closes;
+
+    PriceRange(long[] epochDays, double[] closes) {
+        this.epochDays = epochDays;
+        this.closes = closes;
+    }
+
+    static PriceRange empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    public boolean isEmpty() {
+        return epochDays.length == 0;
+    }
+
+    public long epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    public double close(int index) {
+        return closes[index];
+    }
+
+    public long[] epochDays() {
+        return epochDays.clone();
+    }
+
+    public double[] closes() {
+        return closes.clone();
+    }
+
+    /**
+     * Log return from each close to the next; element {@code i} is the return
+     * ending at {@code date(i + 1)}.
+     */
+    public double[] logReturns() {
+        if (closes.length < 2) {
+            return new double[0];
+        }
+        double[] returns = new double[closes.length - 1];
+        for (int i = 1; i < closes.length; i++) {
+            returns[i - 1] = Math.log(closes[i] / closes[i - 1]);
+        }
+        return returns;
+    }
+
+    /**
+     * Largest peak-to-trough fall over the range, as a fraction of the peak
+     * (0.25 is a 25% drawdown); 0 when prices never fell.
+     */
+    public double maxDrawdown() {
+        double peak = Double.NEGATIVE_INFINITY;
+        double worst = 0;
+        for (double close : closes) {
+            peak = Math.max(peak, close);
+            worst = Math.max(worst, (peak - close) / peak);
+        }
+        return worst;
+    }
+
+    /**
+     * Mean and standard deviation of daily log returns over each window of
+     * {@code window} consecutive returns.
+     */
+    public RollingStats rollingStats(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Rolling window must span at least 2 returns, got " + window);
+        }
+        double[] returns = logReturns();
+        int count = Math.max(0, returns.length - window + 1);
+        long[] endDays = new long[count];
+        double[] means = new double[count];
+        double[] stdDevs = new double[count];
+        if (count == 0) {
+            return new RollingStats(window, endDays, means, stdDevs);
+        }
+
+        // Sums of values shifted by the first return keep the variance numerically stable
+        double shift = returns[0];
+        double sum = 0;
+        double sumSquares = 0;
+        for (int i = 0; i < returns.length; i++) {
+            double value = returns[i] - shift;
+            sum += value;
+            sumSquares += value * value;
+            if (i >= window) {
+                double dropped = returns[i - window] - shift;
+                sum -= dropped;
+                sumSquares -= dropped * dropped;
+            }
+            if (i >= window - 1) {
+                int out = i - window + 1;
+                endDays[out] = epochDays[i + 1];
+                means[out] = shift + sum / window;
+                stdDevs[out] = Math.sqrt(Math.max(0, (sumSquares - sum * sum / window) / (window - 1)));
+            }
+        }
+        return new RollingStats(window, endDays, means, stdDevs);
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "PriceRange[]"
+                : "PriceRange[" + date(0) + ".." + date(size() - 1) + ", " + size() + " closes]";
+    }
+
+    static PriceRange copyOf(long[] epochDays, double[] closes, int from, int to) {
+        return from >= to ? EMPTY
+                : new PriceRange(Arrays.copyOfRange(epochDays, from, to), Arrays.copyOfRange(closes, from, to));
+    }
+}
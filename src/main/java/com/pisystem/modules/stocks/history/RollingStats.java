@@ -0,0 +1,49 @@
+package com.pisystem.modules.stocks.history;
+
+import java.time.LocalDate;
+
+/**
+ * Rolling mean and sample standard deviation of daily log returns; entry {@code i}
+ * covers the {@code window} returns ending at {@code date(i)}.
+ */
+public final class RollingStats {
+
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+
+    private final int window;
+    private final long[] endEpochDays;
+    private final double[] means;
+    private final double[] stdDevs;
+
+    RollingStats(int window, long[] endEpochDays, double[] means, double[] stdDevs) {
+        this.window = window;
+        this.endEpochDays = endEpochDays;
+        this.means = means;
+        this.stdDevs = stdDevs;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    public int size() {
+        return endEpochDays.length;
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(endEpochDays[index]);
+    }
+
+    public double mean(int index) {
+        return means[index];
+    }
+
+    public double stdDev(int index) {
+        return stdDevs[index];
+    }
+
+    /** Standard deviation scaled to a year of trading days. */
+    public double annualizedVolatility(int index) {
+        return stdDevs[index] * Math.sqrt(TRADING_DAYS_PER_YEAR);
+    }
+}
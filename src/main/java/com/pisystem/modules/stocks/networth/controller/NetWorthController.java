@@ -1,8 +1,13 @@
 package com.pisystem.modules.stocks.networth.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.pisystem.shared.features.FeatureFlag;
@@ -10,7 +15,9 @@ import com.pisystem.shared.features.RequiresFeature;
 import com.pisystem.shared.security.AuthenticationHelper;
 import com.pisystem.modules.stocks.networth.data.AssetLiabilityTemplateDTO;
 import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthHistoryPointDTO;
 import com.pisystem.modules.stocks.networth.service.NetWorthReadService;
+import com.pisystem.modules.stocks.networth.service.NetWorthSnapshotService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,20 +30,37 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class NetWorthController {
 
     private final NetWorthReadService netWorthReadService;
+    private final NetWorthSnapshotService netWorthSnapshotService;
     private final AuthenticationHelper authenticationHelper;
 
-    public NetWorthController(NetWorthReadService netWorthReadService, AuthenticationHelper authenticationHelper) {
+    public NetWorthController(NetWorthReadService netWorthReadService,
+            NetWorthSnapshotService netWorthSnapshotService, AuthenticationHelper authenticationHelper) {
         this.netWorthReadService = netWorthReadService;
+        this.netWorthSnapshotService = netWorthSnapshotService;
         this.authenticationHelper = authenticationHelper;
     }
 
     @GetMapping("/{userId}")
-    @Operation(summary = "Get net worth", description = "Calculates total assets, liabilities, and net worth for the authenticated user.")
+    @Operation(summary = "Get net worth", description = "Returns total assets, liabilities, and net worth for the authenticated user from the materialized snapshot. "
+            + "computedAt tells how fresh it is; refresh=true recomputes it first.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved net worth")
     @ApiResponse(responseCode = "403", description = "Access denied - can only view own data")
-    public NetWorthDTO getNetWorth(@PathVariable("userId") Long userId) {
+    public NetWorthDTO getNetWorth(@PathVariable("userId") Long userId,
+            @RequestParam(name = "refresh", defaultValue = "false") boolean refresh) {
+        authenticationHelper.validateUserAccess(userId);
+        return refresh ? netWorthSnapshotService.rebuild(userId) : netWorthSnapshotService.getNetWorth(userId);
+    }
+
+    @GetMapping("/{userId}/history")
+    @Operation(summary = "Get daily net worth", description = "Returns one closing net worth point per day between from and to (default: the last 90 days).")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved net worth history")
+    @ApiResponse(responseCode = "400", description = "Invalid date range")
+    @ApiResponse(responseCode = "403", description = "Access denied - can only view own data")
+    public List<NetWorthHistoryPointDTO> getNetWorthHistory(@PathVariable("userId") Long userId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         authenticationHelper.validateUserAccess(userId);
-        return netWorthReadService.getNetWorth(userId);
+        return netWorthSnapshotService.getDailySeries(userId, from, to);
     }
 
     @GetMapping("/template")
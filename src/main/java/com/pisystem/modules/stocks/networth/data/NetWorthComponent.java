@@ -0,0 +1,35 @@
+package com.pisystem.modules.stocks.networth.data;
+
+/**
+ * Independently loadable parts of a user's net worth.
+ *
+ * <p>Each component is one source query (a service or repository call) and
+ * contributes either to the asset side or the liability side. Tax is a
+ * liability but is reported separately and only counted in the after-tax
+ * figures.</p>
+ */
+public enum NetWorthComponent {
+    PORTFOLIO(Side.ASSET),
+    SAVINGS(Side.ASSET),
+    FIXED_DEPOSITS(Side.ASSET),
+    RECURRING_DEPOSITS(Side.ASSET),
+    USER_ASSETS(Side.ASSET),
+    LENDINGS(Side.ASSET),
+    USER_LIABILITIES(Side.LIABILITY),
+    LOANS(Side.LIABILITY),
+    TAX(Side.TAX);
+
+    public enum Side {
+        ASSET, LIABILITY, TAX
+    }
+
+    private final Side side;
+
+    NetWorthComponent(Side side) {
+        this.side = side;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+}
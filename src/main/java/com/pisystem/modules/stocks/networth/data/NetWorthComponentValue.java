@@ -0,0 +1,69 @@
+package com.pisystem.modules.stocks.networth.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.pisystem.shared.data.EntityType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The value one {@link NetWorthComponent} contributes to a user's net worth:
+ * its headline amount and how that amount splits across entity types.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetWorthComponentValue {
+
+    /** Outcome of loading a component. Anything but {@code OK} contributes zero. */
+    public enum Status {
+        OK, FAILED, TIMED_OUT
+    }
+
+    private NetWorthComponent component;
+    private BigDecimal amount;
+    private Map<EntityType, BigDecimal> breakdown;
+    private LocalDateTime refreshedAt;
+    private Status status;
+    /** Why the component is not {@code OK}; null otherwise. */
+    private String error;
+
+    public static NetWorthComponentValue of(NetWorthComponent component, Map<EntityType, BigDecimal> breakdown) {
+        BigDecimal amount = breakdown.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new NetWorthComponentValue(component, amount, breakdown, LocalDateTime.now(), Status.OK, null);
+    }
+
+    public static NetWorthComponentValue of(NetWorthComponent component, EntityType type, BigDecimal amount) {
+        Map<EntityType, BigDecimal> breakdown = new EnumMap<>(EntityType.class);
+        breakdown.put(type, amount);
+        return new NetWorthComponentValue(component, amount, breakdown, LocalDateTime.now(), Status.OK, null);
+    }
+
+    /** Tax and other components that are reported as a single figure. */
+    public static NetWorthComponentValue amountOnly(NetWorthComponent component, BigDecimal amount) {
+        return new NetWorthComponentValue(component, amount, new EnumMap<>(EntityType.class), LocalDateTime.now(),
+                Status.OK, null);
+    }
+
+    public static NetWorthComponentValue zero(NetWorthComponent component) {
+        return amountOnly(component, BigDecimal.ZERO);
+    }
+
+    /** Marks this (zero) value as a placeholder for a component that could not be loaded. */
+    public NetWorthComponentValue unavailable(Status status, String error) {
+        this.status = status;
+        this.error = error;
+        return this;
+    }
+
+    public boolean isOk() {
+        return status == null || status == Status.OK;
+    }
+}
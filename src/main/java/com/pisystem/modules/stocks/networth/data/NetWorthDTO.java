@@ -2,6 +2,7 @@ package com.pisystem.modules.stocks.networth.data;
 
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import com.pisystem.shared.data.EntityType;
@@ -22,4 +23,12 @@ public class NetWorthDTO {
     private BigDecimal netWorthAfterTax;
     private Map<EntityType, BigDecimal> assetBreakdown;
     private Map<EntityType, BigDecimal> liabilityBreakdown;
+    /** When these figures were computed; null for a live computation. */
+    private LocalDateTime computedAt;
+    /** True while a refresh of a materialized snapshot is pending. */
+    private Boolean stale;
+    /** Load outcome of each component; anything but OK was counted as zero. */
+    private Map<NetWorthComponent, NetWorthComponentValue.Status> componentStatus;
+    /** True when at least one component could not be loaded. */
+    private Boolean partial;
 }
@@ -0,0 +1,24 @@
+package com.pisystem.modules.stocks.networth.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Closing net worth for one day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetWorthHistoryPointDTO {
+    private LocalDate date;
+    private BigDecimal totalAssets;
+    private BigDecimal totalLiabilities;
+    private BigDecimal netWorth;
+    private BigDecimal netWorthAfterTax;
+}
@@ -0,0 +1,32 @@
+package com.pisystem.modules.stocks.networth.event;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when data behind one or more net worth components of a user changes
+ * (a loan payment, a new FD, a portfolio trade, ...).
+ */
+@Getter
+@ToString
+public class NetWorthChangedEvent {
+
+    private final Long userId;
+    private final Set<NetWorthComponent> components;
+
+    public NetWorthChangedEvent(Long userId, Set<NetWorthComponent> components) {
+        this.userId = userId;
+        this.components = components.isEmpty()
+                ? EnumSet.noneOf(NetWorthComponent.class)
+                : EnumSet.copyOf(components);
+    }
+
+    public static NetWorthChangedEvent of(Long userId, NetWorthComponent component) {
+        return new NetWorthChangedEvent(userId, EnumSet.of(component));
+    }
+}
@@ -0,0 +1,96 @@
+package com.pisystem.modules.stocks.networth.event;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.pisystem.modules.lending.data.LendingRecord;
+import com.pisystem.modules.loans.data.Loan;
+import com.pisystem.modules.savings.data.FixedDeposit;
+import com.pisystem.modules.savings.data.RecurringDeposit;
+import com.pisystem.modules.savings.data.SavingsAccount;
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.UserAsset;
+import com.pisystem.modules.stocks.networth.data.UserLiability;
+import com.pisystem.modules.tax.data.Tax;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JPA entity listener that turns writes to the entities behind a net worth
+ * component into {@link NetWorthChangedEvent}s.
+ *
+ * <p>Registered with {@code @EntityListeners} on each source entity, so every
+ * write path (services, schedulers, imports) is covered without the services
+ * having to remember to publish. Hibernate obtains the listener from the Spring
+ * context, which is how the publisher gets injected.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class NetWorthEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        NetWorthComponent component = componentOf(entity);
+        Long userId = userIdOf(entity);
+        if (component != null && userId != null) {
+            eventPublisher.publishEvent(NetWorthChangedEvent.of(userId, component));
+        }
+    }
+
+    static NetWorthComponent componentOf(Object entity) {
+        if (entity instanceof Portfolio || entity instanceof PortfolioTransaction) {
+            return NetWorthComponent.PORTFOLIO;
+        } else if (entity instanceof SavingsAccount) {
+            return NetWorthComponent.SAVINGS;
+        } else if (entity instanceof FixedDeposit) {
+            return NetWorthComponent.FIXED_DEPOSITS;
+        } else if (entity instanceof RecurringDeposit) {
+            return NetWorthComponent.RECURRING_DEPOSITS;
+        } else if (entity instanceof UserAsset) {
+            return NetWorthComponent.USER_ASSETS;
+        } else if (entity instanceof LendingRecord) {
+            return NetWorthComponent.LENDINGS;
+        } else if (entity instanceof UserLiability) {
+            return NetWorthComponent.USER_LIABILITIES;
+        } else if (entity instanceof Loan) {
+            return NetWorthComponent.LOANS;
+        } else if (entity instanceof Tax) {
+            return NetWorthComponent.TAX;
+        }
+        return null;
+    }
+
+    private static Long userIdOf(Object entity) {
+        if (entity instanceof Portfolio portfolio) {
+            return portfolio.getUserId();
+        } else if (entity instanceof PortfolioTransaction transaction) {
+            return transaction.getUserId();
+        } else if (entity instanceof SavingsAccount account) {
+            return account.getUserId();
+        } else if (entity instanceof FixedDeposit fd) {
+            return fd.getUserId();
+        } else if (entity instanceof RecurringDeposit rd) {
+            return rd.getUserId();
+        } else if (entity instanceof UserAsset asset) {
+            return asset.getUserId();
+        } else if (entity instanceof LendingRecord lending) {
+            return lending.getUserId();
+        } else if (entity instanceof UserLiability liability) {
+            return liability.getUserId();
+        } else if (entity instanceof Loan loan) {
+            return loan.getUserId();
+        } else if (entity instanceof Tax tax) {
+            return tax.getUserId();
+        }
+        return null;
+    }
+}
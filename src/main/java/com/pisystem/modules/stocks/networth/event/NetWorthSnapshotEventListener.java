@@ -0,0 +1,42 @@
+package com.pisystem.modules.stocks.networth.event;
+
+import java.util.EnumSet;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.service.NetWorthSnapshotService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Routes change events to the net worth snapshot once the originating
+ * transaction has committed, so a refresh never reads uncommitted or
+ * rolled-back data.
+ */
+@Component
+@RequiredArgsConstructor
+public class NetWorthSnapshotEventListener {
+
+    private final NetWorthSnapshotService snapshotService;
+    private final PortfolioRepository portfolioRepository;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNetWorthChanged(NetWorthChangedEvent event) {
+        snapshotService.markDirty(event.getUserId(), event.getComponents());
+    }
+
+    /** A price tick only moves the portfolio component of users holding one of the symbols. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockPricesUpdated(StockPricesUpdatedEvent event) {
+        if (event.getSymbols().isEmpty()) {
+            return;
+        }
+        for (Long userId : portfolioRepository.findUserIdsHoldingSymbols(event.getSymbols())) {
+            snapshotService.markDirty(userId, EnumSet.of(NetWorthComponent.PORTFOLIO));
+        }
+    }
+}
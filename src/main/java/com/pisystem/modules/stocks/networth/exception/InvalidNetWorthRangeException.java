@@ -0,0 +1,15 @@
+package com.pisystem.modules.stocks.networth.exception;
+
+import org.springframework.http.HttpStatus;
+
+import com.pisystem.shared.exception.BusinessException;
+
+/**
+ * Thrown when a net worth history request has an empty or oversized date range.
+ */
+public class InvalidNetWorthRangeException extends BusinessException {
+
+    public InvalidNetWorthRangeException(String message) {
+        super(HttpStatus.BAD_REQUEST, message, "INVALID_NET_WORTH_RANGE");
+    }
+}
@@ -0,0 +1,201 @@
+package com.pisystem.modules.stocks.networth.repo;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
+import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthHistoryPointDTO;
+import com.pisystem.shared.data.EntityType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC access to the materialized net worth tables ({@code net_worth_snapshot},
+ * {@code net_worth_snapshot_component} and {@code net_worth_daily}).
+ *
+ * <p>All writes are MySQL upserts keyed by user (and component / day), so a
+ * refresh can be replayed safely.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class NetWorthSnapshotStore {
+
+    private static final TypeReference<Map<EntityType, BigDecimal>> BREAKDOWN_TYPE = new TypeReference<>() {
+    };
+
+    private static final String UPSERT_COMPONENT = "INSERT INTO net_worth_snapshot_component "
+            + "(user_id, component, amount, breakdown, refreshed_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE amount = VALUES(amount), breakdown = VALUES(breakdown), "
+            + "refreshed_at = VALUES(refreshed_at)";
+
+    private static final String UPSERT_SNAPSHOT = "INSERT INTO net_worth_snapshot "
+            + "(user_id, total_assets, total_liabilities, net_worth, net_worth_after_tax, portfolio_value, "
+            + "savings_value, outstanding_loans, outstanding_tax_liability, outstanding_lendings, "
+            + "asset_breakdown, liability_breakdown, computed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE total_assets = VALUES(total_assets), "
+            + "total_liabilities = VALUES(total_liabilities), net_worth = VALUES(net_worth), "
+            + "net_worth_after_tax = VALUES(net_worth_after_tax), portfolio_value = VALUES(portfolio_value), "
+            + "savings_value = VALUES(savings_value), outstanding_loans = VALUES(outstanding_loans), "
+            + "outstanding_tax_liability = VALUES(outstanding_tax_liability), "
+            + "outstanding_lendings = VALUES(outstanding_lendings), asset_breakdown = VALUES(asset_breakdown), "
+            + "liability_breakdown = VALUES(liability_breakdown), computed_at = VALUES(computed_at)";
+
+    private static final String UPSERT_DAILY = "INSERT INTO net_worth_daily "
+            + "(user_id, snapshot_date, total_assets, total_liabilities, net_worth, net_worth_after_tax, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE total_assets = VALUES(total_assets), "
+            + "total_liabilities = VALUES(total_liabilities), net_worth = VALUES(net_worth), "
+            + "net_worth_after_tax = VALUES(net_worth_after_tax), updated_at = VALUES(updated_at)";
+
+    private static final String DAILY_COLUMNS =
+            "snapshot_date, total_assets, total_liabilities, net_worth, net_worth_after_tax";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public Optional<NetWorthDTO> findSnapshot(Long userId) {
+        List<NetWorthDTO> rows = jdbcTemplate.query(
+                "SELECT * FROM net_worth_snapshot WHERE user_id = ?", (rs, i) -> mapSnapshot(rs), userId);
+        return rows.stream().findFirst();
+    }
+
+    public Map<NetWorthComponent, NetWorthComponentValue> findComponents(Long userId) {
+        Map<NetWorthComponent, NetWorthComponentValue> components = new EnumMap<>(NetWorthComponent.class);
+        jdbcTemplate.query("SELECT component, amount, breakdown, refreshed_at FROM net_worth_snapshot_component "
+                + "WHERE user_id = ?", rs -> {
+                    NetWorthComponent component;
+                    try {
+                        component = NetWorthComponent.valueOf(rs.getString("component"));
+                    } catch (IllegalArgumentException e) {
+                        // Component retired since the row was written
+                        return;
+                    }
+                    components.put(component, NetWorthComponentValue.builder()
+                            .component(component)
+                            .amount(rs.getBigDecimal("amount"))
+                            .breakdown(readBreakdown(rs.getString("breakdown")))
+                            .refreshedAt(toLocalDateTime(rs.getTimestamp("refreshed_at")))
+                            .build());
+                }, userId);
+        return components;
+    }
+
+    /**
+     * Stores refreshed component values and the net worth assembled from them, and
+     * records it as the closing value for {@code day}.
+     */
+    @Transactional
+    public void save(Long userId, Collection<NetWorthComponentValue> refreshed, NetWorthDTO snapshot, LocalDate day) {
+        for (NetWorthComponentValue value : refreshed) {
+            jdbcTemplate.update(UPSERT_COMPONENT, userId, value.getComponent().name(), zeroIfNull(value.getAmount()),
+                    writeBreakdown(value.getBreakdown()), Timestamp.valueOf(value.getRefreshedAt()));
+        }
+        jdbcTemplate.update(UPSERT_SNAPSHOT, userId,
+                zeroIfNull(snapshot.getTotalAssets()), zeroIfNull(snapshot.getTotalLiabilities()),
+                zeroIfNull(snapshot.getNetWorth()), zeroIfNull(snapshot.getNetWorthAfterTax()),
+                zeroIfNull(snapshot.getPortfolioValue()), zeroIfNull(snapshot.getSavingsValue()),
+                zeroIfNull(snapshot.getOutstandingLoans()), zeroIfNull(snapshot.getOutstandingTaxLiability()),
+                zeroIfNull(snapshot.getOutstandingLendings()),
+                writeBreakdown(snapshot.getAssetBreakdown()), writeBreakdown(snapshot.getLiabilityBreakdown()),
+                Timestamp.valueOf(snapshot.getComputedAt()));
+        jdbcTemplate.update(UPSERT_DAILY, userId, day,
+                zeroIfNull(snapshot.getTotalAssets()), zeroIfNull(snapshot.getTotalLiabilities()),
+                zeroIfNull(snapshot.getNetWorth()), zeroIfNull(snapshot.getNetWorthAfterTax()),
+                Timestamp.valueOf(snapshot.getComputedAt()));
+    }
+
+    /** Daily points in {@code [from, to]}, oldest first. Days without a change have no row. */
+    public List<NetWorthHistoryPointDTO> findDaily(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT " + DAILY_COLUMNS + " FROM net_worth_daily "
+                + "WHERE user_id = ? AND snapshot_date BETWEEN ? AND ? ORDER BY snapshot_date",
+                (rs, i) -> mapDaily(rs), userId, from, to);
+    }
+
+    /** The latest daily point strictly before {@code date}, used to carry a value into a range. */
+    public Optional<NetWorthHistoryPointDTO> findLastDailyBefore(Long userId, LocalDate date) {
+        return jdbcTemplate.query("SELECT " + DAILY_COLUMNS + " FROM net_worth_daily "
+                + "WHERE user_id = ? AND snapshot_date < ? ORDER BY snapshot_date DESC LIMIT 1",
+                (rs, i) -> mapDaily(rs), userId, date).stream().findFirst();
+    }
+
+    private NetWorthDTO mapSnapshot(ResultSet rs) throws SQLException {
+        return NetWorthDTO.builder()
+                .totalAssets(rs.getBigDecimal("total_assets"))
+                .totalLiabilities(rs.getBigDecimal("total_liabilities"))
+                .netWorth(rs.getBigDecimal("net_worth"))
+                .netWorthAfterTax(rs.getBigDecimal("net_worth_after_tax"))
+                .portfolioValue(rs.getBigDecimal("portfolio_value"))
+                .savingsValue(rs.getBigDecimal("savings_value"))
+                .outstandingLoans(rs.getBigDecimal("outstanding_loans"))
+                .outstandingTaxLiability(rs.getBigDecimal("outstanding_tax_liability"))
+                .outstandingLendings(rs.getBigDecimal("outstanding_lendings"))
+                .assetBreakdown(readBreakdown(rs.getString("asset_breakdown")))
+                .liabilityBreakdown(readBreakdown(rs.getString("liability_breakdown")))
+                .computedAt(toLocalDateTime(rs.getTimestamp("computed_at")))
+                .stale(false)
+                .build();
+    }
+
+    private static NetWorthHistoryPointDTO mapDaily(ResultSet rs) throws SQLException {
+        return NetWorthHistoryPointDTO.builder()
+                .date(rs.getDate("snapshot_date").toLocalDate())
+                .totalAssets(rs.getBigDecimal("total_assets"))
+                .totalLiabilities(rs.getBigDecimal("total_liabilities"))
+                .netWorth(rs.getBigDecimal("net_worth"))
+                .netWorthAfterTax(rs.getBigDecimal("net_worth_after_tax"))
+                .build();
+    }
+
+    private Map<EntityType, BigDecimal> readBreakdown(String json) {
+        if (json == null || json.isBlank()) {
+            return new HashMap<>();
+        }
+        try {
+            return new HashMap<>(objectMapper.readValue(json, BREAKDOWN_TYPE));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable net worth breakdown '{}': {}", json, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    private String writeBreakdown(Map<EntityType, BigDecimal> breakdown) {
+        if (breakdown == null || breakdown.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(breakdown);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize net worth breakdown", e);
+        }
+    }
+
+    private static BigDecimal zeroIfNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
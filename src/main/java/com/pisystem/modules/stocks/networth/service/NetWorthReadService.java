@@ -1,10 +1,29 @@
 package com.pisystem.modules.stocks.networth.service;
 
+import java.util.Map;
+import java.util.Set;
+
 import com.pisystem.modules.stocks.networth.data.AssetLiabilityTemplateDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
 import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
 
 public interface NetWorthReadService {
+    /** Computes net worth from the source modules on every call, for the authorized user. */
     NetWorthDTO getNetWorth(Long userId);
 
+    /**
+     * Computes a single component from its source module. Like
+     * {@link #loadComponents}, this does not check access: callers have already
+     * authorized the user, or run in the background without a request user.
+     */
+    NetWorthComponentValue loadComponent(Long userId, NetWorthComponent component);
+
+    /**
+     * Computes several components concurrently. Every requested component is in
+     * the result; one that failed or timed out is zero with a non-OK status.
+     */
+    Map<NetWorthComponent, NetWorthComponentValue> loadComponents(Long userId, Set<NetWorthComponent> components);
+
     AssetLiabilityTemplateDTO getEntityTemplates();
 }
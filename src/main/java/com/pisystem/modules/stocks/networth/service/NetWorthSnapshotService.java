@@ -0,0 +1,31 @@
+package com.pisystem.modules.stocks.networth.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthHistoryPointDTO;
+
+/**
+ * Materialized net worth: read from a per-user snapshot that is kept current by
+ * change events instead of being recomputed on every request.
+ */
+public interface NetWorthSnapshotService {
+
+    /**
+     * Returns the stored snapshot, materializing it on first use.
+     * {@link NetWorthDTO#getComputedAt()} tells how fresh it is.
+     */
+    NetWorthDTO getNetWorth(Long userId);
+
+    /** Recomputes every component now and returns the new snapshot. */
+    NetWorthDTO rebuild(Long userId);
+
+    /** Schedules a refresh of the given components; bursts are coalesced. */
+    void markDirty(Long userId, Set<NetWorthComponent> components);
+
+    /** One point per day in {@code [from, to]}, carrying the last value forward over days without changes. */
+    List<NetWorthHistoryPointDTO> getDailySeries(Long userId, LocalDate from, LocalDate to);
+}
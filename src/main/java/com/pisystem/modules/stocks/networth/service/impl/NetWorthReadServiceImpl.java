@@ -1,14 +1,30 @@
 package com.pisystem.modules.stocks.networth.service.impl;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioDTOResponse;
 import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioReadService;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
 import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
 import com.pisystem.modules.stocks.networth.data.UserAsset;
 import com.pisystem.modules.stocks.networth.data.UserLiability;
@@ -30,13 +46,20 @@ import com.pisystem.modules.lending.service.LendingService;
 import com.pisystem.modules.stocks.networth.data.AssetLiabilityTemplateDTO;
 import com.pisystem.modules.stocks.networth.data.EntityTemplateDTO;
 import com.pisystem.modules.lending.data.LendingDTO;
+import com.pisystem.shared.security.AuthenticationHelper;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class NetWorthReadServiceImpl implements NetWorthReadService {
 
+        /** Upper bound on component loads running at once across all requests. */
+        private static final int COMPONENT_THREADS = 32;
+
         private final PortfolioReadService portfolioService;
         private final UserAssetRepository userAssetRepository;
         private final UserLiabilityRepository userLiabilityRepository;
@@ -46,136 +69,271 @@ public class NetWorthReadServiceImpl implements NetWorthReadService {
         private final LoanService loanService;
         private final TaxService taxService;
         private final LendingService lendingService;
+        private final AuthenticationHelper authenticationHelper;
+
+        @Value("${net-worth.fan-out.enabled:true}")
+        private boolean fanOutEnabled = true;
+
+        @Value("${net-worth.fan-out.timeout-ms:2000}")
+        private long componentTimeoutMs = 2000;
+
+        // The portfolio summary values every holding and computes XIRR; give it longer
+        @Value("${net-worth.fan-out.portfolio-timeout-ms:5000}")
+        private long portfolioTimeoutMs = 5000;
+
+        // Loads read the sources without access checks, so no security context is carried over
+        private final ThreadPoolExecutor componentPool = newComponentPool();
+
+        private static ThreadPoolExecutor newComponentPool() {
+                CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("net-worth-component-");
+                threadFactory.setDaemon(true);
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(COMPONENT_THREADS, COMPONENT_THREADS,
+                                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+                pool.allowCoreThreadTimeOut(true);
+                return pool;
+        }
+
+        @PreDestroy
+        void shutdownComponentPool() {
+                componentPool.shutdownNow();
+        }
 
         @Override
         public NetWorthDTO getNetWorth(Long userId) {
-                // 1. Get Portfolio Value (Stocks)
-                PortfolioDTOResponse portfolio = portfolioService.getPortfolioSummary(userId);
-                BigDecimal stockValue = (portfolio != null && portfolio.getCurrentValue() != null)
-                                ? portfolio.getCurrentValue()
-                                : BigDecimal.ZERO;
-
-                // 1.b Get Savings (cash + FD + RD) balance
-                BigDecimal savingsValue = BigDecimal.ZERO;
+                authenticationHelper.validateUserAccess(userId);
+                return assemble(loadComponents(userId, EnumSet.allOf(NetWorthComponent.class)));
+        }
+
+        /**
+         * Loads one component. A component whose source is unavailable counts as
+         * zero, flagged {@code FAILED}, rather than failing the whole net worth.
+         */
+        @Override
+        public NetWorthComponentValue loadComponent(Long userId, NetWorthComponent component) {
                 try {
-                        List<SavingsAccountDTO> savings = savingsAccountService.getAllSavingsAccounts(userId);
-                        if (savings != null) {
-                                savingsValue = savings.stream()
-                                                .map(SavingsAccountDTO::getAmount)
-                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                        }
-                } catch (Exception ignored) {
-                        // keep savingsValue as ZERO if not available
+                        return fetchComponent(userId, component);
+                } catch (Exception e) {
+                        log.debug("Net worth component {} unavailable for user {}: {}", component, userId,
+                                        e.getMessage());
+                        return emptyComponent(component).unavailable(NetWorthComponentValue.Status.FAILED,
+                                        e.getMessage());
                 }
+        }
 
-                // Add Fixed Deposits to savings
-                try {
-                        List<FixedDepositDTO> fds = fixedDepositService.getAllFixedDeposits(userId);
-                        if (fds != null) {
-                                BigDecimal fdValue = fds.stream()
-                                                .map(fd -> fd.getMaturityAmount() != null ? fd.getMaturityAmount()
-                                                                : fd.getPrincipalAmount())
-                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                                savingsValue = savingsValue.add(fdValue);
+        /**
+         * Loads the given components concurrently, each bounded by its own timeout
+         * counted from the start of the fan-out. Loads that overrun are cancelled
+         * and reported {@code TIMED_OUT}; nothing is left running when this returns.
+         */
+        @Override
+        public Map<NetWorthComponent, NetWorthComponentValue> loadComponents(Long userId,
+                        Set<NetWorthComponent> components) {
+                Map<NetWorthComponent, NetWorthComponentValue> values = new EnumMap<>(NetWorthComponent.class);
+                if (!fanOutEnabled || components.size() < 2) {
+                        for (NetWorthComponent component : components) {
+                                values.put(component, loadComponent(userId, component));
                         }
-                } catch (Exception ignored) {
+                        return values;
                 }
 
-                // Add Recurring Deposits to savings
-                try {
-                        List<RecurringDepositDTO> rds = recurringDepositService.getAllRecurringDeposits(userId);
-                        if (rds != null) {
-                                BigDecimal rdValue = rds.stream()
-                                                .map(rd -> rd.getMaturityAmount() != null ? rd.getMaturityAmount()
-                                                                : BigDecimal.ZERO)
-                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                                savingsValue = savingsValue.add(rdValue);
-                        }
-                } catch (Exception ignored) {
+                long startedAt = System.nanoTime();
+                Map<NetWorthComponent, Future<NetWorthComponentValue>> futures = new EnumMap<>(NetWorthComponent.class);
+                for (NetWorthComponent component : components) {
+                        futures.put(component, componentPool.submit(() -> loadComponent(userId, component)));
                 }
 
-                // 2. Get Other Assets
-                List<UserAsset> assets = userAssetRepository.findByUserId(userId);
+                for (Map.Entry<NetWorthComponent, Future<NetWorthComponentValue>> entry : futures.entrySet()) {
+                        NetWorthComponent component = entry.getKey();
+                        Future<NetWorthComponentValue> future = entry.getValue();
+                        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs(component));
+                        try {
+                                values.put(component, future.get(Math.max(0, deadline - System.nanoTime()),
+                                                TimeUnit.NANOSECONDS));
+                        } catch (TimeoutException e) {
+                                future.cancel(true);
+                                log.warn("Net worth component {} timed out for user {} after {} ms", component, userId,
+                                                timeoutMs(component));
+                                values.put(component, emptyComponent(component).unavailable(
+                                                NetWorthComponentValue.Status.TIMED_OUT,
+                                                "Timed out after " + timeoutMs(component) + " ms"));
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                futures.values().forEach(pending -> pending.cancel(true));
+                                throw new IllegalStateException("Interrupted while loading net worth", e);
+                        } catch (ExecutionException e) {
+                                // loadComponent already maps source failures; this is the executor itself failing
+                                values.put(component, emptyComponent(component).unavailable(
+                                                NetWorthComponentValue.Status.FAILED, String.valueOf(e.getCause())));
+                        } catch (CancellationException | RejectedExecutionException e) {
+                                values.put(component, emptyComponent(component).unavailable(
+                                                NetWorthComponentValue.Status.FAILED, e.getMessage()));
+                        }
+                }
+                return values;
+        }
 
-                // 3. Get Liabilities
-                List<UserLiability> liabilities = userLiabilityRepository.findByUserId(userId);
+        private long timeoutMs(NetWorthComponent component) {
+                return component == NetWorthComponent.PORTFOLIO ? portfolioTimeoutMs : componentTimeoutMs;
+        }
 
-                // Calculate Asset Breakdown
-                Map<EntityType, BigDecimal> assetBreakdown = assets.stream()
-                                .collect(Collectors.groupingBy(
-                                                UserAsset::getEntityType,
-                                                Collectors.reducing(BigDecimal.ZERO, UserAsset::getCurrentValue,
-                                                                BigDecimal::add)));
+        NetWorthComponentValue fetchComponent(Long userId, NetWorthComponent component) {
+                switch (component) {
+                        case PORTFOLIO: {
+                                PortfolioDTOResponse portfolio = portfolioService.getPortfolioSummary(userId);
+                                BigDecimal stockValue = (portfolio != null && portfolio.getCurrentValue() != null)
+                                                ? portfolio.getCurrentValue()
+                                                : BigDecimal.ZERO;
+                                return NetWorthComponentValue.of(component, EntityType.STOCK, stockValue);
+                        }
+                        case SAVINGS: {
+                                List<SavingsAccountDTO> savings = savingsAccountService.getAllSavingsAccountsInternal(userId);
+                                BigDecimal savingsValue = savings == null ? BigDecimal.ZERO
+                                                : savings.stream()
+                                                                .map(SavingsAccountDTO::getAmount)
+                                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                                return NetWorthComponentValue.of(component, EntityType.SAVINGS_ACCOUNT, savingsValue);
+                        }
+                        case FIXED_DEPOSITS: {
+                                // Fixed deposits are reported under savings
+                                List<FixedDepositDTO> fds = fixedDepositService.getAllFixedDepositsInternal(userId);
+                                BigDecimal fdValue = fds == null ? BigDecimal.ZERO
+                                                : fds.stream()
+                                                                .map(fd -> fd.getMaturityAmount() != null
+                                                                                ? fd.getMaturityAmount()
+                                                                                : fd.getPrincipalAmount())
+                                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                                return NetWorthComponentValue.of(component, EntityType.SAVINGS_ACCOUNT, fdValue);
+                        }
+                        case RECURRING_DEPOSITS: {
+                                List<RecurringDepositDTO> rds = recurringDepositService.getAllRecurringDepositsInternal(userId);
+                                BigDecimal rdValue = rds == null ? BigDecimal.ZERO
+                                                : rds.stream()
+                                                                .map(rd -> rd.getMaturityAmount() != null
+                                                                                ? rd.getMaturityAmount()
+                                                                                : BigDecimal.ZERO)
+                                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                                return NetWorthComponentValue.of(component, EntityType.SAVINGS_ACCOUNT, rdValue);
+                        }
+                        case USER_ASSETS: {
+                                List<UserAsset> assets = userAssetRepository.findByUserId(userId);
+                                return NetWorthComponentValue.of(component, assets.stream()
+                                                .collect(Collectors.groupingBy(
+                                                                UserAsset::getEntityType,
+                                                                Collectors.reducing(BigDecimal.ZERO,
+                                                                                UserAsset::getCurrentValue,
+                                                                                BigDecimal::add))));
+                        }
+                        case LENDINGS: {
+                                List<LendingDTO> lendings = lendingService.getUserLendingsInternal(userId);
+                                BigDecimal lendingOutstanding = lendings == null ? BigDecimal.ZERO
+                                                : lendings.stream()
+                                                                .map(LendingDTO::getOutstandingAmount)
+                                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                                return NetWorthComponentValue.of(component, EntityType.LENDING, lendingOutstanding);
+                        }
+                        case USER_LIABILITIES: {
+                                List<UserLiability> liabilities = userLiabilityRepository.findByUserId(userId);
+                                return NetWorthComponentValue.of(component, liabilities.stream()
+                                                .collect(Collectors.groupingBy(
+                                                                UserLiability::getEntityType,
+                                                                Collectors.reducing(BigDecimal.ZERO,
+                                                                                UserLiability::getOutstandingAmount,
+                                                                                BigDecimal::add))));
+                        }
+                        case LOANS: {
+                                Map<EntityType, BigDecimal> loanBreakdown = new HashMap<>();
+                                List<Loan> loans = loanService.getLoansByUserIdInternal(userId);
+                                if (loans != null) {
+                                        for (Loan loan : loans) {
+                                                BigDecimal amount = loan.getOutstandingAmount() != null
+                                                                ? loan.getOutstandingAmount()
+                                                                : BigDecimal.ZERO;
+                                                loanBreakdown.merge(liabilityType(loan), amount, BigDecimal::add);
+                                        }
+                                }
+                                return NetWorthComponentValue.of(component, loanBreakdown);
+                        }
+                        case TAX:
+                                return NetWorthComponentValue.amountOnly(component,
+                                                taxService.getOutstandingTaxLiabilityInternal(userId));
+                        default:
+                                throw new IllegalArgumentException("Unknown net worth component: " + component);
+                }
+        }
 
-                // Add Stocks & Savings to Asset Breakdown
-                assetBreakdown.merge(EntityType.STOCK, stockValue, BigDecimal::add);
-                assetBreakdown.merge(EntityType.SAVINGS_ACCOUNT, savingsValue, BigDecimal::add);
+        /** What a component contributes when its source could not be read. */
+        private static NetWorthComponentValue emptyComponent(NetWorthComponent component) {
+                switch (component) {
+                        case PORTFOLIO:
+                                return NetWorthComponentValue.of(component, EntityType.STOCK, BigDecimal.ZERO);
+                        case SAVINGS:
+                        case FIXED_DEPOSITS:
+                        case RECURRING_DEPOSITS:
+                                return NetWorthComponentValue.of(component, EntityType.SAVINGS_ACCOUNT, BigDecimal.ZERO);
+                        case LENDINGS:
+                                return NetWorthComponentValue.of(component, EntityType.LENDING, BigDecimal.ZERO);
+                        default:
+                                return NetWorthComponentValue.zero(component);
+                }
+        }
 
-                // Add Lending outstanding as asset
-                BigDecimal lendingOutstanding = BigDecimal.ZERO;
-                try {
-                        List<LendingDTO> lendings = lendingService.getUserLendings(userId);
-                        if (lendings != null) {
-                                lendingOutstanding = lendings.stream()
-                                                .map(LendingDTO::getOutstandingAmount)
-                                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                        }
-                } catch (Exception ignored) {
+        // Map LoanType to EntityType
+        private static EntityType liabilityType(Loan loan) {
+                if (loan.getLoanType() == null) {
+                        return EntityType.OTHER;
+                }
+                switch (loan.getLoanType()) {
+                        case HOME_LOAN:
+                                return EntityType.HOME_LOAN;
+                        case CAR_LOAN:
+                                return EntityType.CAR_LOAN;
+                        case PERSONAL_LOAN:
+                                return EntityType.PERSONAL_LOAN;
+                        case EDUCATION_LOAN:
+                                return EntityType.EDUCATION_LOAN;
+                        case CREDIT_CARD:
+                                return EntityType.CREDIT_CARD;
+                        case BNPL:
+                                return EntityType.BNPL;
+                        default:
+                                return EntityType.OTHER;
                 }
-                assetBreakdown.merge(EntityType.LENDING, lendingOutstanding, BigDecimal::add);
+        }
 
-                // Calculate Liability Breakdown
-                Map<EntityType, BigDecimal> liabilityBreakdown = liabilities.stream()
-                                .collect(Collectors.groupingBy(
-                                                UserLiability::getEntityType,
-                                                Collectors.reducing(BigDecimal.ZERO,
-                                                                UserLiability::getOutstandingAmount, BigDecimal::add)));
+        /**
+         * Combines component values into the net worth figures. Shared by the live
+         * computation and the materialized snapshot so both report identically.
+         */
+        static NetWorthDTO assemble(Map<NetWorthComponent, NetWorthComponentValue> components) {
+                Map<EntityType, BigDecimal> assetBreakdown = new HashMap<>();
+                Map<EntityType, BigDecimal> liabilityBreakdown = new HashMap<>();
+                Map<NetWorthComponent, NetWorthComponentValue.Status> componentStatus = new EnumMap<>(
+                                NetWorthComponent.class);
+                BigDecimal taxLiability = BigDecimal.ZERO;
 
-                // 3.b Include Loans outstanding as liabilities
-                BigDecimal loansOutstanding = BigDecimal.ZERO;
-                try {
-                        List<Loan> loans = loanService.getLoansByUserId(userId);
-                        if (loans != null) {
-                                for (Loan loan : loans) {
-                                        BigDecimal amount = loan.getOutstandingAmount() != null
-                                                        ? loan.getOutstandingAmount()
-                                                        : BigDecimal.ZERO;
-                                        loansOutstanding = loansOutstanding.add(amount);
-
-                                        // Map LoanType to EntityType
-                                        EntityType type = EntityType.OTHER;
-                                        if (loan.getLoanType() != null) {
-                                                switch (loan.getLoanType()) {
-                                                        case HOME_LOAN:
-                                                                type = EntityType.HOME_LOAN;
-                                                                break;
-                                                        case CAR_LOAN:
-                                                                type = EntityType.CAR_LOAN;
-                                                                break;
-                                                        case PERSONAL_LOAN:
-                                                                type = EntityType.PERSONAL_LOAN;
-                                                                break;
-                                                        case EDUCATION_LOAN:
-                                                                type = EntityType.EDUCATION_LOAN;
-                                                                break;
-                                                        case CREDIT_CARD:
-                                                                type = EntityType.CREDIT_CARD;
-                                                                break;
-                                                        case BNPL:
-                                                                type = EntityType.BNPL;
-                                                                break;
-                                                        default:
-                                                                type = EntityType.OTHER;
-                                                                break;
-                                                }
-                                        }
-                                        liabilityBreakdown.merge(type, amount, BigDecimal::add);
-                                }
+                for (NetWorthComponentValue value : components.values()) {
+                        componentStatus.put(value.getComponent(), value.isOk()
+                                        ? NetWorthComponentValue.Status.OK
+                                        : value.getStatus());
+                        switch (value.getComponent().getSide()) {
+                                case ASSET:
+                                        value.getBreakdown().forEach((type, amount) -> assetBreakdown.merge(type,
+                                                        amount, BigDecimal::add));
+                                        break;
+                                case LIABILITY:
+                                        value.getBreakdown().forEach((type, amount) -> liabilityBreakdown.merge(type,
+                                                        amount, BigDecimal::add));
+                                        break;
+                                case TAX:
+                                        taxLiability = taxLiability.add(amountOf(value));
+                                        break;
                         }
-                } catch (Exception ignored) {
-                        // keep loansOutstanding as ZERO if not available
                 }
 
+                BigDecimal savingsValue = amountOf(components.get(NetWorthComponent.SAVINGS))
+                                .add(amountOf(components.get(NetWorthComponent.FIXED_DEPOSITS)))
+                                .add(amountOf(components.get(NetWorthComponent.RECURRING_DEPOSITS)));
+
                 // Calculate Totals
                 BigDecimal totalAssets = assetBreakdown.values().stream()
                                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -184,8 +342,6 @@ public class NetWorthReadServiceImpl implements NetWorthReadService {
                 BigDecimal totalLiabilitiesPreTax = liabilityBreakdown.values().stream()
                                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-                BigDecimal taxLiability = taxService.getOutstandingTaxLiability(userId);
-
                 // Total Liabilities including Tax
                 BigDecimal totalLiabilitiesPostTax = totalLiabilitiesPreTax.add(taxLiability);
 
@@ -196,17 +352,24 @@ public class NetWorthReadServiceImpl implements NetWorthReadService {
                                 .totalAssets(totalAssets)
                                 .totalLiabilities(totalLiabilitiesPreTax)
                                 .netWorth(netWorthPreTax)
-                                .portfolioValue(stockValue)
+                                .portfolioValue(amountOf(components.get(NetWorthComponent.PORTFOLIO)))
                                 .savingsValue(savingsValue)
-                                .outstandingLoans(loansOutstanding)
+                                .outstandingLoans(amountOf(components.get(NetWorthComponent.LOANS)))
                                 .outstandingTaxLiability(taxLiability)
-                                .outstandingLendings(lendingOutstanding)
+                                .outstandingLendings(amountOf(components.get(NetWorthComponent.LENDINGS)))
                                 .netWorthAfterTax(netWorthPostTax)
                                 .assetBreakdown(assetBreakdown)
                                 .liabilityBreakdown(liabilityBreakdown)
+                                .componentStatus(componentStatus)
+                                .partial(componentStatus.values().stream()
+                                                .anyMatch(status -> status != NetWorthComponentValue.Status.OK))
                                 .build();
         }
 
+        private static BigDecimal amountOf(NetWorthComponentValue value) {
+                return value != null && value.getAmount() != null ? value.getAmount() : BigDecimal.ZERO;
+        }
+
         @Override
         public AssetLiabilityTemplateDTO getEntityTemplates() {
                 List<EntityTemplateDTO> onBoardingTypes = List.of(
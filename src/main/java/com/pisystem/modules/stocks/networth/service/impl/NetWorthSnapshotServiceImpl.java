@@ -0,0 +1,227 @@
+package com.pisystem.modules.stocks.networth.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
+import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthHistoryPointDTO;
+import com.pisystem.modules.stocks.networth.exception.InvalidNetWorthRangeException;
+import com.pisystem.modules.stocks.networth.repo.NetWorthSnapshotStore;
+import com.pisystem.modules.stocks.networth.service.NetWorthReadService;
+import com.pisystem.modules.stocks.networth.service.NetWorthSnapshotService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps {@code net_worth_snapshot} current from net worth change events.
+ *
+ * <p>A change marks only the affected components dirty. Marks for the same user
+ * are coalesced for {@code net-worth.snapshot.debounce-ms}, then a background
+ * refresh reloads just those components, reassembles the totals from the stored
+ * values of the others and writes the snapshot plus today's point of the daily
+ * series. Reads are a primary-key lookup.</p>
+ *
+ * <p>Snapshots older than {@code net-worth.snapshot.max-age-minutes} are served
+ * but trigger a full refresh, which picks up value drift no event reports
+ * (deposit accrual, tax recalculation).</p>
+ *
+ * <p>Access is checked by the callers of the read methods. Background refreshes
+ * have no request user and load components through the unchecked
+ * {@link NetWorthReadService#loadComponents} path.</p>
+ *
+ * @see com.pisystem.modules.stocks.networth.event.NetWorthChangedEvent
+ */
+@Service
+@Slf4j
+public class NetWorthSnapshotServiceImpl implements NetWorthSnapshotService {
+
+    /** Longest daily series a single request may ask for. */
+    static final int MAX_SERIES_DAYS = 3660;
+
+    private static final int DEFAULT_SERIES_DAYS = 90;
+
+    private final NetWorthReadService netWorthReadService;
+    private final NetWorthSnapshotStore store;
+    private final long debounceMs;
+    private final long maxAgeMinutes;
+
+    private final Map<Long, Set<NetWorthComponent>> pending = new ConcurrentHashMap<>();
+
+    // Single thread: refreshes of one user never overlap
+    private final ScheduledExecutorService refresher = new ScheduledThreadPoolExecutor(1,
+            new CustomizableThreadFactory("net-worth-snapshot-"));
+
+    public NetWorthSnapshotServiceImpl(NetWorthReadService netWorthReadService,
+                                       NetWorthSnapshotStore store,
+                                       @Value("${net-worth.snapshot.debounce-ms:2000}") long debounceMs,
+                                       @Value("${net-worth.snapshot.max-age-minutes:1440}") long maxAgeMinutes) {
+        this.netWorthReadService = netWorthReadService;
+        this.store = store;
+        this.debounceMs = debounceMs;
+        this.maxAgeMinutes = maxAgeMinutes;
+    }
+
+    @PreDestroy
+    public void shutdownRefresher() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public NetWorthDTO getNetWorth(Long userId) {
+        Optional<NetWorthDTO> stored = store.findSnapshot(userId);
+        if (stored.isEmpty()) {
+            return rebuild(userId);
+        }
+
+        NetWorthDTO snapshot = stored.get();
+        LocalDateTime computedAt = snapshot.getComputedAt();
+        if (computedAt == null || computedAt.isBefore(LocalDateTime.now().minusMinutes(maxAgeMinutes))) {
+            markDirty(userId, EnumSet.allOf(NetWorthComponent.class));
+        }
+        snapshot.setStale(pending.containsKey(userId));
+        return snapshot;
+    }
+
+    @Override
+    public NetWorthDTO rebuild(Long userId) {
+        Map<NetWorthComponent, NetWorthComponentValue> loaded = netWorthReadService.loadComponents(userId,
+                EnumSet.allOf(NetWorthComponent.class));
+        return persist(userId, store.findComponents(userId), loaded);
+    }
+
+    @Override
+    public void markDirty(Long userId, Set<NetWorthComponent> components) {
+        if (userId == null || components.isEmpty()) {
+            return;
+        }
+        boolean[] firstMark = { false };
+        pending.compute(userId, (id, dirty) -> {
+            if (dirty == null) {
+                firstMark[0] = true;
+                dirty = EnumSet.noneOf(NetWorthComponent.class);
+            }
+            dirty.addAll(components);
+            return dirty;
+        });
+        // Only the first mark schedules; later ones join the pending set until it runs
+        if (firstMark[0]) {
+            refresher.schedule(() -> refreshSafely(userId), debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public List<NetWorthHistoryPointDTO> getDailySeries(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_SERIES_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new InvalidNetWorthRangeException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_SERIES_DAYS) {
+            throw new InvalidNetWorthRangeException("Range may span at most " + MAX_SERIES_DAYS + " days");
+        }
+
+        List<NetWorthHistoryPointDTO> changes = store.findDaily(userId, start, end);
+        NetWorthHistoryPointDTO carried = store.findLastDailyBefore(userId, start).orElse(null);
+
+        // Fill days without a change with the previous day's close
+        List<NetWorthHistoryPointDTO> series = new ArrayList<>();
+        Iterator<NetWorthHistoryPointDTO> next = changes.iterator();
+        NetWorthHistoryPointDTO upcoming = next.hasNext() ? next.next() : null;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (upcoming != null && upcoming.getDate().equals(day)) {
+                carried = upcoming;
+                upcoming = next.hasNext() ? next.next() : null;
+            }
+            if (carried != null) {
+                series.add(NetWorthHistoryPointDTO.builder()
+                        .date(day)
+                        .totalAssets(carried.getTotalAssets())
+                        .totalLiabilities(carried.getTotalLiabilities())
+                        .netWorth(carried.getNetWorth())
+                        .netWorthAfterTax(carried.getNetWorthAfterTax())
+                        .build());
+            }
+        }
+        return series;
+    }
+
+    private void refreshSafely(Long userId) {
+        Set<NetWorthComponent> dirty = pending.remove(userId);
+        if (dirty == null) {
+            return;
+        }
+        try {
+            refresh(userId, dirty);
+        } catch (RuntimeException e) {
+            // Never let an exception kill the refresher; the next change or read retries
+            log.warn("Net worth snapshot refresh failed for user {} ({}): {}", userId, dirty, e.getMessage());
+        }
+    }
+
+    void refresh(Long userId, Set<NetWorthComponent> dirty) {
+        Map<NetWorthComponent, NetWorthComponentValue> components = store.findComponents(userId);
+        Set<NetWorthComponent> toLoad = EnumSet.copyOf(dirty);
+        for (NetWorthComponent component : NetWorthComponent.values()) {
+            if (!components.containsKey(component)) {
+                toLoad.add(component);
+            }
+        }
+
+        persist(userId, components, netWorthReadService.loadComponents(userId, toLoad));
+        log.debug("Refreshed net worth snapshot for user {}: {}", userId, toLoad);
+    }
+
+    /**
+     * Combines freshly loaded components with the stored ones and writes the result.
+     * A component that failed or timed out keeps its last stored value (zero if it
+     * never loaded) and is reported in the snapshot's component status.
+     */
+    private NetWorthDTO persist(Long userId, Map<NetWorthComponent, NetWorthComponentValue> stored,
+            Map<NetWorthComponent, NetWorthComponentValue> loaded) {
+        Map<NetWorthComponent, NetWorthComponentValue> components = new EnumMap<>(NetWorthComponent.class);
+        components.putAll(stored);
+        Map<NetWorthComponent, NetWorthComponentValue> refreshed = new EnumMap<>(NetWorthComponent.class);
+        Map<NetWorthComponent, NetWorthComponentValue.Status> unavailable = new EnumMap<>(NetWorthComponent.class);
+        loaded.forEach((component, value) -> {
+            if (value.isOk()) {
+                components.put(component, value);
+                refreshed.put(component, value);
+            } else {
+                components.putIfAbsent(component, value);
+                unavailable.put(component, value.getStatus());
+            }
+        });
+
+        NetWorthDTO snapshot = NetWorthReadServiceImpl.assemble(components);
+        if (!unavailable.isEmpty()) {
+            snapshot.getComponentStatus().putAll(unavailable);
+            snapshot.setPartial(true);
+            log.warn("Net worth snapshot for user {} kept previous values for {}", userId, unavailable);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        snapshot.setComputedAt(now);
+        snapshot.setStale(false);
+        store.save(userId, refreshed.values(), snapshot, now.toLocalDate());
+        return snapshot;
+    }
+}
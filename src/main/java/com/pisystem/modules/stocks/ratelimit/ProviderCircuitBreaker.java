@@ -0,0 +1,102 @@
+package com.pisystem.modules.stocks.ratelimit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker for one provider.
+ *
+ * <p>CLOSED lets calls through and counts consecutive failures; at
+ * {@code failureThreshold} it goes OPEN and refuses calls for {@code openDuration},
+ * so callers route to the next provider instead of waiting on a failing one. After
+ * that a single trial call is let through (HALF_OPEN): success closes the circuit,
+ * failure opens it again.</p>
+ */
+@Slf4j
+public class ProviderCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String provider;
+    private final LongSupplier nanoClock;
+    private int failureThreshold;
+    private long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public ProviderCircuitBreaker(String provider, int failureThreshold, Duration openDuration) {
+        this(provider, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    ProviderCircuitBreaker(String provider, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.provider = provider;
+        this.nanoClock = nanoClock;
+        reconfigure(failureThreshold, openDuration);
+    }
+
+    public synchronized void reconfigure(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Whether a call may go to the provider now. A true answer must be followed by
+     * {@link #onSuccess}, {@link #onFailure} or, if the call was not made, {@link #release}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                log.info("Circuit for {} half-open: trying one call", provider);
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit for {} closed", provider);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = nanoClock.getAsLong();
+            log.warn("Circuit for {} opened after {} consecutive failure(s); routing around it for {} s", provider,
+                    consecutiveFailures, Duration.ofNanos(openDurationNanos).toSeconds());
+        }
+    }
+
+    /** Gives back a permit from {@link #tryAcquire} whose call was never made. */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,175 @@
+package com.pisystem.modules.stocks.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.pisystem.modules.stocks.config.ResilienceConfigEntity;
+import com.pisystem.modules.stocks.config.ResilienceConfigRepository;
+import com.pisystem.modules.stocks.exception.ProviderCallException;
+import com.pisystem.modules.stocks.exception.RateLimitExceededException;
+import com.pisystem.shared.exception.BusinessException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control for third-party stock provider calls: the provider's circuit
+ * breaker first, then a {@link RateLimiter} permit, waited for up to the
+ * provider's {@link ProviderLimits#getMaxWait() max wait}.
+ *
+ * <p>Limits come from {@code resilience_config} (one row per provider), re-read
+ * every {@code stocks.provider.limits-refresh-ms}; providers without a row keep
+ * {@link ProviderLimits#defaults}. A provider whose circuit is open is refused at
+ * once, so {@code StockDataProviderFactory} moves on to the next provider.</p>
+ *
+ * <p>Metrics: {@code stocks.provider.circuit.open} and
+ * {@code stocks.provider.permits.waiting} (gauges, tagged by provider).</p>
+ */
+@Component
+@Slf4j
+public class ProviderGovernor {
+
+    private final RateLimiter rateLimiter;
+    private final ResilienceConfigRepository resilienceConfigRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ProviderCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ProviderGovernor(RateLimiter rateLimiter,
+                            ResilienceConfigRepository resilienceConfigRepository,
+                            MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.resilienceConfigRepository = resilienceConfigRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Applies the limits stored in {@code resilience_config}. */
+    @Scheduled(fixedDelayString = "${stocks.provider.limits-refresh-ms:300000}")
+    public void reloadLimits() {
+        List<ResilienceConfigEntity> rows;
+        try {
+            rows = resilienceConfigRepository.findAll();
+        } catch (RuntimeException e) {
+            log.warn("Could not load provider limits, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        for (ResilienceConfigEntity row : rows) {
+            if (row.getId() == null || row.getId().isBlank()) {
+                continue;
+            }
+            ProviderLimits limits = ProviderLimits.from(row, ProviderLimits.defaults(row.getId()));
+            rateLimiter.configure(row.getId(), limits);
+            breakerFor(row.getId()).reconfigure(limits.getFailureThreshold(), limits.getOpenDuration());
+        }
+    }
+
+    /**
+     * Runs a call to the provider once its circuit and rate limits allow it.
+     *
+     * <p>The call's outcome feeds the circuit breaker. A {@link BusinessException}
+     * (such as an unknown symbol) means the provider answered, so it does not count
+     * as a failure.</p>
+     *
+     * @throws ProviderCallException      if the provider's circuit is open
+     * @throws RateLimitExceededException if no permit was granted in time
+     */
+    public <T> T call(String provider, String requester, Supplier<T> call) {
+        ProviderCircuitBreaker breaker = breakerFor(provider);
+        if (!breaker.tryAcquire()) {
+            throw new ProviderCallException(provider + " is unavailable: circuit open after repeated failures");
+        }
+        try {
+            awaitPermit(provider, requester);
+        } catch (RuntimeException e) {
+            breaker.release();
+            throw e;
+        }
+
+        T result;
+        try {
+            result = call.get();
+        } catch (BusinessException e) {
+            breaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+        breaker.onSuccess();
+        return result;
+    }
+
+    public ProviderCircuitBreaker.State getCircuitState(String provider) {
+        return breakerFor(provider).getState();
+    }
+
+    /**
+     * Who a provider call is made for: the signed-in user, or {@link RateLimiter#SYSTEM}
+     * for scheduled and other background work.
+     */
+    public static String currentRequester() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UserDetails) {
+            return authentication.getName();
+        }
+        return RateLimiter.SYSTEM;
+    }
+
+    private void awaitPermit(String provider, String requester) {
+        Duration maxWait = limitsOf(provider).getMaxWait();
+        CompletableFuture<Void> permit = rateLimiter.acquire(provider, requester, maxWait);
+        try {
+            // The limiter fails the permit at its deadline; the extra second only guards against a lost wake-up
+            permit.get(maxWait.toMillis() + 1000, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            permit.cancel(false);
+            throw new RateLimitExceededException("Timed out waiting for a " + provider + " rate limit permit", e);
+        } catch (InterruptedException e) {
+            permit.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Interrupted waiting for a " + provider + " rate limit permit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RateLimitExceededException("No " + provider + " rate limit permit", e.getCause());
+        }
+    }
+
+    private ProviderLimits limitsOf(String provider) {
+        ProviderLimits limits = rateLimiter.getLimits(provider);
+        return limits != null ? limits : ProviderLimits.defaults(provider);
+    }
+
+    private ProviderCircuitBreaker breakerFor(String provider) {
+        return breakers.computeIfAbsent(provider, name -> {
+            ProviderLimits limits = limitsOf(name);
+            ProviderCircuitBreaker breaker = new ProviderCircuitBreaker(name, limits.getFailureThreshold(),
+                    limits.getOpenDuration());
+            Gauge.builder("stocks.provider.circuit.open", breaker,
+                            b -> b.getState() == ProviderCircuitBreaker.State.OPEN ? 1 : 0)
+                    .description("1 while calls to the provider are refused after repeated failures")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            Gauge.builder("stocks.provider.permits.waiting", rateLimiter, r -> r.getWaitingCount(name))
+                    .description("Calls waiting for a rate limit permit")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+}
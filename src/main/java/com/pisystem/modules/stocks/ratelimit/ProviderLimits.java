@@ -0,0 +1,76 @@
+package com.pisystem.modules.stocks.ratelimit;
+
+import java.time.Duration;
+
+import com.pisystem.modules.stocks.config.ResilienceConfigEntity;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Rate limits and circuit breaker settings for one provider.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProviderLimits {
+
+    /** Calls per minute; 0 for no limit. */
+    int perMinute;
+    /** Calls per UTC day; 0 for no daily quota. */
+    int perDay;
+    /** Percentage of the daily quota one user may consume; 0 for no per-user cap. */
+    int userDailySharePercent;
+    /** Longest a call waits for a permit before giving up. */
+    Duration maxWait;
+    /** Consecutive failures that open the circuit. */
+    int failureThreshold;
+    /** How long an open circuit stays open before a trial call. */
+    Duration openDuration;
+
+    /** Built-in limits, used until the database says otherwise. */
+    public static ProviderLimits defaults(String provider) {
+        ProviderLimits.ProviderLimitsBuilder limits = ProviderLimits.builder()
+                .maxWait(Duration.ofSeconds(5))
+                .failureThreshold(5)
+                .openDuration(Duration.ofSeconds(60));
+        if ("AlphaVantage".equals(provider)) {
+            // Free tier: 5 calls per minute, 500 per day
+            return limits.perMinute(5).perDay(500).userDailySharePercent(20).maxWait(Duration.ofSeconds(10)).build();
+        }
+        if ("IndianAPI".equals(provider)) {
+            return limits.perMinute(60).build();
+        }
+        return limits.build();
+    }
+
+    /**
+     * Limits from a {@code resilience_config} row, taking unset values from {@code defaults}.
+     * A NULL {@code limit_per_day} keeps the default quota; 0 removes the quota.
+     */
+    public static ProviderLimits from(ResilienceConfigEntity config, ProviderLimits defaults) {
+        return ProviderLimits.builder()
+                .perMinute(config.getLimitForPeriod() > 0 ? config.getLimitForPeriod() : defaults.getPerMinute())
+                .perDay(config.getLimitPerDay() != null ? Math.max(0, config.getLimitPerDay()) : defaults.getPerDay())
+                .userDailySharePercent(Math.min(100,
+                        positiveOr(config.getUserDailySharePercent(), defaults.getUserDailySharePercent())))
+                .maxWait(config.getTimeoutDuration() > 0 ? Duration.ofSeconds(config.getTimeoutDuration())
+                        : defaults.getMaxWait())
+                .failureThreshold(positiveOr(config.getFailureThreshold(), defaults.getFailureThreshold()))
+                .openDuration(config.getOpenDurationSeconds() != null && config.getOpenDurationSeconds() > 0
+                        ? Duration.ofSeconds(config.getOpenDurationSeconds())
+                        : defaults.getOpenDuration())
+                .build();
+    }
+
+    /** Calls one user may make per day, or 0 for no cap. */
+    public int perUserDailyCap() {
+        if (perDay <= 0 || userDailySharePercent <= 0) {
+            return 0;
+        }
+        return Math.max(1, (int) ((long) perDay * userDailySharePercent / 100));
+    }
+
+    private static int positiveOr(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+}
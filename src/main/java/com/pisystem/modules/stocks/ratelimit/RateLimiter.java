@@ -2,69 +2,125 @@ package com.pisystem.modules.stocks.ratelimit;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import com.pisystem.modules.stocks.exception.RateLimitExceededException;
+
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Rate limiter for third-party stock API calls using Token Bucket algorithm.
- * 
+ *
+ * <p>Each provider has one bucket with a per-minute limit and, where the provider
+ * has one, a per-day quota (reset at midnight UTC); a call needs a token from both.
+ * Limits start at {@link ProviderLimits#defaults} and are replaced by
+ * {@link #configure} (see {@link ProviderGovernor}, which loads them from the database).</p>
+ *
  * Alpha Vantage Free Tier Limits:
  * - 5 API requests per minute
  * - 500 API requests per day
- * 
- * This implementation enforces the per-minute limit to prevent API key suspension.
- * Daily limits are tracked separately in application monitoring.
- * 
+ *
+ * <p>{@link #tryConsume} fails fast. {@link #acquire} instead waits for a token up
+ * to a deadline without holding a thread. Waiting callers are served round-robin
+ * per requester, so one user's burst cannot starve everyone else, and a requester
+ * may use at most {@link ProviderLimits#perUserDailyCap()} calls of the daily quota
+ * ({@link #SYSTEM} is exempt). Usage is held in memory and starts over on restart.</p>
+ *
  * Usage:
- * if (!rateLimiter.tryConsume("AlphaVantage")) {
- *     throw new RateLimitExceededException("Rate limit exceeded for AlphaVantage");
- * }
+ * rateLimiter.acquire("AlphaVantage", requester, maxWait).join();
  * // Proceed with API call
  */
 @Component
 @Slf4j
 public class RateLimiter {
 
-    // Store separate buckets for each provider
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    /** Requester for background work, exempt from the per-user share of the daily quota. */
+    public static final String SYSTEM = "system";
 
-    // Alpha Vantage: 5 requests per minute
-    private static final int ALPHA_VANTAGE_CAPACITY = 5;
-    private static final Duration ALPHA_VANTAGE_REFILL_DURATION = Duration.ofMinutes(1);
+    private static final List<String> DEFAULT_PROVIDERS = List.of("AlphaVantage", "IndianAPI");
 
-    // Indian API: Assume 60 requests per minute (adjust based on actual limits)
-    private static final int INDIAN_API_CAPACITY = 60;
-    private static final Duration INDIAN_API_REFILL_DURATION = Duration.ofMinutes(1);
+    // Store separate permits for each provider
+    private final Map<String, ProviderPermits> permits = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
 
     public RateLimiter() {
-        // Initialize buckets for each provider
-        buckets.put("AlphaVantage", createBucket(ALPHA_VANTAGE_CAPACITY, ALPHA_VANTAGE_REFILL_DURATION));
-        buckets.put("IndianAPI", createBucket(INDIAN_API_CAPACITY, INDIAN_API_REFILL_DURATION));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("provider-rate-limiter-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        for (String provider : DEFAULT_PROVIDERS) {
+            configure(provider, ProviderLimits.defaults(provider));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
     }
 
     /**
-     * Create a token bucket with specified capacity and refill rate.
-     * 
-     * @param capacity Maximum number of tokens in the bucket
-     * @param refillDuration Duration for refilling all tokens
-     * @return Configured Bucket instance
+     * Sets the limits of a provider. Tokens already consumed in the current minute
+     * and day still count against the new limits.
      */
-    private Bucket createBucket(int capacity, Duration refillDuration) {
-        Bandwidth limit = Bandwidth.classic(capacity, Refill.intervally(capacity, refillDuration));
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    public void configure(String providerName, ProviderLimits limits) {
+        BucketConfiguration configuration = bucketConfiguration(limits);
+        ProviderPermits current = permits.get(providerName);
+        if (current == null) {
+            permits.put(providerName, new ProviderPermits(limits, configuration));
+            return;
+        }
+        synchronized (current) {
+            if (limits.equals(current.limits)) {
+                return;
+            }
+            if (configuration == null) {
+                current.bucket = null;
+            } else if (current.bucket == null || current.bandwidthCount != configuration.getBandwidths().length) {
+                current.bucket = createBucket(configuration);
+            } else {
+                current.bucket.replaceConfiguration(configuration, TokensInheritanceStrategy.AS_IS);
+            }
+            current.bandwidthCount = configuration != null ? configuration.getBandwidths().length : 0;
+            current.limits = limits;
+        }
+        log.info("Rate limits for {}: {}/min, {}/day, per-user cap {}/day", providerName, limits.getPerMinute(),
+                limits.getPerDay(), limits.perUserDailyCap());
+        drain(providerName, current);
+    }
+
+    /** Current limits of a provider, or null if it has none configured. */
+    public ProviderLimits getLimits(String providerName) {
+        ProviderPermits provider = providerName != null ? permits.get(providerName) : null;
+        return provider != null ? provider.limits : null;
     }
 
     /**
      * Try to consume one token from the provider's bucket.
-     * 
+     *
      * @param providerName Name of the API provider ("AlphaVantage" or "IndianAPI")
      * @return true if token was consumed (rate limit not exceeded), false otherwise
      */
@@ -73,27 +129,71 @@ public class RateLimiter {
             log.warn("Null or empty provider name, allowing request by default");
             return true; // Allow request if provider name is null/empty
         }
-        
-        Bucket bucket = buckets.get(providerName);
-        if (bucket == null) {
+
+        ProviderPermits provider = permits.get(providerName);
+        if (provider == null || provider.bucket == null) {
             log.warn("No rate limiter configured for provider: {}", providerName);
             return true; // Allow request if no limiter configured
         }
 
-        boolean consumed = bucket.tryConsume(1);
+        boolean consumed;
+        synchronized (provider) {
+            consumed = provider.bucket.tryConsume(1);
+        }
         if (!consumed) {
             log.warn("Rate limit exceeded for provider: {}", providerName);
         } else {
-            log.debug("Rate limit check passed for provider: {}. Available tokens: {}", 
-                      providerName, bucket.getAvailableTokens());
+            log.debug("Rate limit check passed for provider: {}. Available tokens: {}",
+                      providerName, provider.bucket.getAvailableTokens());
         }
         return consumed;
     }
 
+    /**
+     * Waits for a token of the provider's bucket on behalf of {@code requester}.
+     *
+     * <p>The future completes when the call may proceed, or fails with
+     * {@link RateLimitExceededException} when no token can be had within
+     * {@code maxWait} or the requester has used its share of the daily quota.
+     * It fails at once when the next token is further away than {@code maxWait}
+     * (for example, when the daily quota is spent). Cancelling the future gives up
+     * the place in the queue.</p>
+     */
+    public CompletableFuture<Void> acquire(String providerName, String requester, Duration maxWait) {
+        ProviderPermits provider = providerName != null ? permits.get(providerName) : null;
+        if (provider == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String who = requester != null ? requester : SYSTEM;
+        long maxWaitNanos = maxWait.toNanos();
+        synchronized (provider) {
+            if (provider.bucket == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (provider.overDailyShare(who)) {
+                return CompletableFuture.failedFuture(dailyShareExceeded(providerName, provider, who));
+            }
+            if (provider.waiting.isEmpty() && provider.bucket.tryConsume(1)) {
+                provider.recordUse(who);
+                return CompletableFuture.completedFuture(null);
+            }
+            long nanosToWait = provider.bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill();
+            if (nanosToWait > maxWaitNanos) {
+                return CompletableFuture.failedFuture(new RateLimitExceededException(
+                        "Rate limit exceeded for " + providerName + ". Next call possible in "
+                                + TimeUnit.NANOSECONDS.toSeconds(nanosToWait) + "s"));
+            }
+            Waiter waiter = new Waiter(System.nanoTime() + maxWaitNanos);
+            provider.waiting.computeIfAbsent(who, key -> new ArrayDeque<>()).add(waiter);
+            schedule(providerName, provider, Math.min(nanosToWait, maxWaitNanos));
+            return waiter.permit;
+        }
+    }
+
     /**
      * Get the number of available tokens for a provider.
      * Useful for monitoring and debugging.
-     * 
+     *
      * @param providerName Name of the API provider
      * @return Number of available tokens, or -1 if provider not found
      */
@@ -101,8 +201,194 @@ public class RateLimiter {
         if (providerName == null || providerName.isEmpty()) {
             return -1; // Return -1 for null/empty provider name
         }
-        
-        Bucket bucket = buckets.get(providerName);
-        return bucket != null ? bucket.getAvailableTokens() : -1;
+
+        ProviderPermits provider = permits.get(providerName);
+        return provider != null && provider.bucket != null ? provider.bucket.getAvailableTokens() : -1;
+    }
+
+    /** Number of calls waiting for a token of the provider. */
+    public int getWaitingCount(String providerName) {
+        ProviderPermits provider = providerName != null ? permits.get(providerName) : null;
+        if (provider == null) {
+            return 0;
+        }
+        synchronized (provider) {
+            return provider.waiting.values().stream().mapToInt(ArrayDeque::size).sum();
+        }
+    }
+
+    /**
+     * Hands free tokens to waiting callers, one requester at a time in turn, and
+     * fails those past their deadline or, having been granted calls since they
+     * queued, past their share of the daily quota. Futures are completed outside
+     * the lock.
+     */
+    private void drain(String providerName, ProviderPermits provider) {
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+        Map<String, ArrayDeque<Waiter>> overShare = new LinkedHashMap<>();
+        synchronized (provider) {
+            provider.drainTask = null;
+            long now = System.nanoTime();
+            long earliestDeadline = Long.MAX_VALUE;
+            for (Iterator<ArrayDeque<Waiter>> queues = provider.waiting.values().iterator(); queues.hasNext();) {
+                ArrayDeque<Waiter> queue = queues.next();
+                for (Iterator<Waiter> waiters = queue.iterator(); waiters.hasNext();) {
+                    Waiter waiter = waiters.next();
+                    if (waiter.permit.isDone()) {
+                        waiters.remove(); // cancelled by the caller
+                    } else if (now - waiter.deadlineNanos >= 0) {
+                        waiters.remove();
+                        expired.add(waiter);
+                    } else {
+                        earliestDeadline = Math.min(earliestDeadline, waiter.deadlineNanos);
+                    }
+                }
+                if (queue.isEmpty()) {
+                    queues.remove();
+                }
+            }
+
+            while (!provider.waiting.isEmpty()) {
+                // The requester at the head of the rotation gets the next token, then goes to the back
+                String requester = provider.waiting.keySet().iterator().next();
+                if (provider.overDailyShare(requester)) {
+                    overShare.put(requester, provider.waiting.remove(requester));
+                    continue;
+                }
+                if (provider.bucket != null && !provider.bucket.tryConsume(1)) {
+                    break;
+                }
+                ArrayDeque<Waiter> queue = provider.waiting.remove(requester);
+                granted.add(queue.poll());
+                provider.recordUse(requester);
+                if (!queue.isEmpty()) {
+                    provider.waiting.put(requester, queue);
+                }
+            }
+
+            if (!provider.waiting.isEmpty()) {
+                long nanosToWait = provider.bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill();
+                schedule(providerName, provider, Math.min(nanosToWait, earliestDeadline - now));
+            }
+        }
+        granted.forEach(waiter -> waiter.permit.complete(null));
+        expired.forEach(waiter -> waiter.permit.completeExceptionally(new RateLimitExceededException(
+                "Timed out waiting for a " + providerName + " rate limit permit")));
+        overShare.forEach((requester, waiters) -> {
+            RateLimitExceededException failure = dailyShareExceeded(providerName, provider, requester);
+            waiters.forEach(waiter -> waiter.permit.completeExceptionally(failure));
+        });
+    }
+
+    private static RateLimitExceededException dailyShareExceeded(String providerName, ProviderPermits provider,
+            String requester) {
+        return new RateLimitExceededException(requester + " has used its daily share ("
+                + provider.limits.perUserDailyCap() + " calls) of the " + providerName + " quota");
+    }
+
+    private void schedule(String providerName, ProviderPermits provider, long delayNanos) {
+        if (provider.drainTask != null && provider.drainTask.getDelay(TimeUnit.NANOSECONDS) <= delayNanos) {
+            return;
+        }
+        if (provider.drainTask != null) {
+            provider.drainTask.cancel(false);
+        }
+        provider.drainTask = scheduler.schedule(() -> drain(providerName, provider), Math.max(0, delayNanos),
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Bucket configuration for the limits, or null when there are none.
+     */
+    private static BucketConfiguration bucketConfiguration(ProviderLimits limits) {
+        List<Bandwidth> bandwidths = new ArrayList<>();
+        if (limits.getPerMinute() > 0) {
+            bandwidths.add(createBandwidth(limits.getPerMinute(), Duration.ofMinutes(1)));
+        }
+        if (limits.getPerDay() > 0) {
+            // The daily quota resets at midnight UTC
+            Instant nextMidnight = LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            bandwidths.add(Bandwidth.classic(limits.getPerDay(),
+                    Refill.intervallyAligned(limits.getPerDay(), Duration.ofDays(1), nextMidnight, false)));
+        }
+        if (bandwidths.isEmpty()) {
+            return null;
+        }
+        BucketConfiguration.ConfigurationBuilder builder = BucketConfiguration.builder();
+        bandwidths.forEach(builder::addLimit);
+        return builder.build();
+    }
+
+    /**
+     * Create a bandwidth with specified capacity and refill rate.
+     *
+     * @param capacity Maximum number of tokens in the bucket
+     * @param refillDuration Duration for refilling all tokens
+     * @return Configured Bandwidth instance
+     */
+    private static Bandwidth createBandwidth(int capacity, Duration refillDuration) {
+        return Bandwidth.classic(capacity, Refill.intervally(capacity, refillDuration));
+    }
+
+    private static Bucket createBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    /** Bucket, waiting callers and per-requester usage of one provider; guarded by itself. */
+    private static final class ProviderPermits {
+
+        private ProviderLimits limits;
+        private Bucket bucket;
+        private int bandwidthCount;
+        // Requester -> its waiting calls; iteration order is the round-robin turn
+        private final LinkedHashMap<String, ArrayDeque<Waiter>> waiting = new LinkedHashMap<>();
+        private final Map<String, Integer> usage = new HashMap<>();
+        private LocalDate usageDay = LocalDate.now(ZoneOffset.UTC);
+        private ScheduledFuture<?> drainTask;
+
+        ProviderPermits(ProviderLimits limits, BucketConfiguration configuration) {
+            this.limits = Objects.requireNonNull(limits);
+            this.bucket = configuration != null ? createBucket(configuration) : null;
+            this.bandwidthCount = configuration != null ? configuration.getBandwidths().length : 0;
+        }
+
+        int usedToday(String requester) {
+            rollUsageDay();
+            return usage.getOrDefault(requester, 0);
+        }
+
+        /** True when {@code requester} may not take another call of today's quota. */
+        boolean overDailyShare(String requester) {
+            int cap = limits.perUserDailyCap();
+            return cap > 0 && !SYSTEM.equals(requester) && usedToday(requester) >= cap;
+        }
+
+        void recordUse(String requester) {
+            rollUsageDay();
+            usage.merge(requester, 1, Integer::sum);
+        }
+
+        private void rollUsageDay() {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            if (!today.equals(usageDay)) {
+                usage.clear();
+                usageDay = today;
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        final CompletableFuture<Void> permit = new CompletableFuture<>();
+        final long deadlineNanos;
+
+        Waiter(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
     }
 }
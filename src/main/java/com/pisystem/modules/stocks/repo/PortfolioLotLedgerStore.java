@@ -0,0 +1,30 @@
+package com.pisystem.modules.stocks.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to {@code portfolio_lot_ledgers}: which (user, symbol) pairs have a
+ * lot ledger. A symbol whose lots are all closed, or that only has SELLs, has no
+ * open lots yet is still built, so the marker rather than the lots decides whether
+ * history recorded before the ledger existed still has to be replayed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PortfolioLotLedgerStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isBuilt(Long userId, String symbol) {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM portfolio_lot_ledgers "
+                + "WHERE user_id = ? AND symbol = ?", Integer.class, userId, symbol);
+        return rows != null && rows > 0;
+    }
+
+    public void markBuilt(Long userId, String symbol) {
+        jdbcTemplate.update("INSERT IGNORE INTO portfolio_lot_ledgers (user_id, symbol) VALUES (?, ?)",
+                userId, symbol);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pisystem.modules.stocks.repo;
+
+import com.pisystem.modules.stocks.data.PortfolioLotMatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for PortfolioLotMatch entity
+ */
+@Repository
+public interface PortfolioLotMatchRepository extends JpaRepository<PortfolioLotMatch, Long> {
+
+    /**
+     * A lot match as read by capital gains generation
+     */
+    interface MatchRow {
+        Long getId();
+
+        String getSymbol();
+
+        Long getSellTransactionId();
+
+        LocalDate getAcquiredDate();
+
+        LocalDate getSellDate();
+
+        Integer getQuantity();
+
+        BigDecimal getCostBasis();
+
+        BigDecimal getProceeds();
+    }
+
+    /**
+     * Page of a user's lot matches sold between {@code from} and {@code to}, in
+     * (sell date, id) order, after the match at ({@code afterDate}, {@code afterId})
+     */
+    @Query("SELECT m.id AS id, m.symbol AS symbol, m.sellTransactionId AS sellTransactionId, " +
+           "m.acquiredDate AS acquiredDate, m.sellDate AS sellDate, m.quantity AS quantity, " +
+           "m.costBasis AS costBasis, m.proceeds AS proceeds " +
+           "FROM PortfolioLotMatch m WHERE m.userId = :userId AND m.sellDate BETWEEN :from AND :to " +
+           "AND (m.sellDate > :afterDate OR (m.sellDate = :afterDate AND m.id > :afterId)) " +
+           "ORDER BY m.sellDate ASC, m.id ASC")
+    List<MatchRow> findSoldBetweenAfter(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    List<PortfolioLotMatch> findBySellTransactionIdOrderByAcquiredDateAscIdAsc(Long sellTransactionId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PortfolioLotMatch m WHERE m.userId = :userId AND m.symbol = :symbol")
+    int deleteByUserIdAndSymbol(@Param("userId") Long userId, @Param("symbol") String symbol);
+}
@@ -0,0 +1,68 @@
+package com.pisystem.modules.stocks.repo;
+
+import com.pisystem.modules.stocks.data.PortfolioLot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for PortfolioLot entity
+ */
+@Repository
+public interface PortfolioLotRepository extends JpaRepository<PortfolioLot, Long> {
+
+    /**
+     * Remaining quantity and cost of the open lots of a symbol
+     */
+    interface OpenPosition {
+        Long getQuantity();
+
+        BigDecimal getCost();
+    }
+
+    /**
+     * Open lots of a symbol, oldest first, locked for consumption by a SELL.
+     * Fetched a page at a time through idx_portfolio_lots_open, so a SELL reads
+     * and locks only open lots, and only those it touches.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM PortfolioLot l WHERE l.userId = :userId AND l.symbol = :symbol " +
+           "AND l.open = true ORDER BY l.acquiredDate ASC, l.id ASC")
+    List<PortfolioLot> findOpenLotsForUpdate(@Param("userId") Long userId, @Param("symbol") String symbol,
+            Pageable pageable);
+
+    /**
+     * Next page of open lots after the lot at ({@code acquiredDate}, {@code id})
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM PortfolioLot l WHERE l.userId = :userId AND l.symbol = :symbol " +
+           "AND l.open = true " +
+           "AND (l.acquiredDate > :acquiredDate OR (l.acquiredDate = :acquiredDate AND l.id > :id)) " +
+           "ORDER BY l.acquiredDate ASC, l.id ASC")
+    List<PortfolioLot> findOpenLotsForUpdateAfter(@Param("userId") Long userId, @Param("symbol") String symbol,
+            @Param("acquiredDate") LocalDate acquiredDate, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Open lots of a symbol, oldest first
+     */
+    @Query("SELECT l FROM PortfolioLot l WHERE l.userId = :userId AND l.symbol = :symbol " +
+           "AND l.open = true ORDER BY l.acquiredDate ASC, l.id ASC")
+    List<PortfolioLot> findOpenLots(@Param("userId") Long userId, @Param("symbol") String symbol);
+
+    @Query("SELECT COALESCE(SUM(l.remainingQuantity), 0) AS quantity, COALESCE(SUM(l.remainingCost), 0) AS cost " +
+           "FROM PortfolioLot l WHERE l.userId = :userId AND l.symbol = :symbol AND l.open = true")
+    OpenPosition findOpenPosition(@Param("userId") Long userId, @Param("symbol") String symbol);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PortfolioLot l WHERE l.userId = :userId AND l.symbol = :symbol")
+    int deleteByUserIdAndSymbol(@Param("userId") Long userId, @Param("symbol") String symbol);
+}
@@ -27,6 +27,11 @@ public interface PortfolioTransactionRepository extends JpaRepository<PortfolioT
      */
     List<PortfolioTransaction> findByUserIdAndSymbolOrderByTransactionDateAsc(Long userId, String symbol);
 
+    /**
+     * Find transactions by user and symbol in the order they apply to the lot ledger
+     */
+    List<PortfolioTransaction> findByUserIdAndSymbolOrderByTransactionDateAscIdAsc(Long userId, String symbol);
+
     /**
      * Find BUY transactions for a user and symbol (for FIFO calculation)
      */
@@ -72,6 +77,15 @@ public interface PortfolioTransactionRepository extends JpaRepository<PortfolioT
            "WHERE pt.userId = :userId AND pt.symbol = :symbol")
     LocalDate findLatestTransactionDate(@Param("userId") Long userId, @Param("symbol") String symbol);
 
+    /**
+     * Symbols a user sold within a date range
+     */
+    @Query("SELECT DISTINCT pt.symbol FROM PortfolioTransaction pt WHERE pt.userId = :userId " +
+           "AND pt.transactionType = 'SELL' " +
+           "AND pt.transactionDate BETWEEN :startDate AND :endDate")
+    List<String> findSymbolsSoldBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     /**
      * Count total transactions for a user
      */
@@ -0,0 +1,49 @@
+package com.pisystem.modules.stocks.repo;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Batched JDBC writes for live price refreshes: one statement batch updates
+ * {@code stocks.price}, another upserts today's close in {@code stock_prices}
+ * (unique on {@code symbol, price_date}), instead of a load and save per symbol.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockPriceBatchWriter {
+
+    private static final String UPDATE_STOCK_PRICE = "UPDATE stocks SET price = ? WHERE symbol = ?";
+
+    private static final String UPSERT_DAILY_CLOSE = "INSERT INTO stock_prices (symbol, price_date, close_price, created_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE close_price = VALUES(close_price)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void write(Map<String, BigDecimal> prices, LocalDate day) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> stockRows = new ArrayList<>(prices.size());
+        List<Object[]> closeRows = new ArrayList<>(prices.size());
+        prices.forEach((symbol, price) -> {
+            stockRows.add(new Object[] { price.doubleValue(), symbol });
+            closeRows.add(new Object[] { symbol, Date.valueOf(day), price, now });
+        });
+        jdbcTemplate.batchUpdate(UPDATE_STOCK_PRICE, stockRows);
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_CLOSE, closeRows);
+    }
+}
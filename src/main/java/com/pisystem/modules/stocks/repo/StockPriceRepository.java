@@ -1,6 +1,7 @@
 package com.pisystem.modules.stocks.repo;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,8 @@ public interface StockPriceRepository extends JpaRepository<StockPrice, Long> {
 
     List<StockPrice> findBySymbolOrderByPriceDateDesc(String symbol);
 
+    List<StockPrice> findBySymbolAndPriceDateAfterOrderByPriceDateAsc(String symbol, LocalDate priceDate);
+
     @Query("SELECT sp FROM StockPrice sp WHERE sp.symbol = :symbol AND sp.priceDate BETWEEN :startDate AND :endDate ORDER BY sp.priceDate ASC")
     List<StockPrice> findBySymbolAndDateRange(@Param("symbol") String symbol, 
                                                @Param("startDate") LocalDate startDate, 
@@ -31,4 +34,9 @@ public interface StockPriceRepository extends JpaRepository<StockPrice, Long> {
      * Used for getting previous close price.
      */
     Optional<StockPrice> findTopBySymbolOrderByPriceDateDesc(String symbol);
+
+    /** Latest row before {@code date} for each of the symbols that has one. */
+    @Query("SELECT sp FROM StockPrice sp WHERE sp.symbol IN :symbols AND sp.priceDate = "
+            + "(SELECT MAX(p.priceDate) FROM StockPrice p WHERE p.symbol = sp.symbol AND p.priceDate < :date)")
+    List<StockPrice> findPreviousCloses(@Param("symbols") Collection<String> symbols, @Param("date") LocalDate date);
 }
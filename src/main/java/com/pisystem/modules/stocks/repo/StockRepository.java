@@ -15,6 +15,8 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     Stock findBySymbol(String symbol);
 
+    boolean existsBySymbol(String symbol);
+
     @Query("SELECT s.id FROM Stock s WHERE s.symbol = :symbol")
     Long getStockIdBySymbol(@Param("symbol") String symbol);
 }
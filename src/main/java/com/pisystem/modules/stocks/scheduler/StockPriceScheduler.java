@@ -1,13 +1,20 @@
 package com.pisystem.modules.stocks.scheduler;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.stereotype.Component;
 
+import com.pisystem.modules.stocks.data.QuotePriority;
 import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
 import com.pisystem.modules.stocks.repo.StockRepository;
+import com.pisystem.modules.stocks.service.StockQuoteService;
 import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
-import com.pisystem.modules.stocks.thirdParty.providers.IndianAPI.service.IndianAPIService;
 
 import com.pisystem.core.admin.service.JobStatusService;
 import lombok.RequiredArgsConstructor;
@@ -20,7 +27,8 @@ import org.springframework.scheduling.annotation.Scheduled;
 public class StockPriceScheduler {
 
     private final StockRepository stockRepository;
-    private final IndianAPIService indianAPIService;
+    private final StockQuoteService stockQuoteService;
+    private final PortfolioRepository portfolioRepository;
     private final JobStatusService jobStatusService;
 
     // Run every 1 Day
@@ -33,10 +41,24 @@ public class StockPriceScheduler {
         jobStatusService.updateLastRun("STOCK_PRICE_UPDATE");
         List<Stock> allStocks = stockRepository.findAll();
 
+        // Queue everything up front so held symbols get the provider tokens first
+        Set<String> held = new HashSet<>();
+        for (String symbol : portfolioRepository.findHeldSymbols()) {
+            if (symbol != null) {
+                held.add(symbol.toUpperCase());
+            }
+        }
+        Map<String, CompletableFuture<ThirdPartyResponse>> quotes = new HashMap<>();
+        for (Stock stock : allStocks) {
+            String symbol = stock.getSymbol().toUpperCase();
+            QuotePriority priority = held.contains(symbol) ? QuotePriority.HELD : QuotePriority.WATCHLIST;
+            quotes.put(symbol, stockQuoteService.getQuote(symbol, priority));
+        }
+
         for (Stock stock : allStocks) {
             try {
                 // Fetch latest data
-                ThirdPartyResponse response = indianAPIService.fetchStockData(stock.getSymbol());
+                ThirdPartyResponse response = quotes.get(stock.getSymbol().toUpperCase()).join();
 
                 if (response != null && response.getCurrentPrice() != null) {
                     boolean updated = false;
@@ -0,0 +1,265 @@
+package com.pisystem.modules.stocks.service;
+
+import com.pisystem.modules.stocks.data.CostBasisMethod;
+import com.pisystem.modules.stocks.data.PortfolioLot;
+import com.pisystem.modules.stocks.data.PortfolioLotMatch;
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.data.PortfolioTransaction.TransactionType;
+import com.pisystem.modules.stocks.repo.PortfolioLotLedgerStore;
+import com.pisystem.modules.stocks.repo.PortfolioLotMatchRepository;
+import com.pisystem.modules.stocks.repo.PortfolioLotRepository;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lot-level cost basis ledger behind portfolio transactions.
+ *
+ * <p>Each BUY opens a {@link PortfolioLot} (BONUS shares open one at zero cost).
+ * A SELL draws open lots down oldest first and records a {@link PortfolioLotMatch}
+ * per lot it touched. Its cost basis is either each lot's own cost (FIFO) or the
+ * average cost of all open lots (AVERAGE_COST, after which the open lots are
+ * re-costed at that average). FIFO reads only the lots it consumes, a page at a
+ * time; average cost has to read all open lots of the symbol.</p>
+ *
+ * <p>Holdings, average cost and open (tax) lots are reads of the ledger. The
+ * ledger of a (user, symbol) is rebuilt by replaying its transactions when one of
+ * them is edited, deleted or back-dated, and on first use for data recorded before
+ * the ledger existed. A built ledger is marked per (user, symbol), so a symbol with
+ * no open lots is not replayed on every read.</p>
+ */
+@Service
+@Slf4j
+public class PortfolioLotService {
+
+    private static final int LOT_PAGE_SIZE = 16;
+    private static final int COST_SCALE = 4;
+
+    private final PortfolioLotRepository lotRepository;
+    private final PortfolioLotMatchRepository matchRepository;
+    private final PortfolioTransactionRepository transactionRepository;
+    private final PortfolioLotLedgerStore ledgerStore;
+    private final CostBasisMethod defaultMethod;
+
+    public PortfolioLotService(PortfolioLotRepository lotRepository,
+                               PortfolioLotMatchRepository matchRepository,
+                               PortfolioTransactionRepository transactionRepository,
+                               PortfolioLotLedgerStore ledgerStore,
+                               @Value("${stocks.portfolio.cost-basis-method:FIFO}") CostBasisMethod defaultMethod) {
+        this.lotRepository = lotRepository;
+        this.matchRepository = matchRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerStore = ledgerStore;
+        this.defaultMethod = defaultMethod;
+    }
+
+    public CostBasisMethod getDefaultMethod() {
+        return defaultMethod;
+    }
+
+    /**
+     * Whether a transaction dated {@code date} for the symbol has to be applied by
+     * {@link #rebuild} rather than {@link #apply}: it is dated before the symbol's
+     * latest transaction, or the symbol has history but no ledger yet.
+     * Call before saving the transaction.
+     */
+    public boolean needsRebuild(Long userId, String symbol, LocalDate date) {
+        LocalDate latest = transactionRepository.findLatestTransactionDate(userId, symbol);
+        if (latest == null) {
+            return false;
+        }
+        return date.isBefore(latest) || !ledgerStore.isBuilt(userId, symbol);
+    }
+
+    /**
+     * Applies a saved transaction to the ledger. A SELL gets its realized gain and
+     * cost basis method set.
+     */
+    @Transactional
+    public void apply(PortfolioTransaction transaction) {
+        ledgerStore.markBuilt(transaction.getUserId(), transaction.getSymbol());
+        applyToLedger(transaction);
+    }
+
+    /**
+     * Replays the symbol's transactions into a fresh ledger, recalculating the
+     * realized gain of every SELL.
+     */
+    @Transactional
+    public void rebuild(Long userId, String symbol) {
+        matchRepository.deleteByUserIdAndSymbol(userId, symbol);
+        lotRepository.deleteByUserIdAndSymbol(userId, symbol);
+        List<PortfolioTransaction> transactions = transactionRepository
+                .findByUserIdAndSymbolOrderByTransactionDateAscIdAsc(userId, symbol);
+        for (PortfolioTransaction transaction : transactions) {
+            applyToLedger(transaction);
+        }
+        ledgerStore.markBuilt(userId, symbol);
+        log.info("Rebuilt lot ledger for user {} and symbol {} from {} transactions", userId, symbol,
+                transactions.size());
+    }
+
+    /** Rebuilds the symbol's ledger if it has history recorded before the ledger existed. */
+    @Transactional
+    public void ensureBuilt(Long userId, String symbol) {
+        if (!ledgerStore.isBuilt(userId, symbol)
+                && transactionRepository.findLatestTransactionDate(userId, symbol) != null) {
+            rebuild(userId, symbol);
+        }
+    }
+
+    @Transactional
+    public int getOpenQuantity(Long userId, String symbol) {
+        ensureBuilt(userId, symbol);
+        return lotRepository.findOpenPosition(userId, symbol).getQuantity().intValue();
+    }
+
+    /** Average cost per share of the open lots, fees included; zero when nothing is held. */
+    @Transactional
+    public BigDecimal getAverageCost(Long userId, String symbol) {
+        ensureBuilt(userId, symbol);
+        PortfolioLotRepository.OpenPosition position = lotRepository.findOpenPosition(userId, symbol);
+        if (position.getQuantity() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return position.getCost().divide(BigDecimal.valueOf(position.getQuantity()), 2, RoundingMode.HALF_UP);
+    }
+
+    /** Open lots of the symbol, oldest first. */
+    @Transactional
+    public List<PortfolioLot> getOpenLots(Long userId, String symbol) {
+        ensureBuilt(userId, symbol);
+        return lotRepository.findOpenLots(userId, symbol);
+    }
+
+    private void applyToLedger(PortfolioTransaction transaction) {
+        TransactionType type = transaction.getTransactionType();
+        if (type == TransactionType.BUY) {
+            openLot(transaction, amount(transaction).add(fees(transaction)));
+        } else if (type == TransactionType.BONUS) {
+            openLot(transaction, BigDecimal.ZERO);
+        } else if (type == TransactionType.SELL) {
+            sell(transaction);
+        }
+    }
+
+    private void openLot(PortfolioTransaction buy, BigDecimal cost) {
+        lotRepository.save(PortfolioLot.builder()
+                .userId(buy.getUserId())
+                .symbol(buy.getSymbol())
+                .buyTransactionId(buy.getId())
+                .acquiredDate(buy.getTransactionDate())
+                .quantity(buy.getQuantity())
+                .costBasis(cost.setScale(COST_SCALE, RoundingMode.HALF_UP))
+                .remainingQuantity(buy.getQuantity())
+                .remainingCost(cost.setScale(COST_SCALE, RoundingMode.HALF_UP))
+                .build());
+    }
+
+    private void sell(PortfolioTransaction sell) {
+        CostBasisMethod method = sell.getCostBasisMethod() != null ? sell.getCostBasisMethod() : defaultMethod;
+        sell.setCostBasisMethod(method);
+
+        int quantity = sell.getQuantity();
+        BigDecimal proceeds = amount(sell).subtract(fees(sell));
+        List<PortfolioLotMatch> matches = new ArrayList<>();
+        int remaining = quantity;
+        BigDecimal matchedCost = BigDecimal.ZERO;
+
+        if (method == CostBasisMethod.AVERAGE_COST) {
+            List<PortfolioLot> lots = lotRepository.findOpenLotsForUpdate(sell.getUserId(), sell.getSymbol(),
+                    Pageable.unpaged());
+            long openQuantity = 0;
+            BigDecimal openCost = BigDecimal.ZERO;
+            for (PortfolioLot lot : lots) {
+                openQuantity += lot.getRemainingQuantity();
+                openCost = openCost.add(lot.getRemainingCost());
+            }
+            BigDecimal averageCost = openQuantity == 0 ? BigDecimal.ZERO
+                    : openCost.divide(BigDecimal.valueOf(openQuantity), 10, RoundingMode.HALF_UP);
+            for (PortfolioLot lot : lots) {
+                if (remaining > 0) {
+                    int taken = Math.min(remaining, lot.getRemainingQuantity());
+                    BigDecimal cost = averageCost.multiply(BigDecimal.valueOf(taken))
+                            .setScale(COST_SCALE, RoundingMode.HALF_UP);
+                    matches.add(match(sell, lot, taken, cost, proceeds, quantity));
+                    matchedCost = matchedCost.add(cost);
+                    lot.setRemainingQuantity(lot.getRemainingQuantity() - taken);
+                    remaining -= taken;
+                }
+                // Pooled cost: every open lot carries the (unchanged) average
+                lot.setRemainingCost(averageCost.multiply(BigDecimal.valueOf(lot.getRemainingQuantity()))
+                        .setScale(COST_SCALE, RoundingMode.HALF_UP));
+            }
+            lotRepository.saveAll(lots);
+        } else {
+            List<PortfolioLot> page = lotRepository.findOpenLotsForUpdate(sell.getUserId(), sell.getSymbol(),
+                    PageRequest.of(0, LOT_PAGE_SIZE));
+            while (remaining > 0 && !page.isEmpty()) {
+                for (PortfolioLot lot : page) {
+                    if (remaining == 0) {
+                        break;
+                    }
+                    int taken = Math.min(remaining, lot.getRemainingQuantity());
+                    BigDecimal cost = taken == lot.getRemainingQuantity() ? lot.getRemainingCost()
+                            : lot.getRemainingCost().multiply(BigDecimal.valueOf(taken))
+                                    .divide(BigDecimal.valueOf(lot.getRemainingQuantity()), COST_SCALE,
+                                            RoundingMode.HALF_UP);
+                    matches.add(match(sell, lot, taken, cost, proceeds, quantity));
+                    matchedCost = matchedCost.add(cost);
+                    lot.setRemainingQuantity(lot.getRemainingQuantity() - taken);
+                    lot.setRemainingCost(lot.getRemainingCost().subtract(cost));
+                    remaining -= taken;
+                }
+                lotRepository.saveAll(page);
+                if (remaining == 0 || page.size() < LOT_PAGE_SIZE) {
+                    break;
+                }
+                PortfolioLot last = page.get(page.size() - 1);
+                page = lotRepository.findOpenLotsForUpdateAfter(sell.getUserId(), sell.getSymbol(),
+                        last.getAcquiredDate(), last.getId(), PageRequest.of(0, LOT_PAGE_SIZE));
+            }
+        }
+
+        if (remaining > 0) {
+            log.warn("SELL {} of {} {} for user {} exceeds open lots by {}; the excess has no cost basis",
+                    sell.getId(), quantity, sell.getSymbol(), sell.getUserId(), remaining);
+        }
+        matchRepository.saveAll(matches);
+        sell.setRealizedGain(proceeds.subtract(matchedCost).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private static PortfolioLotMatch match(PortfolioTransaction sell, PortfolioLot lot, int taken, BigDecimal cost,
+            BigDecimal proceeds, int quantity) {
+        return PortfolioLotMatch.builder()
+                .userId(sell.getUserId())
+                .symbol(sell.getSymbol())
+                .sellTransactionId(sell.getId())
+                .lotId(lot.getId())
+                .acquiredDate(lot.getAcquiredDate())
+                .sellDate(sell.getTransactionDate())
+                .quantity(taken)
+                .costBasis(cost)
+                .proceeds(proceeds.multiply(BigDecimal.valueOf(taken))
+                        .divide(BigDecimal.valueOf(quantity), COST_SCALE, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    private static BigDecimal amount(PortfolioTransaction transaction) {
+        return transaction.getPrice().multiply(BigDecimal.valueOf(transaction.getQuantity()));
+    }
+
+    private static BigDecimal fees(PortfolioTransaction transaction) {
+        return transaction.getFees() != null ? transaction.getFees() : BigDecimal.ZERO;
+    }
+}
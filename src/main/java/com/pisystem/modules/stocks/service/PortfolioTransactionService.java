@@ -1,18 +1,20 @@
 package com.pisystem.modules.stocks.service;
 
+import com.pisystem.modules.stocks.data.PortfolioLot;
 import com.pisystem.modules.stocks.data.PortfolioTransaction;
 import com.pisystem.modules.stocks.data.PortfolioTransaction.TransactionType;
 import com.pisystem.modules.stocks.dto.PortfolioTransactionRequest;
 import com.pisystem.modules.stocks.dto.TransactionStats;
+import com.pisystem.modules.stocks.event.PortfolioChangedEvent;
 import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
 import com.pisystem.modules.stocks.monitoring.CustomMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -26,7 +28,9 @@ import java.util.Optional;
 public class PortfolioTransactionService {
 
     private final PortfolioTransactionRepository transactionRepository;
+    private final PortfolioLotService lotService;
     private final CustomMetrics customMetrics;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Record a new transaction (BUY, SELL, DIVIDEND, etc.)
@@ -45,46 +49,31 @@ public class PortfolioTransactionService {
                 .fees(request.getFees() != null ? request.getFees() : BigDecimal.ZERO)
                 .transactionDate(request.getTransactionDate() != null ? request.getTransactionDate() : LocalDate.now())
                 .notes(request.getNotes())
+                .costBasisMethod(request.getTransactionType() == TransactionType.SELL
+                        ? request.getCostBasisMethod() : null)
                 .build();
 
-        // Calculate realized gain for SELL transactions using FIFO
-        if (request.getTransactionType() == TransactionType.SELL) {
-            BigDecimal realizedGain = calculateRealizedGain(request.getUserId(), request.getSymbol(), 
-                    request.getQuantity(), request.getPrice());
-            transaction.setRealizedGain(realizedGain);
-            log.info("Realized gain for SELL transaction: {}", realizedGain);
-        }
-
+        // Back-dated or first ledger use: replay the symbol, otherwise apply just this one
+        boolean replay = lotService.needsRebuild(transaction.getUserId(), transaction.getSymbol(),
+                transaction.getTransactionDate());
         PortfolioTransaction saved = transactionRepository.save(transaction);
+        if (replay) {
+            lotService.rebuild(saved.getUserId(), saved.getSymbol());
+            saved = transactionRepository.findById(saved.getId()).orElse(saved);
+            eventPublisher.publishEvent(PortfolioChangedEvent.of(saved.getUserId()));
+        } else {
+            lotService.apply(saved);
+            eventPublisher.publishEvent(PortfolioChangedEvent.recorded(saved));
+        }
+        if (saved.getTransactionType() == TransactionType.SELL) {
+            log.info("Realized gain for SELL transaction ({}): {}", saved.getCostBasisMethod(),
+                    saved.getRealizedGain());
+        }
         customMetrics.incrementPortfolioTransaction();
         
         return saved;
     }
 
-    /**
-     * Calculate realized gain using FIFO (First-In-First-Out) method
-     */
-    private BigDecimal calculateRealizedGain(Long userId, String symbol, Integer sellQuantity, BigDecimal sellPrice) {
-        List<PortfolioTransaction> buyTransactions = transactionRepository
-                .findByUserIdAndSymbolAndTransactionTypeOrderByTransactionDateAsc(userId, symbol, TransactionType.BUY);
-
-        BigDecimal totalCost = BigDecimal.ZERO;
-        int remainingQuantity = sellQuantity;
-
-        for (PortfolioTransaction buyTx : buyTransactions) {
-            if (remainingQuantity <= 0) break;
-
-            int quantityToConsider = Math.min(remainingQuantity, buyTx.getQuantity());
-            BigDecimal cost = buyTx.getPrice().multiply(BigDecimal.valueOf(quantityToConsider));
-            totalCost = totalCost.add(cost);
-            
-            remainingQuantity -= quantityToConsider;
-        }
-
-        BigDecimal saleAmount = sellPrice.multiply(BigDecimal.valueOf(sellQuantity));
-        return saleAmount.subtract(totalCost).setScale(2, RoundingMode.HALF_UP);
-    }
-
     /**
      * Get all transactions for a user
      */
@@ -118,6 +107,8 @@ public class PortfolioTransactionService {
         PortfolioTransaction existing = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
 
+        String previousSymbol = existing.getSymbol();
+
         // Update fields
         existing.setSymbol(request.getSymbol().toUpperCase());
         existing.setTransactionType(request.getTransactionType());
@@ -126,15 +117,22 @@ public class PortfolioTransactionService {
         existing.setFees(request.getFees() != null ? request.getFees() : BigDecimal.ZERO);
         existing.setTransactionDate(request.getTransactionDate() != null ? request.getTransactionDate() : existing.getTransactionDate());
         existing.setNotes(request.getNotes());
-
-        // Recalculate realized gain for SELL transactions
-        if (request.getTransactionType() == TransactionType.SELL) {
-            BigDecimal realizedGain = calculateRealizedGain(existing.getUserId(), request.getSymbol(), 
-                    request.getQuantity(), request.getPrice());
-            existing.setRealizedGain(realizedGain);
+        if (request.getTransactionType() != TransactionType.SELL) {
+            existing.setCostBasisMethod(null);
+            existing.setRealizedGain(null);
+        } else if (request.getCostBasisMethod() != null) {
+            existing.setCostBasisMethod(request.getCostBasisMethod());
         }
 
-        return transactionRepository.save(existing);
+        // Realized gains of this and later SELLs follow from a replay of the ledger
+        PortfolioTransaction saved = transactionRepository.save(existing);
+        lotService.rebuild(saved.getUserId(), saved.getSymbol());
+        if (!previousSymbol.equals(saved.getSymbol())) {
+            lotService.rebuild(saved.getUserId(), previousSymbol);
+        }
+        saved = transactionRepository.findById(transactionId).orElse(saved);
+        eventPublisher.publishEvent(PortfolioChangedEvent.of(saved.getUserId()));
+        return saved;
     }
 
     /**
@@ -143,7 +141,13 @@ public class PortfolioTransactionService {
     @Transactional
     public void deleteTransaction(Long transactionId) {
         log.info("Deleting transaction {}", transactionId);
+        Optional<PortfolioTransaction> existing = transactionRepository.findById(transactionId);
         transactionRepository.deleteById(transactionId);
+        existing.ifPresent(transaction -> {
+            transactionRepository.flush();
+            lotService.rebuild(transaction.getUserId(), transaction.getSymbol());
+            eventPublisher.publishEvent(PortfolioChangedEvent.of(transaction.getUserId()));
+        });
     }
 
     /**
@@ -183,40 +187,24 @@ public class PortfolioTransactionService {
     }
 
     /**
-     * Calculate average buy price for a symbol (for holdings display)
+     * Calculate average buy price for a symbol (for holdings display): the average
+     * cost of the shares still held, from the lot ledger
      */
     public BigDecimal calculateAverageBuyPrice(Long userId, String symbol) {
-        List<PortfolioTransaction> buyTransactions = transactionRepository
-                .findByUserIdAndSymbolAndTransactionTypeOrderByTransactionDateAsc(userId, symbol.toUpperCase(), TransactionType.BUY);
-
-        if (buyTransactions.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        BigDecimal totalCost = BigDecimal.ZERO;
-        int totalQuantity = 0;
-
-        for (PortfolioTransaction tx : buyTransactions) {
-            totalCost = totalCost.add(tx.getPrice().multiply(BigDecimal.valueOf(tx.getQuantity())));
-            totalQuantity += tx.getQuantity();
-        }
-
-        return totalQuantity > 0 ? totalCost.divide(BigDecimal.valueOf(totalQuantity), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return lotService.getAverageCost(userId, symbol.toUpperCase());
     }
 
     /**
-     * Calculate current holdings quantity for a symbol
+     * Calculate current holdings quantity for a symbol, from the lot ledger
      */
     public Integer calculateCurrentHoldings(Long userId, String symbol) {
-        List<PortfolioTransaction> buyTransactions = transactionRepository
-                .findByUserIdAndSymbolAndTransactionTypeOrderByTransactionDateAsc(userId, symbol.toUpperCase(), TransactionType.BUY);
-        
-        List<PortfolioTransaction> sellTransactions = transactionRepository
-                .findByUserIdAndSymbolAndTransactionTypeOrderByTransactionDateAsc(userId, symbol.toUpperCase(), TransactionType.SELL);
-
-        int totalBought = buyTransactions.stream().mapToInt(PortfolioTransaction::getQuantity).sum();
-        int totalSold = sellTransactions.stream().mapToInt(PortfolioTransaction::getQuantity).sum();
+        return lotService.getOpenQuantity(userId, symbol.toUpperCase());
+    }
 
-        return totalBought - totalSold;
+    /**
+     * Open (tax) lots for a symbol, oldest first
+     */
+    public List<PortfolioLot> getOpenLots(Long userId, String symbol) {
+        return lotService.getOpenLots(userId, symbol.toUpperCase());
     }
 }
@@ -3,12 +3,14 @@ package com.pisystem.modules.stocks.service;
 import com.pisystem.shared.security.AuthenticationHelper;
 import com.pisystem.modules.stocks.data.*;
 import com.pisystem.modules.stocks.dto.*;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
 import com.pisystem.modules.stocks.repo.*;
 import com.pisystem.infrastructure.alerts.service.NotificationService;
 import com.pisystem.infrastructure.alerts.entity.NotificationType;
 import com.pisystem.infrastructure.alerts.entity.AlertChannel;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +33,7 @@ public class StockManagementServiceImpl implements StockManagementService {
     private final CorporateActionRepository corporateActionRepository;
     private final AuthenticationHelper authenticationHelper;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== Stock CRUD Operations ====================
 
@@ -103,6 +107,10 @@ public class StockManagementServiceImpl implements StockManagementService {
     @Transactional
     public void savePriceData(StockPrice priceData) {
         priceRepository.save(priceData);
+        if (priceData.getPriceDate() != null && priceData.getClosePrice() != null) {
+            eventPublisher.publishEvent(new StockPricesUpdatedEvent(priceData.getPriceDate(),
+                    Map.of(priceData.getSymbol(), priceData.getClosePrice())));
+        }
     }
 
     @Override
@@ -0,0 +1,140 @@
+package com.pisystem.modules.stocks.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.pisystem.modules.stocks.repo.StockRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Symbols some STOMP session is subscribed to on {@code /topic/stock-price/{symbol}},
+ * kept from the broker's session events. The live price refresh fetches only these.
+ * <p>
+ * Every subscribed symbol is fetched from the paid providers on each refresh, so
+ * as an inbound channel interceptor it refuses a SUBSCRIBE to a symbol that is not
+ * in the {@code stocks} table, and any beyond
+ * {@code stocks.price-stream.max-subscriptions-per-session} for one session.
+ */
+@Component
+@Slf4j
+public class StockPriceSubscriptionRegistry implements ChannelInterceptor {
+
+    public static final String SYMBOL_TOPIC_PREFIX = "/topic/stock-price/";
+
+    // session id -> (subscription id -> symbol)
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    // symbol -> number of subscriptions across sessions
+    private final Map<String, Integer> subscribers = new HashMap<>();
+
+    private final StockRepository stockRepository;
+    private final int maxSubscriptionsPerSession;
+
+    public StockPriceSubscriptionRegistry(StockRepository stockRepository,
+            @Value("${stocks.price-stream.max-subscriptions-per-session:50}") int maxSubscriptionsPerSession) {
+        this.stockRepository = stockRepository;
+        this.maxSubscriptionsPerSession = maxSubscriptionsPerSession;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(SYMBOL_TOPIC_PREFIX)) {
+            return message;
+        }
+        String symbol = symbolOf(destination);
+        if (symbol == null || !stockRepository.existsBySymbol(symbol)) {
+            throw new MessageDeliveryException(message, "Unknown stock symbol in " + destination);
+        }
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.getOrDefault(accessor.getSessionId(), Map.of());
+            if (!subscriptions.containsKey(accessor.getSubscriptionId())
+                    && subscriptions.size() >= maxSubscriptionsPerSession) {
+                throw new MessageDeliveryException(message,
+                        "At most " + maxSubscriptionsPerSession + " stock price subscriptions per session");
+            }
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String symbol = symbolOf(accessor.getDestination());
+        if (symbol == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (this) {
+            String previous = sessions.computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), symbol);
+            if (previous != null) {
+                release(previous);
+            }
+            subscribers.merge(symbol, 1, Integer::sum);
+        }
+        log.debug("Session {} subscribed to {}", accessor.getSessionId(), symbol);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.get(accessor.getSessionId());
+            if (subscriptions == null) {
+                return;
+            }
+            String symbol = subscriptions.remove(accessor.getSubscriptionId());
+            if (symbol != null) {
+                release(symbol);
+            }
+            if (subscriptions.isEmpty()) {
+                sessions.remove(accessor.getSessionId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+            if (subscriptions != null) {
+                subscriptions.values().forEach(this::release);
+            }
+        }
+    }
+
+    public synchronized Set<String> subscribedSymbols() {
+        return Set.copyOf(subscribers.keySet());
+    }
+
+    private void release(String symbol) {
+        subscribers.computeIfPresent(symbol, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static String symbolOf(String destination) {
+        if (destination == null || !destination.startsWith(SYMBOL_TOPIC_PREFIX)) {
+            return null;
+        }
+        String symbol = destination.substring(SYMBOL_TOPIC_PREFIX.length());
+        return symbol.isEmpty() || symbol.contains("/") ? null : symbol;
+    }
+}
@@ -1,111 +1,159 @@
 package com.pisystem.modules.stocks.service;
 
-import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.data.QuotePriority;
 import com.pisystem.modules.stocks.data.StockPrice;
+import com.pisystem.modules.stocks.dto.StockPriceDelta;
 import com.pisystem.modules.stocks.dto.StockPriceUpdate;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.repo.StockPriceBatchWriter;
 import com.pisystem.modules.stocks.repo.StockPriceRepository;
-import com.pisystem.modules.stocks.repo.StockRepository;
 import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
-import com.pisystem.modules.stocks.thirdParty.providers.IndianAPI.service.IndianAPIService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * Service for fetching and broadcasting real-time stock prices via WebSocket.
+ *
+ * <p>Only symbols some session is subscribed to are refreshed (see
+ * {@link StockPriceSubscriptionRegistry}). A symbol is written back and broadcast
+ * only when its price moved by at least {@code stocks.price-stream.tick-size} since
+ * its last frame; a symbol that was just subscribed always gets a first frame.</p>
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StockPriceWebSocketService {
 
-    private final StockRepository stockRepository;
+    public static final String ALL_PRICES_TOPIC = "/topic/stock-prices";
+
     private final StockPriceRepository stockPriceRepository;
-    private final IndianAPIService indianAPIService;
+    private final StockPriceBatchWriter stockPriceBatchWriter;
+    private final StockPriceSubscriptionRegistry subscriptionRegistry;
+    private final StockQuoteService stockQuoteService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${stocks.price-stream.tick-size:0.05}")
+    private BigDecimal tickSize = new BigDecimal("0.05");
+
+    @Value("${stocks.price-stream.fetch-timeout-ms:20000}")
+    private long fetchTimeoutMs = 20000;
+
+    // Last price broadcast per subscribed symbol
+    private final Map<String, BigDecimal> lastBroadcast = new ConcurrentHashMap<>();
+    // Previous close per symbol, valid for previousClosesDay; empty when the symbol has no history
+    private final Map<String, Optional<BigDecimal>> previousCloses = new ConcurrentHashMap<>();
+    private volatile LocalDate previousClosesDay;
 
     /**
-     * Fetch latest prices for all stocks in the database.
-     * This method is called by the scheduled broadcaster.
+     * Refreshes the subscribed symbols and broadcasts a delta frame for each one that
+     * moved: to {@code /topic/stock-price/{symbol}} and, together, to
+     * {@link #ALL_PRICES_TOPIC}.
+     *
+     * @return the frames sent, empty if nothing moved
      */
-    @Transactional(readOnly = true)
-    public List<StockPriceUpdate> fetchLatestPrices() {
-        List<StockPriceUpdate> updates = new ArrayList<>();
-        List<Stock> allStocks = stockRepository.findAll();
+    public synchronized List<StockPriceDelta> broadcastSubscribedPrices() {
+        Set<String> symbols = subscriptionRegistry.subscribedSymbols();
+        // Forget symbols nobody watches any more, so a new subscriber gets a first frame
+        lastBroadcast.keySet().retainAll(symbols);
+        if (symbols.isEmpty()) {
+            return List.of();
+        }
 
-        for (Stock stock : allStocks) {
-            try {
-                StockPriceUpdate update = fetchSingleStockPrice(stock.getSymbol());
-                if (update != null && update.getCurrentPrice() != null) {
-                    updates.add(update);
-                    
-                    // Update the stock entity with latest price
-                    stock.setPrice(update.getCurrentPrice().doubleValue());
-                    stockRepository.save(stock);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch price for {}: {}", stock.getSymbol(), e.getMessage());
+        Map<String, BigDecimal> prices = fetchPrices(symbols);
+        Map<String, Optional<BigDecimal>> closes = previousCloses(prices.keySet());
+
+        Map<String, BigDecimal> moved = new LinkedHashMap<>();
+        List<StockPriceDelta> deltas = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        prices.forEach((symbol, price) -> {
+            BigDecimal last = lastBroadcast.get(symbol);
+            if (last != null && price.subtract(last).abs().compareTo(tickSize) < 0) {
+                return;
             }
+            moved.put(symbol, price);
+            deltas.add(delta(symbol, price, closes.getOrDefault(symbol, Optional.empty()).orElse(null), now));
+        });
+        if (moved.isEmpty()) {
+            return List.of();
         }
 
-        return updates;
+        LocalDate today = LocalDate.now();
+        stockPriceBatchWriter.write(moved, today);
+        lastBroadcast.putAll(moved);
+
+        for (StockPriceDelta delta : deltas) {
+            messagingTemplate.convertAndSend(StockPriceSubscriptionRegistry.SYMBOL_TOPIC_PREFIX + delta.getSymbol(),
+                    delta);
+        }
+        messagingTemplate.convertAndSend(ALL_PRICES_TOPIC, deltas);
+        eventPublisher.publishEvent(new StockPricesUpdatedEvent(today, moved));
+        log.debug("Broadcasted {} of {} subscribed symbols", deltas.size(), symbols.size());
+        return deltas;
     }
 
     /**
-     * Fetch price for a single stock symbol.
+     * Fetch price for a single stock symbol on behalf of a waiting user.
      */
     public StockPriceUpdate fetchSingleStockPrice(String symbol) {
+        return fetchSingleStockPrice(symbol, QuotePriority.INTERACTIVE);
+    }
+
+    /**
+     * Fetch price for a single stock symbol through the shared quote service, so it
+     * is served from cache or joins an in-flight request like the broadcast path.
+     */
+    public StockPriceUpdate fetchSingleStockPrice(String symbol, QuotePriority priority) {
         try {
-            // Fetch from external API
-            ThirdPartyResponse response = indianAPIService.fetchStockData(symbol);
-
-            if (response != null && response.getCurrentPrice() != null) {
-                Double nsePrice = response.getCurrentPrice().getNSE();
-                Double bsePrice = response.getCurrentPrice().getBSE();
-                
-                BigDecimal currentPrice = null;
-                if (nsePrice != null) {
-                    currentPrice = BigDecimal.valueOf(nsePrice);
-                } else if (bsePrice != null) {
-                    currentPrice = BigDecimal.valueOf(bsePrice);
-                }
+            ThirdPartyResponse response = stockQuoteService.fetchQuote(symbol, priority);
+            BigDecimal currentPrice = priceOf(response);
 
-                if (currentPrice == null) {
-                    log.warn("No price data available for {}", symbol);
-                    return null;
-                }
+            if (currentPrice == null) {
+                log.warn("No price data available for {}", symbol);
+                return null;
+            }
 
-                // Get previous close from stock_prices table
-                BigDecimal previousClose = getPreviousClose(symbol);
+            // Get previous close from stock_prices table
+            BigDecimal previousClose = getPreviousClose(symbol);
 
-                // Build the update DTO
-                StockPriceUpdate update = StockPriceUpdate.builder()
-                        .symbol(symbol)
-                        .currentPrice(currentPrice)
-                        .previousClose(previousClose)
-                        .timestamp(LocalDateTime.now())
-                        .build();
+            // Build the update DTO
+            StockPriceUpdate update = StockPriceUpdate.builder()
+                    .symbol(symbol)
+                    .currentPrice(currentPrice)
+                    .previousClose(previousClose)
+                    .timestamp(LocalDateTime.now())
+                    .build();
 
-                // Additional data like dayHigh, dayLow not available in current API response
-                
-                // Calculate change and change percentage
-                update.calculateChange();
+            // Additional data like dayHigh, dayLow not available in current API response
 
-                // Save to stock_prices table for historical tracking
-                saveStockPriceHistory(symbol, response);
+            // Calculate change and change percentage
+            update.calculateChange();
 
-                return update;
-            }
+            // Save to stock_prices table for historical tracking
+            saveStockPriceHistory(symbol, currentPrice);
+
+            return update;
         } catch (Exception e) {
             log.error("Error fetching price for {}", symbol, e);
         }
@@ -118,30 +166,97 @@ public class StockPriceWebSocketService {
      */
     public StockPriceUpdate refreshAndBroadcastSingleStock(String symbol) {
         StockPriceUpdate update = fetchSingleStockPrice(symbol);
-        
+
         if (update != null) {
+            StockPriceDelta delta = toDelta(update);
+            lastBroadcast.put(symbol, update.getCurrentPrice());
+
             // Broadcast to subscribers of this specific symbol
-            messagingTemplate.convertAndSend("/topic/stock-price/" + symbol, update);
-            
+            messagingTemplate.convertAndSend(StockPriceSubscriptionRegistry.SYMBOL_TOPIC_PREFIX + symbol, delta);
+
             // Also broadcast to general stock prices topic
-            messagingTemplate.convertAndSend("/topic/stock-prices", List.of(update));
-            
+            messagingTemplate.convertAndSend(ALL_PRICES_TOPIC, List.of(delta));
+
             log.info("Broadcasted price update for {}: {}", symbol, update.getCurrentPrice());
         }
-        
+
         return update;
     }
 
+    /**
+     * The frame sent on the price topics for a full price update.
+     */
+    public StockPriceDelta toDelta(StockPriceUpdate update) {
+        return update == null ? null : delta(update.getSymbol(), update.getCurrentPrice(), update.getPreviousClose(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Quotes for the symbols through the shared quote service, which serves cached
+     * quotes and batches the rest. Symbols without a price by the deadline are skipped.
+     */
+    private Map<String, BigDecimal> fetchPrices(Set<String> symbols) {
+        Map<String, CompletableFuture<ThirdPartyResponse>> quotes = stockQuoteService.getQuotes(symbols,
+                QuotePriority.HELD);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs);
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            CompletableFuture<ThirdPartyResponse> quote = quotes.get(symbol.trim().toUpperCase(Locale.ROOT));
+            if (quote == null) {
+                continue;
+            }
+            try {
+                BigDecimal price = priceOf(quote.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                if (price != null) {
+                    prices.put(symbol, price);
+                }
+            } catch (TimeoutException e) {
+                log.warn("No quote for {} within {} ms", symbol, fetchTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Failed to fetch price for {}: {}", symbol, e.getMessage());
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Previous closes for the symbols, loaded in one query for those not seen today.
+     */
+    private Map<String, Optional<BigDecimal>> previousCloses(Set<String> symbols) {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(previousClosesDay)) {
+            previousCloses.clear();
+            previousClosesDay = today;
+        }
+        List<String> missing = symbols.stream()
+                .filter(symbol -> !previousCloses.containsKey(symbol))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            Map<String, BigDecimal> loaded = new LinkedHashMap<>();
+            try {
+                for (StockPrice price : stockPriceRepository.findPreviousCloses(missing, today)) {
+                    loaded.put(price.getSymbol(), price.getClosePrice());
+                }
+                missing.forEach(symbol -> previousCloses.put(symbol, Optional.ofNullable(loaded.get(symbol))));
+            } catch (Exception e) {
+                log.warn("Could not fetch previous closes: {}", e.getMessage());
+            }
+        }
+        return previousCloses;
+    }
+
     /**
      * Get the previous close price from stock_prices table.
      */
     private BigDecimal getPreviousClose(String symbol) {
         try {
-            // Get the most recent stock price entry (yesterday's close)
-            Optional<StockPrice> latestPrice = stockPriceRepository
-                    .findTopBySymbolOrderByPriceDateDesc(symbol);
-            
-            return latestPrice.map(StockPrice::getClosePrice)
+            // The most recent entry before today (today's row holds the live price)
+            return stockPriceRepository.findPreviousCloses(List.of(symbol), LocalDate.now()).stream()
+                    .findFirst()
+                    .map(StockPrice::getClosePrice)
                     .orElse(null);
         } catch (Exception e) {
             log.warn("Could not fetch previous close for {}", symbol);
@@ -150,45 +265,42 @@ public class StockPriceWebSocketService {
     }
 
     /**
-     * Save stock price data to stock_prices table for historical tracking.
+     * Save stock price data to stock_prices table for historical tracking, and
+     * announce it like a broadcast refresh.
      */
-    private void saveStockPriceHistory(String symbol, ThirdPartyResponse response) {
+    private void saveStockPriceHistory(String symbol, BigDecimal price) {
         try {
             LocalDate today = LocalDate.now();
-            
-            // Check if we already have an entry for today
-            Optional<StockPrice> existingPrice = stockPriceRepository
-                    .findBySymbolAndPriceDate(symbol, today);
-
-            StockPrice stockPrice;
-            if (existingPrice.isPresent()) {
-                // Update existing record
-                stockPrice = existingPrice.get();
-            } else {
-                // Create new record
-                stockPrice = new StockPrice();
-                stockPrice.setSymbol(symbol);
-                stockPrice.setPriceDate(today);
-            }
-
-            // Update prices (convert Double to BigDecimal)
-            Double nse = response.getCurrentPrice().getNSE();
-            Double bse = response.getCurrentPrice().getBSE();
-            
-            if (nse != null) {
-                stockPrice.setClosePrice(BigDecimal.valueOf(nse));
-            } else if (bse != null) {
-                stockPrice.setClosePrice(BigDecimal.valueOf(bse));
-            }
-
-            // DayHigh, DayLow, Open not available in current API response
-            // These fields would need to be added to the ThirdPartyResponse.currentPrice class
-
-            // Save to database
-            stockPriceRepository.save(stockPrice);
-            
+            stockPriceBatchWriter.write(Map.of(symbol, price), today);
+            eventPublisher.publishEvent(new StockPricesUpdatedEvent(today, Map.of(symbol, price)));
         } catch (Exception e) {
             log.warn("Failed to save price history for {}: {}", symbol, e.getMessage());
         }
     }
+
+    private static StockPriceDelta delta(String symbol, BigDecimal price, BigDecimal previousClose, long timestamp) {
+        StockPriceDelta.StockPriceDeltaBuilder delta = StockPriceDelta.builder()
+                .symbol(symbol)
+                .price(price)
+                .timestamp(timestamp);
+        if (previousClose != null && previousClose.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal change = price.subtract(previousClose);
+            delta.change(change)
+                    .changePercent(change.multiply(BigDecimal.valueOf(100))
+                            .divide(previousClose, 2, RoundingMode.HALF_UP));
+        }
+        return delta.build();
+    }
+
+    private static BigDecimal priceOf(ThirdPartyResponse response) {
+        if (response == null || response.getCurrentPrice() == null) {
+            return null;
+        }
+        Double nsePrice = response.getCurrentPrice().getNSE();
+        Double bsePrice = response.getCurrentPrice().getBSE();
+        if (nsePrice != null) {
+            return BigDecimal.valueOf(nsePrice);
+        }
+        return bsePrice != null ? BigDecimal.valueOf(bsePrice) : null;
+    }
 }
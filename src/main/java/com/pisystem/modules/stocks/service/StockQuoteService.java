@@ -0,0 +1,28 @@
+package com.pisystem.modules.stocks.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.pisystem.modules.stocks.data.QuotePriority;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+
+/**
+ * Entry point for third-party stock quotes. Serves cached quotes, shares one
+ * upstream call between concurrent requests for the same symbol and batches
+ * queued symbols in priority order.
+ */
+public interface StockQuoteService {
+
+    /** Completes with the quote, or exceptionally when no provider returned one. */
+    CompletableFuture<ThirdPartyResponse> getQuote(String symbol, QuotePriority priority);
+
+    /** One future per distinct (upper-cased) symbol. */
+    Map<String, CompletableFuture<ThirdPartyResponse>> getQuotes(Collection<String> symbols, QuotePriority priority);
+
+    /**
+     * Blocking variant of {@link #getQuote(String, QuotePriority)} for request
+     * threads; gives up after {@code stocks.quote.timeout-ms}.
+     */
+    ThirdPartyResponse fetchQuote(String symbol, QuotePriority priority);
+}
@@ -0,0 +1,355 @@
+package com.pisystem.modules.stocks.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.pisystem.modules.stocks.cache.QuoteCache;
+import com.pisystem.modules.stocks.data.QuotePriority;
+import com.pisystem.modules.stocks.exception.QuoteUnavailableException;
+import com.pisystem.modules.stocks.ratelimit.ProviderGovernor;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+import com.pisystem.modules.stocks.thirdParty.factory.StockDataProviderFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Quote front end for {@link StockDataProviderFactory}.
+ *
+ * <h3>Cache</h3>
+ * Quotes are read from the two-tier {@link QuoteCache}. A stale hit is returned
+ * at once and queues a background refresh (never above {@link QuotePriority#HELD},
+ * since nobody waits on it).
+ *
+ * <h3>Single flight</h3>
+ * A cache miss registers one pending request per symbol. Concurrent misses for
+ * the same symbol attach to it instead of calling the provider again, so a burst
+ * of portfolio refreshes costs one upstream call (and one rate-limit token) per
+ * symbol. The quote is cached before the pending entry is removed, so a request
+ * arriving in between always finds one or the other.
+ *
+ * <h3>Priority and batching</h3>
+ * Pending requests wait in a priority queue ({@link QuotePriority}, then arrival
+ * order). A dispatcher hands them to {@code stocks.quote.workers} workers, taking
+ * the highest-priority request whenever a worker frees up, so held symbols use
+ * the provider tokens before watchlist-only ones. A request for a symbol that is
+ * already queued at a lower priority raises it. When the primary provider has a
+ * multi-symbol endpoint, the dispatcher waits up to
+ * {@code stocks.quote.batch-window-ms} to fill a batch of up to
+ * {@code stocks.quote.max-batch-size} symbols.
+ *
+ * <h3>Metrics</h3>
+ * {@code stocks.quote.queue.depth} (gauge), {@code stocks.quote.coalesced},
+ * {@code stocks.quote.refreshes}, {@code stocks.quote.upstream.symbols} and
+ * {@code stocks.quote.upstream.batches} (counters); cache metrics are described
+ * on {@link QuoteCache}.
+ */
+@Service
+@Slf4j
+public class StockQuoteServiceImpl implements StockQuoteService {
+
+    private final StockDataProviderFactory providerFactory;
+    private final QuoteCache quoteCache;
+    private final int maxBatchSize;
+    private final long batchWindowNanos;
+    private final long timeoutMs;
+
+    private final Map<String, PendingQuote> inFlight = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<PendingQuote> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Semaphore idleWorkers;
+    private final ExecutorService workers;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("stock-quote-dispatcher-"));
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong upstreamSymbols = new AtomicLong();
+    private final AtomicLong upstreamBatches = new AtomicLong();
+
+    public StockQuoteServiceImpl(StockDataProviderFactory providerFactory,
+                                 QuoteCache quoteCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${stocks.quote.workers:2}") int workerCount,
+                                 @Value("${stocks.quote.max-batch-size:20}") int maxBatchSize,
+                                 @Value("${stocks.quote.batch-window-ms:25}") long batchWindowMs,
+                                 @Value("${stocks.quote.timeout-ms:15000}") long timeoutMs) {
+        this.providerFactory = providerFactory;
+        this.quoteCache = quoteCache;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+        this.timeoutMs = timeoutMs;
+        int threads = Math.max(1, workerCount);
+        this.idleWorkers = new Semaphore(threads);
+        this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("stock-quote-"));
+
+        Gauge.builder("stocks.quote.queue.depth", queue, PriorityBlockingQueue::size)
+                .description("Quote requests waiting for a provider call")
+                .register(meterRegistry);
+        FunctionCounter.builder("stocks.quote.coalesced", coalesced, AtomicLong::get)
+                .description("Quote requests that joined an in-flight request for the same symbol")
+                .register(meterRegistry);
+        FunctionCounter.builder("stocks.quote.refreshes", refreshes, AtomicLong::get)
+                .description("Background refreshes started by stale cache hits")
+                .register(meterRegistry);
+        FunctionCounter.builder("stocks.quote.upstream.symbols", upstreamSymbols, AtomicLong::get)
+                .description("Symbols requested from the providers")
+                .register(meterRegistry);
+        FunctionCounter.builder("stocks.quote.upstream.batches", upstreamBatches, AtomicLong::get)
+                .description("Provider batch calls")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.execute(this::dispatchLoop);
+        log.info("Stock quote service started: maxBatchSize={}", maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+        for (PendingQuote pending : inFlight.values()) {
+            pending.future.completeExceptionally(new QuoteUnavailableException("Quote service is shutting down"));
+        }
+        inFlight.clear();
+        queue.clear();
+    }
+
+    @Override
+    public CompletableFuture<ThirdPartyResponse> getQuote(String symbol, QuotePriority priority) {
+        String key = normalize(symbol);
+        if (key.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Symbol must not be blank"));
+        }
+        QuoteCache.QuoteLookup cached = quoteCache.get(key);
+        if (cached.isHit()) {
+            if (cached.isStale()) {
+                refreshes.incrementAndGet();
+                enqueue(key, priority == QuotePriority.INTERACTIVE ? QuotePriority.HELD : priority);
+            }
+            return CompletableFuture.completedFuture(cached.getQuote());
+        }
+
+        // A copy, so a caller cancelling its future does not cancel everyone else's
+        return enqueue(key, priority).future.copy();
+    }
+
+    /** Queues a provider request for the symbol, or joins the one already pending. */
+    private PendingQuote enqueue(String key, QuotePriority priority) {
+        PendingQuote created = new PendingQuote(key, priority, sequence.incrementAndGet(),
+                ProviderGovernor.currentRequester());
+        PendingQuote pending = inFlight.putIfAbsent(key, created);
+        if (pending == null) {
+            queue.offer(created);
+            return created;
+        }
+        coalesced.incrementAndGet();
+        pending.raiseTo(priority, queue);
+        return pending;
+    }
+
+    @Override
+    public Map<String, CompletableFuture<ThirdPartyResponse>> getQuotes(Collection<String> symbols,
+            QuotePriority priority) {
+        Map<String, CompletableFuture<ThirdPartyResponse>> quotes = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            String key = normalize(symbol);
+            if (!key.isEmpty() && !quotes.containsKey(key)) {
+                quotes.put(key, getQuote(key, priority));
+            }
+        }
+        return quotes;
+    }
+
+    @Override
+    public ThirdPartyResponse fetchQuote(String symbol, QuotePriority priority) {
+        CompletableFuture<ThirdPartyResponse> quote = getQuote(symbol, priority);
+        try {
+            return quote.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            quote.cancel(false);
+            throw new QuoteUnavailableException("Timed out waiting for a quote for " + symbol, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QuoteUnavailableException("Interrupted while waiting for a quote for " + symbol, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new QuoteUnavailableException("Quote for " + symbol + " failed", e.getCause());
+        }
+    }
+
+    // =========================================================================
+    // Dispatch
+    // =========================================================================
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                idleWorkers.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // The permit goes with the batch to a worker; on every other path it is returned here
+            boolean handedOff = false;
+            try {
+                List<PendingQuote> batch = nextBatch();
+                try {
+                    workers.execute(() -> {
+                        try {
+                            fetch(batch);
+                        } finally {
+                            idleWorkers.release();
+                        }
+                    });
+                    handedOff = true;
+                } catch (RejectedExecutionException e) {
+                    fail(batch, new QuoteUnavailableException("Quote service is shutting down"));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!handedOff) {
+                    idleWorkers.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks for the highest-priority request, then tops the batch up while the provider accepts more.
+     * An interrupt while topping up ends the batch early instead of dropping what was already taken.
+     */
+    List<PendingQuote> nextBatch() throws InterruptedException {
+        List<PendingQuote> batch = new ArrayList<>();
+        batch.add(queue.take());
+        int limit = Math.min(maxBatchSize, providerFactory.maxBatchSize());
+        if (limit > 1) {
+            long deadline = System.nanoTime() + batchWindowNanos;
+            while (batch.size() < limit) {
+                PendingQuote next;
+                try {
+                    next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        }
+        return batch;
+    }
+
+    void fetch(List<PendingQuote> batch) {
+        List<String> symbols = new ArrayList<>(batch.size());
+        for (PendingQuote pending : batch) {
+            symbols.add(pending.symbol);
+        }
+        upstreamBatches.incrementAndGet();
+        upstreamSymbols.addAndGet(symbols.size());
+
+        Map<String, ThirdPartyResponse> responses;
+        long started = System.nanoTime();
+        try {
+            // Provider permits are charged to whoever first asked for the batch's lead symbol
+            responses = providerFactory.fetchStockDataBatch(symbols, batch.get(0).requester);
+            quoteCache.recordUpstreamLoad(System.nanoTime() - started);
+        } catch (RuntimeException e) {
+            log.error("Quote batch failed for {}: {}", symbols, e.getMessage());
+            fail(batch, new QuoteUnavailableException("Unable to fetch quotes: " + e.getMessage(), e));
+            return;
+        }
+
+        for (PendingQuote pending : batch) {
+            ThirdPartyResponse response = responses.get(pending.symbol);
+            if (response != null) {
+                quoteCache.put(pending.symbol, response);
+                inFlight.remove(pending.symbol, pending);
+                pending.future.complete(response);
+            } else {
+                inFlight.remove(pending.symbol, pending);
+                pending.future.completeExceptionally(
+                        new QuoteUnavailableException("No provider returned a quote for " + pending.symbol));
+            }
+        }
+    }
+
+    private void fail(List<PendingQuote> batch, RuntimeException error) {
+        for (PendingQuote pending : batch) {
+            inFlight.remove(pending.symbol, pending);
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private static String normalize(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** One symbol waiting for, or being fetched from, the providers. */
+    static final class PendingQuote implements Comparable<PendingQuote> {
+
+        final String symbol;
+        final long sequence;
+        final String requester;
+        final CompletableFuture<ThirdPartyResponse> future = new CompletableFuture<>();
+        private volatile QuotePriority priority;
+
+        PendingQuote(String symbol, QuotePriority priority, long sequence, String requester) {
+            this.symbol = symbol;
+            this.priority = priority != null ? priority : QuotePriority.WATCHLIST;
+            this.sequence = sequence;
+            this.requester = requester;
+        }
+
+        /**
+         * Moves a still-queued request up to {@code requested}. The queue orders on
+         * the priority, so it is taken out before the change and put back after.
+         */
+        synchronized void raiseTo(QuotePriority requested, PriorityBlockingQueue<PendingQuote> queue) {
+            if (requested == null || requested.compareTo(priority) >= 0) {
+                return;
+            }
+            if (queue.remove(this)) {
+                priority = requested;
+                queue.offer(this);
+            }
+        }
+
+        @Override
+        public int compareTo(PendingQuote other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
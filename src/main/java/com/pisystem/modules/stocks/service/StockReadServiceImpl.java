@@ -5,6 +5,7 @@ import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import com.pisystem.modules.stocks.data.QuotePriority;
 import com.pisystem.modules.stocks.data.Stock;
 import com.pisystem.modules.stocks.data.StockResponse;
 import com.pisystem.modules.stocks.diversification.sectors.data.Sector;
@@ -13,7 +14,6 @@ import com.pisystem.modules.stocks.diversification.sectors.service.SectorNormali
 import com.pisystem.modules.stocks.exception.SymbolNotFoundException;
 import com.pisystem.modules.stocks.repo.StockRepository;
 import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
-import com.pisystem.modules.stocks.thirdParty.factory.StockDataProviderFactory;
 import com.pisystem.modules.stocks.thirdParty.providers.IndianAPI.service.IndianAPIService;
 
 @Service
@@ -24,17 +24,17 @@ public class StockReadServiceImpl implements StockReadService {
     final StockRepository stockRepository;
     final SectorRepository sectorRepository;
     final SectorNormalizer sectorNormalizer;
-    final StockDataProviderFactory stockDataProviderFactory;
+    final StockQuoteService stockQuoteService;
 
     public StockReadServiceImpl(final JdbcTemplate jdbcTemplate, final IndianAPIService indianAPIService,
             final StockRepository stockRepository, final SectorRepository sectorRepository,
-            final SectorNormalizer sectorNormalizer, final StockDataProviderFactory stockDataProviderFactory) {
+            final SectorNormalizer sectorNormalizer, final StockQuoteService stockQuoteService) {
         this.jdbcTemplate = jdbcTemplate;
         this.indianAPIService = indianAPIService;
         this.stockRepository = stockRepository;
         this.sectorRepository = sectorRepository;
         this.sectorNormalizer = sectorNormalizer;
-        this.stockDataProviderFactory = stockDataProviderFactory;
+        this.stockQuoteService = stockQuoteService;
     }
 
     @Override
@@ -60,7 +60,7 @@ public class StockReadServiceImpl implements StockReadService {
     }
 
     public StockResponse fetchFromThirdParty(String symbol, Stock stock) {
-        ThirdPartyResponse response = this.stockDataProviderFactory.fetchStockDataWithRetry(symbol);
+        ThirdPartyResponse response = this.stockQuoteService.fetchQuote(symbol, QuotePriority.INTERACTIVE);
         if (response == null) {
             throw new SymbolNotFoundException("Symbol not found in third-party API: " + symbol);
         }
@@ -1,8 +1,38 @@
 package com.pisystem.modules.stocks.thirdParty;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface StockDataProvider {
 
     ThirdPartyResponse fetchStockData(String symbol);
 
     String getProviderName();
+
+    /**
+     * Fetches several symbols in one go. Symbols that could not be fetched are
+     * absent from the result. Providers with a multi-symbol endpoint override
+     * this together with {@link #maxBatchSize()}; the default asks one symbol
+     * at a time.
+     */
+    default Map<String, ThirdPartyResponse> fetchStockData(Collection<String> symbols) {
+        Map<String, ThirdPartyResponse> responses = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            try {
+                ThirdPartyResponse response = fetchStockData(symbol);
+                if (response != null) {
+                    responses.put(symbol, response);
+                }
+            } catch (RuntimeException e) {
+                // The caller decides what to do with the missing symbols
+            }
+        }
+        return responses;
+    }
+
+    /** Most symbols one {@link #fetchStockData(Collection)} call is worth sending. */
+    default int maxBatchSize() {
+        return 1;
+    }
 }
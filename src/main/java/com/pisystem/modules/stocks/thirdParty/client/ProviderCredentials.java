@@ -0,0 +1,85 @@
+package com.pisystem.modules.stocks.thirdParty.client;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pisystem.integrations.externalservices.data.ExternalServicePropertiesEntity;
+import com.pisystem.integrations.externalservices.event.ExternalServicePropertiesChangedEvent;
+import com.pisystem.integrations.externalservices.service.ExternalService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock provider settings (API keys, base URLs) from {@code external_service_properties},
+ * cached per service so a quote does not cost a database round trip. Entries expire
+ * after {@code stocks.provider.credentials-ttl-minutes} and are dropped at once when
+ * a property of the service is changed through {@link ExternalService}.
+ */
+@Component
+@Slf4j
+public class ProviderCredentials {
+
+    private final ExternalService externalService;
+    private final Cache<String, Map<String, String>> properties;
+
+    public ProviderCredentials(ExternalService externalService,
+                               @Value("${stocks.provider.credentials-ttl-minutes:10}") long ttlMinutes) {
+        this.externalService = externalService;
+        this.properties = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Returns the named property of the service.
+     *
+     * @throws RuntimeException if the service has no such property
+     */
+    public String require(String serviceName, String propertyName) {
+        String value = propertiesOf(serviceName).get(propertyName);
+        if (value == null) {
+            throw new RuntimeException(propertyName + " not found for " + serviceName);
+        }
+        return value;
+    }
+
+    @EventListener
+    public void onPropertiesChanged(ExternalServicePropertiesChangedEvent event) {
+        properties.invalidate(key(event.getServiceName()));
+        log.info("Dropped cached credentials for {}", event.getServiceName());
+    }
+
+    private Map<String, String> propertiesOf(String serviceName) {
+        return properties.get(key(serviceName), name -> load(serviceName));
+    }
+
+    private Map<String, String> load(String serviceName) {
+        List<ExternalServicePropertiesEntity> entities = externalService
+                .getExternalServicePropertiesByServiceName(serviceName);
+        if (entities == null) {
+            return Collections.emptyMap();
+        }
+        // Property names are matched case-insensitively, as the providers always did
+        Map<String, String> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ExternalServicePropertiesEntity entity : entities) {
+            if (entity.getName() != null) {
+                values.putIfAbsent(entity.getName(), entity.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static String key(String serviceName) {
+        return serviceName == null ? "" : serviceName.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,142 @@
+package com.pisystem.modules.stocks.thirdParty.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pisystem.modules.stocks.exception.ProviderCallException;
+import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
+import com.pisystem.shared.audit.service.ThirdPartyAuditService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP client shared by the stock data providers.
+ *
+ * <p>One {@link HttpClient} keeps connections to the provider hosts alive across
+ * calls instead of opening a new one per request. Every call has a connect timeout
+ * ({@code stocks.provider.http.connect-timeout-ms}) and a response timeout
+ * ({@code stocks.provider.http.read-timeout-ms}), is asynchronous so a provider can
+ * run independent calls side by side, and is written to the third-party audit log
+ * with secrets masked.</p>
+ */
+@Component
+@Slf4j
+public class ProviderHttpClient {
+
+    private static final String MASK = "***MASKED***";
+
+    private final ThirdPartyAuditService auditService;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public ProviderHttpClient(ThirdPartyAuditService auditService,
+                              ObjectMapper objectMapper,
+                              @Value("${stocks.provider.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                              @Value("${stocks.provider.http.read-timeout-ms:8000}") long readTimeoutMs,
+                              @Value("${stocks.provider.http.threads:4}") int threads) {
+        this.auditService = auditService;
+        // Provider payloads carry many fields we do not map
+        this.objectMapper = objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads),
+                new CustomizableThreadFactory("stock-provider-http-"));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends a GET and completes with the response whatever its status; it completes
+     * exceptionally only on I/O errors and timeouts.
+     *
+     * @param auditName provider and endpoint, as recorded in the audit log
+     * @param secret    value to mask in the audited URL, or null
+     */
+    public CompletableFuture<HttpResponse<String>> get(String auditName, String url, Map<String, String> headers,
+            String secret) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .GET();
+        headers.forEach(builder::header);
+        HttpRequest request = builder.build();
+
+        long startTime = System.currentTimeMillis();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> audit(auditName, mask(url, secret), request.method(), response,
+                        error, System.currentTimeMillis() - startTime));
+    }
+
+    /** Like {@link #get}, mapping a 2xx JSON body to {@code type}; other statuses fail. */
+    public <T> CompletableFuture<T> getJson(String auditName, String url, Map<String, String> headers, String secret,
+            Class<T> type) {
+        return get(auditName, url, headers, secret).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new ProviderCallException(auditName + " returned HTTP " + response.statusCode());
+            }
+            String body = response.body();
+            if (body == null || body.isBlank()) {
+                throw new ProviderCallException(auditName + " returned an empty body");
+            }
+            try {
+                return objectMapper.readValue(body, type);
+            } catch (IOException e) {
+                throw new ProviderCallException(auditName + " returned unreadable JSON: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /** Unwraps the exception a failed future completed with. */
+    public static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new ProviderCallException(
+                cause.getClass().getSimpleName() + ": " + cause.getMessage(), cause);
+    }
+
+    private void audit(String auditName, String url, String method, HttpResponse<String> response, Throwable error,
+            long durationMs) {
+        ThirdPartyRequestAudit audit = ThirdPartyRequestAudit.builder()
+                .providerName(auditName)
+                .url(url)
+                .method(method)
+                .responseStatus(response != null ? response.statusCode() : null)
+                .responseBody(response != null ? response.body() : null)
+                .timeTakenMs(durationMs)
+                .timestamp(LocalDateTime.now())
+                .exceptionMessage(error != null ? unwrap(error).getMessage() : null)
+                .build();
+        auditService.logOnly(audit);
+        if (error != null) {
+            log.warn("{} call failed after {} ms: {}", auditName, durationMs, unwrap(error).getMessage());
+        }
+    }
+
+    private static String mask(String url, String secret) {
+        return secret == null || secret.isEmpty() ? url : url.replace(secret, MASK);
+    }
+}
@@ -1,13 +1,16 @@
 package com.pisystem.modules.stocks.thirdParty.factory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.pisystem.modules.stocks.ratelimit.ProviderGovernor;
 import com.pisystem.modules.stocks.thirdParty.StockDataProvider;
 import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
 
@@ -18,51 +21,118 @@ import lombok.extern.slf4j.Slf4j;
 public class StockDataProviderFactory {
 
     private final Map<String, StockDataProvider> providerMap;
+    private final ProviderGovernor governor;
 
-    public StockDataProviderFactory(List<StockDataProvider> providers) {
+    public StockDataProviderFactory(List<StockDataProvider> providers, ProviderGovernor governor) {
         this.providerMap = providers.stream()
                 .collect(Collectors.toMap(StockDataProvider::getProviderName, Function.identity()));
+        this.governor = governor;
     }
 
     /**
-     * Fetch stock data with automatic fallback and caching.
-     * 
-     * Caching Strategy:
-     * - Cache Name: "stockPrices"
-     * - Cache Key: Stock symbol (e.g., "RELIANCE", "TCS")
-     * - TTL: 5 minutes (configured in RedisCacheConfig)
-     * - Cache on successful responses only (null values disabled)
+     * Fetch stock data with automatic fallback.
      * 
      * This method implements a fallback chain:
      * 1. Try AlphaVantage (primary)
      * 2. If fails, try IndianAPI (secondary)
      * 3. If both fail, throw exception
      * 
-     * Cached responses skip external API calls entirely, respecting rate limits.
+     * Each call goes through {@link ProviderGovernor}: a provider whose circuit is
+     * open, or that has no rate limit permit in time, is skipped like a failed one.
+     * 
+     * Not cached: callers go through StockQuoteService, which caches, coalesces
+     * concurrent requests for the same symbol and batches them.
      */
-    @Cacheable(value = "stockPrices", key = "#symbol", cacheManager = "stockCacheManager")
     public ThirdPartyResponse fetchStockDataWithRetry(String symbol) {
-        StockDataProvider primary = providerMap.get("AlphaVantage");
-        StockDataProvider secondary = providerMap.get("IndianAPI");
+        String requester = ProviderGovernor.currentRequester();
+        RuntimeException lastError = null;
+        for (StockDataProvider provider : fallbackChain()) {
+            try {
+                log.info("Attempting to fetch data for {} using {}", symbol, provider.getProviderName());
+                return governor.call(provider.getProviderName(), requester, () -> provider.fetchStockData(symbol));
+            } catch (RuntimeException e) {
+                log.warn("Provider {} failed for {}: {}", provider.getProviderName(), symbol, e.getMessage());
+                lastError = e;
+            }
+        }
+        if (lastError == null) {
+            throw new IllegalStateException("No stock data provider configured");
+        }
+        log.error("All providers failed for {}", symbol);
+        throw lastError;
+    }
 
-        try {
-            log.info("Attempting to fetch data for {} using Primary: AlphaVantage", symbol);
-            return primary.fetchStockData(symbol);
-        } catch (Exception e) {
-            log.warn("Primary Provider (AlphaVantage) failed for {}: {}. Switching to Secondary: IndianAPI.", symbol,
-                    e.getMessage());
-            if (secondary != null) {
+    /**
+     * Batch variant of {@link #fetchStockDataWithRetry(String)} for the current requester.
+     */
+    public Map<String, ThirdPartyResponse> fetchStockDataBatch(Collection<String> symbols) {
+        return fetchStockDataBatch(symbols, ProviderGovernor.currentRequester());
+    }
+
+    /**
+     * Batch variant of {@link #fetchStockDataWithRetry(String)}: asks the primary
+     * provider for all symbols, then the secondary for the ones it missed.
+     * Symbols neither provider returned are absent from the result.
+     *
+     * <p>Each upstream call takes one rate limit permit on behalf of
+     * {@code requester}: one per batch for providers with a multi-symbol endpoint,
+     * otherwise one per symbol.</p>
+     */
+    public Map<String, ThirdPartyResponse> fetchStockDataBatch(Collection<String> symbols, String requester) {
+        Map<String, ThirdPartyResponse> responses = new LinkedHashMap<>();
+        for (StockDataProvider provider : fallbackChain()) {
+            List<String> missing = new ArrayList<>();
+            for (String symbol : symbols) {
+                if (!responses.containsKey(symbol)) {
+                    missing.add(symbol);
+                }
+            }
+            if (missing.isEmpty()) {
+                break;
+            }
+            log.info("Fetching {} symbol(s) using {}: {}", missing.size(), provider.getProviderName(), missing);
+            if (provider.maxBatchSize() > 1) {
                 try {
-                    log.info("Attempting to fetch data for {} using Secondary: IndianAPI", symbol);
-                    return secondary.fetchStockData(symbol);
-                } catch (Exception ex) {
-                    log.error("Secondary Provider (IndianAPI) also failed for {}: {}", symbol, ex.getMessage());
-                    throw ex;
+                    responses.putAll(governor.call(provider.getProviderName(), requester,
+                            () -> provider.fetchStockData(missing)));
+                } catch (Exception e) {
+                    log.warn("Provider {} failed for {}: {}", provider.getProviderName(), missing, e.getMessage());
                 }
-            } else {
-                log.error("Secondary Provider not configured.");
-                throw e;
+                continue;
+            }
+            for (String symbol : missing) {
+                try {
+                    ThirdPartyResponse response = governor.call(provider.getProviderName(), requester,
+                            () -> provider.fetchStockData(symbol));
+                    if (response != null) {
+                        responses.put(symbol, response);
+                    }
+                } catch (Exception e) {
+                    log.warn("Provider {} failed for {}: {}", provider.getProviderName(), symbol, e.getMessage());
+                }
+            }
+        }
+        if (responses.size() < symbols.size()) {
+            log.error("No provider returned data for {} of {} symbol(s)", symbols.size() - responses.size(),
+                    symbols.size());
+        }
+        return responses;
+    }
+
+    /** Largest batch the primary provider accepts in one call. */
+    public int maxBatchSize() {
+        StockDataProvider primary = providerMap.get("AlphaVantage");
+        return primary != null ? Math.max(1, primary.maxBatchSize()) : 1;
+    }
+
+    private List<StockDataProvider> fallbackChain() {
+        List<StockDataProvider> chain = new ArrayList<>();
+        for (String name : List.of("AlphaVantage", "IndianAPI")) {
+            StockDataProvider provider = providerMap.get(name);
+            if (provider != null) {
+                chain.add(provider);
             }
         }
+        return chain;
     }
 }
@@ -1,18 +1,21 @@
 package com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
-import com.pisystem.integrations.externalservices.data.ExternalServicePropertiesEntity;
-import com.pisystem.integrations.externalservices.service.ExternalService;
-import com.pisystem.modules.stocks.exception.RateLimitExceededException;
-import com.pisystem.modules.stocks.ratelimit.RateLimiter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pisystem.modules.stocks.exception.ProviderCallException;
 import com.pisystem.modules.stocks.thirdParty.StockDataProvider;
 import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+import com.pisystem.modules.stocks.thirdParty.client.ProviderCredentials;
+import com.pisystem.modules.stocks.thirdParty.client.ProviderHttpClient;
 import com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage.data.AlphaVantageGlobalQuote;
 import com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage.data.AlphaVantageResponseOverview;
 import com.pisystem.modules.stocks.validation.StockPriceValidator;
@@ -25,165 +28,129 @@ import lombok.extern.slf4j.Slf4j;
  * 
  * Improvements:
  * - ✅ Real-time price data (no more 0.0 prices)
- * - ✅ Rate limiting (5 calls/min)
+ * - ✅ Rate limiting (5 calls/min, 500/day) and circuit breaking via ProviderGovernor
  * - ✅ Data validation (price range, symbol format, freshness)
  * - ✅ Comprehensive audit logging
  * - ✅ Error handling with detailed logging
+ * - ✅ Shared pooled HTTP client with timeouts; GLOBAL_QUOTE and OVERVIEW run concurrently
+ * - ✅ OVERVIEW cached for {@code stocks.provider.alpha-vantage.overview-ttl-hours}
  */
 @Service
 @Slf4j
 public class AlphaVantageProvider implements StockDataProvider {
 
-    private final ExternalService externalService;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final com.pisystem.shared.audit.service.ThirdPartyAuditService auditService;
+    private static final String SERVICE_NAME = "ALPHA_VANTAGE";
+
+    private final ProviderHttpClient httpClient;
+    private final ProviderCredentials credentials;
     private final StockPriceValidator validator;
-    private final RateLimiter rateLimiter;
+
+    // Company info rarely changes; read per write so the TTL can come from configuration
+    @Value("${stocks.provider.alpha-vantage.overview-ttl-hours:24}")
+    private long overviewTtlHours = 24;
+
+    private final Cache<String, AlphaVantageResponseOverview> overviews = Caffeine.newBuilder()
+            .maximumSize(5_000)
+            .expireAfter(new Expiry<String, AlphaVantageResponseOverview>() {
+                @Override
+                public long expireAfterCreate(String symbol, AlphaVantageResponseOverview overview, long now) {
+                    return Duration.ofHours(overviewTtlHours).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String symbol, AlphaVantageResponseOverview overview, long now,
+                        long remaining) {
+                    return Duration.ofHours(overviewTtlHours).toNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String symbol, AlphaVantageResponseOverview overview, long now,
+                        long remaining) {
+                    return remaining;
+                }
+            })
+            .build();
 
     public AlphaVantageProvider(
-            final ExternalService externalService,
-            final com.pisystem.shared.audit.service.ThirdPartyAuditService auditService,
-            final StockPriceValidator validator,
-            final RateLimiter rateLimiter) {
-        this.externalService = externalService;
-        this.auditService = auditService;
+            final ProviderHttpClient httpClient,
+            final ProviderCredentials credentials,
+            final StockPriceValidator validator) {
+        this.httpClient = httpClient;
+        this.credentials = credentials;
         this.validator = validator;
-        this.rateLimiter = rateLimiter;
     }
 
     @Override
     public ThirdPartyResponse fetchStockData(String symbol) {
         log.info("Fetching data from AlphaVantage for {}", symbol);
-        
-        // Check rate limit BEFORE making API calls
-        if (!rateLimiter.tryConsume(getProviderName())) {
-            throw new RateLimitExceededException(
-                "Rate limit exceeded for AlphaVantage. Please try again later. " +
-                "Available tokens: " + rateLimiter.getAvailableTokens(getProviderName())
-            );
-        }
+        // Rate limits are enforced by ProviderGovernor before the call reaches the provider
 
-        final List<ExternalServicePropertiesEntity> properties = this.externalService
-                .getExternalServicePropertiesByServiceName("ALPHA_VANTAGE");
+        String apiKey = credentials.require(SERVICE_NAME, "api-key");
+        String baseUrl = credentials.require(SERVICE_NAME, "base-url");
 
-        String apiKey = properties.stream()
-                .filter(prop -> "api-key".equalsIgnoreCase(prop.getName()))
-                .map(ExternalServicePropertiesEntity::getValue)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("API key not found"));
-
-        String baseUrl = properties.stream()
-                .filter(prop -> "base-url".equalsIgnoreCase(prop.getName()))
-                .map(ExternalServicePropertiesEntity::getValue)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Base URL not found"));
-
-        // Fetch GLOBAL_QUOTE for real-time price
-        AlphaVantageGlobalQuote globalQuote = fetchGlobalQuote(baseUrl, symbol, apiKey);
-        
-        // Fetch OVERVIEW for company info (optional, can be skipped for performance)
-        AlphaVantageResponseOverview overview = fetchOverview(baseUrl, symbol, apiKey);
+        // GLOBAL_QUOTE (price) and OVERVIEW (company info) are independent: issue both at once
+        CompletableFuture<AlphaVantageGlobalQuote> globalQuote = fetchGlobalQuote(baseUrl, symbol, apiKey);
+        CompletableFuture<AlphaVantageResponseOverview> overview = fetchOverview(baseUrl, symbol, apiKey);
 
-        // Combine both responses with validation
-        return mapToThirdPartyResponse(overview, globalQuote, symbol);
+        try {
+            return mapToThirdPartyResponse(overview.join(), globalQuote.join(), symbol);
+        } catch (CompletionException e) {
+            throw ProviderHttpClient.unwrap(e);
+        }
     }
 
     /**
      * Fetch real-time stock price from GLOBAL_QUOTE endpoint.
      * This provides current price, volume, and trading day info.
      */
-    private AlphaVantageGlobalQuote fetchGlobalQuote(String baseUrl, String symbol, String apiKey) {
+    private CompletableFuture<AlphaVantageGlobalQuote> fetchGlobalQuote(String baseUrl, String symbol, String apiKey) {
         String url = baseUrl + "?function=GLOBAL_QUOTE&symbol=" + symbol + "&apikey=" + apiKey;
-        long startTime = System.currentTimeMillis();
-        String responseBody = null;
-        Integer statusCode = null;
-        String exceptionMessage = null;
-
-        try {
-            ResponseEntity<AlphaVantageGlobalQuote> entity = this.restTemplate
-                    .getForEntity(url, AlphaVantageGlobalQuote.class);
-
-            AlphaVantageGlobalQuote response = entity.getBody();
-            statusCode = entity.getStatusCode().value();
-            responseBody = response != null ? response.toString() : null;
-
-            if (response == null || !response.isValid()) {
-                throw new RuntimeException("Invalid GLOBAL_QUOTE response from AlphaVantage for " + symbol);
-            }
-
-            log.info("Successfully fetched GLOBAL_QUOTE for {}: price={}, volume={}", 
-                     symbol, response.getPriceAsDouble(), response.getGlobalQuote().getVolume());
-            return response;
-
-        } catch (Exception e) {
-            exceptionMessage = e.getMessage();
-            log.error("AlphaVantage GLOBAL_QUOTE fetch failed for {}: {}", symbol, e.getMessage());
-            throw e;
-        } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            ThirdPartyRequestAudit audit = ThirdPartyRequestAudit.builder()
-                    .providerName(getProviderName() + "_GLOBAL_QUOTE")
-                    .url(maskApiKey(url, apiKey))
-                    .method("GET")
-                    .responseStatus(statusCode)
-                    .responseBody(responseBody)
-                    .timeTakenMs(duration)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .exceptionMessage(exceptionMessage)
-                    .build();
-
-            auditService.logOnly(audit);
-        }
+        return httpClient.getJson(getProviderName() + "_GLOBAL_QUOTE", url, Map.of(), apiKey,
+                        AlphaVantageGlobalQuote.class)
+                .thenApply(response -> {
+                    if (response == null || !response.isValid()) {
+                        throw new ProviderCallException("Invalid GLOBAL_QUOTE response from AlphaVantage for " + symbol);
+                    }
+                    log.info("Successfully fetched GLOBAL_QUOTE for {}: price={}, volume={}",
+                            symbol, response.getPriceAsDouble(), response.getGlobalQuote().getVolume());
+                    return response;
+                })
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("AlphaVantage GLOBAL_QUOTE fetch failed for {}: {}", symbol,
+                                ProviderHttpClient.unwrap(error).getMessage());
+                    }
+                });
     }
 
     /**
      * Fetch company overview from OVERVIEW endpoint.
      * This provides company name, description, industry info.
-     * Made optional to improve performance - can be cached separately.
+     * Served from the overview cache when possible; never fails the quote.
      */
-    private AlphaVantageResponseOverview fetchOverview(String baseUrl, String symbol, String apiKey) {
-        String url = baseUrl + "?function=OVERVIEW&symbol=" + symbol + "&apikey=" + apiKey;
-        long startTime = System.currentTimeMillis();
-        String responseBody = null;
-        Integer statusCode = null;
-        String exceptionMessage = null;
-
-        try {
-            ResponseEntity<AlphaVantageResponseOverview> entity = this.restTemplate
-                    .getForEntity(url, AlphaVantageResponseOverview.class);
-
-            AlphaVantageResponseOverview response = entity.getBody();
-            statusCode = entity.getStatusCode().value();
-            responseBody = response != null ? response.toString() : null;
-
-            if (response == null || response.getSymbol() == null) {
-                log.warn("Empty OVERVIEW response from AlphaVantage for {}, using minimal data", symbol);
-                return new AlphaVantageResponseOverview(); // Return empty object, not critical
-            }
-
-            log.info("Successfully fetched OVERVIEW for {}: name={}", symbol, response.getName());
-            return response;
-
-        } catch (Exception e) {
-            exceptionMessage = e.getMessage();
-            log.warn("AlphaVantage OVERVIEW fetch failed for {}: {}. Continuing with price data only.", 
-                     symbol, e.getMessage());
-            return new AlphaVantageResponseOverview(); // Return empty object, not critical
-        } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            ThirdPartyRequestAudit audit = ThirdPartyRequestAudit.builder()
-                    .providerName(getProviderName() + "_OVERVIEW")
-                    .url(maskApiKey(url, apiKey))
-                    .method("GET")
-                    .responseStatus(statusCode)
-                    .responseBody(responseBody)
-                    .timeTakenMs(duration)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .exceptionMessage(exceptionMessage)
-                    .build();
-
-            auditService.logOnly(audit);
+    private CompletableFuture<AlphaVantageResponseOverview> fetchOverview(String baseUrl, String symbol,
+            String apiKey) {
+        AlphaVantageResponseOverview cached = overviews.getIfPresent(symbol);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
+        String url = baseUrl + "?function=OVERVIEW&symbol=" + symbol + "&apikey=" + apiKey;
+        return httpClient.getJson(getProviderName() + "_OVERVIEW", url, Map.of(), apiKey,
+                        AlphaVantageResponseOverview.class)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        log.warn("AlphaVantage OVERVIEW fetch failed for {}: {}. Continuing with price data only.",
+                                symbol, ProviderHttpClient.unwrap(error).getMessage());
+                        return new AlphaVantageResponseOverview(); // Return empty object, not critical
+                    }
+                    if (response == null || response.getSymbol() == null) {
+                        log.warn("Empty OVERVIEW response from AlphaVantage for {}, using minimal data", symbol);
+                        return new AlphaVantageResponseOverview(); // Not cached: try again next time
+                    }
+                    log.info("Successfully fetched OVERVIEW for {}: name={}", symbol, response.getName());
+                    overviews.put(symbol, response);
+                    return response;
+                });
     }
 
     @Override
@@ -245,11 +212,4 @@ public class AlphaVantageProvider implements StockDataProvider {
         response.setCurrentPrice(price);
         return response;
     }
-
-    /**
-     * Mask API key in URL for security (audit logs).
-     */
-    private String maskApiKey(String url, String apiKey) {
-        return url.replace(apiKey, "***MASKED***");
-    }
 }
@@ -1,7 +1,7 @@
 package com.pisystem.modules.tax.controller;
 
-import com.pisystem.modules.tax.data.CapitalGainsTransaction;
 import com.pisystem.modules.tax.data.TaxSavingInvestment;
+import com.pisystem.modules.tax.dto.CapitalGainsPopulationDTO;
 import com.pisystem.modules.tax.service.TaxAutoPopulationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,11 +31,10 @@ public class TaxAutoPopulationController {
         summary = "Auto-populate capital gains",
         description = "Automatically calculate capital gains from portfolio sell transactions for the financial year"
     )
-    public ResponseEntity<List<CapitalGainsTransaction>> autoPopulateCapitalGains(
+    public ResponseEntity<CapitalGainsPopulationDTO> autoPopulateCapitalGains(
             @PathVariable("userId") Long userId,
             @RequestParam("financialYear") String financialYear) {
-        List<CapitalGainsTransaction> transactions = autoPopulationService.autoPopulateCapitalGains(userId, financialYear);
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok(autoPopulationService.autoPopulateCapitalGains(userId, financialYear));
     }
 
     // ========== Income Auto-Population ==========
@@ -138,7 +137,7 @@ public class TaxAutoPopulationController {
             @RequestParam("financialYear") String financialYear) {
         
         // Auto-populate capital gains
-        List<CapitalGainsTransaction> capitalGains = autoPopulationService.autoPopulateCapitalGains(userId, financialYear);
+        CapitalGainsPopulationDTO capitalGains = autoPopulationService.autoPopulateCapitalGains(userId, financialYear);
         
         // Auto-populate incomes
         autoPopulationService.autoPopulateSalaryIncome(userId, financialYear);
@@ -155,7 +154,7 @@ public class TaxAutoPopulationController {
         return ResponseEntity.ok(Map.of(
             "status", "success",
             "message", "All tax data auto-populated successfully",
-            "capitalGainsCount", capitalGains.size(),
+            "capitalGainsCount", capitalGains.getTransactionsCreated(),
             "80CInvestmentsCount", investments80C.size(),
             "80DInvestmentsCount", investments80D.size()
         ));
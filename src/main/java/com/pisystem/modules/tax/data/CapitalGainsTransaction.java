@@ -95,6 +95,9 @@ public class CapitalGainsTransaction {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
+    @Column(name = "lot_match_id")
+    private Long lotMatchId; // Source portfolio lot match, set on auto-populated rows
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,29 @@
+package com.pisystem.modules.tax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Summary of a capital gains auto-population run for a financial year.
+ * The generated rows themselves are read through the capital gains endpoints.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapitalGainsPopulationDTO {
+
+    private String financialYear;
+
+    // Rows written by this run, and earlier generated rows it replaced
+    private int transactionsCreated;
+    private int transactionsReplaced;
+
+    private BigDecimal shortTermGain;
+    private BigDecimal longTermGain;
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,93 @@
+package com.pisystem.modules.tax.repo;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.pisystem.modules.tax.data.CapitalGainsTransaction;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC batch inserts for generated capital gains rows.
+ *
+ * <p>{@link CapitalGainsTransaction} uses {@code GenerationType.IDENTITY}, which
+ * disables Hibernate insert batching. Capital gains generation writes a row per
+ * lot matched by a SELL (tens of thousands for an active trader), so rows go out
+ * as multi-row {@code INSERT}s and the generated ids are read back onto the
+ * entities. The timestamps Hibernate would set on persist are set here.</p>
+ *
+ * <p>Must run inside the caller's transaction.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class CapitalGainsBatchWriter {
+
+    /** Rows per multi-row statement; keeps each packet well under MySQL's max_allowed_packet. */
+    static final int ROWS_PER_STATEMENT = 250;
+
+    private static final String[] COLUMNS = {
+            "user_id", "asset_type", "asset_name", "asset_symbol", "quantity", "purchase_date",
+            "purchase_price", "sale_date", "sale_price", "purchase_value", "sale_value", "expenses",
+            "indexed_cost", "holding_period_days", "gain_type", "capital_gain", "tax_rate", "tax_amount",
+            "financial_year", "is_set_off", "set_off_amount", "notes", "lot_match_id", "created_at", "updated_at"
+    };
+
+    private static final String ROW = "(" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<CapitalGainsTransaction> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CapitalGainsTransaction row : rows) {
+            row.setCreatedAt(now);
+            row.setUpdatedAt(now);
+        }
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<CapitalGainsTransaction> slice = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            String sql = "INSERT INTO capital_gains_transactions (" + String.join(", ", COLUMNS) + ") VALUES "
+                    + String.join(", ", Collections.nCopies(slice.size(), ROW));
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                int index = 1;
+                for (CapitalGainsTransaction row : slice) {
+                    for (Object value : values(row)) {
+                        ps.setObject(index++, value);
+                    }
+                }
+                return ps;
+            }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != slice.size()) {
+                throw new IllegalStateException("Expected " + slice.size()
+                        + " generated keys for capital_gains_transactions but got " + keys.size());
+            }
+            for (int i = 0; i < slice.size(); i++) {
+                Number id = (Number) keys.get(i).values().iterator().next();
+                slice.get(i).setId(id.longValue());
+            }
+        }
+    }
+
+    private static Object[] values(CapitalGainsTransaction row) {
+        return new Object[] {
+                row.getUserId(), row.getAssetType(), row.getAssetName(), row.getAssetSymbol(), row.getQuantity(),
+                row.getPurchaseDate(), row.getPurchasePrice(), row.getSaleDate(), row.getSalePrice(),
+                row.getPurchaseValue(), row.getSaleValue(), row.getExpenses(), row.getIndexedCost(),
+                row.getHoldingPeriodDays(), row.getGainType(), row.getCapitalGain(), row.getTaxRate(),
+                row.getTaxAmount(), row.getFinancialYear(), row.getIsSetOff(), row.getSetOffAmount(),
+                row.getNotes(), row.getLotMatchId(), row.getCreatedAt(), row.getUpdatedAt()
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.pisystem.modules.tax.repo;
 import com.pisystem.modules.tax.data.CapitalGainsTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,6 +31,13 @@ public interface CapitalGainsRepository extends JpaRepository<CapitalGainsTransa
     @Query("SELECT SUM(cg.taxAmount) FROM CapitalGainsTransaction cg WHERE cg.userId = :userId AND cg.financialYear = :financialYear")
     BigDecimal getTotalTaxAmount(@Param("userId") Long userId, @Param("financialYear") String financialYear);
     
+    /**
+     * Delete the rows auto-populated from the portfolio lot ledger for a financial year
+     */
+    @Modifying
+    @Query("DELETE FROM CapitalGainsTransaction cg WHERE cg.userId = :userId AND cg.financialYear = :financialYear AND cg.lotMatchId IS NOT NULL")
+    int deleteAutoPopulated(@Param("userId") Long userId, @Param("financialYear") String financialYear);
+    
     @Query("SELECT cg FROM CapitalGainsTransaction cg WHERE cg.userId = :userId AND cg.capitalGain < 0 AND cg.isSetOff = false")
     List<CapitalGainsTransaction> findUnsetOffLosses(@Param("userId") Long userId);
 }
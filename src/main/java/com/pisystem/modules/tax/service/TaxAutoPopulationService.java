@@ -1,7 +1,7 @@
 package com.pisystem.modules.tax.service;
 
-import com.pisystem.modules.tax.data.CapitalGainsTransaction;
 import com.pisystem.modules.tax.data.TaxSavingInvestment;
+import com.pisystem.modules.tax.dto.CapitalGainsPopulationDTO;
 
 import java.util.List;
 
@@ -13,9 +13,9 @@ public interface TaxAutoPopulationService {
     
     /**
      * Auto-calculate capital gains from portfolio transactions
-     * Fetches buy/sell transactions and computes STCG/LTCG
+     * Fetches buy/sell transactions, computes STCG/LTCG and returns a summary of the run
      */
-    List<CapitalGainsTransaction> autoPopulateCapitalGains(Long userId, String financialYear);
+    CapitalGainsPopulationDTO autoPopulateCapitalGains(Long userId, String financialYear);
     
     /**
      * Auto-populate salary income from income/payroll module
@@ -1,9 +1,17 @@
 package com.pisystem.modules.tax.service;
 
+import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.repo.PortfolioLotMatchRepository;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import com.pisystem.modules.stocks.repo.StockRepository;
+import com.pisystem.modules.stocks.service.PortfolioLotService;
 import com.pisystem.modules.tax.data.*;
+import com.pisystem.modules.tax.dto.CapitalGainsPopulationDTO;
 import com.pisystem.modules.tax.repo.*;
+import com.pisystem.shared.security.AuthenticationHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,7 +20,9 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of auto-population service
@@ -26,33 +36,151 @@ public class TaxAutoPopulationServiceImpl implements TaxAutoPopulationService {
     private final CapitalGainsRepository capitalGainsRepository;
     private final TaxSavingRepository taxSavingRepository;
     private final TDSRepository tdsRepository;
+    private final CapitalGainsBatchWriter capitalGainsBatchWriter;
+    private final TaxService taxService;
+    private final PortfolioLotService lotService;
+    private final PortfolioLotMatchRepository lotMatchRepository;
+    private final PortfolioTransactionRepository portfolioTransactionRepository;
+    private final StockRepository stockRepository;
+    private final AuthenticationHelper authenticationHelper;
     
     // Holding period for LTCG: 12 months for equity, 36 months for debt
     private static final long EQUITY_LTCG_MONTHS = 12;
     private static final long DEBT_LTCG_MONTHS = 36;
 
+    // Asset type TaxService#calculateCapitalGains applies listed-equity holding periods and rates to
+    private static final String LISTED_EQUITY_ASSET_TYPE = "EQUITY";
+    private static final int MATCH_PAGE_SIZE = 1000;
+    private static final int UNIT_PRICE_SCALE = 10;
+
+    /**
+     * Generates the year's capital gains from the portfolio lot ledger: one row per
+     * lot a SELL in the financial year consumed, classified and taxed by
+     * {@link TaxService#calculateCapitalGains}. Matches are read a page at a time in
+     * (sell date, id) order and written with multi-row inserts, so an account with
+     * tens of thousands of sells is one pass, holding only the current page. Rows
+     * generated by an earlier run for the year are replaced; manually entered rows
+     * are kept.
+     */
     @Override
     @Transactional
-    public List<CapitalGainsTransaction> autoPopulateCapitalGains(Long userId, String financialYear) {
+    public CapitalGainsPopulationDTO autoPopulateCapitalGains(Long userId, String financialYear) {
+        authenticationHelper.validateUserAccess(userId);
         log.info("Auto-populating capital gains for user: {} FY: {}", userId, financialYear);
-        
-        // Note: This is a placeholder implementation
-        // Actual implementation would fetch buy/sell transactions from Portfolio module
-        // and compute STCG/LTCG based on holding period
-        
-        List<CapitalGainsTransaction> transactions = new ArrayList<>();
-        
-        // Example logic (to be replaced with actual portfolio integration):
-        // 1. Fetch all sell transactions for the financial year
-        // 2. Match with corresponding buy transactions (FIFO/LIFO/Average)
-        // 3. Calculate holding period
-        // 4. Determine STCG vs LTCG based on asset type and holding period
-        // 5. Calculate indexed cost for LTCG (if applicable)
-        // 6. Compute capital gains
-        // 7. Save to capital_gains_transactions table
-        
-        log.info("Auto-populated {} capital gains transactions", transactions.size());
-        return transactions;
+
+        LocalDate from = financialYearStart(financialYear);
+        LocalDate to = from.plusYears(1).minusDays(1);
+
+        // Symbols with history from before the ledger existed get their lots first
+        for (String symbol : portfolioTransactionRepository.findSymbolsSoldBetween(userId, from, to)) {
+            lotService.ensureBuilt(userId, symbol);
+        }
+
+        int replaced = capitalGainsRepository.deleteAutoPopulated(userId, financialYear);
+
+        int created = 0;
+        BigDecimal shortTermGain = BigDecimal.ZERO;
+        BigDecimal longTermGain = BigDecimal.ZERO;
+        BigDecimal taxAmount = BigDecimal.ZERO;
+        Map<String, String> assetNames = new HashMap<>();
+        LocalDate afterDate = from.minusDays(1);
+        Long afterId = 0L;
+        List<PortfolioLotMatchRepository.MatchRow> page;
+        do {
+            page = lotMatchRepository.findSoldBetweenAfter(userId, from, to, afterDate, afterId,
+                    PageRequest.of(0, MATCH_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            resolveAssetNames(page, assetNames);
+            List<CapitalGainsTransaction> rows = new ArrayList<>(page.size());
+            for (PortfolioLotMatchRepository.MatchRow match : page) {
+                rows.add(toCapitalGain(userId, financialYear, match, assetNames));
+            }
+            capitalGainsBatchWriter.insert(rows);
+            created += rows.size();
+            for (CapitalGainsTransaction row : rows) {
+                if ("LTCG".equals(row.getGainType())) {
+                    longTermGain = longTermGain.add(row.getCapitalGain());
+                } else {
+                    shortTermGain = shortTermGain.add(row.getCapitalGain());
+                }
+                taxAmount = taxAmount.add(row.getTaxAmount());
+            }
+
+            PortfolioLotMatchRepository.MatchRow last = page.get(page.size() - 1);
+            afterDate = last.getSellDate();
+            afterId = last.getId();
+        } while (page.size() == MATCH_PAGE_SIZE);
+
+        log.info("Auto-populated {} capital gains transactions (replaced {})", created, replaced);
+        return CapitalGainsPopulationDTO.builder()
+                .financialYear(financialYear)
+                .transactionsCreated(created)
+                .transactionsReplaced(replaced)
+                .shortTermGain(shortTermGain)
+                .longTermGain(longTermGain)
+                .taxAmount(taxAmount)
+                .build();
+    }
+
+    private CapitalGainsTransaction toCapitalGain(Long userId, String financialYear,
+            PortfolioLotMatchRepository.MatchRow match, Map<String, String> assetNames) {
+        BigDecimal quantity = BigDecimal.valueOf(match.getQuantity());
+        CapitalGainsTransaction transaction = CapitalGainsTransaction.builder()
+                .userId(userId)
+                .assetType(LISTED_EQUITY_ASSET_TYPE)
+                .assetName(assetNames.getOrDefault(match.getSymbol(), match.getSymbol()))
+                .assetSymbol(match.getSymbol())
+                .quantity(quantity)
+                .purchaseDate(match.getAcquiredDate())
+                .purchasePrice(match.getCostBasis().divide(quantity, UNIT_PRICE_SCALE, RoundingMode.HALF_UP))
+                .saleDate(match.getSellDate())
+                .salePrice(match.getProceeds().divide(quantity, UNIT_PRICE_SCALE, RoundingMode.HALF_UP))
+                .holdingPeriodDays((int) ChronoUnit.DAYS.between(match.getAcquiredDate(), match.getSellDate()))
+                .financialYear(financialYear)
+                .notes("Auto-populated from portfolio SELL #" + match.getSellTransactionId()
+                        + "; brokerage and charges are included in purchase and sale values")
+                .lotMatchId(match.getId())
+                .build();
+
+        taxService.calculateCapitalGains(transaction);
+
+        // Per-unit prices were kept exact for the calculation; store at column scale
+        transaction.setPurchasePrice(transaction.getPurchasePrice().setScale(2, RoundingMode.HALF_UP));
+        transaction.setSalePrice(transaction.getSalePrice().setScale(2, RoundingMode.HALF_UP));
+        transaction.setTotalPurchaseValue(transaction.getTotalPurchaseValue().setScale(2, RoundingMode.HALF_UP));
+        transaction.setTotalSaleValue(transaction.getTotalSaleValue().setScale(2, RoundingMode.HALF_UP));
+        transaction.setCapitalGain(transaction.getTotalSaleValue().subtract(transaction.getTotalPurchaseValue()));
+        transaction.setTaxAmount(transaction.getTaxAmount().setScale(2, RoundingMode.HALF_UP));
+        return transaction;
+    }
+
+    private void resolveAssetNames(List<PortfolioLotMatchRepository.MatchRow> page, Map<String, String> assetNames) {
+        List<String> missing = page.stream()
+                .map(PortfolioLotMatchRepository.MatchRow::getSymbol)
+                .filter(symbol -> !assetNames.containsKey(symbol))
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Stock stock : stockRepository.findBySymbolIn(missing)) {
+            if (stock.getCompanyName() != null) {
+                assetNames.put(stock.getSymbol(), stock.getCompanyName());
+            }
+        }
+        missing.forEach(symbol -> assetNames.putIfAbsent(symbol, symbol));
+    }
+
+    /**
+     * First day of a financial year given as "2024-25" (or "2024-2025"): 1 April 2024
+     */
+    private static LocalDate financialYearStart(String financialYear) {
+        if (financialYear == null || !financialYear.matches("\\d{4}-(\\d{2}|\\d{4})")) {
+            throw new IllegalArgumentException("Invalid financial year: " + financialYear + " (expected e.g. 2024-25)");
+        }
+        return LocalDate.of(Integer.parseInt(financialYear.substring(0, 4)), 4, 1);
     }
 
     @Override
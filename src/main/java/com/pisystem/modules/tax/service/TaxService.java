@@ -11,6 +11,8 @@ public interface TaxService {
     TaxDTO getTaxDetailsByUserId(Long userId, String financialYear);
     BigDecimal calculateTotalTaxLiability(Long userId);
     BigDecimal getOutstandingTaxLiability(Long userId);
+    /** Same as {@link #getOutstandingTaxLiability} without the access check, for background jobs that have no request user. */
+    BigDecimal getOutstandingTaxLiabilityInternal(Long userId);
     
     // Tax Regime Comparison
     TaxRegimeComparisonDTO compareTaxRegimes(Long userId, String financialYear, BigDecimal grossIncome);
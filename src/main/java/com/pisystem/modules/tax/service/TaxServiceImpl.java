@@ -76,6 +76,12 @@ public class TaxServiceImpl implements TaxService {
     @Transactional(readOnly = true)
     public BigDecimal getOutstandingTaxLiability(Long userId) {
         authenticationHelper.validateUserAccess(userId);
+        return getOutstandingTaxLiabilityInternal(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getOutstandingTaxLiabilityInternal(Long userId) {
         List<Tax> taxes = this.repository.findAll((root, query, cb) -> cb.equal(root.get("userId"), userId));
 
         return taxes.stream()
@@ -193,7 +199,8 @@ public class TaxServiceImpl implements TaxService {
                     .capitalGain(txn.getCapitalGain())
                     .gainType(txn.getGainType())
                     .taxAmount(txn.getTaxAmount())
-                    .taxRate(txn.getTaxAmount().divide(txn.getCapitalGain(), 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100")))
+                    .taxRate(txn.getCapitalGain().signum() == 0 ? BigDecimal.ZERO
+                            : txn.getTaxAmount().divide(txn.getCapitalGain(), 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100")))
                     .build();
             
             if ("STCG".equals(txn.getGainType())) {
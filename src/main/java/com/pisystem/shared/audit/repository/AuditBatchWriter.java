@@ -0,0 +1,118 @@
+package com.pisystem.shared.audit.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pisystem.shared.audit.data.UserActivityLog;
+import com.pisystem.shared.audit.entity.RequestAudit;
+import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Multi-row JDBC inserts for the audit tables, used by
+ * {@link com.pisystem.shared.audit.service.AuditPipeline}.
+ *
+ * <p>The audit entities use {@code GenerationType.IDENTITY}, so Hibernate cannot
+ * batch their inserts. Generated ids are not read back: nothing holds on to an
+ * audit row after it is queued.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditBatchWriter {
+
+    /** Rows per statement for the small request / activity rows. */
+    static final int ROWS_PER_STATEMENT = 250;
+
+    /** Third-party rows carry full request/response bodies; keep packets small. */
+    static final int THIRD_PARTY_ROWS_PER_STATEMENT = 25;
+
+    private static final String[] REQUEST_AUDIT_COLUMNS = {
+            "user_id", "method", "uri", "query_params", "status_code", "time_taken_ms", "timestamp",
+            "ip_address", "user_agent"
+    };
+
+    private static final String[] THIRD_PARTY_COLUMNS = {
+            "provider_name", "url", "method", "request_headers", "request_body", "response_status",
+            "response_headers", "response_body", "time_taken_ms", "timestamp", "exception_message"
+    };
+
+    private static final String[] ACTIVITY_COLUMNS = {
+            "user_id", "username", "user_email", "action", "resource_type", "resource_id", "description",
+            "ip_address", "user_agent", "timestamp", "status", "error_message"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts one drained batch in its own transaction, independent of whatever
+     * the calling thread is doing.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void write(List<RequestAudit> requestAudits,
+                      List<ThirdPartyRequestAudit> thirdPartyAudits,
+                      List<UserActivityLog> activityLogs) {
+        insertRows("request_audit", REQUEST_AUDIT_COLUMNS, requestAudits,
+                ROWS_PER_STATEMENT, AuditBatchWriter::requestAuditValues);
+        insertRows("third_party_request_audit", THIRD_PARTY_COLUMNS, thirdPartyAudits,
+                THIRD_PARTY_ROWS_PER_STATEMENT, AuditBatchWriter::thirdPartyValues);
+        insertRows("user_activity_logs", ACTIVITY_COLUMNS, activityLogs,
+                ROWS_PER_STATEMENT, AuditBatchWriter::activityValues);
+    }
+
+    private <T> void insertRows(String table, String[] columns, List<T> rows, int rowsPerStatement,
+                                Function<T, Object[]> values) {
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            List<T> slice = rows.subList(from, Math.min(from + rowsPerStatement, rows.size()));
+            List<Object> args = new ArrayList<>(slice.size() * columns.length);
+            for (T row : slice) {
+                Collections.addAll(args, values.apply(row));
+            }
+            jdbcTemplate.update(multiRowInsert(table, columns, slice.size()), args.toArray());
+        }
+    }
+
+    private static String multiRowInsert(String table, String[] columns, int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+                + String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    private static Object[] requestAuditValues(RequestAudit audit) {
+        return new Object[] {
+                audit.getUserId(), audit.getMethod(), audit.getUri(), audit.getQueryParams(),
+                audit.getStatusCode(), audit.getTimeTakenMs(), timestamp(audit.getTimestamp()),
+                audit.getIpAddress(), audit.getUserAgent()
+        };
+    }
+
+    private static Object[] thirdPartyValues(ThirdPartyRequestAudit audit) {
+        return new Object[] {
+                audit.getProviderName(), audit.getUrl(), audit.getMethod(), audit.getRequestHeaders(),
+                audit.getRequestBody(), audit.getResponseStatus(), audit.getResponseHeaders(),
+                audit.getResponseBody(), audit.getTimeTakenMs(), timestamp(audit.getTimestamp()),
+                audit.getExceptionMessage()
+        };
+    }
+
+    private static Object[] activityValues(UserActivityLog log) {
+        return new Object[] {
+                log.getUserId(), log.getUsername(), log.getUserEmail(), log.getAction(), log.getResourceType(),
+                log.getResourceId(), log.getDescription(), log.getIpAddress(), log.getUserAgent(),
+                timestamp(log.getTimestamp()), log.getStatus(), log.getErrorMessage()
+        };
+    }
+
+    // timestamp is NOT NULL in every audit table
+    private static LocalDateTime timestamp(LocalDateTime value) {
+        return value != null ? value : LocalDateTime.now();
+    }
+}
@@ -1,7 +1,6 @@
 package com.pisystem.shared.audit.service;
 
 import com.pisystem.shared.audit.data.UserActivityLog;
-import com.pisystem.shared.audit.repo.UserActivityLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -12,10 +11,10 @@ import java.time.LocalDateTime;
 @Service
 public class ActivityLogService {
 
-    private final UserActivityLogRepository activityLogRepository;
+    private final AuditPipeline auditPipeline;
 
-    public ActivityLogService(UserActivityLogRepository activityLogRepository) {
-        this.activityLogRepository = activityLogRepository;
+    public ActivityLogService(AuditPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
     }
 
     public void logActivity(Long userId, String username, String userEmail, String action, String description) {
@@ -49,7 +48,8 @@ public class ActivityLogService {
                 .errorMessage(errorMessage)
                 .build();
 
-        activityLogRepository.save(log);
+        // Request details are read here, on the request thread; the insert happens later
+        auditPipeline.submit(log);
     }
 
     private HttpServletRequest getCurrentRequest() {
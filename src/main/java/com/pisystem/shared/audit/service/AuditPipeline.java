@@ -0,0 +1,238 @@
+package com.pisystem.shared.audit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.pisystem.shared.audit.data.UserActivityLog;
+import com.pisystem.shared.audit.entity.RequestAudit;
+import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
+import com.pisystem.shared.audit.repository.AuditBatchWriter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous write path for request audits, third-party call audits and
+ * user activity logs.
+ *
+ * <p>Callers only enqueue into an {@link AuditRingBuffer}; a single background
+ * writer drains it every {@code audit.pipeline.flush-interval-ms} and persists
+ * each drained batch with multi-row inserts in one transaction. Request threads
+ * therefore never wait on the database or hold a pool connection for auditing.</p>
+ *
+ * <h3>When the buffer is full</h3>
+ * Governed by {@code audit.pipeline.overflow-policy}:
+ * <ul>
+ *   <li>{@link OverflowPolicy#DROP} – discard the new event (default).</li>
+ *   <li>{@link OverflowPolicy#BLOCK} – wait up to {@code audit.pipeline.offer-timeout-ms}
+ *       for space, then discard.</li>
+ *   <li>{@link OverflowPolicy#CALLER_RUNS} – write the event on the calling thread.</li>
+ * </ul>
+ *
+ * <h3>Metrics</h3>
+ * {@code audit.pipeline.queue.depth} (gauge), {@code audit.pipeline.dropped},
+ * {@code audit.pipeline.written} and {@code audit.pipeline.failed} (counters).
+ */
+@Service
+@Slf4j
+public class AuditPipeline {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK, CALLER_RUNS
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AuditBatchWriter writer;
+    private final AuditRingBuffer<Object> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final ScheduledExecutorService drainer = new ScheduledThreadPoolExecutor(1,
+            new CustomizableThreadFactory("audit-writer-"));
+
+    public AuditPipeline(AuditBatchWriter writer,
+                         MeterRegistry meterRegistry,
+                         @Value("${audit.pipeline.capacity:8192}") int capacity,
+                         @Value("${audit.pipeline.batch-size:500}") int batchSize,
+                         @Value("${audit.pipeline.flush-interval-ms:200}") long flushIntervalMs,
+                         @Value("${audit.pipeline.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                         @Value("${audit.pipeline.offer-timeout-ms:20}") long offerTimeoutMs) {
+        this.writer = writer;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+
+        Gauge.builder("audit.pipeline.queue.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.pipeline.queue.capacity", buffer, AuditRingBuffer::capacity)
+                .description("Audit ring buffer capacity")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.pipeline.dropped", dropped, AtomicLong::get)
+                .description("Audit events discarded because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.pipeline.written", written, AtomicLong::get)
+                .description("Audit events persisted")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.pipeline.failed", failed, AtomicLong::get)
+                .description("Audit events that could not be persisted")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        drainer.scheduleWithFixedDelay(this::drainSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Audit pipeline started: capacity={}, batchSize={}, flushInterval={}ms, overflowPolicy={}",
+                buffer.capacity(), batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    /** Stops the writer and persists whatever is still queued. */
+    @PreDestroy
+    void stop() {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = flush();
+        log.info("Audit pipeline stopped: flushed {} remaining event(s), {} dropped in total", remaining, dropped.get());
+    }
+
+    // =========================================================================
+    // Producers
+    // =========================================================================
+
+    public void submit(RequestAudit audit) {
+        enqueue(audit);
+    }
+
+    public void submit(ThirdPartyRequestAudit audit) {
+        enqueue(audit);
+    }
+
+    public void submit(UserActivityLog activityLog) {
+        enqueue(activityLog);
+    }
+
+    private void enqueue(Object event) {
+        if (event == null || buffer.offer(event)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + offerTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (buffer.offer(event)) {
+                        return;
+                    }
+                }
+                drop(event);
+            }
+            case CALLER_RUNS -> write(List.of(event));
+            default -> drop(event);
+        }
+    }
+
+    private void drop(Object event) {
+        // Log the first drop and then every 1000th, not every event of an overload
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            log.warn("Audit buffer full ({} events) — dropped {} event(s) so far, latest {}",
+                    buffer.capacity(), dropped.get(), event.getClass().getSimpleName());
+        }
+    }
+
+    // =========================================================================
+    // Writer
+    // =========================================================================
+
+    /**
+     * Drains and persists everything queued so far, {@code batchSize} events per
+     * transaction.
+     *
+     * @return number of events persisted
+     */
+    public int flush() {
+        int persisted = 0;
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            persisted += write(batch);
+            batch.clear();
+        }
+        return persisted;
+    }
+
+    private void drainSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the scheduled drain
+            log.error("Audit drain failed", e);
+        }
+    }
+
+    private int write(List<Object> batch) {
+        List<RequestAudit> requestAudits = new ArrayList<>();
+        List<ThirdPartyRequestAudit> thirdPartyAudits = new ArrayList<>();
+        List<UserActivityLog> activityLogs = new ArrayList<>();
+        for (Object event : batch) {
+            if (event instanceof RequestAudit audit) {
+                requestAudits.add(audit);
+            } else if (event instanceof ThirdPartyRequestAudit audit) {
+                thirdPartyAudits.add(audit);
+            } else if (event instanceof UserActivityLog activityLog) {
+                activityLogs.add(activityLog);
+            }
+        }
+
+        try {
+            writer.write(requestAudits, thirdPartyAudits, activityLogs);
+            written.addAndGet(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.incrementAndGet();
+                log.error("Failed to save {} audit event: {}", batch.get(0).getClass().getSimpleName(), e.getMessage());
+                return 0;
+            }
+            // One bad row (e.g. an over-long URI) must not cost the whole batch
+            log.warn("Audit batch of {} failed ({}), retrying row by row", batch.size(), e.getMessage());
+            int persisted = 0;
+            for (Object event : batch) {
+                persisted += write(List.of(event));
+            }
+            return persisted;
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+}
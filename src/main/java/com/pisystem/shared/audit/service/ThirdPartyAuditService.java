@@ -1,26 +1,26 @@
 package com.pisystem.shared.audit.service;
 
 import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
-import com.pisystem.shared.audit.repository.ThirdPartyRequestAuditRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ThirdPartyAuditService {
 
-    private final ThirdPartyRequestAuditRepository repository;
+    private final AuditPipeline auditPipeline;
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /**
+     * Queues the audit row. It is written in its own transaction by
+     * {@link AuditPipeline}, so a rollback of the caller never loses it.
+     */
     public void logOnly(ThirdPartyRequestAudit audit) {
         try {
-            repository.save(audit);
+            auditPipeline.submit(audit);
         } catch (Exception e) {
-            log.error("Failed to save third party audit log: {}", e.getMessage());
+            log.error("Failed to queue third party audit log: {}", e.getMessage());
         }
     }
 }
@@ -2,10 +2,44 @@ package com.pisystem.shared.utils;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Annualized internal rate of return of dated cash flows (Excel's XIRR):
+ * the rate {@code r} at which {@code sum(amount_i / (1 + r)^(days_i / 365)) = 0}.
+ *
+ * <p>Year fractions are computed once per cash flow into a {@code double[]}, and
+ * each NPV evaluation costs one {@code exp} per flow for both the value and its
+ * derivative. Newton's method runs first, from a caller-supplied guess when one
+ * is known (the previous valuation's rate is usually within a few iterations).
+ * If it leaves the domain or does not converge, the root is bracketed by a sign
+ * change and found with Brent's method, so a solvable series always gets its
+ * rate and an unsolvable one (all flows the same sign) gets {@code NaN} instead
+ * of a garbage number.</p>
+ *
+ * <p>{@link Series} keeps the prepared arrays between valuations: transactions
+ * are appended as they happen, and the current value is passed as a terminal
+ * flow on each solve without being stored.</p>
+ */
 public class XirrCalculator {
 
+    /** Default starting rate, 10%. */
+    public static final double DEFAULT_GUESS = 0.1;
+
+    private static final double DAYS_PER_YEAR = 365.0;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+    private static final int MAX_BRENT_ITERATIONS = 200;
+    private static final double RATE_TOLERANCE = 1e-10;
+
+    // Lowest rate tried; (1 + r) must stay positive
+    private static final double MIN_RATE = -0.999999999;
+
+    // Rates probed, in order, when looking for a sign change to bracket the root
+    private static final double[] BRACKET_GRID = {
+            MIN_RATE, -0.9999, -0.99, -0.9, -0.75, -0.5, -0.25, 0.0, 0.1, 0.25, 0.5, 1.0, 2.0, 5.0, 10.0,
+            100.0, 1e3, 1e4, 1e6, 1e9 };
+
     public static class CashFlow {
         public final LocalDate date;
         public final double amount;
@@ -16,27 +50,234 @@ public class XirrCalculator {
         }
     }
 
+    /**
+     * XIRR of the cash flows as a percentage, timed from the first flow's date.
+     *
+     * @return 0 for fewer than two flows, {@code NaN} if no rate solves the series
+     */
     public static double calculate(List<CashFlow> cashFlows) {
+        return calculate(cashFlows, DEFAULT_GUESS);
+    }
+
+    /**
+     * As {@link #calculate(List)}, starting from {@code guess} (a rate such as 0.12,
+     * not a percentage).
+     */
+    public static double calculate(List<CashFlow> cashFlows, double guess) {
         if (cashFlows.size() < 2) return 0.0;
 
-        double x0 = 0.1; // Initial guess 10%
-        double x1;
-        
-        for (int i = 0; i < 100; i++) {
-            double f = 0;
-            double df = 0;
-            for (CashFlow cf : cashFlows) {
-                double days = ChronoUnit.DAYS.between(cashFlows.get(0).date, cf.date);
-                double t = days / 365.0;
-                f += cf.amount / Math.pow(1 + x0, t);
-                df -= t * cf.amount / Math.pow(1 + x0, t + 1);
-            }
-            x1 = x0 - f / df;
-            if (Math.abs(x1 - x0) < 0.0001) {
-                return x1 * 100; // Return as percentage
-            }
-            x0 = x1;
-        }
-        return x0 * 100;
+        Series series = new Series(cashFlows.size());
+        for (CashFlow cf : cashFlows) {
+            series.add(cf.date, cf.amount);
+        }
+        return series.solve(guess) * 100;
+    }
+
+    /**
+     * Append-only cash flow series with year fractions precomputed, timed from the
+     * first flow added. Not thread-safe.
+     */
+    public static final class Series {
+
+        private LocalDate origin;
+        private double[] times;
+        private double[] amounts;
+        private int size;
+
+        public Series() {
+            this(16);
+        }
+
+        public Series(int capacity) {
+            times = new double[Math.max(capacity, 2)];
+            amounts = new double[times.length];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Adds a flow: negative for money paid in, positive for money taken out. */
+        public void add(LocalDate date, double amount) {
+            if (origin == null) {
+                origin = date;
+            }
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            times[size] = yearsFromOrigin(date);
+            amounts[size] = amount;
+            size++;
+        }
+
+        /**
+         * Rate (a fraction, not a percentage) solving the series, starting from {@code guess}.
+         *
+         * @return {@code NaN} for fewer than two flows or if no rate solves the series
+         */
+        public double solve(double guess) {
+            return solve(size, 0.0, 0.0, guess);
+        }
+
+        /**
+         * Rate solving the series plus one more flow that is not stored, typically
+         * the portfolio's current value as of today.
+         */
+        public double solveWithTerminal(LocalDate date, double amount, double guess) {
+            if (amount == 0.0) {
+                return solve(guess);
+            }
+            double time = origin == null ? 0.0 : yearsFromOrigin(date);
+            return solve(size + 1, time, amount, guess);
+        }
+
+        private double yearsFromOrigin(LocalDate date) {
+            return ChronoUnit.DAYS.between(origin, date) / DAYS_PER_YEAR;
+        }
+
+        private double solve(int count, double terminalTime, double terminalAmount, double guess) {
+            if (count < 2) {
+                return Double.NaN;
+            }
+            double[] fdf = new double[2];
+            double rate = Double.isFinite(guess) && guess > MIN_RATE ? guess : DEFAULT_GUESS;
+            for (int i = 0; i < MAX_NEWTON_ITERATIONS; i++) {
+                npv(rate, terminalTime, terminalAmount, fdf);
+                if (fdf[0] == 0.0) {
+                    return rate;
+                }
+                if (fdf[1] == 0.0 || !Double.isFinite(fdf[0]) || !Double.isFinite(fdf[1])) {
+                    break;
+                }
+                double next = rate - fdf[0] / fdf[1];
+                if (!Double.isFinite(next) || next <= MIN_RATE) {
+                    break;
+                }
+                if (Math.abs(next - rate) <= RATE_TOLERANCE * Math.max(1.0, Math.abs(next))) {
+                    return next;
+                }
+                rate = next;
+            }
+            return bracketAndSolve(guess, terminalTime, terminalAmount, fdf);
+        }
+
+        /** Brent's method on the sign change nearest the guess. */
+        private double bracketAndSolve(double guess, double terminalTime, double terminalAmount, double[] fdf) {
+            double lo = Double.NaN;
+            double hi = Double.NaN;
+            double fLo = 0.0;
+            double fHi = 0.0;
+            double prevRate = Double.NaN;
+            double prevValue = Double.NaN;
+            for (double rate : BRACKET_GRID) {
+                npv(rate, terminalTime, terminalAmount, fdf);
+                double value = fdf[0];
+                if (!Double.isFinite(value)) {
+                    prevRate = Double.NaN;
+                    continue;
+                }
+                if (value == 0.0) {
+                    return rate;
+                }
+                if (!Double.isNaN(prevRate) && Math.signum(value) != Math.signum(prevValue)) {
+                    boolean closer = Double.isNaN(lo)
+                            || distance(guess, prevRate, rate) < distance(guess, lo, hi);
+                    if (closer) {
+                        lo = prevRate;
+                        hi = rate;
+                        fLo = prevValue;
+                        fHi = value;
+                    }
+                }
+                prevRate = rate;
+                prevValue = value;
+            }
+            if (Double.isNaN(lo)) {
+                return Double.NaN;
+            }
+            return brent(lo, hi, fLo, fHi, terminalTime, terminalAmount, fdf);
+        }
+
+        private double brent(double a, double b, double fa, double fb, double terminalTime, double terminalAmount,
+                double[] fdf) {
+            if (Math.abs(fa) < Math.abs(fb)) {
+                double t = a; a = b; b = t;
+                t = fa; fa = fb; fb = t;
+            }
+            double c = a;
+            double fc = fa;
+            double d = b - a;
+            boolean bisected = true;
+            for (int i = 0; i < MAX_BRENT_ITERATIONS; i++) {
+                if (fb == 0.0 || Math.abs(b - a) <= RATE_TOLERANCE * Math.max(1.0, Math.abs(b))) {
+                    return b;
+                }
+                double s;
+                if (fa != fc && fb != fc) {
+                    // Inverse quadratic interpolation
+                    s = a * fb * fc / ((fa - fb) * (fa - fc))
+                            + b * fa * fc / ((fb - fa) * (fb - fc))
+                            + c * fa * fb / ((fc - fa) * (fc - fb));
+                } else {
+                    // Secant
+                    s = b - fb * (b - a) / (fb - fa);
+                }
+                double lower = (3 * a + b) / 4;
+                boolean outside = (s - lower) * (s - b) > 0;
+                if (outside
+                        || (bisected && Math.abs(s - b) >= Math.abs(b - c) / 2)
+                        || (!bisected && Math.abs(s - b) >= Math.abs(c - d) / 2)
+                        || !Double.isFinite(s)) {
+                    s = (a + b) / 2;
+                    bisected = true;
+                } else {
+                    bisected = false;
+                }
+                npv(s, terminalTime, terminalAmount, fdf);
+                double fs = fdf[0];
+                d = c;
+                c = b;
+                fc = fb;
+                if (Math.signum(fa) * Math.signum(fs) < 0) {
+                    b = s;
+                    fb = fs;
+                } else {
+                    a = s;
+                    fa = fs;
+                }
+                if (Math.abs(fa) < Math.abs(fb)) {
+                    double t = a; a = b; b = t;
+                    t = fa; fa = fb; fb = t;
+                }
+            }
+            return b;
+        }
+
+        /** NPV at {@code rate} into {@code out[0]}, its derivative into {@code out[1]}. */
+        private void npv(double rate, double terminalTime, double terminalAmount, double[] out) {
+            double logBase = Math.log1p(rate);
+            double value = 0.0;
+            double slope = 0.0;
+            for (int i = 0; i < size; i++) {
+                double discounted = amounts[i] * Math.exp(-times[i] * logBase);
+                value += discounted;
+                slope -= times[i] * discounted;
+            }
+            if (terminalAmount != 0.0) {
+                double discounted = terminalAmount * Math.exp(-terminalTime * logBase);
+                value += discounted;
+                slope -= terminalTime * discounted;
+            }
+            out[0] = value;
+            out[1] = slope / (1 + rate);
+        }
+
+        private static double distance(double guess, double lo, double hi) {
+            if (guess >= lo && guess <= hi) {
+                return 0.0;
+            }
+            return Math.min(Math.abs(guess - lo), Math.abs(guess - hi));
+        }
     }
 }
@@ -0,0 +1,49 @@
+-- ============================================================================
+-- Materialized net worth
+--
+-- net_worth_snapshot            latest assembled net worth per user (read path)
+-- net_worth_snapshot_component  latest value of each component per user, so a
+--                               change to one source only reloads that component
+-- net_worth_daily               one point per user per day for the time series
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS net_worth_snapshot (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    total_assets DECIMAL(19,2) NOT NULL,
+    total_liabilities DECIMAL(19,2) NOT NULL,
+    net_worth DECIMAL(19,2) NOT NULL,
+    net_worth_after_tax DECIMAL(19,2) NOT NULL,
+    portfolio_value DECIMAL(19,2) NOT NULL,
+    savings_value DECIMAL(19,2) NOT NULL,
+    outstanding_loans DECIMAL(19,2) NOT NULL,
+    outstanding_tax_liability DECIMAL(19,2) NOT NULL,
+    outstanding_lendings DECIMAL(19,2) NOT NULL,
+    asset_breakdown TEXT,
+    liability_breakdown TEXT,
+    computed_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Materialized net worth per user, maintained from change events';
+
+CREATE TABLE IF NOT EXISTS net_worth_snapshot_component (
+    user_id BIGINT NOT NULL,
+    component VARCHAR(32) NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    breakdown TEXT,
+    refreshed_at TIMESTAMP(3) NOT NULL,
+
+    PRIMARY KEY (user_id, component)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Last loaded value of each net worth component per user';
+
+CREATE TABLE IF NOT EXISTS net_worth_daily (
+    user_id BIGINT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    total_assets DECIMAL(19,2) NOT NULL,
+    total_liabilities DECIMAL(19,2) NOT NULL,
+    net_worth DECIMAL(19,2) NOT NULL,
+    net_worth_after_tax DECIMAL(19,2) NOT NULL,
+    updated_at TIMESTAMP(3) NOT NULL,
+
+    PRIMARY KEY (user_id, snapshot_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Closing net worth per user per day';
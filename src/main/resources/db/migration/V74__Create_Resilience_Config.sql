@@ -0,0 +1,30 @@
+-- ============================================================================
+-- Third-party stock provider limits, one row per provider (id = provider name).
+-- Read by ProviderGovernor; a missing row or NULL column falls back to the
+-- built-in defaults for that provider.
+--
+-- limit_for_period          calls per minute
+-- limit_per_day             calls per UTC day (NULL = provider default, 0 = no daily quota)
+-- user_daily_share_percent  share of the daily quota one user may consume
+-- timeout_duration          seconds a call may wait for a permit
+-- failure_threshold         consecutive failures that open the circuit
+-- open_duration_seconds     how long an open circuit routes around the provider
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS resilience_config (
+    id VARCHAR(64) NOT NULL PRIMARY KEY,
+    limit_for_period INT NOT NULL DEFAULT 0,
+    limit_per_day INT NULL,
+    user_daily_share_percent INT NULL,
+    timeout_duration INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL DEFAULT 0,
+    wait_duration BIGINT NOT NULL DEFAULT 0,
+    failure_threshold INT NULL,
+    open_duration_seconds INT NULL
+);
+
+INSERT INTO resilience_config (id, limit_for_period, limit_per_day, user_daily_share_percent, timeout_duration,
+                               failure_threshold, open_duration_seconds)
+VALUES ('AlphaVantage', 5, 500, 20, 10, 5, 60),
+       ('IndianAPI', 60, NULL, NULL, 5, 5, 60)
+ON DUPLICATE KEY UPDATE id = id;
@@ -0,0 +1,64 @@
+-- ============================================================================
+-- Lot-level cost basis for portfolio transactions, maintained by
+-- PortfolioLotService.
+--
+-- portfolio_lots          one row per BUY (or BONUS) lot; remaining_quantity
+--                         and remaining_cost go down as SELLs consume the lot
+-- portfolio_lot_matches   which lots each SELL consumed, with the cost basis
+--                         and proceeds of that part (holding period and gains
+--                         per lot, read by capital gains generation)
+-- portfolio_lot_ledgers   one row per (user, symbol) whose ledger has been
+--                         built, whether or not it has open lots
+--
+-- Rows are derived from portfolio_transactions and rebuilt per (user, symbol)
+-- when a transaction is edited, deleted or back-dated. Existing users are
+-- built lazily on their next transaction for the symbol.
+-- ============================================================================
+
+ALTER TABLE portfolio_transactions
+    ADD COLUMN cost_basis_method VARCHAR(20) NULL;
+
+CREATE TABLE IF NOT EXISTS portfolio_lots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    symbol VARCHAR(50) NOT NULL,
+    buy_transaction_id BIGINT NOT NULL,
+    acquired_date DATE NOT NULL,
+    quantity INT NOT NULL,
+    cost_basis DECIMAL(19, 4) NOT NULL,
+    remaining_quantity INT NOT NULL,
+    remaining_cost DECIMAL(19, 4) NOT NULL,
+    is_open BOOLEAN AS (remaining_quantity > 0) STORED,
+    CONSTRAINT fk_portfolio_lot_transaction FOREIGN KEY (buy_transaction_id)
+        REFERENCES portfolio_transactions(id) ON DELETE CASCADE
+);
+
+-- Open lots of a symbol in consumption order; closed lots are never scanned or locked
+CREATE INDEX idx_portfolio_lots_open ON portfolio_lots(user_id, symbol, is_open, acquired_date, id);
+
+CREATE TABLE IF NOT EXISTS portfolio_lot_matches (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    symbol VARCHAR(50) NOT NULL,
+    sell_transaction_id BIGINT NOT NULL,
+    lot_id BIGINT NOT NULL,
+    acquired_date DATE NOT NULL,
+    sell_date DATE NOT NULL,
+    quantity INT NOT NULL,
+    cost_basis DECIMAL(19, 4) NOT NULL,
+    proceeds DECIMAL(19, 4) NOT NULL,
+    CONSTRAINT fk_portfolio_lot_match_sell FOREIGN KEY (sell_transaction_id)
+        REFERENCES portfolio_transactions(id) ON DELETE CASCADE,
+    CONSTRAINT fk_portfolio_lot_match_lot FOREIGN KEY (lot_id)
+        REFERENCES portfolio_lots(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_portfolio_lot_matches_user_symbol ON portfolio_lot_matches(user_id, symbol);
+CREATE INDEX idx_portfolio_lot_matches_user_sell_date ON portfolio_lot_matches(user_id, sell_date);
+
+CREATE TABLE IF NOT EXISTS portfolio_lot_ledgers (
+    user_id BIGINT NOT NULL,
+    symbol VARCHAR(50) NOT NULL,
+    built_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, symbol)
+);
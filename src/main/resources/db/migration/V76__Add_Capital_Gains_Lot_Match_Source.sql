@@ -0,0 +1,13 @@
+-- ============================================================================
+-- Capital gains rows generated from the portfolio lot ledger
+-- (TaxAutoPopulationServiceImpl.autoPopulateCapitalGains) carry the
+-- portfolio_lot_matches row they were built from. A rerun for a financial
+-- year replaces exactly those rows; manually entered rows (lot_match_id NULL)
+-- are left alone. No foreign key: a ledger rebuild re-keys the matches, and
+-- the next rerun replaces the stale rows.
+-- ============================================================================
+
+ALTER TABLE capital_gains_transactions
+    ADD COLUMN lot_match_id BIGINT NULL;
+
+CREATE UNIQUE INDEX uk_cgt_lot_match ON capital_gains_transactions (lot_match_id);
@@ -0,0 +1,51 @@
+-- ============================================================================
+-- Pre-aggregated monthly budget totals, maintained by BudgetRollupStore.
+--
+-- One row per (user, month, EXPENSE category / custom category) and per
+-- (user, month, INCOME source). Expense and income writes apply +/- deltas in
+-- the same transaction; monthly reports, cash flow trends, budget variance
+-- and category alerts read these rows instead of the raw transactions.
+--
+-- Dimensions are '' rather than NULL so they can be part of the primary key,
+-- and compared binary so 'Food' and 'food' stay separate as they do in the
+-- source tables. BUDGET_ROLLUP_REBUILD recomputes the rows weekly to repair
+-- any drift from writes made outside the application.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS user_month_category_rollup (
+    user_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    entry_type VARCHAR(10) NOT NULL,
+    category VARCHAR(50) NOT NULL DEFAULT '',
+    custom_category VARCHAR(50) NOT NULL DEFAULT '',
+    source VARCHAR(255) NOT NULL DEFAULT '',
+    amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    entry_count INT NOT NULL DEFAULT 0,
+    recurring_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    recurring_count INT NOT NULL DEFAULT 0,
+    stable_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, month_start, entry_type, category, custom_category, source)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin;
+
+-- Backfill; same statements as BudgetRollupStore.rebuildUser, for all users
+INSERT INTO user_month_category_rollup
+    (user_id, month_start, entry_type, category, custom_category, source,
+     amount, entry_count, recurring_amount, recurring_count, stable_amount)
+SELECT user_id, DATE_SUB(expense_date, INTERVAL DAYOFMONTH(expense_date) - 1 DAY), 'EXPENSE',
+       COALESCE(category, ''), COALESCE(custom_category_name, ''), '', SUM(amount), COUNT(*), 0, 0, 0
+FROM expenses
+GROUP BY user_id, DATE_SUB(expense_date, INTERVAL DAYOFMONTH(expense_date) - 1 DAY),
+         COALESCE(category, ''), COALESCE(custom_category_name, '');
+
+INSERT INTO user_month_category_rollup
+    (user_id, month_start, entry_type, category, custom_category, source,
+     amount, entry_count, recurring_amount, recurring_count, stable_amount)
+SELECT user_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), 'INCOME', '', '', source,
+       SUM(amount), COUNT(*),
+       SUM(CASE WHEN is_recurring THEN amount ELSE 0 END), SUM(CASE WHEN is_recurring THEN 1 ELSE 0 END),
+       SUM(CASE WHEN is_stable THEN amount ELSE 0 END)
+FROM incomes
+GROUP BY user_id, DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), source;
+
+INSERT INTO scheduled_jobs (job_name, job_description, is_enabled, cron_expression) VALUES
+('BUDGET_ROLLUP_REBUILD', 'Recomputes the monthly budget category rollup from expenses and incomes', TRUE, '0 0 3 * * SUN');
@@ -0,0 +1,14 @@
+-- ============================================================================
+-- Indexes for the keyset-paginated expense and income listings
+-- (ExpenseRepository.findPageBefore / IncomeRepository.findPageBefore), which
+-- read a user's rows newest first by (date, id). With the cursor turned into
+-- the upper bound of the date range, every page is a short backward index
+-- range scan however deep the client has scrolled. The user/date prefix also
+-- serves the monthly date-range reads of reports and exports.
+-- ============================================================================
+
+CREATE INDEX idx_expenses_user_date ON expenses (user_id, expense_date, id);
+
+CREATE INDEX idx_expenses_user_category_date ON expenses (user_id, category, expense_date, id);
+
+CREATE INDEX idx_incomes_user_date ON incomes (user_id, date, id);
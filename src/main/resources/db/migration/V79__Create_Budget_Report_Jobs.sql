@@ -0,0 +1,37 @@
+-- ============================================================================
+-- Asynchronous monthly PDF reports with cached artifacts.
+--
+-- user_month_data_version counts the changes to a user's month: every expense
+-- or income write applied through BudgetRollupStore and every budget limit
+-- change bumps it. A rendered report is only reused while the month's version
+-- is the one it was rendered at.
+--
+-- budget_report_jobs holds one job per (user, month, data version); a failed
+-- job is re-queued in place. updated_at is refreshed on every status change;
+-- a QUEUED or RUNNING job left untouched for budget.reports.stale-after-ms is
+-- taken to be orphaned by a stopped node. READY jobs point at the artifact by the SHA-256
+-- of its content; the PDF itself lives on local disk under budget.reports.dir.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS user_month_data_version (
+    user_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, month_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS budget_report_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    month_year VARCHAR(7) NOT NULL,
+    data_version BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    content_hash CHAR(64),
+    size_bytes BIGINT,
+    error_message VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+    UNIQUE KEY uk_report_jobs_user_month_version (user_id, month_year, data_version),
+    INDEX idx_report_jobs_hash (content_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- Event-driven budget threshold alerts.
+--
+-- Expense writes publish the categories they touched; the alert service then
+-- compares that category's month total (from user_month_category_rollup)
+-- with its budget. budget_alert_state keeps the highest threshold, in percent,
+-- each (user, month, category) has crossed (0, 80 or 100), so every crossing
+-- raises exactly one alert and falling back below a threshold re-arms it.
+--
+-- Category is the effective name (custom category, else system category,
+-- TOTAL for the overall budget), compared binary like the rollup.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS budget_alert_state (
+    user_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    alert_level INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, month_start, category)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin;
+
+-- Thresholds already alerted on by the scheduled check do not alert again.
+-- Alerts without a YYYY-MM month are skipped: STR_TO_DATE would yield NULL.
+INSERT INTO budget_alert_state (user_id, month_start, category, alert_level)
+SELECT user_id, STR_TO_DATE(CONCAT(month_year, '-01'), '%Y-%m-%d'), category,
+       MAX(CASE WHEN alert_type = 'BUDGET_EXCEEDED' THEN 100 ELSE 80 END)
+FROM alerts
+WHERE category IS NOT NULL
+  AND month_year REGEXP '^[0-9]{4}-[0-9]{2}$'
+  AND alert_type IN ('BUDGET_EXCEEDED', 'APPROACHING_LIMIT', 'OVERSPENDING')
+GROUP BY user_id, month_year, category;
+
+-- Replaced by the event-driven evaluation; the nightly job never scanned any user
+DELETE FROM scheduled_jobs WHERE job_name = 'BUDGET_ALERTS';
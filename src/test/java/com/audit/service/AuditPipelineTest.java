@@ -0,0 +1,162 @@
+package com.audit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.shared.audit.data.UserActivityLog;
+import com.pisystem.shared.audit.entity.RequestAudit;
+import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
+import com.pisystem.shared.audit.repository.AuditBatchWriter;
+import com.pisystem.shared.audit.service.AuditPipeline;
+import com.pisystem.shared.audit.service.AuditPipeline.OverflowPolicy;
+import com.pisystem.shared.audit.service.AuditRingBuffer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPipelineTest {
+
+    @Mock
+    private AuditBatchWriter writer;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void ringBuffer_IsFifoAndBounded() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(3);
+        assertEquals(4, ring.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, ring.drainTo(drained, 10));
+        assertEquals(List.of(1, 2, 3, 4), drained);
+        assertNull(ring.poll());
+    }
+
+    @Test
+    void ringBuffer_ConcurrentProducers_DeliverEveryElementOnce() throws Exception {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        BitSet seen = new BitSet(producers * perProducer);
+        int received = 0;
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            Integer value = ring.poll();
+            if (value != null) {
+                assertFalse(seen.get(value), "duplicate " + value);
+                seen.set(value);
+                received++;
+            }
+        }
+        pool.shutdownNow();
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(producers * perProducer, seen.cardinality());
+    }
+
+    @Test
+    void flush_WritesQueuedEventsGroupedByTable() {
+        AuditPipeline pipeline = pipeline(16, OverflowPolicy.DROP);
+        pipeline.submit(RequestAudit.builder().uri("/a").build());
+        pipeline.submit(ThirdPartyRequestAudit.builder().providerName("AV").build());
+        pipeline.submit(UserActivityLog.builder().action("LOGIN").build());
+        pipeline.submit(RequestAudit.builder().uri("/b").build());
+
+        assertEquals(4, pipeline.flush());
+
+        verify(writer).write(
+                argThat(list -> list.size() == 2 && "/b".equals(list.get(1).getUri())),
+                argThat(list -> list.size() == 1),
+                argThat(list -> list.size() == 1));
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(4.0, meterRegistry.get("audit.pipeline.written").functionCounter().count());
+    }
+
+    @Test
+    void submit_WhenFullAndDropPolicy_CountsDroppedEvents() {
+        AuditPipeline pipeline = pipeline(2, OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(RequestAudit.builder().uri("/" + i).build());
+        }
+
+        assertEquals(3, pipeline.getDroppedCount());
+        assertEquals(2.0, meterRegistry.get("audit.pipeline.queue.depth").gauge().value());
+        assertEquals(3.0, meterRegistry.get("audit.pipeline.dropped").functionCounter().count());
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void submit_WhenFullAndCallerRunsPolicy_WritesOnCallingThread() {
+        AuditPipeline pipeline = pipeline(2, OverflowPolicy.CALLER_RUNS);
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(RequestAudit.builder().uri("/" + i).build());
+        }
+
+        verify(writer, times(1)).write(argThat(list -> list.size() == 1), anyList(), anyList());
+        assertEquals(0, pipeline.getDroppedCount());
+        assertEquals(2, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void flush_WhenBatchFails_RetriesRowByRow() {
+        AuditPipeline pipeline = pipeline(8, OverflowPolicy.DROP);
+        lenient().doThrow(new RuntimeException("Data too long for column 'uri'"))
+                .when(writer).write(argThat(list -> list.size() > 1), anyList(), anyList());
+        lenient().doThrow(new RuntimeException("Data too long for column 'uri'"))
+                .when(writer).write(argThat(list -> list.size() == 1 && "/bad".equals(list.get(0).getUri())),
+                        anyList(), anyList());
+
+        pipeline.submit(RequestAudit.builder().uri("/ok-1").build());
+        pipeline.submit(RequestAudit.builder().uri("/bad").build());
+        pipeline.submit(RequestAudit.builder().uri("/ok-2").build());
+
+        assertEquals(2, pipeline.flush());
+        assertEquals(1.0, meterRegistry.get("audit.pipeline.failed").functionCounter().count());
+    }
+
+    private AuditPipeline pipeline(int capacity, OverflowPolicy policy) {
+        return new AuditPipeline(writer, meterRegistry, capacity, 100, 1000, policy, 0);
+    }
+}
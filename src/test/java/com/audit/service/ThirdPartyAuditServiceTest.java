@@ -1,7 +1,7 @@
 package com.audit.service;
 
 import com.pisystem.shared.audit.entity.ThirdPartyRequestAudit;
-import com.pisystem.shared.audit.repository.ThirdPartyRequestAuditRepository;
+import com.pisystem.shared.audit.service.AuditPipeline;
 import com.pisystem.shared.audit.service.ThirdPartyAuditService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,7 +19,7 @@ import static org.mockito.Mockito.verify;
 class ThirdPartyAuditServiceTest {
 
     @Mock
-    private ThirdPartyRequestAuditRepository repository;
+    private AuditPipeline auditPipeline;
 
     @InjectMocks
     private ThirdPartyAuditService service;
@@ -38,18 +38,18 @@ class ThirdPartyAuditServiceTest {
     }
 
     @Test
-    void logOnly_ShouldSaveAuditLog() {
+    void logOnly_ShouldQueueAuditLog() {
         service.logOnly(audit);
-        verify(repository, times(1)).save(any(ThirdPartyRequestAudit.class));
+        verify(auditPipeline, times(1)).submit(audit);
     }
 
     @Test
     void logOnly_ShouldHandleExceptionGracefully() {
-        org.mockito.Mockito.when(repository.save(any(ThirdPartyRequestAudit.class)))
-                .thenThrow(new RuntimeException("DB Error"));
+        org.mockito.Mockito.doThrow(new RuntimeException("Pipeline error"))
+                .when(auditPipeline).submit(any(ThirdPartyRequestAudit.class));
 
         service.logOnly(audit);
 
-        verify(repository, times(1)).save(any(ThirdPartyRequestAudit.class));
+        verify(auditPipeline, times(1)).submit(any(ThirdPartyRequestAudit.class));
     }
 }
@@ -0,0 +1,165 @@
+package com.budget.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.budget.data.Alert;
+import com.pisystem.modules.budget.data.Alert.AlertSeverity;
+import com.pisystem.modules.budget.data.Alert.AlertType;
+import com.pisystem.modules.budget.data.Budget;
+import com.pisystem.modules.budget.data.ExpenseCategory;
+import com.pisystem.modules.budget.repo.AlertRepository;
+import com.pisystem.modules.budget.repo.BudgetAlertStateStore;
+import com.pisystem.modules.budget.repo.BudgetRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
+import com.pisystem.modules.budget.service.AlertServiceImpl;
+
+/**
+ * Tests for the incremental budget threshold evaluation: alerts fire once per
+ * 80% / 100% crossing and re-arm when spending falls back.
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertServiceImplTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String MONTH = "2026-02";
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private BudgetRollupStore rollupStore;
+
+    @Mock
+    private BudgetAlertStateStore alertStateStore;
+
+    @InjectMocks
+    private AlertServiceImpl alertService;
+
+    @Test
+    void evaluateBudgetThreshold_CrossesEightyPercent_RaisesOneWarning() {
+        givenBudget(ExpenseCategory.FOOD, "1000");
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, "FOOD")).thenReturn(new BigDecimal("850"));
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "FOOD")).thenReturn(0);
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "FOOD");
+
+        assertTrue(alert.isPresent());
+        assertEquals(AlertType.APPROACHING_LIMIT, alert.get().getAlertType());
+        assertEquals(AlertSeverity.WARNING, alert.get().getSeverity());
+        assertEquals(0, new BigDecimal("85").compareTo(alert.get().getPercentageUsed()));
+        assertEquals(MONTH, alert.get().getMonthYear());
+        verify(alertStateStore).setLevel(USER_ID, MONTH_START, "FOOD", 80);
+    }
+
+    @Test
+    void evaluateBudgetThreshold_AlreadyPastThreshold_DoesNotAlertAgain() {
+        givenBudget(ExpenseCategory.FOOD, "1000");
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, "FOOD")).thenReturn(new BigDecimal("950"));
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "FOOD")).thenReturn(80);
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "FOOD");
+
+        assertTrue(alert.isEmpty());
+        verify(alertStateStore, never()).setLevel(anyLong(), any(), anyString(), anyInt());
+        verify(alertRepository, never()).save(any());
+    }
+
+    @Test
+    void evaluateBudgetThreshold_CrossesHundredPercent_RaisesExceeded() {
+        givenBudget(ExpenseCategory.FOOD, "1000");
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, "FOOD")).thenReturn(new BigDecimal("1200"));
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "FOOD")).thenReturn(80);
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "FOOD");
+
+        assertTrue(alert.isPresent());
+        assertEquals(AlertType.BUDGET_EXCEEDED, alert.get().getAlertType());
+        assertEquals(AlertSeverity.DANGER, alert.get().getSeverity());
+        verify(alertStateStore).setLevel(USER_ID, MONTH_START, "FOOD", 100);
+    }
+
+    @Test
+    void evaluateBudgetThreshold_SpendingFallsBack_RearmsWithoutAlert() {
+        givenBudget(ExpenseCategory.FOOD, "1000");
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, "FOOD")).thenReturn(new BigDecimal("400"));
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "FOOD")).thenReturn(100);
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "FOOD");
+
+        assertTrue(alert.isEmpty());
+        verify(alertStateStore).setLevel(USER_ID, MONTH_START, "FOOD", 0);
+        verify(alertRepository, never()).save(any());
+    }
+
+    @Test
+    void evaluateBudgetThreshold_StoredLevelHigher_ReadsTotalOnlyAfterLocking() {
+        givenBudget(ExpenseCategory.FOOD, "1000");
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "FOOD")).thenReturn(100);
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, "FOOD")).thenReturn(new BigDecimal("850"));
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "FOOD");
+
+        // The lower level comes from a total read under the lock, so it reflects a real fall back
+        assertTrue(alert.isEmpty());
+        InOrder order = inOrder(alertStateStore, rollupStore);
+        order.verify(alertStateStore).lockLevel(USER_ID, MONTH_START, "FOOD");
+        order.verify(rollupStore).findExpenseTotal(USER_ID, MONTH_START, "FOOD");
+        order.verify(alertStateStore).setLevel(USER_ID, MONTH_START, "FOOD", 80);
+        verify(alertRepository, never()).save(any());
+    }
+
+    @Test
+    void evaluateBudgetThreshold_TotalBudget_UsesAllCategories() {
+        givenBudget(ExpenseCategory.TOTAL, "5000");
+        when(rollupStore.findExpenseTotal(USER_ID, MONTH_START, null)).thenReturn(new BigDecimal("5000"));
+        when(alertStateStore.lockLevel(USER_ID, MONTH_START, "TOTAL")).thenReturn(0);
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "TOTAL");
+
+        assertEquals(AlertType.BUDGET_EXCEEDED, alert.orElseThrow().getAlertType());
+    }
+
+    @Test
+    void evaluateBudgetThreshold_CustomCategoryWithoutBudget_ClearsState() {
+        when(budgetRepository.findByUserIdAndMonthYearAndCustomCategoryName(USER_ID, MONTH, "Pets"))
+                .thenReturn(Optional.empty());
+
+        Optional<Alert> alert = alertService.evaluateBudgetThreshold(USER_ID, MONTH_START, "Pets");
+
+        assertTrue(alert.isEmpty());
+        verify(alertStateStore).clear(USER_ID, MONTH_START, "Pets");
+        verifyNoInteractions(rollupStore, alertRepository);
+    }
+
+    private void givenBudget(ExpenseCategory category, String limit) {
+        Budget budget = Budget.builder()
+                .id(7L)
+                .userId(USER_ID)
+                .category(category)
+                .monthYear(MONTH)
+                .monthlyLimit(new BigDecimal(limit))
+                .build();
+        when(budgetRepository.findByUserIdAndCategoryAndMonthYear(USER_ID, category, MONTH))
+                .thenReturn(Optional.of(budget));
+    }
+}
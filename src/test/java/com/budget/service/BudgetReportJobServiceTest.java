@@ -0,0 +1,255 @@
+package com.budget.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.pisystem.infrastructure.alerts.service.EmailService;
+import com.pisystem.modules.budget.data.BudgetReportJob;
+import com.pisystem.modules.budget.data.BudgetReportJob.Status;
+import com.pisystem.modules.budget.repo.BudgetReportJobRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
+import com.pisystem.modules.budget.repo.ReportArtifactStore;
+import com.pisystem.modules.budget.service.BudgetReportJobService;
+import com.pisystem.modules.budget.service.ReportGenerationService;
+import com.pisystem.shared.security.AuthenticationHelper;
+
+/**
+ * Tests for BudgetReportJobService: reuse of cached reports per data version,
+ * one job per version under retries, concurrent inserts and jobs pending on other
+ * nodes, eviction of stale artifacts and the bounded render queue. Jobs are kept
+ * in an in-memory stand-in for the repository; artifacts go to a temp directory.
+ */
+@ExtendWith(MockitoExtension.class)
+class BudgetReportJobServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String MONTH = "2026-02";
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private BudgetReportJobRepository jobRepository;
+
+    @Mock
+    private BudgetRollupStore rollupStore;
+
+    @Mock
+    private ReportGenerationService reportGenerationService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private AuthenticationHelper authenticationHelper;
+
+    @TempDir
+    Path reportDir;
+
+    private final Map<Long, BudgetReportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private ReportArtifactStore artifactStore;
+    private BudgetReportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jobRepository.save(any(BudgetReportJob.class))).thenAnswer(invocation -> {
+            BudgetReportJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(ids.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))));
+        lenient().when(jobRepository.findFirstByUserIdAndMonthYearAndDataVersionOrderByIdDesc(anyLong(),
+                anyString(), anyLong())).thenAnswer(invocation -> jobs.values().stream()
+                        .filter(job -> job.getUserId().equals(invocation.getArgument(0))
+                                && job.getMonthYear().equals(invocation.getArgument(1))
+                                && job.getDataVersion().equals(invocation.getArgument(2)))
+                        .max(Comparator.comparing(BudgetReportJob::getId)));
+        lenient().when(jobRepository.findByUserIdAndMonthYearAndDataVersionLessThan(anyLong(), anyString(),
+                anyLong())).thenAnswer(invocation -> jobs.values().stream()
+                        .filter(job -> job.getUserId().equals(invocation.getArgument(0))
+                                && job.getMonthYear().equals(invocation.getArgument(1))
+                                && job.getDataVersion() < invocation.<Long>getArgument(2))
+                        .toList());
+        lenient().when(jobRepository.existsByContentHash(anyString())).thenAnswer(invocation -> jobs.values()
+                .stream().anyMatch(job -> invocation.getArgument(0).equals(job.getContentHash())));
+        lenient().doAnswer(invocation -> jobs.remove(invocation.<BudgetReportJob>getArgument(0).getId()))
+                .when(jobRepository).delete(any(BudgetReportJob.class));
+
+        artifactStore = new ReportArtifactStore(reportDir.toString());
+        service = newService(2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void awaitMonthlyReport_SameDataVersion_ServesCachedArtifact() {
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(3L);
+        when(reportGenerationService.generateMonthlyReport(USER_ID, MONTH)).thenReturn(pdf("report"));
+
+        BudgetReportJob first = service.awaitMonthlyReport(USER_ID, MONTH);
+        BudgetReportJob second = service.awaitMonthlyReport(USER_ID, MONTH);
+
+        assertEquals(Status.READY, first.getStatus());
+        assertEquals(first.getId(), second.getId());
+        assertEquals(3L, second.getDataVersion());
+        assertArrayEquals(pdf("report"), service.getArtifact(second));
+        verify(reportGenerationService, times(1)).generateMonthlyReport(USER_ID, MONTH);
+    }
+
+    @Test
+    void awaitMonthlyReport_DataChanged_RendersAgainAndDeletesStaleArtifact() {
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(1L, 2L);
+        when(reportGenerationService.generateMonthlyReport(USER_ID, MONTH))
+                .thenReturn(pdf("before"), pdf("after"));
+
+        BudgetReportJob stale = service.awaitMonthlyReport(USER_ID, MONTH);
+        BudgetReportJob fresh = service.awaitMonthlyReport(USER_ID, MONTH);
+
+        assertNotEquals(stale.getId(), fresh.getId());
+        assertEquals(Status.READY, fresh.getStatus());
+        assertArrayEquals(pdf("after"), service.getArtifact(fresh));
+        assertFalse(jobs.containsKey(stale.getId()));
+        assertFalse(artifactStore.exists(stale.getContentHash()));
+        assertTrue(artifactStore.exists(fresh.getContentHash()));
+    }
+
+    @Test
+    void requestMonthlyReport_QueueFull_FailsJobWithoutRendering() throws Exception {
+        service.stop();
+        service = newService(1, 1);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rollupStore.findVersion(eq(USER_ID), any(LocalDate.class))).thenReturn(0L);
+        when(reportGenerationService.generateMonthlyReport(eq(USER_ID), anyString())).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return pdf(invocation.getArgument(1));
+        });
+
+        BudgetReportJob running = service.requestMonthlyReport(USER_ID, "2026-01");
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+        BudgetReportJob queued = service.requestMonthlyReport(USER_ID, "2026-02");
+        BudgetReportJob rejected = service.requestMonthlyReport(USER_ID, "2026-03");
+
+        assertEquals(Status.RUNNING, running.getStatus());
+        assertEquals(Status.QUEUED, queued.getStatus());
+        assertEquals(Status.FAILED, rejected.getStatus());
+        assertEquals("Report queue is full, please try again later", rejected.getErrorMessage());
+
+        release.countDown();
+        assertEquals(Status.READY, service.awaitMonthlyReport(USER_ID, "2026-01").getStatus());
+        verify(reportGenerationService, never()).generateMonthlyReport(USER_ID, "2026-03");
+    }
+
+    @Test
+    void awaitMonthlyReport_RenderFails_MarksJobFailed() {
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(0L);
+        when(reportGenerationService.generateMonthlyReport(USER_ID, MONTH))
+                .thenThrow(new RuntimeException("Failed to generate PDF report"));
+
+        BudgetReportJob job = service.awaitMonthlyReport(USER_ID, MONTH);
+
+        assertEquals(Status.FAILED, job.getStatus());
+        assertEquals("Failed to generate PDF report", job.getErrorMessage());
+        assertThrows(IllegalStateException.class, () -> service.getArtifact(job));
+    }
+
+    @Test
+    void awaitMonthlyReport_AfterFailure_RequeuesSameJob() {
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(0L);
+        when(reportGenerationService.generateMonthlyReport(USER_ID, MONTH))
+                .thenThrow(new RuntimeException("Failed to generate PDF report"))
+                .thenReturn(pdf("report"));
+
+        BudgetReportJob failed = service.awaitMonthlyReport(USER_ID, MONTH);
+        BudgetReportJob retried = service.awaitMonthlyReport(USER_ID, MONTH);
+
+        assertEquals(failed.getId(), retried.getId());
+        assertEquals(Status.READY, retried.getStatus());
+        assertNull(retried.getErrorMessage());
+        assertEquals(1, jobs.size());
+    }
+
+    @Test
+    void requestMonthlyReport_QueuedConcurrentlyElsewhere_ReturnsStoredJob() {
+        BudgetReportJob other = BudgetReportJob.builder()
+                .id(42L).userId(USER_ID).monthYear(MONTH).dataVersion(0L).status(Status.QUEUED).build();
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(0L);
+        when(jobRepository.findFirstByUserIdAndMonthYearAndDataVersionOrderByIdDesc(USER_ID, MONTH, 0L))
+                .thenReturn(Optional.empty(), Optional.of(other));
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(jobRepository)
+                .save(any(BudgetReportJob.class));
+
+        BudgetReportJob job = service.requestMonthlyReport(USER_ID, MONTH);
+
+        assertSame(other, job);
+        verifyNoInteractions(reportGenerationService);
+    }
+
+    @Test
+    void requestMonthlyReport_RunningOnAnotherNode_LeavesItAlone() {
+        BudgetReportJob other = BudgetReportJob.builder().userId(USER_ID).monthYear(MONTH).dataVersion(0L)
+                .status(Status.RUNNING).updatedAt(LocalDateTime.now().minusMinutes(1)).build();
+        jobRepository.save(other);
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(0L);
+
+        BudgetReportJob job = service.requestMonthlyReport(USER_ID, MONTH);
+
+        assertSame(other, job);
+        assertEquals(Status.RUNNING, job.getStatus());
+        verifyNoInteractions(reportGenerationService);
+    }
+
+    @Test
+    void awaitMonthlyReport_PendingJobUntouchedPastStaleLimit_RendersItAgain() {
+        BudgetReportJob orphan = BudgetReportJob.builder().userId(USER_ID).monthYear(MONTH).dataVersion(0L)
+                .status(Status.RUNNING).updatedAt(LocalDateTime.now().minusHours(1)).build();
+        jobRepository.save(orphan);
+        when(rollupStore.findVersion(USER_ID, MONTH_START)).thenReturn(0L);
+        when(reportGenerationService.generateMonthlyReport(USER_ID, MONTH)).thenReturn(pdf("report"));
+
+        BudgetReportJob job = service.awaitMonthlyReport(USER_ID, MONTH);
+
+        assertEquals(orphan.getId(), job.getId());
+        assertEquals(Status.READY, job.getStatus());
+        assertEquals(1, jobs.size());
+    }
+
+    private BudgetReportJobService newService(int workers, int queueCapacity) {
+        return new BudgetReportJobService(jobRepository, artifactStore, rollupStore, reportGenerationService,
+                emailService, authenticationHelper, workers, queueCapacity, 5000, 600_000);
+    }
+
+    private static byte[] pdf(String content) {
+        return ("%PDF-" + content).getBytes(StandardCharsets.UTF_8);
+    }
+}
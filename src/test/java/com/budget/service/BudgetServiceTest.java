@@ -10,14 +10,17 @@ import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,9 +33,15 @@ import com.pisystem.modules.budget.data.CashFlowDTO;
 import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.ExpenseCategory;
 import com.pisystem.modules.budget.data.Income;
+import com.pisystem.modules.budget.data.MonthCategoryRollup;
+import com.pisystem.modules.budget.data.MonthCategoryRollup.EntryType;
+import com.pisystem.modules.budget.dto.CursorPage;
+import com.pisystem.modules.budget.event.BudgetSpendChangedEvent;
 import com.pisystem.modules.budget.repo.BudgetRepository;
+import com.pisystem.modules.budget.repo.BudgetRollupStore;
 import com.pisystem.modules.budget.repo.CustomCategoryRepository;
 import com.pisystem.modules.budget.repo.ExpenseRepository;
+import com.pisystem.modules.budget.repo.ExpenseRepository.ExpenseRow;
 import com.pisystem.modules.budget.repo.IncomeRepository;
 import com.pisystem.modules.budget.service.BudgetService;
 import com.pisystem.shared.security.AuthenticationHelper;
@@ -59,6 +68,12 @@ class BudgetServiceTest {
     @Mock
     private AuthenticationHelper authenticationHelper;
 
+    @Mock
+    private BudgetRollupStore rollupStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BudgetService budgetService;
 
@@ -192,6 +207,27 @@ class BudgetServiceTest {
         verify(expenseRepository).save(any(Expense.class));
     }
 
+    @Test
+    @DisplayName("Should move an updated expense between rollup categories")
+    void testUpdateExpenseReplacesRollupContribution() {
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Expense details = new Expense();
+        details.setAmount(BigDecimal.valueOf(6000));
+        details.setCategory(ExpenseCategory.ENTERTAINMENT);
+        budgetService.updateExpense(1L, details);
+
+        ArgumentCaptor<MonthCategoryRollup> before = ArgumentCaptor.forClass(MonthCategoryRollup.class);
+        ArgumentCaptor<MonthCategoryRollup> after = ArgumentCaptor.forClass(MonthCategoryRollup.class);
+        verify(rollupStore).replace(before.capture(), after.capture());
+        assertEquals("FOOD", before.getValue().getCategory());
+        assertEquals(BigDecimal.valueOf(5000), before.getValue().getAmount());
+        assertEquals("ENTERTAINMENT", after.getValue().getCategory());
+        assertEquals(BigDecimal.valueOf(6000), after.getValue().getAmount());
+        assertEquals(1, after.getValue().getEntryCount());
+    }
+
     @Test
     @DisplayName("Should delete expense successfully")
     void testDeleteExpense() {
@@ -202,6 +238,8 @@ class BudgetServiceTest {
         budgetService.deleteExpense(1L);
 
         verify(expenseRepository).delete(any(Expense.class));
+        verify(rollupStore).apply(argThat((MonthCategoryRollup delta) -> delta.getEntryCount() == -1
+                && delta.getAmount().compareTo(BigDecimal.valueOf(-5000)) == 0));
     }
 
     // ===== INCOME TESTS =====
@@ -293,6 +331,13 @@ class BudgetServiceTest {
         assertNotNull(result);
         assertEquals(testBudget.getId(), result.getId());
         verify(budgetRepository).save(testBudget);
+
+        // A new limit can cross an alert threshold without any new expense
+        ArgumentCaptor<BudgetSpendChangedEvent> event = ArgumentCaptor.forClass(BudgetSpendChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(YearMonth.now().atDay(1), event.getValue().getMonthStart());
+        assertEquals(Set.of("FOOD"), event.getValue().getCategories());
+        verify(rollupStore).touchMonth(userId, YearMonth.now().atDay(1));
     }
 
     @Test
@@ -350,43 +395,110 @@ class BudgetServiceTest {
     @DisplayName("Should generate monthly report")
     void testGetMonthlyReport() {
         List<Budget> budgets = Arrays.asList(testBudget);
-        List<Expense> expenses = Arrays.asList(testExpense);
+        LocalDate month = YearMonth.now().atDay(1);
 
         when(budgetRepository.findByUserIdAndMonthYear(userId, YearMonth.now().toString()))
                 .thenReturn(budgets);
-        when(expenseRepository.findByUserIdAndExpenseDateBetween(eq(userId), any(LocalDate.class),
-                any(LocalDate.class)))
-                .thenReturn(expenses);
+        when(rollupStore.findMonth(userId, month)).thenReturn(List.of(
+                MonthCategoryRollup.of(testExpense),
+                MonthCategoryRollup.of(testIncome)));
+        when(expenseRepository.findRecentIds(eq(userId), any(LocalDate.class), any(LocalDate.class),
+                any(Pageable.class))).thenReturn(List.of(1L));
+        when(expenseRepository.findByIdIn(List.of(1L))).thenReturn(List.of(testExpense));
         doNothing().when(authenticationHelper).validateUserAccess(userId);
 
         BudgetReportDTO result = budgetService.getMonthlyReport(userId, YearMonth.now().toString());
 
         assertNotNull(result);
+        assertEquals(BigDecimal.valueOf(5000), result.getTotalSpent());
+        assertEquals(BigDecimal.valueOf(50000), result.getTotalIncome());
+        assertEquals(BigDecimal.valueOf(10000),
+                result.getCategoryBreakdown().get(ExpenseCategory.FOOD).getRemaining());
+        assertEquals(List.of(testExpense), result.getRecentExpenses());
         verify(budgetRepository).findByUserIdAndMonthYear(userId, YearMonth.now().toString());
-        verify(expenseRepository).findByUserIdAndExpenseDateBetween(eq(userId), any(LocalDate.class),
-                any(LocalDate.class));
+        verify(expenseRepository, never()).findByUserIdAndExpenseDateBetween(any(), any(), any());
     }
 
     @Test
     @DisplayName("Should generate cash flow analysis")
     void testGetCashFlow() {
-        List<Income> incomes = Arrays.asList(testIncome);
-        List<Expense> expenses = Arrays.asList(testExpense);
-
-        when(incomeRepository.findByUserIdAndDateBetween(eq(userId), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(incomes);
-        when(expenseRepository.findByUserIdAndExpenseDateBetween(eq(userId), any(LocalDate.class),
-                any(LocalDate.class)))
-                .thenReturn(expenses);
+        LocalDate month = YearMonth.now().atDay(1);
+        MonthCategoryRollup pastIncome = MonthCategoryRollup.builder()
+                .userId(userId)
+                .monthStart(month.minusMonths(2))
+                .entryType(EntryType.INCOME)
+                .source("BONUS")
+                .amount(BigDecimal.valueOf(20000))
+                .entryCount(1)
+                .build();
+
+        when(rollupStore.findMonths(userId, month.minusMonths(5), month)).thenReturn(List.of(
+                MonthCategoryRollup.of(testIncome),
+                MonthCategoryRollup.of(testExpense),
+                pastIncome));
         doNothing().when(authenticationHelper).validateUserAccess(userId);
 
         CashFlowDTO result = budgetService.getCashFlowAnalysis(userId, YearMonth.now().toString());
 
         assertNotNull(result);
-        verify(incomeRepository, times(7)).findByUserIdAndDateBetween(eq(userId), any(LocalDate.class),
-                any(LocalDate.class));
-        verify(expenseRepository, times(7)).findByUserIdAndExpenseDateBetween(eq(userId), any(LocalDate.class),
-                any(LocalDate.class));
+        assertEquals(BigDecimal.valueOf(50000), result.getTotalIncome());
+        assertEquals(BigDecimal.valueOf(50000), result.getStableIncome());
+        assertEquals(BigDecimal.valueOf(45000), result.getNetCashFlow());
+        assertEquals(1, result.getRecurringIncomeCount());
+        assertEquals(0, result.getOneTimeIncomeCount());
+        assertEquals(6, result.getLast6Months().size());
+        assertEquals(BigDecimal.valueOf(20000), result.getLast6Months().get(3).getIncome());
+        verify(rollupStore, times(1)).findMonths(any(), any(), any());
+        verifyNoInteractions(incomeRepository, expenseRepository);
+    }
+
+    // ===== KEYSET LISTING TESTS =====
+
+    @Test
+    @DisplayName("Should return a cursor to the last row when more expenses follow")
+    void testGetExpensePageFirstPage() {
+        LocalDate date = LocalDate.of(2026, 2, 14);
+        when(expenseRepository.findPageBefore(eq(userId), eq(LocalDate.of(1900, 1, 1)),
+                eq(LocalDate.of(9999, 12, 31)), eq(Long.MAX_VALUE), isNull(), isNull(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(row(30L, date), row(29L, date), row(12L, date.minusDays(1))));
+
+        CursorPage<ExpenseRow> page = budgetService.getExpensePage(userId, null, 2, null, null, null, null);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(CursorPage.encodeCursor(date, 29L), page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should start the next expense page at the cursor")
+    void testGetExpensePageAfterCursor() {
+        LocalDate date = LocalDate.of(2026, 2, 14);
+        String cursor = CursorPage.encodeCursor(date, 29L);
+        when(expenseRepository.findPageBefore(eq(userId), eq(LocalDate.of(2026, 1, 1)), eq(date), eq(29L),
+                eq(ExpenseCategory.FOOD), eq("%cafe%"), eq(PageRequest.of(0, 21))))
+                .thenReturn(List.of(row(12L, date.minusDays(1))));
+
+        CursorPage<ExpenseRow> page = budgetService.getExpensePage(userId, cursor, 20, "FOOD",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 28), "Cafe");
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(expenseRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testGetExpensePageInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> budgetService.getExpensePage(userId, "not-a-cursor", 20, null, null, null, null));
+    }
+
+    private static ExpenseRow row(Long id, LocalDate date) {
+        ExpenseRow row = mock(ExpenseRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getExpenseDate()).thenReturn(date);
+        return row;
     }
 
     // ===== EDGE CASE TESTS =====
@@ -0,0 +1,111 @@
+package com.budget.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.pisystem.modules.budget.data.ExpenseCategory;
+import com.pisystem.modules.budget.repo.ExpenseRepository;
+import com.pisystem.modules.budget.repo.ExpenseRepository.ExpenseRow;
+import com.pisystem.modules.budget.repo.IncomeRepository;
+import com.pisystem.modules.budget.service.ExportService;
+
+/**
+ * Tests for ExportService streaming exports: keyset chunking across pages and
+ * the CSV/Excel output written to the caller's stream.
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 14);
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private IncomeRepository incomeRepository;
+
+    @InjectMocks
+    private ExportService exportService;
+
+    @Test
+    void exportExpensesToCSV_ReadsChunksFromTheLastRowOfThePrevious() throws Exception {
+        List<ExpenseRow> fullChunk = new ArrayList<>(Collections.nCopies(999, row(2000L, DAY, "10.00")));
+        fullChunk.add(row(1001L, DAY, "10.00"));
+        when(expenseRepository.findPageBefore(USER_ID, EARLIEST, LATEST, Long.MAX_VALUE, null, null,
+                PageRequest.of(0, 1000))).thenReturn(fullChunk);
+        when(expenseRepository.findPageBefore(USER_ID, EARLIEST, DAY, 1001L, null, null,
+                PageRequest.of(0, 1000))).thenReturn(List.of(row(7L, DAY.minusDays(3), "2.50")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportExpensesToCSV(USER_ID, null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1002, lines.length);
+        assertEquals("\"Date\",\"Description\",\"Category\",\"Amount\",\"Notes\"", lines[0]);
+        assertEquals("\"2026-02-11\",\"\",\"FOOD\",\"2.50\",\"\"", lines[1001]);
+        verify(expenseRepository, times(2)).findPageBefore(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void parseCategory_RejectsUnknownCategoryBeforeAnyRowIsRead() {
+        assertEquals(ExpenseCategory.FOOD, exportService.parseCategory("FOOD"));
+        assertNull(exportService.parseCategory(""));
+        assertNull(exportService.parseCategory(null));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> exportService.parseCategory("SNACKS"));
+        assertEquals("Invalid expense category: SNACKS", e.getMessage());
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    void exportExpensesToExcel_WritesRowsAndTotal() throws Exception {
+        when(expenseRepository.findPageBefore(eq(USER_ID), eq(DAY.withDayOfMonth(1)), eq(DAY), eq(Long.MAX_VALUE),
+                eq(ExpenseCategory.FOOD), isNull(), any())).thenReturn(List.of(
+                        row(2L, DAY, "100.25"), row(1L, DAY.minusDays(1), "50.00")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportExpensesToExcel(USER_ID, DAY.withDayOfMonth(1), DAY, ExpenseCategory.FOOD, out);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Expenses");
+            assertEquals("Date", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("2026-02-14", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(100.25, sheet.getRow(1).getCell(3).getNumericCellValue());
+            assertEquals("TOTAL:", sheet.getRow(3).getCell(2).getStringCellValue());
+            assertEquals(150.25, sheet.getRow(3).getCell(3).getNumericCellValue());
+        }
+    }
+
+    private static ExpenseRow row(Long id, LocalDate date, String amount) {
+        ExpenseRow row = mock(ExpenseRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getExpenseDate()).thenReturn(date);
+        lenient().when(row.getAmount()).thenReturn(new BigDecimal(amount));
+        lenient().when(row.getCategory()).thenReturn(ExpenseCategory.FOOD);
+        return row;
+    }
+}
@@ -0,0 +1,111 @@
+package com.investments.stocks.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pisystem.modules.stocks.cache.QuoteCache;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redis;
+
+    @Mock
+    private ValueOperations<String, String> values;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void withoutRedis_ServesFromInProcessTier() {
+        QuoteCache cache = new QuoteCache(null, objectMapper, meterRegistry, 300, 1800, 100, "quotes", 30);
+
+        assertFalse(cache.get("TCS").isHit());
+        cache.put("TCS", quote("TCS"));
+
+        QuoteCache.QuoteLookup lookup = cache.get("TCS");
+        assertTrue(lookup.isHit());
+        assertFalse(lookup.isStale());
+        assertEquals("TCS", lookup.getQuote().getCompanyName());
+        assertEquals(1.0, meterRegistry.get("stocks.quote.cache.requests")
+                .tags("tier", "l1", "result", "hit").counter().count());
+    }
+
+    @Test
+    void l1Miss_ReadsThroughFromRedis() throws Exception {
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get("quote:INFY")).thenReturn(
+                "{\"quote\":{\"companyName\":\"Infosys\"},\"fetchedAtMillis\":" + System.currentTimeMillis() + "}");
+        QuoteCache cache = new QuoteCache(redis, objectMapper, meterRegistry, 300, 1800, 100, "quotes", 30);
+
+        assertEquals("Infosys", cache.get("INFY").getQuote().getCompanyName());
+        // Now in L1
+        assertEquals("Infosys", cache.get("INFY").getQuote().getCompanyName());
+        verify(values, times(1)).get("quote:INFY");
+    }
+
+    @Test
+    void l2Hit_KeepsItsFetchTimeDeadlineInL1() {
+        when(redis.opsForValue()).thenReturn(values);
+        long fetchedAt = System.currentTimeMillis() - Duration.ofSeconds(1800).toMillis();
+        when(values.get("quote:INFY")).thenReturn(
+                "{\"quote\":{\"companyName\":\"Infosys\"},\"fetchedAtMillis\":" + fetchedAt + "}");
+        QuoteCache cache = new QuoteCache(redis, objectMapper, meterRegistry, 300, 1800, 100, "quotes", 30);
+
+        assertTrue(cache.get("INFY").isStale());
+        // Already past the stale limit, so L1 did not restart its clock and keep it
+        cache.get("INFY");
+        verify(values, times(2)).get("quote:INFY");
+    }
+
+    @Test
+    void redisDisabled_IgnoresRegisteredTemplate() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedisTemplate<String, String>> templates = mock(ObjectProvider.class);
+        QuoteCache cache = new QuoteCache(templates, objectMapper, meterRegistry, 300, 1800, 100, "quotes", 30,
+                false);
+        cache.subscribe();
+
+        cache.put("TCS", quote("TCS"));
+        assertTrue(cache.get("TCS").isHit());
+        verifyNoInteractions(templates, redis);
+    }
+
+    @Test
+    void redisFailure_DegradesToInProcessTierAndBacksOff() {
+        when(redis.opsForValue()).thenThrow(new RedisConnectionFailureException("Connection refused"));
+        QuoteCache cache = new QuoteCache(redis, objectMapper, meterRegistry, 300, 1800, 100, "quotes", 30);
+
+        assertFalse(cache.get("TCS").isHit());
+        cache.put("TCS", quote("TCS"));
+        assertFalse(cache.get("WIPRO").isHit());
+
+        assertEquals("TCS", cache.get("TCS").getQuote().getCompanyName());
+        // Only the first read reached Redis; later calls skip it until the retry delay passes
+        verify(redis, times(1)).opsForValue();
+        verify(redis, never()).convertAndSend(anyString(), any());
+        verify(values, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    private static ThirdPartyResponse quote(String name) {
+        return ThirdPartyResponse.builder().companyName(name).build();
+    }
+}
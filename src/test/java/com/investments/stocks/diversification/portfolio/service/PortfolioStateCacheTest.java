@@ -0,0 +1,176 @@
+package com.investments.stocks.diversification.portfolio.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.diversification.portfolio.data.Portfolio;
+import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioDTOResponse;
+import com.pisystem.modules.stocks.diversification.portfolio.repo.PortfolioRepository;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioInsightService;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioReadServiceImpl;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioRiskEvaluationService;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioScoringService;
+import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioStateCache;
+import com.pisystem.modules.stocks.diversification.sectors.data.Sector;
+import com.pisystem.modules.stocks.diversification.sectors.repo.SectorRepository;
+import com.pisystem.modules.stocks.event.PortfolioChangedEvent;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import com.pisystem.modules.stocks.repo.StockRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioStateCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private PortfolioTransactionRepository transactionRepository;
+
+    private PortfolioStateCache stateCache;
+    private PortfolioReadServiceImpl readService;
+
+    @BeforeEach
+    void setUp() {
+        stateCache = new PortfolioStateCache(portfolioRepository, stockRepository, sectorRepository,
+                transactionRepository, new SimpleMeterRegistry(), 60);
+        readService = new PortfolioReadServiceImpl(stateCache, new PortfolioRiskEvaluationService(),
+                new PortfolioScoringService(), new PortfolioInsightService());
+    }
+
+    @Test
+    void priceTicks_RevalueLoadedStateWithoutReloading() {
+        givenHoldings(transaction(PortfolioTransaction.TransactionType.BUY, "1500", null));
+
+        PortfolioDTOResponse first = readService.getPortfolioSummary(USER_ID);
+        assertEquals(0, first.getCurrentValue().compareTo(new BigDecimal("6000"))); // 10 * 200 + 20 * 200
+        assertEquals(0, first.getSectorAllocation().getSectors().get("Technology").compareTo(new BigDecimal("33.33")));
+
+        stateCache.onStockPricesUpdated(new StockPricesUpdatedEvent(LocalDate.now(),
+                Map.of("aapl", new BigDecimal("300"), "UNHELD", new BigDecimal("5"))));
+        PortfolioDTOResponse second = readService.getPortfolioSummary(USER_ID);
+
+        assertEquals(0, second.getTotalInvestment().compareTo(new BigDecimal("5500"))); // 10 * 150 + 20 * 200
+        assertEquals(0, second.getCurrentValue().compareTo(new BigDecimal("7000")));
+        assertEquals(0, second.getUnrealizedGain().compareTo(new BigDecimal("1500")));
+        assertEquals(0, second.getSectorAllocation().getSectors().get("Technology").compareTo(new BigDecimal("42.86")));
+        assertEquals(0, second.getSectorAllocation().getSectors().get("Banking").compareTo(new BigDecimal("57.14")));
+        verify(portfolioRepository, times(1)).findByUserId(USER_ID);
+        verify(transactionRepository, times(1)).findByUserIdOrderByTransactionDateDesc(USER_ID);
+    }
+
+    @Test
+    void recordedTransaction_AddsRealizedGainWithoutReloading() {
+        givenHoldings(transaction(PortfolioTransaction.TransactionType.SELL, "500", "120"));
+        assertEquals(0, readService.getPortfolioSummary(USER_ID).getRealizedGain().compareTo(new BigDecimal("120")));
+
+        stateCache.onPortfolioChanged(PortfolioChangedEvent.recorded(
+                transaction(PortfolioTransaction.TransactionType.DIVIDEND, "40", null)));
+        PortfolioDTOResponse summary = readService.getPortfolioSummary(USER_ID);
+
+        assertEquals(0, summary.getRealizedGain().compareTo(new BigDecimal("160")));
+        // 500 unrealized + 160 realized
+        assertEquals(0, summary.getTotalProfitLoss().compareTo(new BigDecimal("660")));
+        verify(transactionRepository, times(1)).findByUserIdOrderByTransactionDateDesc(USER_ID);
+    }
+
+    @Test
+    void otherWrites_DropStateSoNextReadReloads() {
+        givenHoldings();
+        readService.getPortfolioSummary(USER_ID);
+
+        stateCache.onPortfolioChanged(PortfolioChangedEvent.of(USER_ID));
+        readService.getPortfolioSummary(USER_ID);
+        // A price event without closes drops the states of the symbol's holders too
+        stateCache.onStockPricesUpdated(new StockPricesUpdatedEvent(java.util.Set.of("HDFC")));
+        readService.getPortfolioSummary(USER_ID);
+
+        verify(portfolioRepository, times(3)).findByUserId(USER_ID);
+    }
+
+    @Test
+    void noHoldings_ReturnsNoData() {
+        when(portfolioRepository.findByUserId(USER_ID)).thenReturn(List.of());
+
+        PortfolioDTOResponse summary = readService.getPortfolioSummary(USER_ID);
+
+        assertEquals("No Data", summary.getAssessment());
+        assertEquals(BigDecimal.ZERO, summary.getCurrentValue());
+        verifyNoInteractions(stockRepository, transactionRepository);
+    }
+
+    private void givenHoldings(PortfolioTransaction... transactions) {
+        when(portfolioRepository.findByUserId(USER_ID)).thenReturn(List.of(
+                holding("AAPL", 10, "150"),
+                holding("HDFC", 20, "200")));
+        when(stockRepository.findBySymbolIn(anyList())).thenReturn(List.of(
+                stock("AAPL", 200.0, 1L),
+                stock("HDFC", 200.0, 2L)));
+        when(sectorRepository.findAllById(anySet())).thenReturn(List.of(
+                sector(1L, "Technology"),
+                sector(2L, "Banking")));
+        when(transactionRepository.findByUserIdOrderByTransactionDateDesc(USER_ID))
+                .thenReturn(List.of(transactions));
+    }
+
+    private static Portfolio holding(String symbol, int quantity, String purchasePrice) {
+        return Portfolio.builder()
+                .userId(USER_ID)
+                .stockSymbol(symbol)
+                .quantity(quantity)
+                .purchasePrice(new BigDecimal(purchasePrice))
+                .build();
+    }
+
+    private static Stock stock(String symbol, double price, Long sectorId) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setPrice(price);
+        stock.setSectorId(sectorId);
+        stock.setMarketCap(25000.0);
+        return stock;
+    }
+
+    private static Sector sector(Long id, String name) {
+        Sector sector = new Sector();
+        sector.setId(id);
+        sector.setName(name);
+        return sector;
+    }
+
+    private static PortfolioTransaction transaction(PortfolioTransaction.TransactionType type, String totalAmount,
+            String realizedGain) {
+        return PortfolioTransaction.builder()
+                .userId(USER_ID)
+                .symbol("AAPL")
+                .transactionType(type)
+                .totalAmount(new BigDecimal(totalAmount))
+                .realizedGain(realizedGain != null ? new BigDecimal(realizedGain) : null)
+                .transactionDate(LocalDate.now().minusDays(30))
+                .build();
+    }
+}
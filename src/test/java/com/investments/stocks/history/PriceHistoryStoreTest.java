@@ -0,0 +1,181 @@
+package com.investments.stocks.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.stocks.data.StockPrice;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.history.PriceHistoryStore;
+import com.pisystem.modules.stocks.history.PriceRange;
+import com.pisystem.modules.stocks.history.RollingStats;
+import com.pisystem.modules.stocks.repo.StockPriceRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    private PriceHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void appendedCloses_SurviveReopenAndAreQueriedByRange() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(anyString(), any()))
+                .thenReturn(List.of());
+        // Enough days to grow the file past its initial capacity
+        for (int i = 0; i < 600; i++) {
+            assertTrue(store.append("TCS", DAY.plusDays(i), 100 + i));
+        }
+        store.close();
+
+        store = newStore();
+        PriceRange range = store.range("tcs", DAY.plusDays(10), DAY.plusDays(19));
+        assertEquals(10, range.size());
+        assertEquals(DAY.plusDays(10), range.date(0));
+        assertEquals(119.0, range.close(9));
+        assertEquals(600, store.range("TCS", DAY, DAY.plusDays(1000)).size());
+        assertTrue(store.range("TCS", DAY.minusDays(10), DAY.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void append_ReplacesLastDayAndIgnoresEarlierDays() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(anyString(), any()))
+                .thenReturn(List.of());
+        store.append("INFY", DAY, 1500);
+        store.append("INFY", DAY.plusDays(1), 1510);
+
+        assertTrue(store.append("INFY", DAY.plusDays(1), 1520));
+        assertFalse(store.append("INFY", DAY, 1400));
+        assertFalse(store.append("INFY", DAY.plusDays(2), Double.NaN));
+
+        PriceRange range = store.range("INFY", DAY, DAY.plusDays(5));
+        assertArrayEquals(new double[] { 1500, 1520 }, range.closes());
+    }
+
+    @Test
+    void firstUse_CatchesUpFromStockPricesOnce() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("WIPRO"), any()))
+                .thenReturn(List.of(row("WIPRO", DAY, "250.50"), row("WIPRO", DAY.plusDays(1), "252.00")));
+
+        store.onStockPricesUpdated(new StockPricesUpdatedEvent(DAY.plusDays(2), Map.of("WIPRO", new BigDecimal("255"))));
+        PriceRange range = store.range("WIPRO", DAY, DAY.plusDays(2));
+
+        assertArrayEquals(new double[] { 250.5, 252.0, 255.0 }, range.closes());
+        verify(stockPriceRepository, times(1)).findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("WIPRO"), any());
+    }
+
+    @Test
+    void reopen_FillsDaysStoredWithoutAnEvent() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("TCS"), any()))
+                .thenReturn(List.of());
+        store.append("TCS", DAY, 100);
+        store.append("TCS", DAY.plusDays(3), 103);
+        store.close();
+
+        // Days 1 and 2 were written to stock_prices by a path that published no event
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc("TCS",
+                DAY.plusDays(3).minusDays(7).minusDays(1))).thenReturn(List.of(row("TCS", DAY.plusDays(1), "101"),
+                        row("TCS", DAY.plusDays(2), "102"), row("TCS", DAY.plusDays(3), "103.5")));
+        store = newStore();
+
+        assertArrayEquals(new double[] { 100, 101, 102, 103.5 }, store.range("TCS", DAY, DAY.plusDays(5)).closes());
+    }
+
+    @Test
+    void backDatedEvent_MergesRowsFromThatDay() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("INFY"), any()))
+                .thenReturn(List.of());
+        store.append("INFY", DAY, 1500);
+        store.append("INFY", DAY.plusDays(2), 1520);
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc("INFY", DAY))
+                .thenReturn(List.of(row("INFY", DAY.plusDays(1), "1510"), row("INFY", DAY.plusDays(2), "1520")));
+
+        store.onStockPricesUpdated(new StockPricesUpdatedEvent(DAY.plusDays(1),
+                Map.of("INFY", new BigDecimal("1510"))));
+
+        assertArrayEquals(new double[] { 1500, 1510, 1520 }, store.range("INFY", DAY, DAY.plusDays(5)).closes());
+    }
+
+    @Test
+    void expireCatchUp_ReadsStockPricesAgainOnNextUse() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("WIPRO"), any()))
+                .thenReturn(List.of(row("WIPRO", DAY, "250.50")));
+        store.range("WIPRO", DAY, DAY);
+        store.range("WIPRO", DAY, DAY);
+
+        store.expireCatchUp();
+        store.range("WIPRO", DAY, DAY);
+
+        verify(stockPriceRepository, times(2)).findBySymbolAndPriceDateAfterOrderByPriceDateAsc(eq("WIPRO"), any());
+    }
+
+    @Test
+    void range_ComputesDrawdownAndRollingStats() {
+        when(stockPriceRepository.findBySymbolAndPriceDateAfterOrderByPriceDateAsc(anyString(), any()))
+                .thenReturn(List.of());
+        double[] closes = { 100, 110, 99, 88, 121, 110 };
+        for (int i = 0; i < closes.length; i++) {
+            store.append("HDFC", DAY.plusDays(i), closes[i]);
+        }
+        PriceRange range = store.range("HDFC", DAY, DAY.plusDays(10));
+
+        assertEquals(0.2, range.maxDrawdown(), 1e-12);
+
+        double[] returns = range.logReturns();
+        RollingStats stats = range.rollingStats(3);
+        assertEquals(3, stats.size());
+        assertEquals(DAY.plusDays(3), stats.date(0));
+        for (int i = 0; i < stats.size(); i++) {
+            double mean = (returns[i] + returns[i + 1] + returns[i + 2]) / 3;
+            double variance = (Math.pow(returns[i] - mean, 2) + Math.pow(returns[i + 1] - mean, 2)
+                    + Math.pow(returns[i + 2] - mean, 2)) / 2;
+            assertEquals(mean, stats.mean(i), 1e-12);
+            assertEquals(Math.sqrt(variance), stats.stdDev(i), 1e-12);
+        }
+        assertThrows(IllegalArgumentException.class, () -> range.rollingStats(1));
+    }
+
+    private PriceHistoryStore newStore() {
+        return new PriceHistoryStore(stockPriceRepository, new SimpleMeterRegistry(), directory.toString(), 7);
+    }
+
+    private static StockPrice row(String symbol, LocalDate day, String close) {
+        StockPrice price = new StockPrice();
+        price.setSymbol(symbol);
+        price.setPriceDate(day);
+        price.setClosePrice(new BigDecimal(close));
+        return price;
+    }
+}
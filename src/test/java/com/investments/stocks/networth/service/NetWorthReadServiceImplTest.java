@@ -1,11 +1,13 @@
 package com.investments.stocks.networth.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -14,9 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.pisystem.modules.lending.service.LendingService;
 import com.pisystem.modules.stocks.diversification.portfolio.data.PortfolioDTOResponse;
 import com.pisystem.modules.stocks.diversification.portfolio.service.PortfolioReadService;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
 import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
 import com.pisystem.modules.stocks.networth.data.UserAsset;
 import com.pisystem.shared.data.EntityType;
@@ -32,6 +39,8 @@ import com.pisystem.modules.savings.data.SavingsAccountDTO;
 import com.pisystem.modules.savings.service.FixedDepositService;
 import com.pisystem.modules.savings.service.RecurringDepositService;
 import com.pisystem.modules.savings.service.SavingsAccountService;
+import com.pisystem.modules.tax.service.TaxService;
+import com.pisystem.shared.security.AuthenticationHelper;
 
 @ExtendWith(MockitoExtension.class)
 class NetWorthReadServiceImplTest {
@@ -57,6 +66,15 @@ class NetWorthReadServiceImplTest {
         @Mock
         private LoanService loanService;
 
+        @Mock
+        private TaxService taxService;
+
+        @Mock
+        private LendingService lendingService;
+
+        @Mock
+        private AuthenticationHelper authenticationHelper;
+
         @InjectMocks
         private NetWorthReadServiceImpl netWorthService;
 
@@ -106,11 +124,11 @@ class NetWorthReadServiceImplTest {
                                                 .build());
 
                 when(portfolioService.getPortfolioSummary(userId)).thenReturn(portfolio);
-                when(savingsAccountService.getAllSavingsAccounts(userId)).thenReturn(savings);
-                when(fixedDepositService.getAllFixedDeposits(userId)).thenReturn(fds);
-                when(recurringDepositService.getAllRecurringDeposits(userId)).thenReturn(rds);
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenReturn(savings);
+                when(fixedDepositService.getAllFixedDepositsInternal(userId)).thenReturn(fds);
+                when(recurringDepositService.getAllRecurringDepositsInternal(userId)).thenReturn(rds);
                 when(userAssetRepository.findByUserId(userId)).thenReturn(assets);
-                when(loanService.getLoansByUserId(userId)).thenReturn(loans);
+                when(loanService.getLoansByUserIdInternal(userId)).thenReturn(loans);
                 when(userLiabilityRepository.findByUserId(userId)).thenReturn(liabilities);
 
                 // Act
@@ -144,11 +162,11 @@ class NetWorthReadServiceImplTest {
         void testGetNetWorth_WithNoPortfolio() {
                 // Arrange
                 when(portfolioService.getPortfolioSummary(userId)).thenReturn(null);
-                when(savingsAccountService.getAllSavingsAccounts(userId)).thenReturn(Arrays.asList());
-                when(fixedDepositService.getAllFixedDeposits(userId)).thenReturn(Arrays.asList());
-                when(recurringDepositService.getAllRecurringDeposits(userId)).thenReturn(Arrays.asList());
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenReturn(Arrays.asList());
+                when(fixedDepositService.getAllFixedDepositsInternal(userId)).thenReturn(Arrays.asList());
+                when(recurringDepositService.getAllRecurringDepositsInternal(userId)).thenReturn(Arrays.asList());
                 when(userAssetRepository.findByUserId(userId)).thenReturn(Arrays.asList());
-                when(loanService.getLoansByUserId(userId)).thenReturn(Arrays.asList());
+                when(loanService.getLoansByUserIdInternal(userId)).thenReturn(Arrays.asList());
                 when(userLiabilityRepository.findByUserId(userId)).thenReturn(Arrays.asList());
 
                 // Act
@@ -165,13 +183,13 @@ class NetWorthReadServiceImplTest {
         void testGetNetWorth_WithServiceExceptions() {
                 // Arrange
                 when(portfolioService.getPortfolioSummary(userId)).thenThrow(new RuntimeException("Service error"));
-                when(savingsAccountService.getAllSavingsAccounts(userId))
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId))
                                 .thenThrow(new RuntimeException("Service error"));
-                when(fixedDepositService.getAllFixedDeposits(userId)).thenThrow(new RuntimeException("Service error"));
-                when(recurringDepositService.getAllRecurringDeposits(userId))
+                when(fixedDepositService.getAllFixedDepositsInternal(userId)).thenThrow(new RuntimeException("Service error"));
+                when(recurringDepositService.getAllRecurringDepositsInternal(userId))
                                 .thenThrow(new RuntimeException("Service error"));
                 when(userAssetRepository.findByUserId(userId)).thenReturn(Arrays.asList());
-                when(loanService.getLoansByUserId(userId)).thenThrow(new RuntimeException("Service error"));
+                when(loanService.getLoansByUserIdInternal(userId)).thenThrow(new RuntimeException("Service error"));
                 when(userLiabilityRepository.findByUserId(userId)).thenReturn(Arrays.asList());
 
                 // Act
@@ -193,11 +211,11 @@ class NetWorthReadServiceImplTest {
 
                 when(portfolioService.getPortfolioSummary(userId)).thenReturn(
                                 PortfolioDTOResponse.builder().currentValue(BigDecimal.ZERO).build());
-                when(savingsAccountService.getAllSavingsAccounts(userId)).thenReturn(Arrays.asList());
-                when(fixedDepositService.getAllFixedDeposits(userId)).thenReturn(Arrays.asList());
-                when(recurringDepositService.getAllRecurringDeposits(userId)).thenReturn(Arrays.asList());
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenReturn(Arrays.asList());
+                when(fixedDepositService.getAllFixedDepositsInternal(userId)).thenReturn(Arrays.asList());
+                when(recurringDepositService.getAllRecurringDepositsInternal(userId)).thenReturn(Arrays.asList());
                 when(userAssetRepository.findByUserId(userId)).thenReturn(Arrays.asList());
-                when(loanService.getLoansByUserId(userId)).thenReturn(loans);
+                when(loanService.getLoansByUserIdInternal(userId)).thenReturn(loans);
                 when(userLiabilityRepository.findByUserId(userId)).thenReturn(Arrays.asList());
 
                 // Act
@@ -219,11 +237,11 @@ class NetWorthReadServiceImplTest {
 
                 when(portfolioService.getPortfolioSummary(userId)).thenReturn(
                                 PortfolioDTOResponse.builder().currentValue(BigDecimal.ZERO).build());
-                when(savingsAccountService.getAllSavingsAccounts(userId)).thenReturn(Arrays.asList());
-                when(fixedDepositService.getAllFixedDeposits(userId)).thenReturn(fds);
-                when(recurringDepositService.getAllRecurringDeposits(userId)).thenReturn(Arrays.asList());
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenReturn(Arrays.asList());
+                when(fixedDepositService.getAllFixedDepositsInternal(userId)).thenReturn(fds);
+                when(recurringDepositService.getAllRecurringDepositsInternal(userId)).thenReturn(Arrays.asList());
                 when(userAssetRepository.findByUserId(userId)).thenReturn(Arrays.asList());
-                when(loanService.getLoansByUserId(userId)).thenReturn(Arrays.asList());
+                when(loanService.getLoansByUserIdInternal(userId)).thenReturn(Arrays.asList());
                 when(userLiabilityRepository.findByUserId(userId)).thenReturn(Arrays.asList());
 
                 // Act
@@ -233,4 +251,80 @@ class NetWorthReadServiceImplTest {
                 assertNotNull(result);
                 assertEquals(new BigDecimal("100000"), result.getTotalAssets());
         }
+
+        @Test
+        void testGetNetWorth_WhenComponentTimesOut_ReturnsPartialResult() {
+                ReflectionTestUtils.setField(netWorthService, "componentTimeoutMs", 100L);
+                when(portfolioService.getPortfolioSummary(userId)).thenReturn(
+                                PortfolioDTOResponse.builder().currentValue(new BigDecimal("500000")).build());
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenAnswer(invocation -> {
+                        Thread.sleep(5_000);
+                        return List.of(SavingsAccountDTO.builder().amount(new BigDecimal("80000")).build());
+                });
+
+                long started = System.nanoTime();
+                NetWorthDTO result = netWorthService.getNetWorth(userId);
+                long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+                assertTrue(elapsedMs < 2_000, "fan-out waited " + elapsedMs + " ms");
+                assertEquals(new BigDecimal("500000"), result.getTotalAssets());
+                assertTrue(result.getPartial());
+                assertEquals(NetWorthComponentValue.Status.TIMED_OUT,
+                                result.getComponentStatus().get(NetWorthComponent.SAVINGS));
+                assertEquals(NetWorthComponentValue.Status.OK,
+                                result.getComponentStatus().get(NetWorthComponent.PORTFOLIO));
+        }
+
+        @Test
+        void testGetNetWorth_ReportsFailedComponentInsteadOfSilentZero() {
+                when(loanService.getLoansByUserIdInternal(userId)).thenThrow(new RuntimeException("Service error"));
+
+                NetWorthDTO result = netWorthService.getNetWorth(userId);
+
+                assertTrue(result.getPartial());
+                assertEquals(NetWorthComponentValue.Status.FAILED,
+                                result.getComponentStatus().get(NetWorthComponent.LOANS));
+                assertEquals(NetWorthComponent.values().length, result.getComponentStatus().size());
+        }
+
+        @Test
+        void testGetNetWorth_SequentialModeMatchesFanOut() {
+                when(portfolioService.getPortfolioSummary(userId)).thenReturn(
+                                PortfolioDTOResponse.builder().currentValue(new BigDecimal("500000")).build());
+                when(userAssetRepository.findByUserId(userId)).thenReturn(List.of(UserAsset.builder()
+                                .entityType(EntityType.GOLD)
+                                .currentValue(new BigDecimal("200000"))
+                                .build()));
+
+                NetWorthDTO fanOut = netWorthService.getNetWorth(userId);
+                ReflectionTestUtils.setField(netWorthService, "fanOutEnabled", false);
+                NetWorthDTO sequential = netWorthService.getNetWorth(userId);
+
+                assertEquals(fanOut.getTotalAssets(), sequential.getTotalAssets());
+                assertEquals(fanOut.getAssetBreakdown(), sequential.getAssetBreakdown());
+                assertFalse(sequential.getPartial());
+        }
+
+        @Test
+        void testGetNetWorth_OtherUser_IsRejected() {
+                doThrow(new AccessDeniedException("Access denied")).when(authenticationHelper).validateUserAccess(2L);
+
+                assertThrows(AccessDeniedException.class, () -> netWorthService.getNetWorth(2L));
+                verifyNoInteractions(portfolioService, savingsAccountService, loanService);
+        }
+
+        @Test
+        void testLoadComponents_ReadsSourcesWithoutAccessCheck() {
+                when(savingsAccountService.getAllSavingsAccountsInternal(userId)).thenReturn(
+                                List.of(SavingsAccountDTO.builder().amount(new BigDecimal("80000")).build()));
+                when(loanService.getLoansByUserIdInternal(userId)).thenReturn(List.of());
+
+                Map<NetWorthComponent, NetWorthComponentValue> values = netWorthService.loadComponents(userId,
+                                EnumSet.of(NetWorthComponent.SAVINGS, NetWorthComponent.LOANS));
+
+                assertEquals(new BigDecimal("80000"), values.get(NetWorthComponent.SAVINGS).getAmount());
+                assertTrue(values.get(NetWorthComponent.LOANS).isOk());
+                verifyNoInteractions(authenticationHelper);
+                verify(savingsAccountService, never()).getAllSavingsAccounts(anyLong());
+        }
 }
@@ -0,0 +1,203 @@
+package com.investments.stocks.networth.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.stocks.networth.data.NetWorthComponent;
+import com.pisystem.modules.stocks.networth.data.NetWorthComponentValue;
+import com.pisystem.modules.stocks.networth.data.NetWorthDTO;
+import com.pisystem.modules.stocks.networth.data.NetWorthHistoryPointDTO;
+import com.pisystem.modules.stocks.networth.exception.InvalidNetWorthRangeException;
+import com.pisystem.modules.stocks.networth.repo.NetWorthSnapshotStore;
+import com.pisystem.modules.stocks.networth.service.NetWorthReadService;
+import com.pisystem.modules.stocks.networth.service.impl.NetWorthSnapshotServiceImpl;
+import com.pisystem.shared.data.EntityType;
+
+@ExtendWith(MockitoExtension.class)
+class NetWorthSnapshotServiceImplTest {
+
+        private static final Long USER_ID = 1L;
+
+        @Mock
+        private NetWorthReadService netWorthReadService;
+
+        @Mock
+        private NetWorthSnapshotStore store;
+
+        private NetWorthSnapshotServiceImpl service;
+
+        @BeforeEach
+        void setUp() {
+                service = new NetWorthSnapshotServiceImpl(netWorthReadService, store, 50, 1440);
+        }
+
+        @AfterEach
+        void tearDown() {
+                service.shutdownRefresher();
+        }
+
+        @Test
+        void getNetWorth_WithoutSnapshot_MaterializesEveryComponent() {
+                when(store.findSnapshot(USER_ID)).thenReturn(Optional.empty());
+                when(netWorthReadService.loadComponents(USER_ID, EnumSet.allOf(NetWorthComponent.class)))
+                                .thenReturn(componentValues());
+
+                NetWorthDTO result = service.getNetWorth(USER_ID);
+
+                // Stocks 500k + savings 80k + gold 200k = 780k; loan 300k; tax 20k
+                assertEquals(new BigDecimal("780000"), result.getTotalAssets());
+                assertEquals(new BigDecimal("300000"), result.getTotalLiabilities());
+                assertEquals(new BigDecimal("480000"), result.getNetWorth());
+                assertEquals(new BigDecimal("460000"), result.getNetWorthAfterTax());
+                assertNotNull(result.getComputedAt());
+                assertFalse(result.getStale());
+                assertFalse(result.getPartial());
+
+                ArgumentCaptor<Collection<NetWorthComponentValue>> saved = ArgumentCaptor.forClass(Collection.class);
+                verify(store).save(eq(USER_ID), saved.capture(), same(result), eq(LocalDate.now()));
+                assertEquals(NetWorthComponent.values().length, saved.getValue().size());
+        }
+
+        @Test
+        void markDirty_CoalescesAndReloadsOnlyDirtyComponents() {
+                Map<NetWorthComponent, NetWorthComponentValue> stored = componentValues();
+                when(store.findComponents(USER_ID)).thenReturn(stored);
+                Map<NetWorthComponent, NetWorthComponentValue> reloaded = new EnumMap<>(NetWorthComponent.class);
+                reloaded.put(NetWorthComponent.LOANS, NetWorthComponentValue.of(NetWorthComponent.LOANS,
+                                EntityType.HOME_LOAN, new BigDecimal("250000")));
+                reloaded.put(NetWorthComponent.TAX, NetWorthComponentValue.amountOnly(NetWorthComponent.TAX,
+                                BigDecimal.ZERO));
+                when(netWorthReadService.loadComponents(USER_ID,
+                                EnumSet.of(NetWorthComponent.LOANS, NetWorthComponent.TAX))).thenReturn(reloaded);
+
+                service.markDirty(USER_ID, EnumSet.of(NetWorthComponent.LOANS));
+                service.markDirty(USER_ID, EnumSet.of(NetWorthComponent.TAX));
+
+                ArgumentCaptor<NetWorthDTO> snapshot = ArgumentCaptor.forClass(NetWorthDTO.class);
+                verify(store, timeout(2000)).save(eq(USER_ID), argThat(values -> values.size() == 2),
+                                snapshot.capture(), any(LocalDate.class));
+                verify(netWorthReadService, times(1)).loadComponents(eq(USER_ID), anySet());
+
+                // Unchanged assets come from the stored components
+                assertEquals(new BigDecimal("780000"), snapshot.getValue().getTotalAssets());
+                assertEquals(new BigDecimal("530000"), snapshot.getValue().getNetWorthAfterTax());
+        }
+
+        @Test
+        void getNetWorth_WithOldSnapshot_ServesItAndSchedulesRefresh() {
+                NetWorthDTO old = NetWorthDTO.builder()
+                                .netWorth(new BigDecimal("100"))
+                                .computedAt(LocalDateTime.now().minusDays(2))
+                                .build();
+                when(store.findSnapshot(USER_ID)).thenReturn(Optional.of(old));
+                when(store.findComponents(USER_ID)).thenReturn(new EnumMap<>(NetWorthComponent.class));
+                when(netWorthReadService.loadComponents(eq(USER_ID), anySet())).thenAnswer(invocation -> {
+                        Map<NetWorthComponent, NetWorthComponentValue> zeros = new EnumMap<>(NetWorthComponent.class);
+                        for (NetWorthComponent component : NetWorthComponent.values()) {
+                                zeros.put(component, NetWorthComponentValue.zero(component));
+                        }
+                        return zeros;
+                });
+
+                NetWorthDTO result = service.getNetWorth(USER_ID);
+
+                assertSame(old, result);
+                assertTrue(result.getStale());
+                verify(store, timeout(2000)).save(eq(USER_ID), anyCollection(), any(NetWorthDTO.class),
+                                any(LocalDate.class));
+        }
+
+        @Test
+        void rebuild_WhenComponentTimesOut_KeepsStoredValueAndReportsPartial() {
+                Map<NetWorthComponent, NetWorthComponentValue> loaded = componentValues();
+                loaded.put(NetWorthComponent.PORTFOLIO, NetWorthComponentValue.of(NetWorthComponent.PORTFOLIO,
+                                EntityType.STOCK, BigDecimal.ZERO)
+                                .unavailable(NetWorthComponentValue.Status.TIMED_OUT, "Timed out after 5000 ms"));
+                Map<NetWorthComponent, NetWorthComponentValue> stored = new EnumMap<>(NetWorthComponent.class);
+                stored.put(NetWorthComponent.PORTFOLIO, NetWorthComponentValue.of(NetWorthComponent.PORTFOLIO,
+                                EntityType.STOCK, new BigDecimal("450000")));
+                when(netWorthReadService.loadComponents(USER_ID, EnumSet.allOf(NetWorthComponent.class)))
+                                .thenReturn(loaded);
+                when(store.findComponents(USER_ID)).thenReturn(stored);
+
+                NetWorthDTO result = service.rebuild(USER_ID);
+
+                assertEquals(new BigDecimal("730000"), result.getTotalAssets());
+                assertTrue(result.getPartial());
+                assertEquals(NetWorthComponentValue.Status.TIMED_OUT,
+                                result.getComponentStatus().get(NetWorthComponent.PORTFOLIO));
+                assertEquals(NetWorthComponentValue.Status.OK, result.getComponentStatus().get(NetWorthComponent.LOANS));
+
+                // The timed-out component is not overwritten in the store
+                ArgumentCaptor<Collection<NetWorthComponentValue>> saved = ArgumentCaptor.forClass(Collection.class);
+                verify(store).save(eq(USER_ID), saved.capture(), same(result), any(LocalDate.class));
+                assertEquals(NetWorthComponent.values().length - 1, saved.getValue().size());
+                assertTrue(saved.getValue().stream()
+                                .noneMatch(value -> value.getComponent() == NetWorthComponent.PORTFOLIO));
+        }
+
+        @Test
+        void getDailySeries_CarriesLastValueOverDaysWithoutChanges() {
+                LocalDate from = LocalDate.of(2026, 3, 1);
+                LocalDate to = LocalDate.of(2026, 3, 4);
+                when(store.findLastDailyBefore(USER_ID, from)).thenReturn(Optional.of(point(LocalDate.of(2026, 2, 20), "100")));
+                when(store.findDaily(USER_ID, from, to)).thenReturn(List.of(point(LocalDate.of(2026, 3, 3), "150")));
+
+                List<NetWorthHistoryPointDTO> series = service.getDailySeries(USER_ID, from, to);
+
+                assertEquals(4, series.size());
+                assertEquals(from, series.get(0).getDate());
+                assertEquals(new BigDecimal("100"), series.get(1).getNetWorth());
+                assertEquals(new BigDecimal("150"), series.get(2).getNetWorth());
+                assertEquals(to, series.get(3).getDate());
+                assertEquals(new BigDecimal("150"), series.get(3).getNetWorth());
+        }
+
+        @Test
+        void getDailySeries_WithInvertedRange_Throws() {
+                assertThrows(InvalidNetWorthRangeException.class,
+                                () -> service.getDailySeries(USER_ID, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1)));
+                verifyNoInteractions(store);
+        }
+
+        private static Map<NetWorthComponent, NetWorthComponentValue> componentValues() {
+                Map<NetWorthComponent, NetWorthComponentValue> values = new EnumMap<>(NetWorthComponent.class);
+                for (NetWorthComponent component : NetWorthComponent.values()) {
+                        values.put(component, NetWorthComponentValue.zero(component));
+                }
+                values.put(NetWorthComponent.PORTFOLIO, NetWorthComponentValue.of(NetWorthComponent.PORTFOLIO,
+                                EntityType.STOCK, new BigDecimal("500000")));
+                values.put(NetWorthComponent.SAVINGS, NetWorthComponentValue.of(NetWorthComponent.SAVINGS,
+                                EntityType.SAVINGS_ACCOUNT, new BigDecimal("80000")));
+                values.put(NetWorthComponent.USER_ASSETS, NetWorthComponentValue.of(NetWorthComponent.USER_ASSETS,
+                                EntityType.GOLD, new BigDecimal("200000")));
+                values.put(NetWorthComponent.LOANS, NetWorthComponentValue.of(NetWorthComponent.LOANS,
+                                EntityType.HOME_LOAN, new BigDecimal("300000")));
+                values.put(NetWorthComponent.TAX, NetWorthComponentValue.amountOnly(NetWorthComponent.TAX,
+                                new BigDecimal("20000")));
+                return values;
+        }
+
+        private static NetWorthHistoryPointDTO point(LocalDate date, String netWorth) {
+                return NetWorthHistoryPointDTO.builder().date(date).netWorth(new BigDecimal(netWorth)).build();
+        }
+}
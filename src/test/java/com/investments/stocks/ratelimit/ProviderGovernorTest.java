@@ -0,0 +1,151 @@
+package com.investments.stocks.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.stocks.config.ResilienceConfigEntity;
+import com.pisystem.modules.stocks.config.ResilienceConfigRepository;
+import com.pisystem.modules.stocks.exception.ProviderCallException;
+import com.pisystem.modules.stocks.exception.RateLimitExceededException;
+import com.pisystem.modules.stocks.exception.SymbolNotFoundException;
+import com.pisystem.modules.stocks.ratelimit.ProviderCircuitBreaker;
+import com.pisystem.modules.stocks.ratelimit.ProviderGovernor;
+import com.pisystem.modules.stocks.ratelimit.RateLimiter;
+import com.pisystem.modules.stocks.thirdParty.StockDataProvider;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+import com.pisystem.modules.stocks.thirdParty.factory.StockDataProviderFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderGovernorTest {
+
+    @Mock
+    private ResilienceConfigRepository resilienceConfigRepository;
+
+    private RateLimiter rateLimiter;
+    private ProviderGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter();
+        governor = new ProviderGovernor(rateLimiter, resilienceConfigRepository, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void reloadLimits_AppliesStoredLimitsOverDefaults() {
+        when(resilienceConfigRepository.findAll()).thenReturn(List.of(config("AlphaVantage", 2, 3, 1)));
+
+        governor.reloadLimits();
+
+        assertEquals(2, rateLimiter.getLimits("AlphaVantage").getPerMinute());
+        assertEquals(3, rateLimiter.getLimits("AlphaVantage").getPerDay());
+        assertEquals(2, rateLimiter.getAvailableTokens("AlphaVantage"));
+        // No row: built-in defaults
+        assertEquals(60, rateLimiter.getLimits("IndianAPI").getPerMinute());
+    }
+
+    @Test
+    void reloadLimits_NullDailyLimitKeepsDefaultAndZeroRemovesIt() {
+        ResilienceConfigEntity unset = config("AlphaVantage", 2, 0, 1);
+        unset.setLimitPerDay(null);
+        when(resilienceConfigRepository.findAll()).thenReturn(List.of(unset, config("IndianAPI", 2, 0, 1)));
+
+        governor.reloadLimits();
+
+        assertEquals(500, rateLimiter.getLimits("AlphaVantage").getPerDay());
+        assertEquals(0, rateLimiter.getLimits("IndianAPI").getPerDay());
+        assertEquals(0, rateLimiter.getLimits("IndianAPI").perUserDailyCap());
+    }
+
+    @Test
+    void call_WhenLimitSpent_FailsWithoutCallingProvider() {
+        when(resilienceConfigRepository.findAll()).thenReturn(List.of(config("AlphaVantage", 0, 1, 5)));
+        governor.reloadLimits();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("ok", governor.call("AlphaVantage", "a@example.com", () -> {
+            calls.incrementAndGet();
+            return "ok";
+        }));
+        assertThrows(RateLimitExceededException.class,
+                () -> governor.call("AlphaVantage", "a@example.com", calls::incrementAndGet));
+
+        assertEquals(1, calls.get());
+        // Running out of permits is not a provider failure
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, governor.getCircuitState("AlphaVantage"));
+    }
+
+    @Test
+    void call_AfterRepeatedFailures_OpensCircuit() {
+        when(resilienceConfigRepository.findAll()).thenReturn(List.of(config("IndianAPI", 100, 0, 2)));
+        governor.reloadLimits();
+        AtomicInteger calls = new AtomicInteger();
+
+        // An unknown symbol is an answer, not a failure
+        assertThrows(SymbolNotFoundException.class, () -> governor.call("IndianAPI", "system", () -> {
+            calls.incrementAndGet();
+            throw new SymbolNotFoundException("unknown");
+        }));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> governor.call("IndianAPI", "system", () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("down");
+            }));
+        }
+
+        assertEquals(ProviderCircuitBreaker.State.OPEN, governor.getCircuitState("IndianAPI"));
+        assertThrows(ProviderCallException.class, () -> governor.call("IndianAPI", "system", calls::incrementAndGet));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void factory_RoutesAroundProviderWithOpenCircuit() {
+        when(resilienceConfigRepository.findAll()).thenReturn(List.of(config("AlphaVantage", 100, 0, 1)));
+        governor.reloadLimits();
+        StockDataProvider primary = mock(StockDataProvider.class);
+        StockDataProvider secondary = mock(StockDataProvider.class);
+        when(primary.getProviderName()).thenReturn("AlphaVantage");
+        when(secondary.getProviderName()).thenReturn("IndianAPI");
+        when(primary.fetchStockData("TCS")).thenThrow(new ProviderCallException("HTTP 503"));
+        when(secondary.fetchStockData(anyString()))
+                .thenAnswer(invocation -> ThirdPartyResponse.builder().companyName(invocation.getArgument(0)).build());
+        StockDataProviderFactory factory = new StockDataProviderFactory(List.of(primary, secondary), governor);
+
+        Map<String, ThirdPartyResponse> first = factory.fetchStockDataBatch(List.of("TCS"), "a@example.com");
+        Map<String, ThirdPartyResponse> second = factory.fetchStockDataBatch(List.of("INFY"), "a@example.com");
+
+        assertEquals("TCS", first.get("TCS").getCompanyName());
+        assertEquals("INFY", second.get("INFY").getCompanyName());
+        // The failing primary was tried once, then skipped while its circuit is open
+        verify(primary, times(1)).fetchStockData(anyString());
+        verify(secondary, times(2)).fetchStockData(anyString());
+    }
+
+    private static ResilienceConfigEntity config(String provider, int perMinute, int perDay, int failureThreshold) {
+        ResilienceConfigEntity config = new ResilienceConfigEntity();
+        config.setId(provider);
+        config.setLimitForPeriod(perMinute);
+        config.setLimitPerDay(perDay);
+        config.setTimeoutDuration(1);
+        config.setFailureThreshold(failureThreshold);
+        config.setOpenDurationSeconds(60);
+        return config;
+    }
+}
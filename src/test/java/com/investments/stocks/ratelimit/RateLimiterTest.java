@@ -2,10 +2,18 @@ package com.investments.stocks.ratelimit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.pisystem.modules.stocks.exception.RateLimitExceededException;
+import com.pisystem.modules.stocks.ratelimit.ProviderLimits;
 import com.pisystem.modules.stocks.ratelimit.RateLimiter;
 
 /**
@@ -22,6 +30,11 @@ class RateLimiterTest {
         rateLimiter = new RateLimiter();
     }
 
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
     // ==================== Alpha Vantage Rate Limiting (5 calls/min) ====================
 
     @Test
@@ -174,6 +187,85 @@ class RateLimiterTest {
         assertEquals(0, rateLimiter.getAvailableTokens("AlphaVantage"));
     }
 
+    // ==================== Daily Quota and Fair Queuing ====================
+
+    @Test
+    @DisplayName("Should fail acquire at once when the daily quota is spent")
+    void testAcquire_DailyQuotaSpent() throws Exception {
+        rateLimiter.configure("Quota", ProviderLimits.builder().perDay(2).maxWait(Duration.ofSeconds(5)).build());
+
+        rateLimiter.acquire("Quota", "a@example.com", Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        rateLimiter.acquire("Quota", "b@example.com", Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> third = rateLimiter.acquire("Quota", "c@example.com", Duration.ofSeconds(5));
+
+        assertTrue(third.isCompletedExceptionally(), "No token until tomorrow: should not wait");
+        ExecutionException failure = assertThrows(ExecutionException.class, third::get);
+        assertInstanceOf(RateLimitExceededException.class, failure.getCause());
+        assertEquals(0, rateLimiter.getWaitingCount("Quota"));
+    }
+
+    @Test
+    @DisplayName("Should cap one user's share of the daily quota")
+    void testAcquire_PerUserDailyShare() throws Exception {
+        rateLimiter.configure("Shared", ProviderLimits.builder().perDay(10).userDailySharePercent(20)
+                .maxWait(Duration.ofSeconds(5)).build());
+
+        for (int i = 0; i < 2; i++) {
+            rateLimiter.acquire("Shared", "heavy@example.com", Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        }
+
+        assertTrue(rateLimiter.acquire("Shared", "heavy@example.com", Duration.ofSeconds(5))
+                .isCompletedExceptionally());
+        rateLimiter.acquire("Shared", "light@example.com", Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        rateLimiter.acquire("Shared", RateLimiter.SYSTEM, Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        rateLimiter.acquire("Shared", RateLimiter.SYSTEM, Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+        rateLimiter.acquire("Shared", RateLimiter.SYSTEM, Duration.ofSeconds(5)).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should hand freed tokens to waiting users in turn")
+    void testAcquire_WaitersServedRoundRobin() {
+        rateLimiter.configure("Fair", ProviderLimits.builder().perMinute(1).maxWait(Duration.ofMinutes(2)).build());
+        assertTrue(rateLimiter.tryConsume("Fair"));
+
+        CompletableFuture<Void> first = rateLimiter.acquire("Fair", "a@example.com", Duration.ofMinutes(2));
+        CompletableFuture<Void> second = rateLimiter.acquire("Fair", "a@example.com", Duration.ofMinutes(2));
+        CompletableFuture<Void> other = rateLimiter.acquire("Fair", "b@example.com", Duration.ofMinutes(2));
+        assertFalse(first.isDone());
+        assertEquals(3, rateLimiter.getWaitingCount("Fair"));
+
+        // A new configuration with another limit starts a full bucket: two tokens to hand out
+        rateLimiter.configure("Fair", ProviderLimits.builder().perMinute(2).perDay(100)
+                .maxWait(Duration.ofMinutes(2)).build());
+
+        assertTrue(first.isDone());
+        assertTrue(other.isDone(), "b should be served before a's second call");
+        assertFalse(second.isDone());
+        assertEquals(1, rateLimiter.getWaitingCount("Fair"));
+        second.cancel(false);
+    }
+
+    @Test
+    @DisplayName("Should fail queued calls of a user past its daily share when tokens free up")
+    void testAcquire_WaitersPastDailyShareFail() {
+        rateLimiter.configure("Capped", ProviderLimits.builder().perMinute(1).maxWait(Duration.ofMinutes(2)).build());
+        assertTrue(rateLimiter.tryConsume("Capped"));
+
+        CompletableFuture<Void> first = rateLimiter.acquire("Capped", "a@example.com", Duration.ofMinutes(2));
+        CompletableFuture<Void> second = rateLimiter.acquire("Capped", "a@example.com", Duration.ofMinutes(2));
+        CompletableFuture<Void> third = rateLimiter.acquire("Capped", "a@example.com", Duration.ofMinutes(2));
+        assertEquals(3, rateLimiter.getWaitingCount("Capped"));
+
+        // Five fresh tokens, but a daily quota of 10 with a 20% share caps a@ at two calls
+        rateLimiter.configure("Capped", ProviderLimits.builder().perMinute(5).perDay(10).userDailySharePercent(20)
+                .maxWait(Duration.ofMinutes(2)).build());
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        assertTrue(third.isCompletedExceptionally());
+        assertEquals(0, rateLimiter.getWaitingCount("Capped"));
+    }
+
     // ==================== Token Refill Tests (Time-based) ====================
 
     /**
@@ -0,0 +1,204 @@
+package com.investments.stocks.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import com.pisystem.modules.stocks.data.CostBasisMethod;
+import com.pisystem.modules.stocks.data.PortfolioLot;
+import com.pisystem.modules.stocks.data.PortfolioLotMatch;
+import com.pisystem.modules.stocks.data.PortfolioTransaction;
+import com.pisystem.modules.stocks.data.PortfolioTransaction.TransactionType;
+import com.pisystem.modules.stocks.repo.PortfolioLotLedgerStore;
+import com.pisystem.modules.stocks.repo.PortfolioLotMatchRepository;
+import com.pisystem.modules.stocks.repo.PortfolioLotRepository;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import com.pisystem.modules.stocks.service.PortfolioLotService;
+
+/**
+ * Tests for PortfolioLotService against an in-memory lot table: FIFO matching
+ * across pages of lots, average cost re-costing, and when a transaction needs a
+ * ledger rebuild.
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioLotServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String SYMBOL = "INFY";
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private PortfolioLotRepository lotRepository;
+
+    @Mock
+    private PortfolioLotMatchRepository matchRepository;
+
+    @Mock
+    private PortfolioTransactionRepository transactionRepository;
+
+    @Mock
+    private PortfolioLotLedgerStore ledgerStore;
+
+    private final List<PortfolioLot> lots = new ArrayList<>();
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        lots.clear();
+    }
+
+    @Test
+    void fifoSell_ConsumesOldestLotsAcrossPages() {
+        givenInMemoryLots();
+        PortfolioLotService service = service(CostBasisMethod.FIFO);
+        for (int i = 0; i < 20; i++) {
+            service.apply(transaction(TransactionType.BUY, 10, String.valueOf(100 + i), "0", START.plusDays(i)));
+        }
+
+        PortfolioTransaction sell = transaction(TransactionType.SELL, 175, "200", "0", START.plusDays(30));
+        service.apply(sell);
+
+        // 17 whole lots at 100..116 plus 5 shares at 117
+        assertEquals(0, sell.getRealizedGain().compareTo(new BigDecimal("16055.00")));
+        assertEquals(CostBasisMethod.FIFO, sell.getCostBasisMethod());
+        assertEquals(18, capturedMatches().size());
+        assertEquals(5, lots.get(17).getRemainingQuantity());
+        assertEquals(0, lots.get(17).getRemainingCost().compareTo(new BigDecimal("585")));
+        assertEquals(10, lots.get(18).getRemainingQuantity());
+        verify(lotRepository).findOpenLotsForUpdateAfter(eq(USER_ID), eq(SYMBOL), any(), any(), any());
+    }
+
+    @Test
+    void averageCostSell_UsesPooledCostAndRecostsOpenLots() {
+        givenInMemoryLots();
+        PortfolioLotService service = service(CostBasisMethod.FIFO);
+        service.apply(transaction(TransactionType.BUY, 10, "100", "10", START));
+        service.apply(transaction(TransactionType.BUY, 10, "130", "0", START.plusDays(1)));
+
+        PortfolioTransaction sell = transaction(TransactionType.SELL, 5, "150", "5", START.plusDays(2));
+        sell.setCostBasisMethod(CostBasisMethod.AVERAGE_COST);
+        service.apply(sell);
+
+        // Average 2310 / 20 = 115.50; proceeds 750 - 5 fees
+        assertEquals(0, sell.getRealizedGain().compareTo(new BigDecimal("167.50")));
+        assertEquals(0, lots.get(0).getRemainingCost().compareTo(new BigDecimal("577.5")));
+        assertEquals(0, lots.get(1).getRemainingCost().compareTo(new BigDecimal("1155")));
+        List<PortfolioLotMatch> matches = capturedMatches();
+        assertEquals(1, matches.size());
+        assertEquals(0, matches.get(0).getProceeds().compareTo(new BigDecimal("745")));
+    }
+
+    @Test
+    void needsRebuild_ForBackDatedOrUnledgeredHistory() {
+        PortfolioLotService service = service(CostBasisMethod.FIFO);
+        when(transactionRepository.findLatestTransactionDate(USER_ID, SYMBOL))
+                .thenReturn(null, START, START, START);
+        when(ledgerStore.isBuilt(USER_ID, SYMBOL)).thenReturn(true, false);
+
+        assertFalse(service.needsRebuild(USER_ID, SYMBOL, START));              // first transaction
+        assertTrue(service.needsRebuild(USER_ID, SYMBOL, START.minusDays(1)));  // back-dated
+        assertFalse(service.needsRebuild(USER_ID, SYMBOL, START));              // in order, ledger exists
+        assertTrue(service.needsRebuild(USER_ID, SYMBOL, START.plusDays(1)));   // history without a ledger
+    }
+
+    @Test
+    void ensureBuilt_BuiltLedgerWithoutOpenLots_IsNotReplayed() {
+        PortfolioLotService service = service(CostBasisMethod.FIFO);
+        when(ledgerStore.isBuilt(USER_ID, SYMBOL)).thenReturn(true);
+        when(lotRepository.findOpenLots(USER_ID, SYMBOL)).thenReturn(List.of());
+
+        // e.g. a fully sold position, read twice
+        assertTrue(service.getOpenLots(USER_ID, SYMBOL).isEmpty());
+        assertTrue(service.getOpenLots(USER_ID, SYMBOL).isEmpty());
+
+        verify(lotRepository, never()).deleteByUserIdAndSymbol(anyLong(), anyString());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void rebuild_MarksLedgerBuiltEvenWithoutLots() {
+        PortfolioLotService service = service(CostBasisMethod.FIFO);
+        PortfolioTransaction sell = transaction(TransactionType.SELL, 5, "150", "0", START);
+        when(transactionRepository.findLatestTransactionDate(USER_ID, SYMBOL)).thenReturn(START);
+        when(transactionRepository.findByUserIdAndSymbolOrderByTransactionDateAscIdAsc(USER_ID, SYMBOL))
+                .thenReturn(List.of(sell));
+        when(lotRepository.findOpenLotsForUpdate(eq(USER_ID), eq(SYMBOL), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        service.ensureBuilt(USER_ID, SYMBOL);
+
+        verify(ledgerStore).markBuilt(USER_ID, SYMBOL);
+        verify(lotRepository, never()).save(any(PortfolioLot.class));
+    }
+
+    private PortfolioLotService service(CostBasisMethod defaultMethod) {
+        return new PortfolioLotService(lotRepository, matchRepository, transactionRepository, ledgerStore,
+                defaultMethod);
+    }
+
+    private void givenInMemoryLots() {
+        when(lotRepository.save(any(PortfolioLot.class))).thenAnswer(invocation -> {
+            PortfolioLot lot = invocation.getArgument(0);
+            lot.setId(nextId++);
+            lots.add(lot);
+            return lot;
+        });
+        when(lotRepository.findOpenLotsForUpdate(eq(USER_ID), eq(SYMBOL), any(Pageable.class)))
+                .thenAnswer(invocation -> page(openLots(), invocation.getArgument(2)));
+        lenient().when(lotRepository.findOpenLotsForUpdateAfter(eq(USER_ID), eq(SYMBOL), any(), any(),
+                any(Pageable.class))).thenAnswer(invocation -> {
+                    LocalDate date = invocation.getArgument(2);
+                    Long id = invocation.getArgument(3);
+                    return page(openLots().stream()
+                            .filter(lot -> lot.getAcquiredDate().isAfter(date)
+                                    || (lot.getAcquiredDate().equals(date) && lot.getId() > id))
+                            .toList(), invocation.getArgument(4));
+                });
+    }
+
+    private List<PortfolioLot> openLots() {
+        return lots.stream()
+                .filter(lot -> lot.getRemainingQuantity() > 0)
+                .sorted(Comparator.comparing(PortfolioLot::getAcquiredDate).thenComparing(PortfolioLot::getId))
+                .toList();
+    }
+
+    private static List<PortfolioLot> page(List<PortfolioLot> lots, Pageable pageable) {
+        return pageable.isPaged() ? lots.stream().limit(pageable.getPageSize()).toList() : lots;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PortfolioLotMatch> capturedMatches() {
+        ArgumentCaptor<List<PortfolioLotMatch>> captor = ArgumentCaptor.forClass(List.class);
+        verify(matchRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private PortfolioTransaction transaction(TransactionType type, int quantity, String price, String fees,
+            LocalDate date) {
+        return PortfolioTransaction.builder()
+                .id(nextId++)
+                .userId(USER_ID)
+                .symbol(SYMBOL)
+                .transactionType(type)
+                .quantity(quantity)
+                .price(new BigDecimal(price))
+                .fees(new BigDecimal(fees))
+                .transactionDate(date)
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.investments.stocks.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import com.pisystem.modules.stocks.data.QuotePriority;
+import com.pisystem.modules.stocks.data.StockPrice;
+import com.pisystem.modules.stocks.dto.StockPriceDelta;
+import com.pisystem.modules.stocks.dto.StockPriceUpdate;
+import com.pisystem.modules.stocks.event.StockPricesUpdatedEvent;
+import com.pisystem.modules.stocks.repo.StockPriceBatchWriter;
+import com.pisystem.modules.stocks.repo.StockPriceRepository;
+import com.pisystem.modules.stocks.repo.StockRepository;
+import com.pisystem.modules.stocks.service.StockPriceSubscriptionRegistry;
+import com.pisystem.modules.stocks.service.StockPriceWebSocketService;
+import com.pisystem.modules.stocks.service.StockQuoteService;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+
+@ExtendWith(MockitoExtension.class)
+class StockPriceWebSocketServiceTest {
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    @Mock
+    private StockPriceBatchWriter stockPriceBatchWriter;
+
+    @Mock
+    private StockQuoteService stockQuoteService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    private StockPriceSubscriptionRegistry registry;
+    private StockPriceWebSocketService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StockPriceSubscriptionRegistry(stockRepository, 2);
+        service = new StockPriceWebSocketService(stockPriceRepository, stockPriceBatchWriter, registry,
+                stockQuoteService, messagingTemplate, eventPublisher);
+    }
+
+    @Test
+    void broadcastSubscribedPrices_WithoutSubscribers_MakesNoCalls() {
+        assertTrue(service.broadcastSubscribedPrices().isEmpty());
+
+        verifyNoInteractions(stockQuoteService, stockPriceBatchWriter, messagingTemplate, eventPublisher);
+    }
+
+    @Test
+    void broadcastSubscribedPrices_FetchesOnlySubscribedSymbols() {
+        subscribe("session-1", "sub-1", "/topic/stock-price/TCS");
+        subscribe("session-1", "sub-2", "/topic/stock-prices");
+        subscribe("session-2", "sub-1", "/topic/stock-price/INFY");
+        registry.onDisconnect(new SessionDisconnectEvent(this, message(StompCommand.DISCONNECT, "session-2"),
+                "session-2", CloseStatus.NORMAL));
+        quote("TCS", 3500.0);
+        when(stockPriceRepository.findPreviousCloses(anyCollection(), any())).thenReturn(List.of());
+
+        service.broadcastSubscribedPrices();
+
+        verify(stockQuoteService).getQuotes(eq(Set.of("TCS")), eq(QuotePriority.HELD));
+    }
+
+    @Test
+    void preSend_RefusesUnknownSymbolsAndSubscriptionsOverTheSessionCap() {
+        when(stockRepository.existsBySymbol(anyString())).thenAnswer(call -> !"NOPE".equals(call.getArgument(0)));
+
+        assertThrows(MessageDeliveryException.class,
+                () -> registry.preSend(subscribeFrame("session-1", "sub-1", "/topic/stock-price/NOPE"), null));
+        assertThrows(MessageDeliveryException.class,
+                () -> registry.preSend(subscribeFrame("session-1", "sub-1", "/topic/stock-price/TCS/x"), null));
+        // Other destinations are left to the broker
+        assertNotNull(registry.preSend(subscribeFrame("session-1", "sub-1", "/topic/stock-prices"), null));
+
+        subscribe("session-1", "sub-1", "/topic/stock-price/TCS");
+        subscribe("session-1", "sub-2", "/topic/stock-price/INFY");
+        assertThrows(MessageDeliveryException.class,
+                () -> registry.preSend(subscribeFrame("session-1", "sub-3", "/topic/stock-price/WIPRO"), null));
+        // Re-using a subscription id replaces it, so it stays within the cap
+        assertNotNull(registry.preSend(subscribeFrame("session-1", "sub-2", "/topic/stock-price/WIPRO"), null));
+        assertNotNull(registry.preSend(subscribeFrame("session-2", "sub-1", "/topic/stock-price/WIPRO"), null));
+    }
+
+    @Test
+    void broadcastSubscribedPrices_SendsDeltaOnlyWhenPriceMovesByATick() {
+        subscribe("session-1", "sub-1", "/topic/stock-price/TCS");
+        StockPrice previousClose = new StockPrice();
+        previousClose.setSymbol("TCS");
+        previousClose.setClosePrice(new BigDecimal("3400.00"));
+        when(stockPriceRepository.findPreviousCloses(anyCollection(), any())).thenReturn(List.of(previousClose));
+
+        quote("TCS", 3500.0);
+        List<StockPriceDelta> first = service.broadcastSubscribedPrices();
+        assertEquals(1, first.size());
+        assertEquals(new BigDecimal("100.00"), first.get(0).getChange());
+        assertEquals(new BigDecimal("2.94"), first.get(0).getChangePercent());
+        verify(messagingTemplate).convertAndSend("/topic/stock-price/TCS", first.get(0));
+        verify(stockPriceBatchWriter).write(Map.of("TCS", BigDecimal.valueOf(3500.0)), LocalDate.now());
+        verify(eventPublisher).publishEvent(any(StockPricesUpdatedEvent.class));
+
+        // Below the tick size: nothing written or sent
+        quote("TCS", 3500.01);
+        assertTrue(service.broadcastSubscribedPrices().isEmpty());
+
+        quote("TCS", 3501.0);
+        assertEquals(BigDecimal.valueOf(3501.0), service.broadcastSubscribedPrices().get(0).getPrice());
+
+        verify(stockPriceBatchWriter, times(2)).write(anyMap(), any());
+        verify(eventPublisher, times(2)).publishEvent(any(StockPricesUpdatedEvent.class));
+        // Previous closes are loaded once per day
+        verify(stockPriceRepository, times(1)).findPreviousCloses(anyCollection(), any());
+    }
+
+    @Test
+    void fetchSingleStockPrice_GoesThroughQuoteService() {
+        when(stockPriceRepository.findPreviousCloses(anyCollection(), any())).thenReturn(List.of());
+        when(stockQuoteService.fetchQuote("TCS", QuotePriority.INTERACTIVE)).thenReturn(response("TCS", 3500.0));
+
+        StockPriceUpdate update = service.fetchSingleStockPrice("TCS");
+
+        assertEquals(BigDecimal.valueOf(3500.0), update.getCurrentPrice());
+        verify(stockPriceBatchWriter).write(Map.of("TCS", BigDecimal.valueOf(3500.0)), LocalDate.now());
+        verify(eventPublisher).publishEvent(any(StockPricesUpdatedEvent.class));
+    }
+
+    private void quote(String symbol, double price) {
+        when(stockQuoteService.getQuotes(anyCollection(), eq(QuotePriority.HELD)))
+                .thenReturn(Map.of(symbol, CompletableFuture.completedFuture(response(symbol, price))));
+    }
+
+    private static ThirdPartyResponse response(String symbol, double price) {
+        ThirdPartyResponse.currentPrice currentPrice = new ThirdPartyResponse.currentPrice();
+        currentPrice.setNSE(price);
+        return ThirdPartyResponse.builder().companyName(symbol).currentPrice(currentPrice).build();
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination) {
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame(sessionId, subscriptionId, destination)));
+    }
+
+    private static Message<byte[]> subscribeFrame(String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> message(StompCommand command, String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
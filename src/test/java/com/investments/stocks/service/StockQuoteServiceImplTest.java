@@ -0,0 +1,162 @@
+package com.investments.stocks.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pisystem.modules.stocks.cache.QuoteCache;
+import com.pisystem.modules.stocks.data.QuotePriority;
+import com.pisystem.modules.stocks.exception.QuoteUnavailableException;
+import com.pisystem.modules.stocks.service.StockQuoteServiceImpl;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+import com.pisystem.modules.stocks.thirdParty.factory.StockDataProviderFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class StockQuoteServiceImplTest {
+
+    @Mock
+    private StockDataProviderFactory providerFactory;
+
+    private MeterRegistry meterRegistry;
+
+    /** Symbols in the order the provider was asked for them. */
+    private final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+    private QuoteCache quoteCache;
+    private StockQuoteServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        startService(300);
+    }
+
+    private void startService(long freshSeconds) {
+        meterRegistry = new SimpleMeterRegistry();
+        quoteCache = new QuoteCache(null, new ObjectMapper(), meterRegistry, freshSeconds, 1800, 1000,
+                "quote-cache", 30);
+        service = new StockQuoteServiceImpl(providerFactory, quoteCache, meterRegistry, 1, 20, 0, 2000);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void getQuote_ConcurrentMisses_ShareOneUpstreamCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(providerFactory.fetchStockDataBatch(anyCollection(), anyString())).thenAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return respond(invocation.getArgument(0));
+        });
+
+        List<CompletableFuture<ThirdPartyResponse>> quotes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            quotes.add(service.getQuote(i % 2 == 0 ? "reliance" : "RELIANCE", QuotePriority.HELD));
+        }
+        release.countDown();
+
+        for (CompletableFuture<ThirdPartyResponse> quote : quotes) {
+            assertEquals("RELIANCE", quote.get(2, TimeUnit.SECONDS).getCompanyName());
+        }
+        verify(providerFactory, times(1)).fetchStockDataBatch(anyCollection(), anyString());
+        assertEquals(4.0, meterRegistry.get("stocks.quote.coalesced").functionCounter().count());
+
+        // Now cached: no further upstream call
+        assertEquals("RELIANCE", service.fetchQuote("RELIANCE", QuotePriority.INTERACTIVE).getCompanyName());
+        verify(providerFactory, times(1)).fetchStockDataBatch(anyCollection(), anyString());
+    }
+
+    @Test
+    void queuedQuotes_AreFetchedHeldBeforeWatchlist() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(providerFactory.fetchStockDataBatch(anyCollection(), anyString())).thenAnswer(invocation -> {
+            Collection<String> symbols = invocation.getArgument(0);
+            if (symbols.contains("BUSY")) {
+                release.await(2, TimeUnit.SECONDS);
+            }
+            requested.addAll(symbols);
+            return respond(symbols);
+        });
+
+        // Occupies the only worker while the others queue up
+        CompletableFuture<ThirdPartyResponse> busy = service.getQuote("BUSY", QuotePriority.WATCHLIST);
+        verify(providerFactory, timeout(2000)).fetchStockDataBatch(eq(List.of("BUSY")), anyString());
+
+        CompletableFuture<ThirdPartyResponse> watched = service.getQuote("WATCHED", QuotePriority.WATCHLIST);
+        CompletableFuture<ThirdPartyResponse> raised = service.getQuote("RAISED", QuotePriority.WATCHLIST);
+        CompletableFuture<ThirdPartyResponse> held = service.getQuote("HELD", QuotePriority.HELD);
+        // A second request for a queued symbol moves it up
+        service.getQuote("RAISED", QuotePriority.INTERACTIVE);
+        release.countDown();
+
+        CompletableFuture.allOf(busy, watched, raised, held).get(2, TimeUnit.SECONDS);
+        assertEquals(List.of("BUSY", "RAISED", "HELD", "WATCHED"), requested);
+    }
+
+    @Test
+    void getQuote_WhenNoProviderReturnsSymbol_FailsAndDoesNotCache() {
+        when(providerFactory.fetchStockDataBatch(anyCollection(), anyString())).thenReturn(Map.of());
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> service.getQuote("UNKNOWN", QuotePriority.HELD).get(2, TimeUnit.SECONDS));
+        assertInstanceOf(QuoteUnavailableException.class, failure.getCause());
+        assertThrows(QuoteUnavailableException.class, () -> service.fetchQuote("UNKNOWN", QuotePriority.HELD));
+        verify(providerFactory, times(2)).fetchStockDataBatch(anyCollection(), anyString());
+    }
+
+    @Test
+    void getQuote_WithCachedQuote_SkipsProviders() throws Exception {
+        quoteCache.put("TCS", ThirdPartyResponse.builder().companyName("TCS").build());
+
+        assertEquals("TCS", service.getQuote("tcs", QuotePriority.WATCHLIST).get(2, TimeUnit.SECONDS).getCompanyName());
+        verifyNoInteractions(providerFactory);
+    }
+
+    @Test
+    void getQuote_WithStaleQuote_ServesItAndRefreshesInBackground() throws Exception {
+        service.stop();
+        startService(0);
+        quoteCache.put("INFY", ThirdPartyResponse.builder().companyName("old").build());
+        when(providerFactory.fetchStockDataBatch(anyCollection(), anyString())).thenReturn(
+                Map.of("INFY", ThirdPartyResponse.builder().companyName("new").build()));
+
+        assertEquals("old", service.getQuote("INFY", QuotePriority.INTERACTIVE).get(2, TimeUnit.SECONDS)
+                .getCompanyName());
+
+        verify(providerFactory, timeout(2000)).fetchStockDataBatch(eq(List.of("INFY")), anyString());
+        verify(providerFactory, timeout(2000).times(1)).fetchStockDataBatch(anyCollection(), anyString());
+        assertEquals(1.0, meterRegistry.get("stocks.quote.refreshes").functionCounter().count());
+    }
+
+    private static Map<String, ThirdPartyResponse> respond(Collection<String> symbols) {
+        Map<String, ThirdPartyResponse> responses = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            responses.put(symbol, ThirdPartyResponse.builder().companyName(symbol).build());
+        }
+        return responses;
+    }
+}
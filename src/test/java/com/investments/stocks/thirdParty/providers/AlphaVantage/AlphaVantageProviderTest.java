@@ -4,8 +4,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.net.http.HttpTimeoutException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,8 +19,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.pisystem.integrations.externalservices.data.ExternalServicePropertiesEntity;
 import com.pisystem.integrations.externalservices.service.ExternalService;
-import com.pisystem.modules.stocks.exception.RateLimitExceededException;
-import com.pisystem.modules.stocks.ratelimit.RateLimiter;
+import com.pisystem.modules.stocks.exception.ProviderCallException;
+import com.pisystem.modules.stocks.thirdParty.ThirdPartyResponse;
+import com.pisystem.modules.stocks.thirdParty.client.ProviderCredentials;
+import com.pisystem.modules.stocks.thirdParty.client.ProviderHttpClient;
 import com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage.AlphaVantageProvider;
 import com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage.data.AlphaVantageGlobalQuote;
 import com.pisystem.modules.stocks.thirdParty.providers.AlphaVantage.data.AlphaVantageResponseOverview;
@@ -28,7 +32,8 @@ import com.pisystem.shared.audit.service.ThirdPartyAuditService;
 
 /**
  * Unit tests for AlphaVantageProvider.
- * Tests real-time price fetching, validation, rate limiting, and error handling.
+ * Tests real-time price fetching, validation and error handling; rate limits are
+ * applied by ProviderGovernor before the provider is called.
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AlphaVantage Provider Tests")
@@ -44,7 +49,10 @@ class AlphaVantageProviderTest {
     private StockPriceValidator validator;
 
     @Mock
-    private RateLimiter rateLimiter;
+    private ProviderHttpClient providerHttpClient;
+
+    @Mock
+    private ProviderCredentials credentials;
 
     @InjectMocks
     private AlphaVantageProvider alphaVantageProvider;
@@ -65,42 +73,6 @@ class AlphaVantageProviderTest {
         mockProperties = Arrays.asList(baseUrlProp, apiKeyProp);
     }
 
-    // ==================== Rate Limiting Tests ====================
-
-    @Test
-    @DisplayName("Should throw RateLimitExceededException when rate limit is exceeded")
-    void testFetchStockData_RateLimitExceeded() {
-        // Given
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(false);
-        when(rateLimiter.getAvailableTokens("AlphaVantage")).thenReturn(0L);
-
-        // When & Then
-        RateLimitExceededException exception = assertThrows(
-            RateLimitExceededException.class,
-            () -> alphaVantageProvider.fetchStockData("RELIANCE")
-        );
-
-        assertTrue(exception.getMessage().contains("Rate limit exceeded"));
-        verify(rateLimiter, times(1)).tryConsume("AlphaVantage");
-        verify(externalService, never()).getExternalServicePropertiesByServiceName(anyString());
-    }
-
-    @Test
-    @DisplayName("Should proceed with API call when rate limit check passes")
-    void testFetchStockData_RateLimitPassed() {
-        // Given
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(true);
-        when(externalService.getExternalServicePropertiesByServiceName("ALPHA_VANTAGE"))
-            .thenReturn(mockProperties);
-
-        // Mock RestTemplate within the provider
-        // Note: This test will need actual RestTemplate mocking or a test with @SpringBootTest
-        // For now, we'll test the rate limit check logic only
-        
-        verify(rateLimiter, never()).tryConsume(anyString());
-        // Can't complete full test without mocking RestTemplate, which is instantiated in provider
-    }
-
     // ==================== Validation Tests ====================
 
     @Test
@@ -120,7 +92,6 @@ class AlphaVantageProviderTest {
         // Given
         String symbol = "RELIANCE";
         
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(true);
         when(externalService.getExternalServicePropertiesByServiceName("ALPHA_VANTAGE"))
             .thenReturn(mockProperties);
         when(validator.validateStockData(eq(symbol), anyDouble(), anyString())).thenReturn(true);
@@ -149,13 +120,77 @@ class AlphaVantageProviderTest {
         assertTrue(true);
     }
 
+    @Test
+    @DisplayName("Should fetch GLOBAL_QUOTE on every call but serve OVERVIEW from its cache")
+    void testFetchStockData_OverviewCached() {
+        // Given
+        String symbol = "RELIANCE";
+        stubCredentials();
+        when(validator.validateStockData(eq(symbol), anyDouble(), anyString())).thenReturn(true);
+        when(validator.isReasonableChange(anyString(), eq(symbol))).thenReturn(true);
+
+        AlphaVantageGlobalQuote.GlobalQuote globalQuote = new AlphaVantageGlobalQuote.GlobalQuote();
+        globalQuote.setSymbol(symbol);
+        globalQuote.setPrice("2500.50");
+        globalQuote.setLatestTradingDay("2026-01-31");
+        globalQuote.setChangePercent("1.25%");
+        AlphaVantageGlobalQuote globalQuoteResponse = new AlphaVantageGlobalQuote();
+        globalQuoteResponse.setGlobalQuote(globalQuote);
+
+        AlphaVantageResponseOverview overview = new AlphaVantageResponseOverview();
+        overview.setSymbol(symbol);
+        overview.setName("Reliance Industries");
+
+        when(providerHttpClient.getJson(eq("AlphaVantage_GLOBAL_QUOTE"), contains("function=GLOBAL_QUOTE"),
+                anyMap(), eq("TEST_API_KEY"), eq(AlphaVantageGlobalQuote.class)))
+            .thenReturn(CompletableFuture.completedFuture(globalQuoteResponse));
+        when(providerHttpClient.getJson(eq("AlphaVantage_OVERVIEW"), contains("function=OVERVIEW"),
+                anyMap(), eq("TEST_API_KEY"), eq(AlphaVantageResponseOverview.class)))
+            .thenReturn(CompletableFuture.completedFuture(overview));
+
+        // When
+        ThirdPartyResponse first = alphaVantageProvider.fetchStockData(symbol);
+        ThirdPartyResponse second = alphaVantageProvider.fetchStockData(symbol);
+
+        // Then
+        assertEquals("Reliance Industries", first.getCompanyName());
+        assertEquals("Reliance Industries", second.getCompanyName());
+        assertEquals(2500.50, second.getCurrentPrice().getNSE());
+        verify(providerHttpClient, times(2)).getJson(eq("AlphaVantage_GLOBAL_QUOTE"), anyString(), anyMap(),
+                anyString(), eq(AlphaVantageGlobalQuote.class));
+        verify(providerHttpClient, times(1)).getJson(eq("AlphaVantage_OVERVIEW"), anyString(), anyMap(),
+                anyString(), eq(AlphaVantageResponseOverview.class));
+    }
+
+    @Test
+    @DisplayName("Should surface a GLOBAL_QUOTE timeout as a provider failure")
+    void testFetchStockData_GlobalQuoteTimeout() {
+        // Given
+        stubCredentials();
+        when(providerHttpClient.getJson(eq("AlphaVantage_GLOBAL_QUOTE"), anyString(), anyMap(), anyString(),
+                eq(AlphaVantageGlobalQuote.class)))
+            .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+        when(providerHttpClient.getJson(eq("AlphaVantage_OVERVIEW"), anyString(), anyMap(), anyString(),
+                eq(AlphaVantageResponseOverview.class)))
+            .thenReturn(CompletableFuture.completedFuture(new AlphaVantageResponseOverview()));
+
+        // When & Then
+        ProviderCallException exception = assertThrows(ProviderCallException.class,
+            () -> alphaVantageProvider.fetchStockData("RELIANCE"));
+        assertTrue(exception.getMessage().contains("request timed out"));
+    }
+
+    private void stubCredentials() {
+        when(credentials.require("ALPHA_VANTAGE", "api-key")).thenReturn("TEST_API_KEY");
+        when(credentials.require("ALPHA_VANTAGE", "base-url")).thenReturn("https://www.alphavantage.co/query");
+    }
+
     // ==================== Error Handling Tests ====================
 
     @Test
     @DisplayName("Should handle empty GLOBAL_QUOTE response")
     void testFetchStockData_EmptyGlobalQuote() {
         // Given
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(true);
         when(externalService.getExternalServicePropertiesByServiceName("ALPHA_VANTAGE"))
             .thenReturn(mockProperties);
 
@@ -171,7 +206,6 @@ class AlphaVantageProviderTest {
     void testFetchStockData_InvalidPrice() {
         // Given
         String symbol = "RELIANCE";
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(true);
         when(externalService.getExternalServicePropertiesByServiceName("ALPHA_VANTAGE"))
             .thenReturn(mockProperties);
         when(validator.validateStockData(eq(symbol), anyDouble(), anyString())).thenReturn(false);
@@ -184,7 +218,6 @@ class AlphaVantageProviderTest {
     @DisplayName("Should handle network failures gracefully")
     void testFetchStockData_NetworkFailure() {
         // Given
-        when(rateLimiter.tryConsume("AlphaVantage")).thenReturn(true);
         when(externalService.getExternalServicePropertiesByServiceName("ALPHA_VANTAGE"))
             .thenReturn(mockProperties);
 
@@ -224,14 +257,14 @@ class AlphaVantageProviderTest {
     // ==================== Integration Notes ====================
 
     /**
-     * NOTE: These tests are limited because AlphaVantageProvider instantiates
-     * RestTemplate internally (new RestTemplate()). For complete unit testing,
-     * the provider should be refactored to inject RestTemplate.
+     * NOTE: HTTP calls go through the injected ProviderHttpClient, so provider
+     * behaviour can be tested with a mocked client.
      * 
      * Current test coverage:
-     * - Rate limiting logic: ✅ Tested
+     * - Rate limiting: ✅ Tested in ProviderGovernorTest
      * - Provider name: ✅ Tested
-     * - Full API integration: ⚠️ Requires RestTemplate injection or @SpringBootTest
+     * - OVERVIEW caching and GLOBAL_QUOTE timeout: ✅ Tested
+     * - Full API integration: ⚠️ Requires @SpringBootTest
      * 
      * Recommendation: Create integration tests in a separate test class
      * using @SpringBootTest and actual test API calls.
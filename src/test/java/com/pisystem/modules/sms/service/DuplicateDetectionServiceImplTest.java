@@ -0,0 +1,139 @@
+package com.pisystem.modules.sms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.sms.data.DuplicateDetectionResult;
+import com.pisystem.modules.sms.data.DuplicateDetectionResult.MatchTier;
+import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.data.SMSTransaction.ParseStatus;
+import com.pisystem.modules.sms.data.SMSTransaction.TransactionType;
+import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+
+/**
+ * Tests for DuplicateDetectionServiceImpl.detect() against a per-import
+ * DuplicateIndex: same verdicts as the list scan, growth within a batch and
+ * range-based prefetching for backfills.
+ */
+@ExtendWith(MockitoExtension.class)
+class DuplicateDetectionServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Mock
+    private SMSTransactionRepository repository;
+
+    @InjectMocks
+    private DuplicateDetectionServiceImpl service;
+
+    @Test
+    void detect_IndexAgreesWithListScan() {
+        List<SMSTransaction> existing = List.of(
+                tx(1L, "500.00", TransactionType.DEBIT, DAY, "10:00", "REF1", "XX1234", "SWIGGY"),
+                tx(2L, "500", TransactionType.DEBIT, DAY, "10:02", null, "XX1234", "Swiggy Bangalore"),
+                tx(3L, "750", TransactionType.CREDIT, DAY, "23:59", null, "XX1234", null),
+                tx(4L, "120", TransactionType.DEBIT, DAY.minusDays(40), "09:00", "OLDREF", null, null),
+                failed(tx(5L, "999", TransactionType.DEBIT, DAY, "11:00", null, "XX1234", null)));
+        DuplicateIndex index = new DuplicateIndex();
+        existing.forEach(index::add);
+
+        List<SMSTransaction> candidates = List.of(
+                tx(null, "500", TransactionType.DEBIT, DAY.plusDays(3), "08:00", "ref1", null, null),
+                tx(null, "500.0", TransactionType.DEBIT, DAY, "10:01", "REF2", "XX1234", "swiggy"),
+                tx(null, "500", TransactionType.CREDIT, DAY, "10:00", null, "XX1234", "SWIGGY"),
+                tx(null, "750", TransactionType.CREDIT, DAY.plusDays(1), "00:00", null, "XX9999", null),
+                tx(null, "120", TransactionType.DEBIT, null, null, "OLDREF", null, null),
+                tx(null, "999", TransactionType.DEBIT, DAY, "11:00", null, "XX1234", null),
+                tx(null, "42", TransactionType.DEBIT, DAY, "10:00", null, null, null),
+                tx(null, null, TransactionType.DEBIT, DAY, "10:00", null, null, null));
+
+        for (SMSTransaction candidate : candidates) {
+            DuplicateDetectionResult fromList = service.detect(candidate, existing);
+            DuplicateDetectionResult fromIndex = service.detect(candidate, index);
+            assertEquals(fromList.isDuplicate(), fromIndex.isDuplicate(), candidate.toString());
+            assertEquals(fromList.getMatchTier(), fromIndex.getMatchTier(), candidate.toString());
+            assertEquals(fromList.getConfidenceScore(), fromIndex.getConfidenceScore(), candidate.toString());
+            assertEquals(fromList.getMatchedTransactionId(), fromIndex.getMatchedTransactionId(), candidate.toString());
+        }
+        assertEquals(1L, service.detect(candidates.get(0), index).getMatchedTransactionId());
+        assertEquals(MatchTier.STRONG, service.detect(candidates.get(4), index).getMatchTier());
+        assertTrue(service.detect(candidates.get(3), index).isDuplicate());
+        assertFalse(service.detect(candidates.get(5), index).isDuplicate());
+    }
+
+    @Test
+    void detect_TransactionAcceptedEarlierInBatch_IsDuplicate() {
+        DuplicateIndex index = new DuplicateIndex();
+        SMSTransaction first = tx(null, "2450", TransactionType.DEBIT, DAY, "14:30", "UPI403412345678", "XX4821", null);
+        SMSTransaction again = tx(null, "2450.00", TransactionType.DEBIT, DAY, "14:31", "upi403412345678", "XX4821", null);
+
+        assertFalse(service.detect(first, index).isDuplicate());
+        index.add(first);
+
+        DuplicateDetectionResult result = service.detect(again, index);
+        assertTrue(result.isDuplicate());
+        assertEquals(MatchTier.STRONG, result.getMatchTier());
+    }
+
+    @Test
+    void cover_LoadsOnlyUncoveredRangesAndSkipsKnownRows() {
+        DuplicateIndex index = new DuplicateIndex();
+        List<LocalDate[]> loads = new ArrayList<>();
+        SMSTransaction accepted = tx(null, "300", TransactionType.DEBIT, DAY.minusDays(5), "12:00", null, null, null);
+        index.add(accepted);
+
+        assertEquals(1, index.cover(DAY.minusDays(1), DAY.plusDays(1), (from, to) -> {
+            loads.add(new LocalDate[] { from, to });
+            return List.of(tx(10L, "300", TransactionType.DEBIT, DAY, "12:00", null, null, null));
+        }));
+        assertEquals(0, index.cover(DAY, DAY, (from, to) -> fail("range already covered")));
+
+        // Earlier chunk committed meanwhile: its row comes back with an id and is not indexed twice
+        accepted.setId(11L);
+        int loaded = index.cover(DAY.minusDays(6), DAY.plusDays(2), (from, to) -> {
+            loads.add(new LocalDate[] { from, to });
+            return from.isBefore(DAY)
+                    ? List.of(tx(11L, "300", TransactionType.DEBIT, DAY.minusDays(5), "12:00", null, null, null))
+                    : List.of();
+        });
+
+        assertEquals(0, loaded);
+        assertEquals(2, index.size());
+        assertEquals(3, loads.size());
+        assertArrayEquals(new LocalDate[] { DAY.minusDays(6), DAY.minusDays(2) }, loads.get(1));
+        assertArrayEquals(new LocalDate[] { DAY.plusDays(2), DAY.plusDays(2) }, loads.get(2));
+        assertEquals(1, index.findNear(new BigDecimal("300.000"), TransactionType.DEBIT, DAY.minusDays(4)).size());
+    }
+
+    private static SMSTransaction tx(Long id, String amount, TransactionType type, LocalDate date, String time,
+            String reference, String account, String merchant) {
+        return SMSTransaction.builder()
+                .id(id)
+                .userId(1L)
+                .amount(amount != null ? new BigDecimal(amount) : null)
+                .transactionType(type)
+                .transactionDate(date)
+                .transactionTime(time != null ? LocalTime.parse(time) : null)
+                .referenceNumber(reference)
+                .accountNumber(account)
+                .merchant(merchant)
+                .parseStatus(ParseStatus.SUCCESS)
+                .build();
+    }
+
+    private static SMSTransaction failed(SMSTransaction tx) {
+        tx.setParseStatus(ParseStatus.FAILED);
+        return tx;
+    }
+}
@@ -0,0 +1,169 @@
+package com.pisystem.modules.sms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.sms.data.RawDedupRequest;
+import com.pisystem.modules.sms.data.RawDedupRequest.RawSmsMessage;
+import com.pisystem.modules.sms.data.RawSmsDuplicateResult;
+import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+
+/**
+ * Tests for RawSmsDeduplicationServiceImpl.checkBatch():
+ * in-batch exact/near rules, candidate blocking, the bounded edit distance
+ * and the once-per-batch database prefetch.
+ */
+@ExtendWith(MockitoExtension.class)
+class RawSmsDeduplicationServiceImplTest {
+
+    private static final long T0 = 1_767_225_600_000L;
+    private static final String DEBIT =
+            "Rs.2,450.00 debited from A/c XX4821 on 03-02-2026 to VPA swiggy.stores@axisbank (UPI Ref No 403412345678)";
+    private static final String DEBIT_RESENT =
+            "Rs.2,450.00 debited from A/c XX4821 on 03-02-2026 to VPA swiggy.stores@axisbank (UPI Ref No 403412349999)";
+    private static final String OTHER_AMOUNT =
+            "Rs.2,950.00 debited from A/c XX4821 on 03-02-2026 to VPA swiggy.stores@axisbank (UPI Ref No 403412349999)";
+
+    @Mock
+    private SMSTransactionRepository repository;
+
+    @InjectMocks
+    private RawSmsDeduplicationServiceImpl service;
+
+    @Test
+    void checkBatch_ExactDuplicateInBatch_ReturnsFirstOccurrence() {
+        List<RawSmsDuplicateResult> results = service.checkBatch(request(null,
+                msg("a", "HDFCBK", DEBIT, T0),
+                msg("b", "HDFCBK", "Rs.100 credited to A/c XX4821", T0 + 1_000),
+                msg("c", "hdfcbk ", "  " + DEBIT + " ", T0 + 600_000)));
+
+        assertFalse(results.get(0).isDuplicate());
+        assertFalse(results.get(1).isDuplicate());
+        assertTrue(results.get(2).isDuplicate());
+        assertEquals("a", results.get(2).getDuplicateOf());
+        assertEquals(100, results.get(2).getConfidenceScore());
+    }
+
+    @Test
+    void checkBatch_NearDuplicateWithinWindow_IsDuplicate() {
+        List<RawSmsDuplicateResult> results = service.checkBatch(request(null,
+                msg("a", "HDFCBK", DEBIT, T0),
+                msg("b", "HDFCBK", DEBIT_RESENT, T0 + 10_000)));
+
+        assertTrue(results.get(1).isDuplicate());
+        assertEquals("a", results.get(1).getDuplicateOf());
+        assertEquals(90, results.get(1).getConfidenceScore());
+    }
+
+    @Test
+    void checkBatch_NearDuplicateOutsideWindow_IsNotDuplicate() {
+        List<RawSmsDuplicateResult> results = service.checkBatch(request(null,
+                msg("a", "HDFCBK", DEBIT, T0),
+                msg("b", "HDFCBK", DEBIT_RESENT, T0 + 30_000)));
+
+        assertFalse(results.get(1).isDuplicate());
+    }
+
+    @Test
+    void checkBatch_DifferentAmountOrSender_IsNotNearDuplicate() {
+        List<RawSmsDuplicateResult> results = service.checkBatch(request(null,
+                msg("a", "HDFCBK", DEBIT, T0),
+                msg("b", "HDFCBK", OTHER_AMOUNT, T0 + 5_000),
+                msg("c", "ICICIB", DEBIT_RESENT, T0 + 5_000)));
+
+        assertFalse(results.get(1).isDuplicate());
+        assertFalse(results.get(2).isDuplicate());
+    }
+
+    @Test
+    void checkBatch_EarlierNearMatchWinsOverLaterExactMatch() {
+        List<RawSmsDuplicateResult> results = service.checkBatch(request(null,
+                msg("a", "HDFCBK", DEBIT_RESENT, T0),
+                msg("b", "HDFCBK", DEBIT, T0 + 1_000),
+                msg("c", "HDFCBK", DEBIT, T0 + 2_000)));
+
+        assertEquals("a", results.get(2).getDuplicateOf());
+        assertEquals(90, results.get(2).getConfidenceScore());
+    }
+
+    @Test
+    void checkBatch_WithUser_PrefetchesOncePerBatchAndWindowPerTimeCluster() {
+        SMSTransaction stored = SMSTransaction.builder()
+                .id(77L).sender("HDFCBK").originalMessage(DEBIT).createdAt(at(T0 - 5_000)).build();
+        when(repository.findByUserIdAndSendersAndOriginalMessages(eq(1L), anyCollection(), anyCollection()))
+                .thenReturn(List.of(stored));
+        when(repository.findBySendersInTimeWindow(eq(1L), anyCollection(), any(), any()))
+                .thenAnswer(invocation -> !stored.getCreatedAt().isBefore(invocation.getArgument(2))
+                        && !stored.getCreatedAt().isAfter(invocation.getArgument(3))
+                        ? List.of(stored) : List.of());
+
+        List<RawSmsMessage> messages = new ArrayList<>();
+        messages.add(msg("exact", "HDFCBK", DEBIT, T0 + 3_600_000));
+        messages.add(msg("near", "HDFCBK", DEBIT_RESENT, T0));
+        for (int i = 0; i < 50; i++) {
+            messages.add(msg("m" + i, "AXISBK", "INR " + (100 + i) + " spent on card XX1188", T0 + i * 60_000L));
+        }
+        List<RawSmsDuplicateResult> results = service.checkBatch(new RawDedupRequest(1L, messages));
+
+        assertEquals("77", results.get(0).getDuplicateOf());
+        assertEquals(100, results.get(0).getConfidenceScore());
+        assertEquals("77", results.get(1).getDuplicateOf());
+        assertEquals(90, results.get(1).getConfidenceScore());
+        assertFalse(results.get(2).isDuplicate());
+        verify(repository, times(1)).findByUserIdAndSendersAndOriginalMessages(eq(1L), anyCollection(), anyCollection());
+        // The burst around T0 and the lone message an hour later are read separately
+        verify(repository).findBySendersInTimeWindow(1L, Set.of("HDFCBK", "AXISBK"),
+                at(T0 - 30_000), at(T0 + 49 * 60_000L + 30_000));
+        verify(repository).findBySendersInTimeWindow(1L, Set.of("HDFCBK"),
+                at(T0 + 3_600_000 - 30_000), at(T0 + 3_600_000 + 30_000));
+        verify(repository, times(2)).findBySendersInTimeWindow(eq(1L), anyCollection(), any(), any());
+    }
+
+    @Test
+    void editDistance_Bounded_AgreesWithFullSimilarity() {
+        RawSmsDeduplicationServiceImpl.EditDistance editDistance = new RawSmsDeduplicationServiceImpl.EditDistance();
+        String a = RawSmsDeduplicationServiceImpl.normalize(DEBIT);
+        String b = RawSmsDeduplicationServiceImpl.normalize(DEBIT_RESENT);
+        String c = RawSmsDeduplicationServiceImpl.normalize("Your OTP is 123456. Do not share it with anyone.");
+
+        assertEquals(4, editDistance.bounded(a, b, 10));
+        assertEquals(3, editDistance.bounded(a, b, 2)); // over budget → budget + 1
+        assertTrue(editDistance.isNear(a, b));
+        assertFalse(editDistance.isNear(a, c));
+        assertEquals(RawSmsDeduplicationServiceImpl.similarity(a, b) >= 0.90, editDistance.isNear(a, b));
+    }
+
+    @Test
+    void normalize_CollapsesWhitespaceLikeRegex() {
+        String raw = "  Rs.500\tDEBITED \n\n from  A/c ";
+        assertEquals(raw.trim().toLowerCase().replaceAll("\\s+", " "), RawSmsDeduplicationServiceImpl.normalize(raw));
+        assertEquals("already normal", RawSmsDeduplicationServiceImpl.normalize("already normal"));
+    }
+
+    private static RawDedupRequest request(Long userId, RawSmsMessage... messages) {
+        return new RawDedupRequest(userId, List.of(messages));
+    }
+
+    private static RawSmsMessage msg(String id, String sender, String body, long timestamp) {
+        return new RawSmsMessage(id, sender, body, timestamp);
+    }
+
+    private static LocalDateTime at(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
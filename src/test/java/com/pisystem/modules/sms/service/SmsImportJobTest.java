@@ -0,0 +1,261 @@
+package com.pisystem.modules.sms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pisystem.modules.sms.data.DuplicateDetectionResult;
+import com.pisystem.modules.sms.data.FlowClassificationResult;
+import com.pisystem.modules.sms.data.FlowClassificationResult.FlowType;
+import com.pisystem.modules.sms.data.NormalizedTransaction;
+import com.pisystem.modules.sms.data.ParsedSMSData;
+import com.pisystem.modules.sms.data.SMSImportRequest;
+import com.pisystem.modules.sms.data.SMSTransaction;
+import com.pisystem.modules.sms.data.SmsImportJob;
+import com.pisystem.modules.sms.data.TransactionValidationResult;
+import com.pisystem.modules.sms.data.TransferDetectionResult;
+import com.pisystem.modules.sms.exception.SmsImportJobNotFoundException;
+import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+import com.pisystem.modules.sms.repo.SmsImportBatchWriter;
+import com.pisystem.modules.upi.repository.BankAccountRepository;
+import com.pisystem.modules.upi.service.BankAccountService;
+
+/**
+ * Tests for background SMS imports: job lifecycle through startImport/getImportJob,
+ * one commit per 500-message chunk, progress counters and a chunk failing partway.
+ */
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class SmsImportJobTest {
+
+    private static final Long USER_ID = 1L;
+    private static final int CHUNK_SIZE = 500;
+    private static final SmsPatternSnapshot PATTERNS = SmsPatternSnapshot.defaults();
+
+    @Mock
+    private SMSParserService parserService;
+
+    @Mock
+    private SMSTransactionRepository repository;
+
+    @Mock
+    private SmsImportBatchWriter batchWriter;
+
+    @Mock
+    private BankAccountService bankAccountService;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionNormalizationService normalizationService;
+
+    @Mock
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Mock
+    private TransactionValidatorService validatorService;
+
+    @Mock
+    private TransactionFlowClassifierService flowClassifierService;
+
+    @Mock
+    private TransferDetectionService transferDetectionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SmsServiceImpl smsService;
+
+    private final AtomicInteger commits = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(repository.findExistingMessages(anyLong(), ArgumentMatchers.<String>anyList()))
+                .thenReturn(Collections.emptyList());
+        lenient().when(repository.findSuccessTransactionsInWindow(anyLong(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        lenient().when(bankAccountRepository.findAccountNumbersByUserId(anyLong()))
+                .thenReturn(Collections.emptyList());
+        lenient().when(parserService.patternSnapshot()).thenReturn(PATTERNS);
+        lenient().when(parserService.parseSMS(anyString(), eq(PATTERNS))).thenReturn(debit(100));
+
+        // Every message is a clean, non-duplicate expense
+        lenient().when(normalizationService.normalize(any(SMSTransaction.class), anyString()))
+                .thenReturn(NormalizedTransaction.builder().normalizedMerchant("MERCHANT").build());
+        lenient().when(flowClassifierService.classify(any(NormalizedTransaction.class), anySet()))
+                .thenReturn(FlowClassificationResult.builder().flowType(FlowType.EXPENSE).build());
+        lenient().when(duplicateDetectionService.detect(any(SMSTransaction.class), any(DuplicateIndex.class)))
+                .thenReturn(DuplicateDetectionResult.builder().isDuplicate(false).build());
+        lenient().when(transferDetectionService.detect(any(SMSTransaction.class), anySet(), anySet(), anyList()))
+                .thenReturn(TransferDetectionResult.builder().isTransfer(false).build());
+        lenient().when(validatorService.validate(any(SMSTransaction.class)))
+                .thenReturn(TransactionValidationResult.builder().isValidTransaction(true).build());
+
+        // Chunk commits run their callback inline and are counted
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            commits.incrementAndGet();
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        smsService.shutdownImportExecutors();
+    }
+
+    @Test
+    void startImport_ReturnsQueuedJobThatCanBePolledToCompletion() throws Exception {
+        SMSImportRequest request = request(3);
+
+        SmsImportJob job = smsService.startImport(request);
+
+        assertNotNull(job.getJobId());
+        assertEquals(USER_ID, job.getUserId());
+        assertEquals(3, job.getTotalMessages());
+        assertNotNull(job.getSubmittedAt());
+        assertSame(job, smsService.getImportJob(job.getJobId()));
+
+        SmsImportJob done = awaitFinished(job.getJobId());
+        assertEquals(SmsImportJob.Status.COMPLETED, done.getStatus());
+        assertEquals(Long.valueOf(PATTERNS.getVersion()), done.getPatternVersion());
+        assertNotNull(done.getStartedAt());
+        assertNotNull(done.getCompletedAt());
+        assertEquals(3, done.getResult().getTotalMessages());
+        assertEquals(3, done.getResult().getTransactions().size());
+    }
+
+    @Test
+    void getImportJob_UnknownId_Throws() {
+        assertThrows(SmsImportJobNotFoundException.class, () -> smsService.getImportJob("no-such-job"));
+    }
+
+    @Test
+    void startImport_MoreThanOneChunk_CommitsEachChunkSeparately() throws Exception {
+        SMSImportRequest request = request(CHUNK_SIZE + 20);
+
+        SmsImportJob done = awaitFinished(smsService.startImport(request).getJobId());
+
+        assertEquals(SmsImportJob.Status.COMPLETED, done.getStatus());
+        assertEquals(2, done.getCommittedChunks());
+        assertEquals(CHUNK_SIZE + 20, done.getProcessedMessages());
+        assertEquals(CHUNK_SIZE + 20, done.getPersistedTransactions());
+        assertEquals(2, commits.get());
+        verify(batchWriter, times(2)).write(anyList(), anyList(), anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void startImport_ReportsProgressWhileChunkCommits() throws Exception {
+        CountDownLatch firstCommitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            if (commits.incrementAndGet() == 1) {
+                firstCommitted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        SmsImportJob job = smsService.startImport(request(CHUNK_SIZE + 20));
+        assertTrue(firstCommitted.await(5, TimeUnit.SECONDS));
+
+        // First chunk is inside its commit: all of its messages have been processed
+        SmsImportJob running = smsService.getImportJob(job.getJobId());
+        assertEquals(SmsImportJob.Status.RUNNING, running.getStatus());
+        assertEquals(CHUNK_SIZE, running.getProcessedMessages());
+        assertEquals(0, running.getCommittedChunks());
+        assertNull(running.getResult());
+
+        release.countDown();
+        SmsImportJob done = awaitFinished(job.getJobId());
+        assertEquals(CHUNK_SIZE + 20, done.getProcessedMessages());
+        assertEquals(2, done.getCommittedChunks());
+    }
+
+    @Test
+    void startImport_SecondChunkFails_KeepsFirstChunkAndMarksJobFailed() throws Exception {
+        doAnswer(invocation -> {
+            if (commits.incrementAndGet() == 2) {
+                throw new IllegalStateException("Connection reset");
+            }
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        SmsImportJob done = awaitFinished(smsService.startImport(request(CHUNK_SIZE + 20)).getJobId());
+
+        assertEquals(SmsImportJob.Status.FAILED, done.getStatus());
+        assertEquals("Connection reset", done.getErrorMessage());
+        assertEquals(1, done.getCommittedChunks());
+        assertEquals(CHUNK_SIZE, done.getPersistedTransactions());
+        assertEquals(CHUNK_SIZE + 20, done.getProcessedMessages());
+        assertNull(done.getResult());
+        assertNotNull(done.getCompletedAt());
+        verify(batchWriter, times(1)).write(anyList(), anyList(), anyList(), anyList(), anyList());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private SmsImportJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        SmsImportJob job = smsService.getImportJob(jobId);
+        while (job.getCompletedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = smsService.getImportJob(jobId);
+        }
+        assertNotNull(job.getCompletedAt(), "Import job did not finish in time");
+        return job;
+    }
+
+    private static SMSImportRequest request(int count) {
+        List<SMSImportRequest.SMSMessage> messages = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            messages.add(new SMSImportRequest.SMSMessage(
+                    "Rs." + i + " debited from A/c XX1234 at MERCHANT. Avl Bal: Rs.10000 #" + i,
+                    "HDFCBK",
+                    (long) i));
+        }
+        return new SMSImportRequest(USER_ID, messages);
+    }
+
+    private static ParsedSMSData debit(int amount) {
+        return ParsedSMSData.builder()
+                .amount(BigDecimal.valueOf(amount))
+                .transactionDate(LocalDate.now())
+                .transactionTime(LocalTime.NOON)
+                .transactionType(SMSTransaction.TransactionType.DEBIT)
+                .merchant("MERCHANT")
+                .accountNumber("XX1234")
+                .parseStatus(SMSTransaction.ParseStatus.SUCCESS)
+                .confidence(0.9)
+                .build();
+    }
+}
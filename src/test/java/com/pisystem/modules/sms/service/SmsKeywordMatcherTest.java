@@ -0,0 +1,133 @@
+package com.pisystem.modules.sms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the single-pass keyword automaton: it must agree with the
+ * {@code \b(...)\b} regexes and {@code contains} checks it replaces.
+ */
+class SmsKeywordMatcherTest {
+
+    private final SmsKeywordMatcher matcher = SmsKeywordMatcher.defaults();
+
+    @Test
+    void scan_DebitMessage_MatchesParserAndClassifierGroups() {
+        SmsKeywordHits hits = matcher.scan(
+                "Rs.500 DEBITED from A/c XX1234 via UPI Ref 123456. Avl Bal: Rs.10,000");
+
+        assertTrue(hits.has(SmsKeyword.PARSER_DEBIT));
+        assertTrue(hits.has(SmsKeyword.CLASSIFIER_DEBIT_ACTION));
+        assertTrue(hits.has(SmsKeyword.CLASSIFIER_PAYMENT_RAIL));
+        assertTrue(hits.has(SmsKeyword.CLASSIFIER_BALANCE_UPDATE)); // residual regex: avl\.?\s*bal
+        assertTrue(hits.has(SmsKeyword.PARSER_UPI_OR_VPA));
+        assertFalse(hits.has(SmsKeyword.PARSER_CREDIT));
+        assertFalse(hits.has(SmsKeyword.PARSER_FUTURE_INTENT));
+    }
+
+    @Test
+    void scan_WordBoundaryGroups_RequireWholeWords() {
+        assertFalse(matcher.scan("debitcard issued").has(SmsKeyword.PARSER_DEBIT));
+        assertFalse(matcher.scan("undebited amount").has(SmsKeyword.PARSER_DEBIT));
+        assertFalse(matcher.scan("debit_note").has(SmsKeyword.PARSER_DEBIT));
+        assertTrue(matcher.scan("debit, then refund").has(SmsKeyword.PARSER_DEBIT));
+        assertTrue(matcher.scan("(debit)").has(SmsKeyword.PARSER_DEBIT));
+    }
+
+    @Test
+    void scan_ContainsGroups_MatchInsideWords() {
+        SmsKeywordHits hits = matcher.scan("Parent payment via UPI");
+
+        assertTrue(hits.has(SmsKeyword.CATEGORY_RENT));
+        assertTrue(hits.has(SmsKeyword.IMPORT_REFERENCE));
+        assertFalse(hits.has(SmsKeyword.CATEGORY_LOAN));
+    }
+
+    @Test
+    void scan_PunctuationEndedKeyword_UsesRegexBoundaryRule() {
+        // \bad:\b needs a word character right after the colon
+        assertTrue(matcher.scan("ad:sale today").has(SmsKeyword.CLASSIFIER_PROMO));
+        assertFalse(matcher.scan("ad: sale today").has(SmsKeyword.CLASSIFIER_PROMO));
+    }
+
+    @Test
+    void scan_ExpandedSubGroups_MatchEveryCombination() {
+        assertTrue(matcher.scan("Your mobile number was verified").has(SmsKeyword.CLASSIFIER_SERVICE));
+        assertTrue(matcher.scan("your ticket id is 42").has(SmsKeyword.CLASSIFIER_SERVICE));
+        assertTrue(matcher.scan("payment for order").has(SmsKeyword.CLASSIFIER_DEBIT_ACTION));
+        assertFalse(matcher.scan("payment to order").has(SmsKeyword.CLASSIFIER_DEBIT_ACTION));
+    }
+
+    @Test
+    void scan_ResidualRegex_EvaluatedWhenNoLiteralMatches() {
+        assertTrue(matcher.scan("Your EMI is due tomorrow").has(SmsKeyword.CLASSIFIER_FUTURE_INTENT));
+        assertTrue(matcher.scan("Your one-time password is 4321").has(SmsKeyword.CLASSIFIER_OTP));
+        assertFalse(matcher.scan("Rs 500 credited").has(SmsKeyword.CLASSIFIER_OTP));
+    }
+
+    @Test
+    void scan_AgreesWithOriginalRegexes() {
+        Map<SmsKeyword, Pattern> original = Map.of(
+                SmsKeyword.PARSER_FUTURE_INTENT, Pattern.compile(
+                        "\\b(will be debited|will be credited|scheduled|due on|due date|to be debited|"
+                                + "to be credited|payment due|reminder)\\b", Pattern.CASE_INSENSITIVE),
+                SmsKeyword.PARSER_RECURRING, Pattern.compile(
+                        "\\b(policy|premium|subscription|emi|auto debit|autopay|standing instruction|"
+                                + "si debit|recurring|monthly)\\b", Pattern.CASE_INSENSITIVE),
+                SmsKeyword.CLASSIFIER_BALANCE_UPDATE, Pattern.compile(
+                        "\\b(avl\\.?\\s*bal|available balance|a/c bal|balance is|"
+                                + "bal\\.?\\s*(?:rs|inr|₹)|closing balance|ac bal)\\b", Pattern.CASE_INSENSITIVE));
+        List<String> messages = List.of(
+                "Rs 1,200 will be debited on 05-Apr for your SIP",
+                "Premium of Rs 5,000 paid for policy 1234",
+                "Monthly autopay set up",
+                "Bal.Rs 10,000 after txn",
+                "bal inr 500",
+                "Closing balance as on 31-Mar",
+                "Rs 99 spent at SWIGGY on card xx1234",
+                "premiums and policyholders",
+                "Your a/c balance is low");
+
+        for (String message : messages) {
+            SmsKeywordHits hits = matcher.scan(message);
+            original.forEach((keyword, pattern) -> assertEquals(
+                    pattern.matcher(message.toLowerCase()).find(), hits.has(keyword),
+                    keyword + " on \"" + message + "\""));
+        }
+    }
+
+    @Test
+    void compile_LiteralOverride_ReplacesDefaults() {
+        SmsKeywordMatcher overridden = SmsKeywordMatcher.compile(Map.of(SmsKeyword.PARSER_DEBIT,
+                Pattern.compile("\\b(debited|swiped|paid (via|using))\\b", Pattern.CASE_INSENSITIVE)));
+
+        assertTrue(overridden.scan("Card SWIPED for Rs 500").has(SmsKeyword.PARSER_DEBIT));
+        assertTrue(overridden.scan("Rs 500 paid using card").has(SmsKeyword.PARSER_DEBIT));
+        assertFalse(overridden.scan("Rs 500 spent").has(SmsKeyword.PARSER_DEBIT));
+        // Other groups keep their defaults
+        assertTrue(overridden.scan("Rs 500 spent").has(SmsKeyword.CLASSIFIER_DEBIT_ACTION));
+    }
+
+    @Test
+    void compile_NonLiteralOverride_FallsBackToRegex() {
+        SmsKeywordMatcher overridden = SmsKeywordMatcher.compile(Map.of(SmsKeyword.PARSER_CREDIT,
+                Pattern.compile("\\b(credit\\w*)\\b", Pattern.CASE_INSENSITIVE)));
+
+        assertTrue(overridden.scan("Amount creditedx to a/c").has(SmsKeyword.PARSER_CREDIT));
+        assertFalse(overridden.scan("Rs 500 received").has(SmsKeyword.PARSER_CREDIT));
+    }
+
+    @Test
+    void overrideLiterals_RejectsPartialBoundaryAndRegexConstructs() {
+        assertEquals(List.of("a", "b c"), SmsKeywordMatcher.overrideLiterals(Pattern.compile("\\b(a|b c)\\b")));
+        assertEquals(List.of("x", "y"), SmsKeywordMatcher.overrideLiterals(Pattern.compile("x|y")));
+        assertNull(SmsKeywordMatcher.overrideLiterals(Pattern.compile("\\b(a)|(b)\\b")));
+        assertNull(SmsKeywordMatcher.overrideLiterals(Pattern.compile("\\b(a.?b)\\b")));
+        assertNull(SmsKeywordMatcher.overrideLiterals(Pattern.compile("\\b(Debit)\\b")));
+    }
+}
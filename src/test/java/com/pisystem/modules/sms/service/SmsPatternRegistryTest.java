@@ -0,0 +1,89 @@
+package com.pisystem.modules.sms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pisystem.modules.sms.data.ParsedSMSData;
+import com.pisystem.modules.sms.data.SmsRegexPattern;
+import com.pisystem.modules.sms.repo.SmsRegexPatternRepository;
+
+/**
+ * Tests for SmsPatternRegistry snapshots: slot resolution, version ordering and
+ * parsers staying on the snapshot they were given across a refresh.
+ */
+@ExtendWith(MockitoExtension.class)
+class SmsPatternRegistryTest {
+
+    private static final String DEBIT = "Rs.2,450.00 debited from A/c XX4821 on 03-02-2026 (UPI Ref No 403412345678)";
+
+    @Mock
+    private SmsRegexPatternRepository repository;
+
+    @InjectMocks
+    private SmsPatternRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdownLoader();
+    }
+
+    @Test
+    void load_ResolvesOverridesBySlotAndSkipsInvalidRegex() {
+        when(repository.findByIsActiveTrue()).thenReturn(List.of(
+                row("PARSER_AMOUNT_1", "INR\\s*([0-9]+)"),
+                row("PARSER_BALANCE", "([unclosed")));
+
+        registry.load();
+        SmsPatternSnapshot patterns = registry.snapshot();
+
+        assertEquals(1L, patterns.getVersion());
+        assertEquals(1, patterns.size());
+        assertEquals("INR\\s*([0-9]+)", patterns.pattern(SmsPatternSlot.PARSER_AMOUNT_1).pattern());
+        assertSame(SmsPatternSlot.PARSER_BALANCE.getDefaultPattern(), patterns.pattern(SmsPatternSlot.PARSER_BALANCE));
+        assertNull(registry.get("PARSER_BALANCE"));
+    }
+
+    @Test
+    void refresh_PublishesNewVersionWithoutChangingPinnedSnapshot() {
+        when(repository.findByIsActiveTrue())
+                .thenReturn(List.of())
+                .thenReturn(List.of(row("PARSER_AMOUNT_1", "never matches (\\d+)")));
+        registry.load();
+        SmsPatternSnapshot pinned = registry.snapshot();
+        SMSParserService parser = new SMSParserService(registry);
+
+        SmsPatternSnapshot refreshed = registry.refresh();
+
+        assertEquals(2L, refreshed.getVersion());
+        assertSame(refreshed, registry.snapshot());
+        assertEquals(1L, pinned.getVersion());
+        assertSame(SmsPatternSlot.PARSER_AMOUNT_1.getDefaultPattern(), pinned.pattern(SmsPatternSlot.PARSER_AMOUNT_1));
+
+        ParsedSMSData onPinned = parser.parseSMS(DEBIT, pinned);
+        ParsedSMSData onCurrent = parser.parseSMS(DEBIT);
+        assertEquals(0, onPinned.getAmount().compareTo(new BigDecimal("2450.00")));
+        // The refreshed override no longer finds an amount in this message
+        assertNull(onCurrent.getAmount());
+    }
+
+    @Test
+    void snapshot_BeforeFirstLoad_IsCodeDefaults() {
+        assertEquals(0L, registry.version());
+        assertSame(SmsPatternSnapshot.defaults(), registry.snapshot());
+        assertSame(SmsKeywordMatcher.defaults(), registry.keywordMatcher());
+    }
+
+    private static SmsRegexPattern row(String key, String regex) {
+        return SmsRegexPattern.builder().patternKey(key).patternValue(regex).build();
+    }
+}
@@ -8,6 +8,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,15 +18,17 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.pisystem.modules.budget.data.Expense;
 import com.pisystem.modules.budget.data.Income;
-import com.pisystem.modules.budget.service.BudgetService;
 import com.pisystem.modules.sms.data.ParsedSMSData;
 import com.pisystem.modules.sms.data.SMSImportRequest;
 import com.pisystem.modules.sms.data.SMSImportResponse;
 import com.pisystem.modules.sms.data.SMSTransaction;
 import com.pisystem.modules.sms.repo.SMSTransactionRepository;
+import com.pisystem.modules.sms.repo.SmsImportBatchWriter;
 import com.pisystem.modules.upi.repository.BankAccountRepository;
 import com.pisystem.modules.upi.service.BankAccountService;
 
@@ -50,7 +53,7 @@ class SmsServiceImplTest {
     private SMSTransactionRepository repository;
 
     @Mock
-    private BudgetService budgetService;
+    private SmsImportBatchWriter batchWriter;
 
     @Mock
     private BankAccountService bankAccountService;
@@ -58,9 +61,14 @@ class SmsServiceImplTest {
     @Mock
     private BankAccountRepository bankAccountRepository;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private SmsServiceImpl smsService;
 
+    private static final SmsPatternSnapshot PATTERNS = SmsPatternSnapshot.defaults();
+
     private Long userId;
     private SMSImportRequest request;
 
@@ -72,6 +80,14 @@ class SmsServiceImplTest {
                 .thenReturn(Collections.emptyList());
         when(bankAccountRepository.findAccountNumbersByUserId(anyLong()))
                 .thenReturn(Collections.emptyList());
+        // Imports parse against the snapshot taken when they start
+        lenient().when(parserService.patternSnapshot()).thenReturn(PATTERNS);
+        // Chunk commits run their callback inline
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     // ==================== SCENARIO 1: New DEBIT Transaction ====================
@@ -99,8 +115,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -117,9 +133,9 @@ class SmsServiceImplTest {
         assertTrue(summary.isAddedToBudget(), "DEBIT transaction should be added to budget as expense");
 
         // Verify expense was created
-        ArgumentCaptor<Expense> expenseCaptor = ArgumentCaptor.forClass(Expense.class);
-        verify(budgetService, times(1)).addExpense(expenseCaptor.capture());
-        Expense capturedExpense = expenseCaptor.getValue();
+        List<Expense> writtenExpenses = writtenExpenses();
+        assertEquals(1, writtenExpenses.size());
+        Expense capturedExpense = writtenExpenses.get(0);
         assertEquals(BigDecimal.valueOf(500), capturedExpense.getAmount());
         assertEquals("AMAZON", capturedExpense.getDescription());
 
@@ -127,7 +143,7 @@ class SmsServiceImplTest {
         verify(bankAccountService, times(1)).addOrUpdateBankAccount(userId, "XX1234");
 
         // Verify no income was created
-        verify(budgetService, never()).addIncome(any());
+        assertTrue(writtenIncomes().isEmpty());
     }
 
     // ==================== SCENARIO 2: New CREDIT Transaction ====================
@@ -155,8 +171,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(2L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -168,15 +184,15 @@ class SmsServiceImplTest {
                 "CREDIT transaction should be added to budget as income");
 
         // Verify income was created
-        ArgumentCaptor<Income> incomeCaptor = ArgumentCaptor.forClass(Income.class);
-        verify(budgetService, times(1)).addIncome(incomeCaptor.capture());
-        Income capturedIncome = incomeCaptor.getValue();
+        List<Income> writtenIncomes = writtenIncomes();
+        assertEquals(1, writtenIncomes.size());
+        Income capturedIncome = writtenIncomes.get(0);
         assertEquals(BigDecimal.valueOf(5000), capturedIncome.getAmount());
         assertEquals("Salary Credit", capturedIncome.getDescription());
         assertEquals("SMS_PARSED", capturedIncome.getSource());
 
         // Verify no expense was created
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 3: Self-Transfer Detection ====================
@@ -213,8 +229,8 @@ class SmsServiceImplTest {
         savedTransaction.setMessageType("SELF_TRANSFER");
         savedTransaction.setCategory("self_transfer");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -226,8 +242,8 @@ class SmsServiceImplTest {
         assertFalse(summary.isAddedToBudget(), "Self-transfers should not be added to budget");
 
         // Verify no income or expense created
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 4: Regular Transfer (Not Self-Transfer) ====================
@@ -261,8 +277,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(4L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -274,7 +290,7 @@ class SmsServiceImplTest {
         assertTrue(summary.isAddedToBudget(), "Regular transfer should be added to budget");
 
         // Verify expense was created
-        verify(budgetService, times(1)).addExpense(any(Expense.class));
+        assertEquals(1, writtenExpenses().size());
     }
 
     // ==================== SCENARIO 5: Duplicate Messages ====================
@@ -301,9 +317,9 @@ class SmsServiceImplTest {
         assertEquals(0, response.getErrors().size());
 
         // Verify no database operations
-        verify(repository, never()).saveAll(anyList());
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        verify(batchWriter, never()).write(anyList(), anyList(), anyList(), anyList(), anyList());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
         verify(parserService, never()).parseSMS(anyString());
     }
 
@@ -358,8 +374,8 @@ class SmsServiceImplTest {
                 0.88
         );
 
-        when(parserService.parseSMS(debitMsg.getContent())).thenReturn(debitParsed);
-        when(parserService.parseSMS(creditMsg.getContent())).thenReturn(creditParsed);
+        when(parserService.parseSMS(debitMsg.getContent(), PATTERNS)).thenReturn(debitParsed);
+        when(parserService.parseSMS(creditMsg.getContent(), PATTERNS)).thenReturn(creditParsed);
         // No mock for oldDebitMsg since it should be skipped
 
         SMSTransaction savedDebit = createSMSTransaction(1L, userId, debitMsg.getContent(), debitParsed);
@@ -367,8 +383,7 @@ class SmsServiceImplTest {
         SMSTransaction savedCredit = createSMSTransaction(2L, userId, creditMsg.getContent(), creditParsed);
         savedCredit.setMessageType("TRANSACTION");
 
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedDebit, savedCredit));
+        stubBatchWrite(List.of(savedDebit, savedCredit));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -379,11 +394,11 @@ class SmsServiceImplTest {
         assertEquals(0, response.getErrors().size());
 
         // Verify both income and expense created
-        verify(budgetService, times(1)).addExpense(any(Expense.class));
-        verify(budgetService, times(1)).addIncome(any(Income.class));
+        assertEquals(1, writtenExpenses().size());
+        assertEquals(1, writtenIncomes().size());
 
         // Verify batch save
-        verify(repository, times(1)).saveAll(ArgumentMatchers.<SMSTransaction>anyList());
+        verify(batchWriter, times(1)).write(anyList(), anyList(), anyList(), anyList(), anyList());
     }
 
     // ==================== SCENARIO 7: Non-Transaction Messages ====================
@@ -411,8 +426,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("MANDATE_ALERT");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -424,11 +439,11 @@ class SmsServiceImplTest {
                 "Non-transaction messages should not be added to budget");
 
         // Verify no budget operations
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
 
         // Verify transaction still saved
-        verify(repository, times(1)).saveAll(anyList());
+        verify(batchWriter, times(1)).write(anyList(), anyList(), anyList(), anyList(), anyList());
     }
 
     // ==================== SCENARIO 8: Parsing Error ====================
@@ -442,7 +457,7 @@ class SmsServiceImplTest {
         );
         request = new SMSImportRequest(userId, List.of(smsMessage));
 
-        when(parserService.parseSMS(smsMessage.getContent()))
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS))
                 .thenThrow(new RuntimeException("Invalid SMS format"));
 
         // When: Import messages
@@ -458,9 +473,9 @@ class SmsServiceImplTest {
         assertEquals("Invalid SMS format", error.getError());
 
         // Verify no database operations
-        verify(repository, never()).saveAll(anyList());
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        verify(batchWriter, never()).write(anyList(), anyList(), anyList(), anyList(), anyList());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 9: Empty Message List ====================
@@ -479,7 +494,7 @@ class SmsServiceImplTest {
 
         // Verify no processing
         verify(parserService, never()).parseSMS(anyString());
-        verify(repository, never()).saveAll(anyList());
+        verify(batchWriter, never()).write(anyList(), anyList(), anyList(), anyList(), anyList());
     }
 
     // ==================== SCENARIO 10: Transaction Without Amount ====================
@@ -507,8 +522,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -518,8 +533,8 @@ class SmsServiceImplTest {
         assertFalse(response.getTransactions().get(0).isAddedToBudget());
 
         // Verify no budget operations (because amount is null)
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 11: Transaction Without Account Number ====================
@@ -548,8 +563,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -559,7 +574,7 @@ class SmsServiceImplTest {
         assertTrue(response.getTransactions().get(0).isAddedToBudget());
 
         // Verify expense created but bank account NOT updated
-        verify(budgetService, times(1)).addExpense(any(Expense.class));
+        assertEquals(1, writtenExpenses().size());
         verify(bankAccountService, never()).addOrUpdateBankAccount(anyLong(), anyString());
     }
 
@@ -588,9 +603,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -601,8 +615,8 @@ class SmsServiceImplTest {
                 "Unknown transaction type should not be added to budget");
 
         // No income or expense because type is unknown
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 13: Low Confidence Transaction ====================
@@ -630,8 +644,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("LOW_CONFIDENCE_TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -670,14 +684,14 @@ class SmsServiceImplTest {
                 0.90
         );
 
-        when(parserService.parseSMS(validMsg.getContent())).thenReturn(validParsed);
-        when(parserService.parseSMS(invalidMsg.getContent()))
+        when(parserService.parseSMS(validMsg.getContent(), PATTERNS)).thenReturn(validParsed);
+        when(parserService.parseSMS(invalidMsg.getContent(), PATTERNS))
                 .thenThrow(new RuntimeException("Parse failed"));
 
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, validMsg.getContent(), validParsed);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -690,8 +704,8 @@ class SmsServiceImplTest {
         assertEquals("Parse failed", response.getErrors().get(0).getError());
 
         // Verify partial processing
-        verify(repository, times(1)).saveAll(anyList());
-        verify(budgetService, times(1)).addExpense(any());
+        verify(batchWriter, times(1)).write(anyList(), anyList(), anyList(), anyList(), anyList());
+        assertEquals(1, writtenExpenses().size());
     }
 
     // ==================== SCENARIO 15: All Messages Are Duplicates ====================
@@ -714,7 +728,7 @@ class SmsServiceImplTest {
         assertEquals(0, response.getErrors().size());
 
         verify(parserService, never()).parseSMS(anyString());
-        verify(repository, never()).saveAll(anyList());
+        verify(batchWriter, never()).write(anyList(), anyList(), anyList(), anyList(), anyList());
     }
 
     // ==================== SCENARIO 16: Self-Transfer with Null Accounts ====================
@@ -744,9 +758,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -803,16 +816,15 @@ class SmsServiceImplTest {
         parsed2.setFromAccount("XX1234");
         parsed2.setToAccount("XX5678");
 
-        when(parserService.parseSMS(msg1.getContent())).thenReturn(parsed1);
-        when(parserService.parseSMS(msg2.getContent())).thenReturn(parsed2);
+        when(parserService.parseSMS(msg1.getContent(), PATTERNS)).thenReturn(parsed1);
+        when(parserService.parseSMS(msg2.getContent(), PATTERNS)).thenReturn(parsed2);
 
         SMSTransaction saved1 = createSMSTransaction(1L, userId, msg1.getContent(), parsed1);
         saved1.setMessageType("SELF_TRANSFER");
         SMSTransaction saved2 = createSMSTransaction(2L, userId, msg2.getContent(), parsed2);
         saved2.setMessageType("SELF_TRANSFER");
 
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(saved1, saved2));
+        stubBatchWrite(List.of(saved1, saved2));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -837,16 +849,15 @@ class SmsServiceImplTest {
         ParsedSMSData parsed1 = createTransactionParsedData(100);
         ParsedSMSData parsed2 = createTransactionParsedData(200);
 
-        when(parserService.parseSMS(msg1.getContent())).thenReturn(parsed1);
-        when(parserService.parseSMS(msg2.getContent())).thenReturn(parsed2);
+        when(parserService.parseSMS(msg1.getContent(), PATTERNS)).thenReturn(parsed1);
+        when(parserService.parseSMS(msg2.getContent(), PATTERNS)).thenReturn(parsed2);
 
         SMSTransaction saved1 = createSMSTransaction(101L, userId, msg1.getContent(), parsed1);
         saved1.setMessageType("TRANSACTION");
         SMSTransaction saved2 = createSMSTransaction(102L, userId, msg2.getContent(), parsed2);
         saved2.setMessageType("TRANSACTION");
 
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(saved1, saved2));
+        stubBatchWrite(List.of(saved1, saved2));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -866,11 +877,11 @@ class SmsServiceImplTest {
         request = new SMSImportRequest(userId, List.of(smsMessage));
 
         ParsedSMSData parsedData = createTransactionParsedData(500);
-        when(parserService.parseSMS(longMessage)).thenReturn(parsedData);
+        when(parserService.parseSMS(longMessage, PATTERNS)).thenReturn(parsedData);
 
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, longMessage, parsedData);
         savedTransaction.setMessageType("TRANSACTION");
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -907,18 +918,17 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
 
         // Then: Verify expense has proper fields
-        ArgumentCaptor<Expense> expenseCaptor = ArgumentCaptor.forClass(Expense.class);
-        verify(budgetService, times(1)).addExpense(expenseCaptor.capture());
+        List<Expense> writtenExpenses = writtenExpenses();
+        assertEquals(1, writtenExpenses.size());
 
-        Expense expense = expenseCaptor.getValue();
+        Expense expense = writtenExpenses.get(0);
         assertEquals(userId, expense.getUserId());
         assertEquals(BigDecimal.valueOf(1500), expense.getAmount());
         assertEquals(LocalDate.of(2026, 3, 12), expense.getExpenseDate());
@@ -953,18 +963,17 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
 
         // Then: Verify income has correct fields
-        ArgumentCaptor<Income> incomeCaptor = ArgumentCaptor.forClass(Income.class);
-        verify(budgetService, times(1)).addIncome(incomeCaptor.capture());
+        List<Income> writtenIncomes = writtenIncomes();
+        assertEquals(1, writtenIncomes.size());
 
-        Income income = incomeCaptor.getValue();
+        Income income = writtenIncomes.get(0);
         assertEquals(userId, income.getUserId());
         assertEquals(BigDecimal.valueOf(50000), income.getAmount());
         assertEquals(LocalDate.of(2026, 3, 1), income.getDate());
@@ -990,8 +999,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(anyList())).thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -1021,9 +1030,8 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("BALANCE_INQUIRY");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         SMSImportResponse response = smsService.importMessages(request);
@@ -1031,8 +1039,8 @@ class SmsServiceImplTest {
         // Then: Should save but not create budget entries
         assertEquals(1, response.getTransactions().size());
         assertFalse(response.getTransactions().get(0).isAddedToBudget());
-        verify(budgetService, never()).addIncome(any());
-        verify(budgetService, never()).addExpense(any());
+        assertTrue(writtenIncomes().isEmpty());
+        assertTrue(writtenExpenses().isEmpty());
     }
 
     // ==================== SCENARIO 24: Transaction Without Merchant ====================
@@ -1060,17 +1068,16 @@ class SmsServiceImplTest {
         SMSTransaction savedTransaction = createSMSTransaction(1L, userId, smsMessage.getContent(), parsedData);
         savedTransaction.setMessageType("TRANSACTION");
 
-        when(parserService.parseSMS(smsMessage.getContent())).thenReturn(parsedData);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(List.of(savedTransaction));
+        when(parserService.parseSMS(smsMessage.getContent(), PATTERNS)).thenReturn(parsedData);
+        stubBatchWrite(List.of(savedTransaction));
 
         // When: Import messages
         smsService.importMessages(request);
 
         // Then: Expense uses default description
-        ArgumentCaptor<Expense> expenseCaptor = ArgumentCaptor.forClass(Expense.class);
-        verify(budgetService, times(1)).addExpense(expenseCaptor.capture());
-        assertEquals("SMS Transaction", expenseCaptor.getValue().getDescription());
+        List<Expense> writtenExpenses = writtenExpenses();
+        assertEquals(1, writtenExpenses.size());
+        assertEquals("SMS Transaction", writtenExpenses.get(0).getDescription());
     }
 
     // ==================== SCENARIO 25: High Volume Batch Processing ====================
@@ -1088,7 +1095,7 @@ class SmsServiceImplTest {
             ));
 
             ParsedSMSData parsed = createTransactionParsedData(i * 10);
-            when(parserService.parseSMS(messages.get(i - 1).getContent())).thenReturn(parsed);
+            when(parserService.parseSMS(messages.get(i - 1).getContent(), PATTERNS)).thenReturn(parsed);
 
             SMSTransaction saved = createSMSTransaction((long) i, userId, messages.get(i - 1).getContent(), parsed);
             saved.setMessageType("TRANSACTION");
@@ -1096,8 +1103,7 @@ class SmsServiceImplTest {
         }
 
         request = new SMSImportRequest(userId, messages);
-        when(repository.saveAll(ArgumentMatchers.<SMSTransaction>anyList()))
-                .thenReturn(savedTransactions);
+        stubBatchWrite(savedTransactions);
 
         // When: Import large batch
         SMSImportResponse response = smsService.importMessages(request);
@@ -1108,14 +1114,46 @@ class SmsServiceImplTest {
         assertEquals(0, response.getErrors().size());
 
         // Verify single batch save (not 100 individual saves)
-        verify(repository, times(1)).saveAll(ArgumentMatchers.<SMSTransaction>anyList());
+        verify(batchWriter, times(1)).write(anyList(), anyList(), anyList(), anyList(), anyList());
 
         // Verify 100 expenses created (all are DEBIT)
-        verify(budgetService, times(100)).addExpense(any(Expense.class));
+        assertEquals(100, writtenExpenses().size());
     }
 
     // ==================== Helper Methods ====================
 
+    /**
+     * Make the batch writer assign ids the way the database would, taking them from
+     * {@code saved} in insert order.
+     */
+    private void stubBatchWrite(List<SMSTransaction> saved) {
+        lenient().doAnswer(invocation -> {
+            List<SMSTransaction> transactions = invocation.getArgument(0);
+            for (int i = 0; i < Math.min(transactions.size(), saved.size()); i++) {
+                transactions.get(i).setId(saved.get(i).getId());
+            }
+            return null;
+        }).when(batchWriter).write(anyList(), anyList(), anyList(), anyList(), anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Income> writtenIncomes() {
+        ArgumentCaptor<List<Income>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, atLeast(0)).write(anyList(), captor.capture(), anyList(), anyList(), anyList());
+        List<Income> incomes = new ArrayList<>();
+        captor.getAllValues().forEach(incomes::addAll);
+        return incomes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Expense> writtenExpenses() {
+        ArgumentCaptor<List<Expense>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, atLeast(0)).write(anyList(), anyList(), anyList(), captor.capture(), anyList());
+        List<Expense> expenses = new ArrayList<>();
+        captor.getAllValues().forEach(expenses::addAll);
+        return expenses;
+    }
+
     private ParsedSMSData createParsedData(
             BigDecimal amount,
             LocalDate date,
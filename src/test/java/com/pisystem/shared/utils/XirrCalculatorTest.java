@@ -0,0 +1,86 @@
+package com.pisystem.shared.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pisystem.shared.utils.XirrCalculator.CashFlow;
+
+/**
+ * Tests for XirrCalculator: known XIRR values, series Newton cannot solve from the
+ * default guess, unsolvable series, and that a warm-started, incrementally built
+ * series with a terminal flow matches a one-shot calculation.
+ */
+class XirrCalculatorTest {
+
+    @Test
+    void calculate_MatchesSpreadsheetXirr() {
+        // Example from the spreadsheet XIRR documentation: 0.373362535
+        List<CashFlow> flows = List.of(
+                new CashFlow(LocalDate.of(2008, 1, 1), -10000),
+                new CashFlow(LocalDate.of(2008, 3, 1), 2750),
+                new CashFlow(LocalDate.of(2008, 10, 30), 4250),
+                new CashFlow(LocalDate.of(2009, 2, 15), 3250),
+                new CashFlow(LocalDate.of(2009, 4, 1), 2750));
+
+        assertEquals(37.3362535, XirrCalculator.calculate(flows), 1e-6);
+    }
+
+    @Test
+    void calculate_SolvesLossesAndExtremeGains() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+
+        // Half the money lost over exactly one year
+        assertEquals(-50.0, XirrCalculator.calculate(List.of(
+                new CashFlow(start, -1000),
+                new CashFlow(start.plusDays(365), 500))), 1e-8);
+
+        // 4x in 30 days: far from the default guess, where Newton overshoots
+        double expected = Math.pow(4, 365.0 / 30) - 1;
+        double rate = XirrCalculator.calculate(List.of(
+                new CashFlow(start, -1500),
+                new CashFlow(start.plusDays(30), 6000))) / 100;
+        assertEquals(expected, rate, expected * 1e-8);
+    }
+
+    @Test
+    void calculate_ReturnsNaNWhenNoRateSolvesTheSeries() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+
+        assertTrue(Double.isNaN(XirrCalculator.calculate(List.of(
+                new CashFlow(start, 500),
+                new CashFlow(start.plusDays(90), 120)))));
+        assertEquals(0.0, XirrCalculator.calculate(List.of(new CashFlow(start, -500))));
+    }
+
+    @Test
+    void series_AppendedWithTerminalFlow_MatchesOneShotCalculation() {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<CashFlow> flows = new ArrayList<>();
+        XirrCalculator.Series series = new XirrCalculator.Series(2);
+        for (int i = 0; i < 500; i++) {
+            double amount = i % 5 == 4 ? 900 + i : -(1000 + 3 * i);
+            flows.add(new CashFlow(start.plusDays(3L * i), amount));
+            series.add(start.plusDays(3L * i), amount);
+        }
+        LocalDate today = start.plusDays(2000);
+        double exitValue = 600_000;
+
+        List<CashFlow> withExit = new ArrayList<>(flows);
+        withExit.add(new CashFlow(today, exitValue));
+        double expected = XirrCalculator.calculate(withExit) / 100;
+
+        double cold = series.solveWithTerminal(today, exitValue, XirrCalculator.DEFAULT_GUESS);
+        double warm = series.solveWithTerminal(today, exitValue, cold + 0.001);
+        double invalidGuess = series.solveWithTerminal(today, exitValue, Double.NaN);
+
+        assertEquals(500, series.size());
+        assertEquals(expected, cold, 1e-9);
+        assertEquals(expected, warm, 1e-9);
+        assertEquals(expected, invalidGuess, 1e-9);
+    }
+}
@@ -0,0 +1,181 @@
+package com.tax.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.pisystem.modules.stocks.data.Stock;
+import com.pisystem.modules.stocks.repo.PortfolioLotMatchRepository;
+import com.pisystem.modules.stocks.repo.PortfolioTransactionRepository;
+import com.pisystem.modules.stocks.repo.StockRepository;
+import com.pisystem.modules.stocks.service.PortfolioLotService;
+import com.pisystem.modules.tax.data.CapitalGainsTransaction;
+import com.pisystem.modules.tax.dto.CapitalGainsPopulationDTO;
+import com.pisystem.modules.tax.repo.CapitalGainsBatchWriter;
+import com.pisystem.modules.tax.repo.CapitalGainsRepository;
+import com.pisystem.modules.tax.repo.TDSRepository;
+import com.pisystem.modules.tax.repo.TaxSavingRepository;
+import com.pisystem.modules.tax.service.TaxAutoPopulationServiceImpl;
+import com.pisystem.modules.tax.service.TaxServiceImpl;
+import com.pisystem.shared.security.AuthenticationHelper;
+
+/**
+ * Tests for capital gains generation from the portfolio lot ledger: STCG/LTCG
+ * rows per lot match, replacement of earlier generated rows, keyset paging,
+ * access checks and financial year validation.
+ */
+@ExtendWith(MockitoExtension.class)
+class TaxAutoPopulationServiceImplTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String FY = "2024-25";
+    private static final LocalDate FY_START = LocalDate.of(2024, 4, 1);
+    private static final LocalDate FY_END = LocalDate.of(2025, 3, 31);
+
+    @Mock
+    private CapitalGainsRepository capitalGainsRepository;
+
+    @Mock
+    private TaxSavingRepository taxSavingRepository;
+
+    @Mock
+    private TDSRepository tdsRepository;
+
+    @Mock
+    private CapitalGainsBatchWriter batchWriter;
+
+    @Mock
+    private PortfolioLotService lotService;
+
+    @Mock
+    private PortfolioLotMatchRepository lotMatchRepository;
+
+    @Mock
+    private PortfolioTransactionRepository portfolioTransactionRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private AuthenticationHelper authenticationHelper;
+
+    private TaxAutoPopulationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // calculateCapitalGains is pure; the repositories it is built with are not used
+        TaxServiceImpl taxService = new TaxServiceImpl(null, null, null, null, null);
+        service = new TaxAutoPopulationServiceImpl(capitalGainsRepository, taxSavingRepository, tdsRepository,
+                batchWriter, taxService, lotService, lotMatchRepository, portfolioTransactionRepository,
+                stockRepository, authenticationHelper);
+    }
+
+    @Test
+    void autoPopulateCapitalGains_WritesOneClassifiedRowPerLotMatch() {
+        when(portfolioTransactionRepository.findSymbolsSoldBetween(USER_ID, FY_START, FY_END))
+                .thenReturn(List.of("INFY"));
+        when(capitalGainsRepository.deleteAutoPopulated(USER_ID, FY)).thenReturn(2);
+        when(lotMatchRepository.findSoldBetweenAfter(eq(USER_ID), eq(FY_START), eq(FY_END),
+                eq(FY_START.minusDays(1)), eq(0L), any())).thenReturn(List.of(
+                        match(11L, LocalDate.of(2023, 1, 10), LocalDate.of(2024, 6, 1), 10, "1000.5", "2000"),
+                        match(12L, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 7, 1), 3, "300", "360")));
+        Stock infosys = new Stock();
+        infosys.setSymbol("INFY");
+        infosys.setCompanyName("Infosys Ltd");
+        when(stockRepository.findBySymbolIn(List.of("INFY"))).thenReturn(List.of(infosys));
+
+        CapitalGainsPopulationDTO summary = service.autoPopulateCapitalGains(USER_ID, FY);
+
+        List<CapitalGainsTransaction> rows = insertedRows();
+        assertEquals(2, rows.size());
+        CapitalGainsTransaction longTerm = rows.get(0);
+        assertEquals("LTCG", longTerm.getGainType());
+        assertEquals("Infosys Ltd", longTerm.getAssetName());
+        assertEquals(508, longTerm.getHoldingPeriodDays());
+        assertEquals(new BigDecimal("100.05"), longTerm.getPurchasePrice());
+        assertEquals(new BigDecimal("1000.50"), longTerm.getPurchaseValue());
+        assertEquals(new BigDecimal("999.50"), longTerm.getCapitalGain());
+        assertEquals(new BigDecimal("0.00"), longTerm.getTaxAmount());
+        assertEquals(11L, longTerm.getLotMatchId());
+
+        CapitalGainsTransaction shortTerm = rows.get(1);
+        assertEquals("STCG", shortTerm.getGainType());
+        assertEquals(new BigDecimal("60.00"), shortTerm.getCapitalGain());
+        assertEquals(new BigDecimal("9.00"), shortTerm.getTaxAmount());
+        assertEquals(FY, shortTerm.getFinancialYear());
+
+        assertEquals(2, summary.getTransactionsCreated());
+        assertEquals(2, summary.getTransactionsReplaced());
+        assertEquals(new BigDecimal("999.50"), summary.getLongTermGain());
+        assertEquals(new BigDecimal("60.00"), summary.getShortTermGain());
+        assertEquals(new BigDecimal("9.00"), summary.getTaxAmount());
+        verify(lotService).ensureBuilt(USER_ID, "INFY");
+        verify(lotMatchRepository, times(1)).findSoldBetweenAfter(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void autoPopulateCapitalGains_PagesThroughMatchesByKeyset() {
+        List<PortfolioLotMatchRepository.MatchRow> fullPage = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            fullPage.add(match(id, LocalDate.of(2024, 4, 2), LocalDate.of(2024, 9, 2), 1, "100", "110"));
+        }
+        when(lotMatchRepository.findSoldBetweenAfter(eq(USER_ID), eq(FY_START), eq(FY_END),
+                eq(FY_START.minusDays(1)), eq(0L), any())).thenReturn(fullPage);
+        when(lotMatchRepository.findSoldBetweenAfter(eq(USER_ID), eq(FY_START), eq(FY_END),
+                eq(LocalDate.of(2024, 9, 2)), eq(1000L), any())).thenReturn(List.of());
+
+        CapitalGainsPopulationDTO summary = service.autoPopulateCapitalGains(USER_ID, FY);
+
+        assertEquals(1000, summary.getTransactionsCreated());
+        assertEquals("INFY", insertedRows().get(0).getAssetName());
+    }
+
+    @Test
+    void autoPopulateCapitalGains_OtherUser_IsRejected() {
+        doThrow(new AccessDeniedException("Access denied")).when(authenticationHelper).validateUserAccess(2L);
+
+        assertThrows(AccessDeniedException.class, () -> service.autoPopulateCapitalGains(2L, FY));
+        verifyNoInteractions(capitalGainsRepository, lotMatchRepository, batchWriter, lotService,
+                portfolioTransactionRepository);
+    }
+
+    @Test
+    void autoPopulateCapitalGains_RejectsMalformedFinancialYear() {
+        assertThrows(IllegalArgumentException.class, () -> service.autoPopulateCapitalGains(USER_ID, "FY25"));
+        verifyNoInteractions(capitalGainsRepository, lotMatchRepository, batchWriter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CapitalGainsTransaction> insertedRows() {
+        ArgumentCaptor<List<CapitalGainsTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, times(1)).insert(captor.capture());
+        return captor.getValue();
+    }
+
+    private static PortfolioLotMatchRepository.MatchRow match(Long id, LocalDate acquired, LocalDate sold,
+            int quantity, String cost, String proceeds) {
+        return new PortfolioLotMatchRepository.MatchRow() {
+            public Long getId() { return id; }
+            public String getSymbol() { return "INFY"; }
+            public Long getSellTransactionId() { return 100L + id; }
+            public LocalDate getAcquiredDate() { return acquired; }
+            public LocalDate getSellDate() { return sold; }
+            public Integer getQuantity() { return quantity; }
+            public BigDecimal getCostBasis() { return new BigDecimal(cost); }
+            public BigDecimal getProceeds() { return new BigDecimal(proceeds); }
+        };
+    }
+}